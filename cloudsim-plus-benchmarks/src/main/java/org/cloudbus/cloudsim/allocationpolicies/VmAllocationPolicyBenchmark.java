@@ -0,0 +1,135 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.allocationpolicies;
+
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.hosts.HostSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.resources.Pe;
+import org.cloudbus.cloudsim.resources.PeSimple;
+import org.cloudbus.cloudsim.schedulers.vm.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudbus.cloudsim.vms.VmSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A set of benchmarks comparing the time to find a Host for a VM
+ * using the regular {@link VmAllocationPolicy} implementations,
+ * which check every Host, and the ones extending {@link VmAllocationPolicyIndexedAbstract}.
+ *
+ * <p>The Hosts are filled with VMs until about half of them
+ * are fully used, then the benchmarks look for a Host to place a new VM,
+ * without actually allocating it.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class VmAllocationPolicyBenchmark {
+    private static final int HOST_PES = 8;
+    private static final int HOST_MIPS = 1000;
+    private static final long HOST_RAM = 32768;
+    private static final long HOST_BW = 100000;
+    private static final long HOST_STORAGE = 1000000;
+
+    @Param({"100", "1000"})
+    private int hosts;
+
+    @Param({
+        "VmAllocationPolicyFirstFit", "VmAllocationPolicyIndexedFirstFit",
+        "VmAllocationPolicyBestFit", "VmAllocationPolicyIndexedBestFit",
+        "VmAllocationPolicySimple", "VmAllocationPolicyIndexedSimple"})
+    private String policyType;
+
+    private VmAllocationPolicy policy;
+    private Vm vm;
+
+    @Setup(Level.Trial)
+    public void doSetup() {
+        final CloudSim simulation = new CloudSim();
+        policy = newPolicy();
+        final List<Host> hostList = new ArrayList<>(hosts);
+        for (int i = 0; i < hosts; i++) {
+            hostList.add(createHost());
+        }
+
+        new DatacenterSimple(simulation, hostList, policy);
+        final DatacenterBrokerSimple broker = new DatacenterBrokerSimple(simulation);
+
+        final Random random = new Random(1);
+        final int vmsToCreate = hosts * HOST_PES / 2;
+        for (int i = 0; i < vmsToCreate; i++) {
+            final Vm vm = new VmSimple(i, HOST_MIPS, 1 + random.nextInt(2))
+                .setRam(1024).setBw(1000).setSize(1000);
+            vm.setBroker(broker);
+            policy.allocateHostForVm(vm);
+        }
+
+        vm = new VmSimple(vmsToCreate, HOST_MIPS, HOST_PES).setRam(1024).setBw(1000).setSize(1000);
+        vm.setBroker(broker);
+    }
+
+    private VmAllocationPolicy newPolicy() {
+        switch (policyType) {
+            case "VmAllocationPolicyFirstFit": return new VmAllocationPolicyFirstFit();
+            case "VmAllocationPolicyIndexedFirstFit": return new VmAllocationPolicyIndexedFirstFit();
+            case "VmAllocationPolicyBestFit": return new VmAllocationPolicyBestFit();
+            case "VmAllocationPolicyIndexedBestFit": return new VmAllocationPolicyIndexedBestFit();
+            case "VmAllocationPolicySimple": return new VmAllocationPolicySimple();
+            default: return new VmAllocationPolicyIndexedSimple();
+        }
+    }
+
+    private Host createHost() {
+        final List<Pe> peList = new ArrayList<>(HOST_PES);
+        for (int i = 0; i < HOST_PES; i++) {
+            peList.add(new PeSimple(HOST_MIPS, new PeProvisionerSimple()));
+        }
+
+        return new HostSimple(HOST_RAM, HOST_BW, HOST_STORAGE, peList).setVmScheduler(new VmSchedulerTimeShared());
+    }
+
+    @Benchmark
+    public Optional<Host> testFindHostForVm() {
+        return policy.findHostForVm(vm);
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * A set of benchmarks to assess performance of the
+ * {@link org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicy} implementations.
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+package org.cloudbus.cloudsim.allocationpolicies;
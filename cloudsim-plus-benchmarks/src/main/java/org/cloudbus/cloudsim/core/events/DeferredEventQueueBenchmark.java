@@ -0,0 +1,118 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.core.events;
+
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * A set of benchmarks comparing {@link DeferredEventQueue} implementations,
+ * namely the default {@link DeferredQueue} and the {@link IndexedDeferredQueue},
+ * in a scenario with lots of brokers having events waiting to be processed.
+ *
+ * <p>Each operation simulates a broker getting its next event,
+ * as done by {@link org.cloudbus.cloudsim.core.CloudSimEntity#getNextEvent(Predicate)}:
+ * it counts the events waiting for the broker, then selects and removes the first one.
+ * The removed event is added back to keep the queue size constant.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DeferredEventQueueBenchmark {
+    private static final int EVENTS_PER_BROKER = 10;
+
+    private static final int[] TAGS = {
+        CloudSimTags.VM_CREATE_ACK, CloudSimTags.CLOUDLET_RETURN, CloudSimTags.CLOUDLET_SUBMIT_ACK
+    };
+
+    @Param({"100", "1000", "10000"})
+    private int brokers;
+
+    @Param({"DeferredQueue", "IndexedDeferredQueue"})
+    private String queueType;
+
+    private DeferredEventQueue queue;
+    private List<SimEntity> brokerList;
+    private Random random;
+    private Predicate<SimEvent> tagPredicate;
+
+    @Setup(Level.Trial)
+    public void doSetup() {
+        final CloudSim simulation = new CloudSim();
+        random = new Random(1);
+        tagPredicate = new PredicateType(CloudSimTags.CLOUDLET_RETURN);
+        queue = "IndexedDeferredQueue".equals(queueType) ? new IndexedDeferredQueue() : new DeferredQueue();
+        brokerList = new ArrayList<>(brokers);
+        for (int i = 0; i < brokers; i++) {
+            brokerList.add(new DatacenterBrokerSimple(simulation));
+        }
+
+        for (int i = 0; i < brokers * EVENTS_PER_BROKER; i++) {
+            final SimEntity broker = brokerList.get(i % brokers);
+            queue.addEvent(new CloudSimEvent(0, broker, TAGS[random.nextInt(TAGS.length)], null));
+        }
+    }
+
+    private SimEvent selectAndAddBack(final Predicate<SimEvent> predicate) {
+        final SimEntity broker = brokerList.get(random.nextInt(brokers));
+        if(queue.count(broker, predicate) == 0) {
+            return SimEvent.NULL;
+        }
+
+        final SimEvent evt = queue.findFirst(broker, predicate);
+        queue.remove(evt);
+        queue.addEvent(evt);
+        return evt;
+    }
+
+    @Benchmark
+    public SimEvent testSelectAnyEvent() {
+        return selectAndAddBack(Simulation.ANY_EVT);
+    }
+
+    @Benchmark
+    public SimEvent testSelectEventByTag() {
+        return selectAndAddBack(tagPredicate);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.core.events;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A set of benchmarks comparing {@link FutureEventQueue} implementations,
+ * namely the default {@link FutureQueue} and the {@link CalendarQueue}.
+ *
+ * <p>It uses the classic "hold" model: the queue is filled with a given
+ * number of pending events and each operation removes the first event,
+ * then adds a new one at a random time after the removed event,
+ * keeping the queue size constant, as happens in a running simulation.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class FutureEventQueueBenchmark {
+    /**
+     * The mean delay of events, which is close to
+     * the usual scheduling interval of Datacenters.
+     */
+    private static final double MEAN_DELAY = 10;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int pendingEvents;
+
+    @Param({"FutureQueue", "CalendarQueue"})
+    private String queueType;
+
+    private FutureEventQueue queue;
+    private SimEntity entity;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void doSetup() {
+        entity = new CloudSim().getCloudInfoService();
+        random = new Random(1);
+        queue = "CalendarQueue".equals(queueType) ? new CalendarQueue() : new FutureQueue();
+        for (int i = 0; i < pendingEvents; i++) {
+            queue.addEvent(newEvent(0));
+        }
+    }
+
+    private SimEvent newEvent(final double baseTime) {
+        /*Rounds delays to create groups of events happening at the same time,
+        as usually happens in simulations.*/
+        final double delay = Math.round(-MEAN_DELAY * Math.log(1 - random.nextDouble()) * 10) / 10.0;
+        return new CloudSimEvent(baseTime + delay, entity, 0, null);
+    }
+
+    @Benchmark
+    public SimEvent testHold() {
+        final SimEvent first = queue.first();
+        queue.remove(first);
+        queue.addEvent(newEvent(first.getTime()));
+        return first;
+    }
+}
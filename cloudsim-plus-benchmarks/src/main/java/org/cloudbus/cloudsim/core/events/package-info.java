@@ -0,0 +1,7 @@
+/**
+ * A set of benchmarks to assess performance of the event queues
+ * used by the simulation engine.
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+package org.cloudbus.cloudsim.core.events;
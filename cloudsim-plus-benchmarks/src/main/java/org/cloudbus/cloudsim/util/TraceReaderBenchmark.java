@@ -0,0 +1,132 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A set of benchmarks comparing the time to read a trace file
+ * line by line (creating a String array for the fields of each line)
+ * and by mapping the file into memory and parsing fields directly from its bytes
+ * (see {@link TraceReaderAbstract#isMemoryMapped()}).
+ *
+ * <p>A temporary file following the SWF format is generated
+ * and the benchmarks just sum up some numeric fields of each line,
+ * so that the results only account for reading and parsing the file.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class TraceReaderBenchmark {
+    private static final int FIELDS = 18;
+
+    @Param({"100000"})
+    private int lines;
+
+    private Path file;
+
+    /**
+     * A trace reader which sums up the values of the first fields of each line.
+     */
+    private static final class FieldsSumReader extends TraceReaderAbstract {
+        private long sum;
+
+        FieldsSumReader(final String filePath, final boolean memoryMapped) throws IOException {
+            super(filePath);
+            setMemoryMapped(memoryMapped);
+        }
+
+        long sumParsedLineArrays() {
+            readFile(fields -> {
+                sum += Long.parseLong(fields[0]) + Long.parseLong(fields[1]) + Long.parseLong(fields[3]);
+                return true;
+            });
+            return sum;
+        }
+
+        long sumCursorFields() {
+            readFileFields(cursor -> {
+                sum += cursor.getLong(0) + cursor.getLong(1) + cursor.getLong(3);
+                return true;
+            });
+            return sum;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void doSetup() throws IOException {
+        file = Files.createTempFile("trace", ".swf");
+        final Random random = new Random(1);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("; A synthetic SWF trace file");
+            writer.newLine();
+            for (int i = 1; i <= lines; i++) {
+                writer.write(String.format("%8d", i));
+                for (int j = 1; j < FIELDS; j++) {
+                    writer.write(String.format(" %6d", random.nextInt(100000)));
+                }
+
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void doTearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long testBufferedReaderStringArrays() throws IOException {
+        return new FieldsSumReader(file.toString(), false).sumParsedLineArrays();
+    }
+
+    @Benchmark
+    public long testBufferedReaderCursor() throws IOException {
+        return new FieldsSumReader(file.toString(), false).sumCursorFields();
+    }
+
+    @Benchmark
+    public long testMemoryMappedCursor() throws IOException {
+        return new FieldsSumReader(file.toString(), true).sumCursorFields();
+    }
+}
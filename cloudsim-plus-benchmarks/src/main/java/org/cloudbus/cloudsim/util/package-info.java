@@ -0,0 +1,7 @@
+/**
+ * A set of benchmarks to assess performance of utility classes
+ * such as the {@link org.cloudbus.cloudsim.util.TraceReader} implementations.
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+package org.cloudbus.cloudsim.util;
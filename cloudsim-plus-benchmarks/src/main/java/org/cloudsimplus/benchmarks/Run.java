@@ -48,7 +48,7 @@ public final class Run {
      * Regex that identifies the classes with benchmarks that have to be
      * executed.
      */
-    private static final String TEST_CLASSES_REGEX = "org.cloudsimplus.*";
+    private static final String TEST_CLASSES_REGEX = "org.(cloudsimplus|cloudbus).*";
 
     /**
      * A private constructor to avoid class instantiation.
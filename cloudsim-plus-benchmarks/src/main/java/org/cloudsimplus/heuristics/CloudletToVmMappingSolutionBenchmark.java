@@ -32,6 +32,7 @@ import org.cloudbus.cloudsim.utilizationmodels.UtilizationModel;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -44,14 +45,20 @@ import org.openjdk.jmh.annotations.State;
 @BenchmarkMode({Mode.AverageTime, Mode.Throughput})
 @State(Scope.Thread)
 public class CloudletToVmMappingSolutionBenchmark {
+    /**
+     * The number of Cloudlets (and VMs) in each solution.
+     */
+    @Param({"100", "100000"})
+    private int cloudletsNumber;
+
     private CloudletToVmMappingSimulatedAnnealing heuristic;
     private CloudletToVmMappingSolution instance1;
     private CloudletToVmMappingSolution instance2;
+    private int swapIndex;
 
     @Setup
     public void doSetup() {
-        CloudletToVmMappingSimulatedAnnealing heuristic =
-            new CloudletToVmMappingSimulatedAnnealing(0, new UniformDistr(0, 1));
+        heuristic = new CloudletToVmMappingSimulatedAnnealing(0, new UniformDistr(0, 1));
         instance1 = createInstance();
         instance2 = createInstance();
         /*Call the getCost the first time without measure it
@@ -63,10 +70,10 @@ public class CloudletToVmMappingSolutionBenchmark {
     private CloudletToVmMappingSolution createInstance() {
         final CloudletToVmMappingSolution result = new CloudletToVmMappingSolution(heuristic);
         UtilizationModel um = UtilizationModel.NULL;
-        IntStream.range(0, 100).forEach(i
+        IntStream.range(0, cloudletsNumber).forEach(i
                 -> result.bindCloudletToVm(
-                        new CloudletSimple(i, 1, 1).setUtilizationModel(um),
-                        new VmSimple(i, 1000, 1))
+                        new CloudletSimple(i, 1, i % 4 + 1).setUtilizationModel(um),
+                        new VmSimple(i, 1000, 2))
         );
 
         return result;
@@ -95,4 +102,29 @@ public class CloudletToVmMappingSolutionBenchmark {
     public double testGetCostWhenSecondCall() {
         return instance2.getCost();
     }
+
+    /**
+     * Assesses the neighbor solution obtained by swapping the VMs of two Cloudlets,
+     * without creating such a neighbor.
+     *
+     * @return the cost delta of the neighbor solution
+     */
+    @Benchmark
+    public double testGetCostDeltaOfSwappingVms() {
+        swapIndex = (swapIndex + 1) % cloudletsNumber;
+        return instance1.getCostDeltaOfSwappingVms(swapIndex, cloudletsNumber - 1 - swapIndex);
+    }
+
+    /**
+     * Moves to the neighbor solution obtained by swapping the VMs of two Cloudlets,
+     * changing the solution in place.
+     *
+     * @return the cost of the changed solution
+     */
+    @Benchmark
+    public double testSwapVmsOfTwoCloudlets() {
+        swapIndex = (swapIndex + 1) % cloudletsNumber;
+        instance2.swapVmsOfTwoCloudlets(swapIndex, cloudletsNumber - 1 - swapIndex);
+        return instance2.getCost();
+    }
 }
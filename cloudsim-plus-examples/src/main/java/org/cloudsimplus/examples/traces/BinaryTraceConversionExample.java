@@ -0,0 +1,102 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.traces;
+
+import org.cloudbus.cloudsim.util.BinaryTraceFile;
+import org.cloudbus.cloudsim.util.TraceReaderAbstract;
+import org.cloudbus.cloudsim.utilizationmodels.UtilizationModelPlanetLab;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * An example showing how to convert a text trace file to the {@link BinaryTraceFile binary format},
+ * which is much faster to load and parse.
+ * The example works as a command line tool, receiving the input and output files as arguments,
+ * as shown below:
+ *
+ * <pre>
+ * BinaryTraceConversionExample [-d field_delimiter_regex] [-c] [-p] input_trace_file output_file.cstrace
+ * </pre>
+ *
+ * <p>The {@code -d} option defines the regex used to split the fields of each line
+ * (by default, any sequence of spaces) and the {@code -c} option enables
+ * the compression of the binary file.
+ * The {@code -p} option indicates the input is a PlanetLab trace file, which is
+ * {@link UtilizationModelPlanetLab#convertToBinary(String, java.nio.file.Path, boolean) converted}
+ * following the same rules used to read it.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public class BinaryTraceConversionExample {
+    /**
+     * Starts the example.
+     *
+     * @param args the delimiter and compression options, followed by the input and output files
+     * @throws IOException when the input file cannot be read or the output file cannot be written
+     */
+    public static void main(final String[] args) throws IOException {
+        String delimiter = "\\s+";
+        boolean compressed = false;
+        boolean planetLab = false;
+        int i = 0;
+        for (; i < args.length && args[i].startsWith("-"); i++) {
+            if ("-c".equals(args[i])) {
+                compressed = true;
+            } else if ("-p".equals(args[i])) {
+                planetLab = true;
+            } else if ("-d".equals(args[i]) && i + 1 < args.length) {
+                delimiter = args[++i];
+            }
+        }
+
+        if (args.length - i != 2) {
+            System.out.printf(
+                "Usage: %s [-d field_delimiter_regex] [-c] [-p] input_trace_file output_file%s%n",
+                BinaryTraceConversionExample.class.getSimpleName(), BinaryTraceFile.EXTENSION);
+            return;
+        }
+
+        if (planetLab) {
+            UtilizationModelPlanetLab.convertToBinary(args[i], Paths.get(args[i + 1]), compressed);
+        } else {
+            final TraceReaderAbstract reader = new TextTraceReader(args[i]);
+            reader.setFieldDelimiterRegex(delimiter);
+            BinaryTraceFile.convert(reader, Paths.get(args[i + 1]), compressed);
+        }
+
+        System.out.printf("%s converted to %s%n", args[i], args[i + 1]);
+    }
+
+    /**
+     * A reader for any text trace file, whose lines are just
+     * parsed into fields to be converted.
+     */
+    private static final class TextTraceReader extends TraceReaderAbstract {
+        private TextTraceReader(final String filePath) throws IOException {
+            super(filePath);
+        }
+    }
+}
@@ -72,6 +72,22 @@ public interface VmAllocationPolicy {
      */
     boolean allocateHostForVm(Vm vm, Host host);
 
+    /**
+     * Allocates hosts for a batch of VMs at once,
+     * instead of placing one VM at a time as in {@link #allocateHostForVm(Vm)}.
+     * This enables implementations to sort the VMs and pack them together into Hosts,
+     * as well as to evaluate the suitability of Hosts for multiple VMs in parallel.
+     * The VMs which couldn't be placed are not created and are returned.
+     * The batch isn't placed atomically: the VMs which could be placed
+     * are kept into their Hosts, even if other VMs in the batch couldn't be placed.
+     *
+     * @param vmList the list of VMs to allocate hosts to
+     * @param <T> the class of VMs in the list
+     * @return the list of VMs for which a host could not be allocated
+     *         (an empty list if all VMs were placed)
+     */
+    <T extends Vm> List<T> allocateHostForVmList(List<T> vmList);
+
     /**
      * Try to scale some Vm's resource vertically up or down, respectively if:
      * <ul>
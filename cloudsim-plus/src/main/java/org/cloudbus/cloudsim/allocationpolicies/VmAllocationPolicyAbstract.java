@@ -22,6 +22,7 @@ import org.slf4j.LoggerFactory;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
@@ -43,8 +44,58 @@ import static java.util.stream.Collectors.toList;
 public abstract class VmAllocationPolicyAbstract implements VmAllocationPolicy {
     private static final Logger LOGGER = LoggerFactory.getLogger(VmAllocationPolicyAbstract.class.getSimpleName());
 
+    /**
+     * A {@link Comparator} that sorts VMs in decreasing order of number of PEs,
+     * total MIPS capacity and RAM capacity, so that the largest VMs
+     * in a batch are placed first (as in First Fit Decreasing bin packing).
+     * It's the default {@link #getBatchVmComparator()}.
+     */
+    public static final Comparator<Vm> DECREASING_VM_SIZE_COMPARATOR =
+        Comparator.comparingLong(Vm::getNumberOfPes)
+            .thenComparingDouble(Vm::getTotalMipsCapacity)
+            .thenComparingLong(vm -> vm.getRam().getCapacity())
+            .reversed();
+
+    /**
+     * The minimum number of Host suitability checks (number of VMs times number of Hosts)
+     * required to evaluate Hosts for a batch of VMs in parallel.
+     * Smaller batches don't pay off the overhead of parallel execution.
+     * @see #isParallelBatchEvaluation()
+     */
+    public static final int MIN_CHECKS_FOR_PARALLEL_BATCH_EVALUATION = 4096;
+
+    /**
+     * The maximum number of Host suitability results (number of VMs times number of Hosts)
+     * kept at once when the Hosts for a batch of VMs are evaluated in parallel.
+     * The batch is evaluated in windows of VMs which don't exceed such a number,
+     * each window being placed before the next one is evaluated.
+     * @see #isParallelBatchEvaluation()
+     */
+    public static final int MAX_CHECKS_PER_BATCH_EVALUATION_WINDOW = 1 << 24;
+
     private BiFunction<VmAllocationPolicy, Vm, Optional<Host>> findHostForVmFunction;
 
+    /**
+     * Indicates if the {@link #findHostForVmFunction} is the default one,
+     * given by the {@link #findHostForVm(Vm)} method.
+     */
+    private boolean defaultFindHostForVmFunction;
+
+    /**
+     * @see #getBatchVmComparator()
+     */
+    private Comparator<Vm> batchVmComparator;
+
+    /**
+     * @see #isParallelBatchEvaluation()
+     */
+    private boolean parallelBatchEvaluation;
+
+    /**
+     * @see #MAX_CHECKS_PER_BATCH_EVALUATION_WINDOW
+     */
+    private long maxChecksPerBatchEvaluationWindow = MAX_CHECKS_PER_BATCH_EVALUATION_WINDOW;
+
     /**
      * @see #getDatacenter()
      */
@@ -81,6 +132,7 @@ public abstract class VmAllocationPolicyAbstract implements VmAllocationPolicy {
     public VmAllocationPolicyAbstract(final BiFunction<VmAllocationPolicy, Vm, Optional<Host>> findHostForVmFunction) {
         setDatacenter(Datacenter.NULL);
         setFindHostForVmFunction(findHostForVmFunction);
+        this.batchVmComparator = DECREASING_VM_SIZE_COMPARATOR;
     }
 
     @Override
@@ -402,6 +454,219 @@ public abstract class VmAllocationPolicyAbstract implements VmAllocationPolicy {
         return false;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The VMs are sorted according to the {@link #getBatchVmComparator()}
+     * and then placed one after another, using the {@link VmAllocationPolicy#setFindHostForVmFunction(BiFunction) Function}
+     * which selects a Host for each VM. If {@link #isParallelBatchEvaluation() parallel batch evaluation}
+     * is enabled and the default Function is being used, the Hosts suitable for
+     * a window of VMs are found in parallel before such VMs are placed. Since placing VMs just reduces the resources
+     * available in Hosts, a Host which isn't suitable for a VM at that time will not be suitable during
+     * the rest of the batch. This way, each VM just has to be checked again against the Hosts
+     * found for it, as performed by {@link #findHostForVm(Vm, Stream)}.
+     * The suitable Hosts are stored as a {@link BitSet} of Host indexes for each VM,
+     * and the windows are limited to {@link #MAX_CHECKS_PER_BATCH_EVALUATION_WINDOW} checks,
+     * so that the memory required doesn't grow with the number of VMs times the number of Hosts.</p>
+     *
+     * <p>The batch isn't placed atomically: VMs placed before some VM
+     * fails to be placed are kept into their Hosts.</p>
+     *
+     * @param vmList {@inheritDoc}
+     * @param <T> {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public <T extends Vm> List<T> allocateHostForVmList(final List<T> vmList) {
+        if(getHostList().isEmpty()){
+            LOGGER.warn(
+                "{}: {}: {} VMs could not be allocated because there isn't any Host for Datacenter {}",
+                datacenter.getSimulation().clock(), getClass().getSimpleName(), vmList.size(), getDatacenter().getId());
+            return new ArrayList<>(vmList);
+        }
+
+        final List<T> sortedVms = new ArrayList<>(vmList);
+        sortedVms.sort(batchVmComparator);
+
+        final Set<Vm> notAllocatedVms = Collections.newSetFromMap(new IdentityHashMap<>());
+        final boolean parallelEvaluation = isParallelBatchEvaluationRequired(sortedVms.size());
+        final int windowSize = parallelEvaluation ? getBatchEvaluationWindowSize() : Math.max(1, sortedVms.size());
+        for (int start = 0; start < sortedVms.size(); start += windowSize) {
+            final List<T> window = sortedVms.subList(start, Math.min(start + windowSize, sortedVms.size()));
+            final List<BitSet> suitableHostsList =
+                parallelEvaluation ? findSuitableHostsForVmList(window) : Collections.emptyList();
+            for (int i = 0; i < window.size(); i++) {
+                final T vm = window.get(i);
+                final BitSet suitableHosts = suitableHostsList.isEmpty() ? null : suitableHostsList.get(i);
+                if (!allocateHostForVmFromBatch(vm, suitableHosts)) {
+                    notAllocatedVms.add(vm);
+                }
+            }
+        }
+
+        return vmList.stream().filter(notAllocatedVms::contains).collect(toList());
+    }
+
+    /**
+     * Allocates a Host for a VM which is part of a batch.
+     * @param vm the VM to allocate a host to
+     * @param suitableHosts the indexes of the Hosts which were suitable for the VM
+     *                      when its window of the batch was evaluated,
+     *                      or null if such Hosts were not computed
+     * @return true if the host could be allocated; false otherwise
+     * @see #allocateHostForVmList(List)
+     */
+    private boolean allocateHostForVmFromBatch(final Vm vm, final BitSet suitableHosts) {
+        if (vm.isCreated()) {
+            return false;
+        }
+
+        final Optional<Host> optional =
+            suitableHosts == null ?
+                findHostForVmFunction.apply(this, vm) :
+                findHostForVm(vm, suitableHosts.stream().mapToObj(getHostList()::get));
+        if(optional.isPresent()){
+            return allocateHostForVm(vm, optional.get());
+        }
+
+        LOGGER.warn("{}: {}: No suitable host found for {} in {}", vm.getSimulation().clock(), getClass().getSimpleName(), vm, datacenter);
+        return false;
+    }
+
+    /**
+     * Checks if the Hosts suitable for a batch of VMs have to be found in parallel.
+     * @param vmsNumber the number of VMs in the batch
+     * @return
+     * @see #isParallelBatchEvaluation()
+     */
+    private boolean isParallelBatchEvaluationRequired(final int vmsNumber) {
+        return parallelBatchEvaluation && defaultFindHostForVmFunction &&
+               (long)vmsNumber * getHostList().size() >= MIN_CHECKS_FOR_PARALLEL_BATCH_EVALUATION;
+    }
+
+    /**
+     * Gets the number of VMs of a batch whose suitable Hosts are found at once,
+     * when such Hosts are evaluated in parallel.
+     * @return
+     */
+    private int getBatchEvaluationWindowSize() {
+        return (int)Math.max(1, Math.min(Integer.MAX_VALUE, maxChecksPerBatchEvaluationWindow / getHostList().size()));
+    }
+
+    /**
+     * Sets the maximum number of Host suitability results kept at once
+     * when the Hosts for a batch of VMs are evaluated in parallel.
+     * It just enables tests to evaluate batches in multiple windows.
+     *
+     * @param maxChecksPerBatchEvaluationWindow the maximum number of checks to set
+     * @see #MAX_CHECKS_PER_BATCH_EVALUATION_WINDOW
+     */
+    /* default */ void setMaxChecksPerBatchEvaluationWindow(final long maxChecksPerBatchEvaluationWindow) {
+        this.maxChecksPerBatchEvaluationWindow = maxChecksPerBatchEvaluationWindow;
+    }
+
+    /**
+     * Finds, in parallel, the Hosts which are suitable for each VM in a window of a batch,
+     * before any of them is placed.
+     *
+     * @param vmList the VMs to find suitable Hosts for
+     * @return a List where each element has the indexes (in the {@link #getHostList()}) of the suitable Hosts
+     *         for the VM at the same position into the given VM list
+     */
+    private List<BitSet> findSuitableHostsForVmList(final List<? extends Vm> vmList) {
+        final List<Host> hosts = getHostList();
+        return vmList.parallelStream()
+                     .map(vm -> vm.isCreated() ? new BitSet(0) : findSuitableHosts(hosts, vm))
+                     .collect(toList());
+    }
+
+    private BitSet findSuitableHosts(final List<Host> hosts, final Vm vm) {
+        final BitSet suitableHosts = new BitSet(hosts.size());
+        for (int i = 0; i < hosts.size(); i++) {
+            if (hosts.get(i).isSuitableForVm(vm)) {
+                suitableHosts.set(i);
+            }
+        }
+
+        return suitableHosts;
+    }
+
+    /**
+     * Finds a host for a VM being placed by {@link #allocateHostForVmList(List)},
+     * from the Hosts which were suitable for it when its window of the batch was evaluated.
+     * Since other VMs of the batch may have been placed into such Hosts in the meantime,
+     * implementations must check if they are still suitable.
+     *
+     * <p>This method is just called if {@link #isParallelBatchEvaluation() parallel batch evaluation}
+     * is enabled. The default implementation ignores the given Hosts and calls {@link #findHostForVm(Vm)}.
+     * Subclasses should override it to select a Host from the given ones, using the same
+     * criteria of their {@link #findHostForVm(Vm)} implementation.</p>
+     *
+     * @param vm the VM to find a host for it
+     * @param suitableHosts the Hosts which were suitable for the VM when its window of the batch was evaluated,
+     *                      in the order they appear in the {@link #getHostList()}
+     * @return an {@link Optional} containing a suitable Host to place the VM or an empty {@link Optional} if no suitable Host was found
+     */
+    protected Optional<Host> findHostForVm(final Vm vm, final Stream<Host> suitableHosts) {
+        return findHostForVm(vm);
+    }
+
+    /**
+     * Gets the {@link Comparator} used to sort the VMs given to {@link #allocateHostForVmList(List)},
+     * defining the order in which they are placed.
+     * The default one is the {@link #DECREASING_VM_SIZE_COMPARATOR}.
+     * @return
+     */
+    public Comparator<Vm> getBatchVmComparator() {
+        return batchVmComparator;
+    }
+
+    /**
+     * Sets the {@link Comparator} used to sort the VMs given to {@link #allocateHostForVmList(List)},
+     * defining the order in which they are placed.
+     * Since the sorting is stable, a Comparator which considers all VMs equal,
+     * such as {@code (vm1, vm2) -> 0}, makes the VMs to be placed in the given order.
+     *
+     * @param batchVmComparator the Comparator to set
+     * @return
+     */
+    public VmAllocationPolicy setBatchVmComparator(final Comparator<Vm> batchVmComparator) {
+        this.batchVmComparator = requireNonNull(batchVmComparator);
+        return this;
+    }
+
+    /**
+     * Checks if the Hosts suitable for each VM given to {@link #allocateHostForVmList(List)}
+     * are found in parallel, before any VM is placed.
+     * Such an evaluation is just performed when the default
+     * {@link VmAllocationPolicy#setFindHostForVmFunction(BiFunction) Function to select a Host for a VM}
+     * is being used and the number of VMs times the number of Hosts is at least
+     * {@link #MIN_CHECKS_FOR_PARALLEL_BATCH_EVALUATION}.
+     * It is disabled by default.
+     *
+     * @return true if parallel evaluation of batches is enabled, false otherwise
+     * @see #findHostForVm(Vm, Stream)
+     */
+    public boolean isParallelBatchEvaluation() {
+        return parallelBatchEvaluation;
+    }
+
+    /**
+     * Enables or disables finding the Hosts suitable for each VM given to {@link #allocateHostForVmList(List)}
+     * in parallel, before any VM is placed.
+     * It requires the {@link Host#isSuitableForVm(Vm)} method to be safe to be called
+     * concurrently, as in the Host implementations provided by CloudSim Plus,
+     * since it doesn't change the Host state.
+     *
+     * @param parallelBatchEvaluation true to enable parallel evaluation of batches, false to disable
+     * @return
+     * @see #findHostForVm(Vm, Stream)
+     */
+    public VmAllocationPolicy setParallelBatchEvaluation(final boolean parallelBatchEvaluation) {
+        this.parallelBatchEvaluation = parallelBatchEvaluation;
+        return this;
+    }
+
     @Override
     public void deallocateHostForVm(final Vm vm) {
         final Host previousHost = vm.getHost();
@@ -420,6 +685,7 @@ public abstract class VmAllocationPolicyAbstract implements VmAllocationPolicy {
      */
     @Override
     public final void setFindHostForVmFunction(final BiFunction<VmAllocationPolicy, Vm, Optional<Host>> findHostForVmFunction) {
+        this.defaultFindHostForVmFunction = findHostForVmFunction == null;
         this.findHostForVmFunction = findHostForVmFunction == null ? VmAllocationPolicy::findHostForVm : findHostForVmFunction;
     }
 
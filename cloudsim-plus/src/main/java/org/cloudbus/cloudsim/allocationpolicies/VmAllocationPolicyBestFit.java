@@ -31,6 +31,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * A VmAllocationPolicy implementation that chooses, as
@@ -78,4 +79,17 @@ public class VmAllocationPolicyBestFit extends VmAllocationPolicyAbstract {
             .map(Map.Entry::getKey);
     }
 
+    /**
+     * Gets the Host from a given list which is still suitable for the VM and has the most number of used PEs.
+     * If there are multiple ones, the first one in the list is selected.
+     * @param vm {@inheritDoc}
+     * @param suitableHosts {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    protected Optional<Host> findHostForVm(final Vm vm, final Stream<Host> suitableHosts) {
+        return suitableHosts
+            .filter(host -> host.isSuitableForVm(vm))
+            .min(Comparator.comparingLong(getHostFreePesMap()::get));
+    }
 }
@@ -12,6 +12,7 @@ import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.vms.Vm;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * An <b>First Fit VM allocation policy</b>
@@ -41,4 +42,17 @@ public class VmAllocationPolicyFirstFit extends VmAllocationPolicyAbstract imple
                 .filter(host -> host.isSuitableForVm(vm))
                 .findFirst();
     }
+
+    /**
+     * Gets the first Host from a given list which is still suitable for the VM.
+     * @param vm {@inheritDoc}
+     * @param suitableHosts {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    protected Optional<Host> findHostForVm(final Vm vm, final Stream<Host> suitableHosts) {
+        return suitableHosts
+            .filter(host -> host.isSuitableForVm(vm))
+            .findFirst();
+    }
 }
@@ -0,0 +1,425 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.allocationpolicies;
+
+import org.cloudbus.cloudsim.datacenters.Datacenter;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.schedulers.vm.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudsimplus.autoscaling.VerticalVmScaling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+/**
+ * An abstract class for {@link VmAllocationPolicy} implementations which,
+ * instead of scanning the whole Host list for every VM to place,
+ * keep an index of the Hosts resources to find a suitable Host in
+ * logarithmic time (in the average case).
+ *
+ * <p>The index is a segment tree built over the positions of the Hosts into the
+ * {@link #getHostList() Host list}. Each node stores the maximum available MIPS,
+ * RAM and Bandwidth, as well as the maximum and minimum number of free PEs,
+ * among all the Hosts in the node's sub-tree.
+ * This way, entire groups of Hosts which surely don't have enough capacity for a VM
+ * are skipped at once. A Host found in the index is always confirmed by
+ * {@link Host#isSuitableForVm(Vm)}, so that the result is the same one
+ * which would be got by checking every Host.</p>
+ *
+ * <p>The index entry of a Host is updated when a VM is allocated to or deallocated from it
+ * or scaled vertically through this policy, which costs O(log H), where H is the number of Hosts.
+ * If Host resources are changed by other means, {@link #updateHostIndex(Host)} must be called
+ * to reflect such changes. Hosts added to or removed from the Datacenter
+ * make the index to be rebuilt in the next VM allocation.</p>
+ *
+ * <p><b>NOTE:</b> Hosts are just skipped based on their available MIPS when their
+ * {@link org.cloudbus.cloudsim.schedulers.vm.VmScheduler} doesn't allow over-subscription of MIPS.
+ * Hosts using a {@link VmSchedulerTimeSharedOverSubscription} (which just requires
+ * enough PEs for a VM) are considered to have unbounded MIPS.
+ * If a custom scheduler allowing over-subscription is used,
+ * {@link #isMipsOverSubscriptionAllowed(Host)} must be overridden.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public abstract class VmAllocationPolicyIndexedAbstract extends VmAllocationPolicyAbstract {
+    /**
+     * A tolerance used when comparing the available MIPS of a group of Hosts
+     * with the MIPS requested by a VM, since these values are floating-point
+     * sums which may be computed in different orders.
+     * Groups are just skipped when they surely don't have enough MIPS.
+     */
+    private static final double MIPS_TOLERANCE = 0.000001;
+
+    /**
+     * The Datacenter whose Hosts are currently indexed.
+     */
+    private Datacenter indexedDatacenter;
+
+    /**
+     * Indicates if the index must be rebuilt before the next search,
+     * because Hosts were added or removed.
+     */
+    private boolean indexOutdated;
+
+    /**
+     * The Hosts indexed, in the same order of the {@link #getHostList()}.
+     */
+    private List<Host> indexedHosts;
+
+    /**
+     * The position of each indexed Host into the {@link #indexedHosts} list.
+     */
+    private Map<Host, Integer> hostPositions;
+
+    /**
+     * The number of leaves in the index tree,
+     * which is the number of Hosts rounded up to a power of 2.
+     * The node 1 is the root, the children of the node i are the nodes 2i and 2i+1
+     * and the leaf for the Host at position p is the node leaves+p.
+     */
+    private int leaves;
+
+    private double[] maxAvailableMips;
+    private long[] maxAvailableRam;
+    private long[] maxAvailableBw;
+    private long[] maxFreePes;
+    private long[] minFreePes;
+
+    /**
+     * The best Host position found during a search and the number of free PEs of such a Host.
+     */
+    private int bestPosition;
+    private long bestFreePes;
+
+    /**
+     * Creates a VmAllocationPolicyIndexedAbstract.
+     */
+    public VmAllocationPolicyIndexedAbstract() {
+        super();
+    }
+
+    /**
+     * Creates a VmAllocationPolicyIndexedAbstract, changing the {@link BiFunction} to select a Host for a Vm.
+     * @param findHostForVmFunction a {@link BiFunction} to select a Host for a given Vm.
+     * @see VmAllocationPolicy#setFindHostForVmFunction(BiFunction)
+     */
+    public VmAllocationPolicyIndexedAbstract(final BiFunction<VmAllocationPolicy, Vm, Optional<Host>> findHostForVmFunction) {
+        super(findHostForVmFunction);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Since this method is called when Hosts are added to or removed from the Datacenter,
+     * the index is marked to be rebuilt.
+     * @param host {@inheritDoc}
+     */
+    @Override
+    public void addPesFromHost(final Host host) {
+        super.addPesFromHost(host);
+        indexOutdated = true;
+    }
+
+    @Override
+    public boolean allocateHostForVm(final Vm vm, final Host host) {
+        final boolean result = super.allocateHostForVm(vm, host);
+        updateHostIndex(host);
+        return result;
+    }
+
+    @Override
+    public void deallocateHostForVm(final Vm vm) {
+        final Host host = vm.getHost();
+        super.deallocateHostForVm(vm);
+        updateHostIndex(host);
+    }
+
+    @Override
+    public boolean scaleVmVertically(final VerticalVmScaling scaling) {
+        final Host host = scaling.getVm().getHost();
+        final boolean result = super.scaleVmVertically(scaling);
+        updateHostIndex(host);
+        return result;
+    }
+
+    /**
+     * Updates the index entry of a given Host, reading its current available resources.
+     * It must be called when the resources of a Host change
+     * without using this policy.
+     *
+     * @param host the Host to update the index entry
+     */
+    public void updateHostIndex(final Host host) {
+        if(isIndexOutdated()){
+            return;
+        }
+
+        final Integer position = hostPositions.get(host);
+        if(position == null){
+            indexOutdated = true;
+            return;
+        }
+
+        int node = leaves + position;
+        setLeaf(node, host);
+        for (node /= 2; node >= 1; node /= 2) {
+            updateInnerNode(node);
+        }
+    }
+
+    /**
+     * Finds the first Host in the {@link #getHostList()} which is suitable for a given VM.
+     * @param vm the VM to find a Host for
+     * @return an {@link Optional} containing a suitable Host to place the VM or an empty {@link Optional} if not found
+     */
+    protected final Optional<Host> findFirstFitHost(final Vm vm) {
+        buildIndexIfOutdated();
+        final VmRequest request = new VmRequest(vm);
+        return toHost(findFirstFitPosition(1, request));
+    }
+
+    /**
+     * Finds the suitable Host with the largest number of free PEs for a given VM.
+     * If there are multiple ones, the first one in the {@link #getHostList()} is selected.
+     * @param vm the VM to find a Host for
+     * @return an {@link Optional} containing a suitable Host to place the VM or an empty {@link Optional} if not found
+     */
+    protected final Optional<Host> findWorstFitHost(final Vm vm) {
+        buildIndexIfOutdated();
+        bestPosition = -1;
+        bestFreePes = Long.MIN_VALUE;
+        findWorstFitPosition(1, 0, leaves, new VmRequest(vm));
+        return toHost(bestPosition);
+    }
+
+    /**
+     * Finds the suitable Host with the smallest number of free PEs for a given VM.
+     * If there are multiple ones, the first one in the {@link #getHostList()} is selected.
+     * @param vm the VM to find a Host for
+     * @return an {@link Optional} containing a suitable Host to place the VM or an empty {@link Optional} if not found
+     */
+    protected final Optional<Host> findBestFitHost(final Vm vm) {
+        buildIndexIfOutdated();
+        bestPosition = -1;
+        bestFreePes = Long.MAX_VALUE;
+        findBestFitPosition(1, 0, leaves, new VmRequest(vm));
+        return toHost(bestPosition);
+    }
+
+    private Optional<Host> toHost(final int position) {
+        return position < 0 ? Optional.empty() : Optional.of(indexedHosts.get(position));
+    }
+
+    private int findFirstFitPosition(final int node, final VmRequest request) {
+        if(!request.fits(node)){
+            return -1;
+        }
+
+        if(node >= leaves){
+            return isSuitableHostAt(node, request) ? node - leaves : -1;
+        }
+
+        final int position = findFirstFitPosition(2*node, request);
+        return position >= 0 ? position : findFirstFitPosition(2*node+1, request);
+    }
+
+    /**
+     * Searches the sub-tree of a given node for the suitable Host with the largest number of free PEs,
+     * skipping sub-trees which cannot contain a better Host than the {@link #bestPosition best one} found so far.
+     *
+     * @param node the node to search
+     * @param start the position of the first Host covered by the node
+     * @param size the number of positions covered by the node
+     * @param request the VM request
+     */
+    private void findWorstFitPosition(final int node, final int start, final int size, final VmRequest request) {
+        if(!request.fits(node) || maxFreePes[node] < bestFreePes || (maxFreePes[node] == bestFreePes && start > bestPosition)){
+            return;
+        }
+
+        if(node >= leaves){
+            if(isSuitableHostAt(node, request)) {
+                bestPosition = start;
+                bestFreePes = maxFreePes[node];
+            }
+            return;
+        }
+
+        final int half = size/2;
+        if(maxFreePes[2*node+1] > maxFreePes[2*node]){
+            findWorstFitPosition(2*node+1, start+half, half, request);
+            findWorstFitPosition(2*node, start, half, request);
+            return;
+        }
+
+        findWorstFitPosition(2*node, start, half, request);
+        findWorstFitPosition(2*node+1, start+half, half, request);
+    }
+
+    /**
+     * Searches the sub-tree of a given node for the suitable Host with the smallest number of free PEs,
+     * skipping sub-trees which cannot contain a better Host than the {@link #bestPosition best one} found so far.
+     *
+     * @param node the node to search
+     * @param start the position of the first Host covered by the node
+     * @param size the number of positions covered by the node
+     * @param request the VM request
+     */
+    private void findBestFitPosition(final int node, final int start, final int size, final VmRequest request) {
+        if(!request.fits(node) || minFreePes[node] > bestFreePes || (minFreePes[node] == bestFreePes && start > bestPosition)){
+            return;
+        }
+
+        if(node >= leaves){
+            if(isSuitableHostAt(node, request)) {
+                bestPosition = start;
+                bestFreePes = minFreePes[node];
+            }
+            return;
+        }
+
+        final int half = size/2;
+        if(minFreePes[2*node+1] < minFreePes[2*node]){
+            findBestFitPosition(2*node+1, start+half, half, request);
+            findBestFitPosition(2*node, start, half, request);
+            return;
+        }
+
+        findBestFitPosition(2*node, start, half, request);
+        findBestFitPosition(2*node+1, start+half, half, request);
+    }
+
+    private boolean isSuitableHostAt(final int leaf, final VmRequest request) {
+        return indexedHosts.get(leaf - leaves).isSuitableForVm(request.vm);
+    }
+
+    private boolean isIndexOutdated() {
+        return indexedHosts == null || indexOutdated || indexedDatacenter != getDatacenter() || indexedHosts.size() != getHostList().size();
+    }
+
+    /**
+     * Builds the index from the current {@link #getHostList()} if it
+     * has never been built or Hosts were added or removed since the last build.
+     */
+    private void buildIndexIfOutdated() {
+        if(!isIndexOutdated()){
+            return;
+        }
+
+        indexedDatacenter = getDatacenter();
+        indexedHosts = new ArrayList<>(getHostList());
+        hostPositions = new IdentityHashMap<>(indexedHosts.size());
+        leaves = 1;
+        while(leaves < indexedHosts.size()){
+            leaves *= 2;
+        }
+
+        maxAvailableMips = new double[2*leaves];
+        maxAvailableRam = new long[2*leaves];
+        maxAvailableBw = new long[2*leaves];
+        maxFreePes = new long[2*leaves];
+        minFreePes = new long[2*leaves];
+        Arrays.fill(maxAvailableMips, Double.NEGATIVE_INFINITY);
+        Arrays.fill(maxAvailableRam, -1);
+        Arrays.fill(maxAvailableBw, -1);
+        Arrays.fill(maxFreePes, Long.MIN_VALUE);
+        Arrays.fill(minFreePes, Long.MAX_VALUE);
+
+        for (int position = 0; position < indexedHosts.size(); position++) {
+            final Host host = indexedHosts.get(position);
+            hostPositions.put(host, position);
+            setLeaf(leaves + position, host);
+        }
+
+        for (int node = leaves - 1; node >= 1; node--) {
+            updateInnerNode(node);
+        }
+
+        indexOutdated = false;
+    }
+
+    private void setLeaf(final int leaf, final Host host) {
+        final long freePes = getHostFreePesMap().getOrDefault(host, 0L);
+        maxAvailableMips[leaf] = isMipsOverSubscriptionAllowed(host) ? Double.POSITIVE_INFINITY : host.getAvailableMips();
+        maxAvailableRam[leaf] = host.getRamProvisioner().getAvailableResource();
+        maxAvailableBw[leaf] = host.getBwProvisioner().getAvailableResource();
+        maxFreePes[leaf] = freePes;
+        minFreePes[leaf] = freePes;
+    }
+
+    /**
+     * Checks if the {@link org.cloudbus.cloudsim.schedulers.vm.VmScheduler} of a Host
+     * allows placing VMs which request more MIPS than the Host has available.
+     * In such a case, the available MIPS of the Host isn't used to skip it during the search.
+     *
+     * @param host the Host to check
+     * @return true if the Host allows over-subscription of MIPS, false otherwise
+     */
+    protected boolean isMipsOverSubscriptionAllowed(final Host host) {
+        return host.getVmScheduler() instanceof VmSchedulerTimeSharedOverSubscription;
+    }
+
+    private void updateInnerNode(final int node) {
+        final int left = 2*node;
+        final int right = left + 1;
+        maxAvailableMips[node] = Math.max(maxAvailableMips[left], maxAvailableMips[right]);
+        maxAvailableRam[node] = Math.max(maxAvailableRam[left], maxAvailableRam[right]);
+        maxAvailableBw[node] = Math.max(maxAvailableBw[left], maxAvailableBw[right]);
+        maxFreePes[node] = Math.max(maxFreePes[left], maxFreePes[right]);
+        minFreePes[node] = Math.min(minFreePes[left], minFreePes[right]);
+    }
+
+    /**
+     * The resources requested by a VM being placed,
+     * which are got just once for each search.
+     */
+    private final class VmRequest {
+        private final Vm vm;
+        private final double mips;
+        private final long ram;
+        private final long bw;
+
+        private VmRequest(final Vm vm) {
+            this.vm = vm;
+            this.mips = vm.getCurrentRequestedTotalMips() - MIPS_TOLERANCE;
+            this.ram = vm.getCurrentRequestedRam();
+            this.bw = vm.getCurrentRequestedBw();
+        }
+
+        /**
+         * Checks if the Hosts covered by a given node may have enough resources for the VM.
+         * @param node the node to check
+         * @return false if no Host covered by the node is suitable for the VM,
+         *         true if some of them may be suitable
+         */
+        private boolean fits(final int node) {
+            return maxAvailableMips[node] >= mips && maxAvailableRam[node] >= ram && maxAvailableBw[node] >= bw;
+        }
+    }
+}
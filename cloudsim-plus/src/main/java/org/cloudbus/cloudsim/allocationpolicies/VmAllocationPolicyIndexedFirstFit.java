@@ -0,0 +1,71 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.allocationpolicies;
+
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.vms.Vm;
+
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+/**
+ * A VmAllocationPolicy implementation that chooses, as
+ * the host for a VM, that one with the first position into the Host list that is enough for the VM.
+ * <b>It is therefore a First Fit policy</b>, which selects the same Host as the {@link VmAllocationPolicyFirstFit},
+ * but uses an index of Hosts resources to avoid checking every Host for every VM.
+ * See {@link VmAllocationPolicyIndexedAbstract} for details.
+ *
+ * <p><b>NOTE: This policy doesn't perform optimization of VM allocation by means of VM migration.</b></p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public class VmAllocationPolicyIndexedFirstFit extends VmAllocationPolicyIndexedAbstract {
+    /**
+     * Instantiates a VmAllocationPolicyIndexedFirstFit.
+     */
+    public VmAllocationPolicyIndexedFirstFit() {
+        super();
+    }
+
+    /**
+     * Instantiates a VmAllocationPolicyIndexedFirstFit, changing the {@link BiFunction} to select a Host for a Vm
+     * in order to define a different policy.
+     *
+     * @param findHostForVmFunction a {@link BiFunction} to select a Host for a given Vm.
+     * @see VmAllocationPolicy#setFindHostForVmFunction(BiFunction)
+     */
+    public VmAllocationPolicyIndexedFirstFit(final BiFunction<VmAllocationPolicy, Vm, Optional<Host>> findHostForVmFunction) {
+        super(findHostForVmFunction);
+    }
+
+    /**
+     * Gets the first suitable host from the {@link #getHostList()}.
+     * @return an {@link Optional} containing a suitable Host to place the VM or an empty {@link Optional} if not found
+     */
+    @Override
+    public Optional<Host> findHostForVm(final Vm vm) {
+        return findFirstFitHost(vm);
+    }
+}
@@ -5,6 +5,7 @@ import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.vms.Vm;
 import org.cloudsimplus.autoscaling.VerticalVmScaling;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +33,9 @@ final class VmAllocationPolicyNull implements VmAllocationPolicy {
     @Override public boolean allocateHostForVm(Vm vm, Host host) {
         return false;
     }
+    @Override public <T extends Vm> List<T> allocateHostForVmList(List<T> vmList) {
+        return new ArrayList<>(vmList);
+    }
     @Override public void deallocateHostForVm(Vm vm) {/**/}
     @Override public Optional<Host> findHostForVm(Vm vm) { return Optional.empty(); }
     @Override public List<Host> getHostList() {
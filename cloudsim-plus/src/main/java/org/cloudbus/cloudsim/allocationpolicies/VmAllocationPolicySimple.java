@@ -15,6 +15,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * A VmAllocationPolicy implementation that chooses, as
@@ -69,4 +70,17 @@ public class VmAllocationPolicySimple extends VmAllocationPolicyAbstract {
             .map(Map.Entry::getKey);
     }
 
+    /**
+     * Gets the Host from a given list which is still suitable for the VM and has the fewest number of used PEs.
+     * If there are multiple ones, the first one in the list is selected.
+     * @param vm {@inheritDoc}
+     * @param suitableHosts {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    protected Optional<Host> findHostForVm(final Vm vm, final Stream<Host> suitableHosts) {
+        return suitableHosts
+            .filter(host -> host.isSuitableForVm(vm))
+            .max(Comparator.comparingLong(getHostFreePesMap()::get));
+    }
 }
@@ -0,0 +1,175 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.allocationpolicies.migration;
+
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A lightweight model of the resources that VMs planned to be migrated will use
+ * in each target Host, enabling a {@link VmAllocationPolicyMigrationAbstract}
+ * to evaluate candidate placements without creating temporary VMs into Hosts.
+ * Such resources are stored into primitive arrays indexed by the Host position
+ * into the Host list. These arrays are reused along the simulation
+ * while the number of Hosts doesn't change.
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ * @see VmAllocationPolicyMigrationAbstract#setShadowCapacityPlanning(boolean)
+ */
+final class HostsCapacityShadow {
+    /**
+     * The Hosts being modeled, in the same order of the Host list.
+     */
+    private List<Host> hosts;
+
+    /**
+     * The position of each Host into the {@link #hosts} list.
+     */
+    private final Map<Host, Integer> hostPositions;
+
+    private int[] plannedVms;
+    private double[] plannedMips;
+    private double[] plannedCpuMipsUsage;
+    private long[] plannedRam;
+    private long[] plannedBw;
+    private long[] plannedStorage;
+
+    HostsCapacityShadow() {
+        hosts = new ArrayList<>();
+        hostPositions = new IdentityHashMap<>();
+        reset(hosts);
+    }
+
+    /**
+     * Clears all planned VMs, getting ready to plan migrations for a given list of Hosts.
+     * @param hostList the Hosts to plan VM migrations
+     */
+    void reset(final List<Host> hostList) {
+        if(hostList.size() != hostPositions.size() || !isSameHostList(hostList)) {
+            hosts = new ArrayList<>(hostList);
+            hostPositions.clear();
+            for (int i = 0; i < hostList.size(); i++) {
+                hostPositions.put(hostList.get(i), i);
+            }
+        }
+
+        final int size = hostList.size();
+        if(plannedVms == null || plannedVms.length != size) {
+            plannedVms = new int[size];
+            plannedMips = new double[size];
+            plannedCpuMipsUsage = new double[size];
+            plannedRam = new long[size];
+            plannedBw = new long[size];
+            plannedStorage = new long[size];
+            return;
+        }
+
+        Arrays.fill(plannedVms, 0);
+        Arrays.fill(plannedMips, 0);
+        Arrays.fill(plannedCpuMipsUsage, 0);
+        Arrays.fill(plannedRam, 0);
+        Arrays.fill(plannedBw, 0);
+        Arrays.fill(plannedStorage, 0);
+    }
+
+    private boolean isSameHostList(final List<Host> hostList) {
+        for (int i = 0; i < hostList.size(); i++) {
+            if(hostList.get(i) != hosts.get(i)){
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reserves, into a given Host, the resources required by a VM planned to be migrated to it.
+     * @param host the target Host
+     * @param vm the VM planned to be migrated
+     */
+    void addVm(final Host host, final Vm vm) {
+        final int i = hostPositions.get(host);
+        plannedVms[i]++;
+        plannedMips[i] += vm.getCurrentRequestedTotalMips();
+        plannedCpuMipsUsage[i] += vm.getTotalCpuMipsUsage();
+        plannedRam[i] += vm.getCurrentRequestedRam();
+        plannedBw[i] += vm.getCurrentRequestedBw();
+        plannedStorage[i] += vm.getStorage().getCapacity();
+    }
+
+    /**
+     * Checks if a Host has enough resources for a VM, considering the resources
+     * already reserved for other VMs planned to be migrated to it.
+     * If there is no VM planned for the Host, the Host itself is checked.
+     * Otherwise, the Host must be suitable for the VM at its current state and
+     * its remaining capacity must be enough for all the planned VMs and the given one.
+     *
+     * @param host the Host to check
+     * @param vm the VM to check if the Host is suitable for
+     * @return true if the Host is suitable for the VM, false otherwise
+     */
+    boolean isSuitableForVm(final Host host, final Vm vm) {
+        if(!host.isSuitableForVm(vm)){
+            return false;
+        }
+
+        final Integer position = hostPositions.get(host);
+        if(position == null || plannedVms[position] == 0){
+            return true;
+        }
+
+        final int i = position;
+        return host.getAvailableMips() - plannedMips[i] >= vm.getCurrentRequestedTotalMips() &&
+               host.getRamProvisioner().getAvailableResource() - plannedRam[i] >= vm.getCurrentRequestedRam() &&
+               host.getBwProvisioner().getAvailableResource() - plannedBw[i] >= vm.getCurrentRequestedBw() &&
+               host.getStorage().getAvailableResource() - plannedStorage[i] >= vm.getStorage().getCapacity();
+    }
+
+    /**
+     * Gets the total MIPS requested by the VMs planned to be migrated to a Host.
+     * @param host the Host to get the requested MIPS
+     * @return
+     */
+    double getPlannedMips(final Host host) {
+        final Integer position = hostPositions.get(host);
+        return position == null ? 0 : plannedMips[position];
+    }
+
+    /**
+     * Gets the total MIPS currently used by the VMs planned to be migrated to a Host.
+     * @param host the Host to get the used MIPS
+     * @return
+     */
+    double getPlannedCpuMipsUsage(final Host host) {
+        final Integer position = hostPositions.get(host);
+        return position == null ? 0 : plannedCpuMipsUsage[position];
+    }
+}
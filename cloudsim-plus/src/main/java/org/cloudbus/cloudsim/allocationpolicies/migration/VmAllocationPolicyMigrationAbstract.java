@@ -9,9 +9,9 @@ package org.cloudbus.cloudsim.allocationpolicies.migration;
 
 import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicy;
 import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicyAbstract;
-import org.cloudbus.cloudsim.core.Simulation;
 import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.selectionpolicies.power.PowerVmSelectionPolicy;
+import org.cloudbus.cloudsim.util.HistoryBuffer;
 import org.cloudbus.cloudsim.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,17 +80,35 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
      * However, these duplicate and inconsistent data
      * are confusing and error prone.
      */
-    private final Map<Host, List<Double>> utilizationHistory;
+    private final Map<Host, HistoryBuffer> utilizationHistory;
 
     /**
      * @see #getMetricHistory()
      */
-    private final Map<Host, List<Double>> metricHistory;
+    private final Map<Host, HistoryBuffer> metricHistory;
 
     /**
-     * @see #getTimeHistory()
+     * @see #getMaxHistoryEntries()
      */
-    private final Map<Host, List<Double>> timeHistory;
+    private int maxHistoryEntries;
+
+    /**
+     * @see #isShadowCapacityPlanning()
+     */
+    private boolean shadowCapacityPlanning;
+
+    /**
+     * The resources reserved into target Hosts for VMs planned to be migrated,
+     * when {@link #isShadowCapacityPlanning() shadow capacity planning} is enabled.
+     */
+    private final HostsCapacityShadow capacityShadow;
+
+    /**
+     * The VMs temporarily removed from overloaded Hosts during migration planning,
+     * when {@link #isShadowCapacityPlanning() shadow capacity planning} is enabled.
+     * They have to be placed back into their Hosts when the planning finishes.
+     */
+    private final List<Vm> temporarilyDestroyedVms;
 
     /**
      * Creates a VmAllocationPolicyMigrationAbstract.
@@ -117,7 +135,9 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
         this.savedAllocation = new HashMap<>();
         this.utilizationHistory = new HashMap<>();
         this.metricHistory = new HashMap<>();
-        this.timeHistory = new HashMap<>();
+        this.maxHistoryEntries = Integer.MAX_VALUE;
+        this.capacityShadow = new HostsCapacityShadow();
+        this.temporarilyDestroyedVms = new ArrayList<>();
         setVmSelectionPolicy(vmSelectionPolicy);
     }
 
@@ -126,14 +146,60 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
         //@todo See https://github.com/manoelcampos/cloudsim-plus/issues/94
         final Set<Host> overloadedHosts = getOverloadedHosts();
         printOverUtilizedHosts(overloadedHosts);
-        saveAllocation();
+        if(shadowCapacityPlanning) {
+            capacityShadow.reset(getHostList());
+        } else {
+            saveAllocation();
+        }
 
         final Map<Vm, Host> migrationMap = getMigrationMapFromOverloadedHosts(overloadedHosts);
         updateMigrationMapFromUnderloadedHosts(overloadedHosts, migrationMap);
-        restoreAllocation();
+        if(shadowCapacityPlanning) {
+            restoreTemporarilyDestroyedVms();
+        } else {
+            restoreAllocation();
+        }
+
         return migrationMap;
     }
 
+    /**
+     * Checks if the migration of VMs is planned using a lightweight model of the
+     * capacity of target Hosts, instead of temporarily creating VMs into them.
+     *
+     * <p>When it's disabled (the default), every VM planned to be migrated is temporarily created into the target Host
+     * and, at the end of the planning, all VMs from all Hosts are destroyed and created again to restore
+     * the original placement. When it's enabled, the resources of VMs planned to be migrated
+     * are just reserved into primitive arrays and only the VMs temporarily removed from overloaded Hosts
+     * (to select which VMs to migrate) are placed back at the end.
+     * That avoids creating and destroying lots of objects at every
+     * scheduling interval in large Datacenters.</p>
+     *
+     * <p>The suitability of a target Host for a VM is then computed from the
+     * resources available at the Host and the ones reserved for planned VMs.
+     * It doesn't consider how planned VMs would be assigned to specific PEs,
+     * so that a Host using a {@link org.cloudbus.cloudsim.schedulers.vm.VmSchedulerSpaceShared}
+     * may be selected when its PEs are fragmented.</p>
+     *
+     * @return true if shadow capacity planning is enabled, false otherwise
+     */
+    public boolean isShadowCapacityPlanning() {
+        return shadowCapacityPlanning;
+    }
+
+    /**
+     * Enables or disables planning the migration of VMs using a lightweight model of the
+     * capacity of target Hosts, instead of temporarily creating VMs into them.
+     *
+     * @param shadowCapacityPlanning true to enable shadow capacity planning, false to disable
+     * @return
+     * @see #isShadowCapacityPlanning()
+     */
+    public VmAllocationPolicyMigrationAbstract setShadowCapacityPlanning(final boolean shadowCapacityPlanning) {
+        this.shadowCapacityPlanning = shadowCapacityPlanning;
+        return this;
+    }
+
     /**
      * Updates the  map of VMs that will be migrated from under utilized hosts.
      *
@@ -237,12 +303,44 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
     protected double getPowerAfterAllocationDifference(final Host host, final Vm vm){
         final double powerAfterAllocation = getPowerAfterAllocation(host, vm);
         if (powerAfterAllocation > 0) {
-            return powerAfterAllocation - host.getPowerModel().getPower();
+            return powerAfterAllocation - getHostPower(host);
         }
 
         return 0;
     }
 
+    /**
+     * Gets the current power consumption of a Host, including the VMs planned to be migrated to it
+     * if {@link #isShadowCapacityPlanning() shadow capacity planning} is enabled.
+     *
+     * @param host the Host to get the power consumption
+     * @return the Host power consumption
+     */
+    private double getHostPower(final Host host) {
+        if(!shadowCapacityPlanning) {
+            return host.getPowerModel().getPower();
+        }
+
+        final double utilization = getHostUtilizationOfCpuMips(host) / host.getTotalMipsCapacity();
+        return host.getPowerModel().getPower(utilization > 1 && utilization < 1.01 ? 1 : utilization);
+    }
+
+    /**
+     * Gets the MIPS currently used by all VMs in a Host, including the VMs planned to be migrated to it
+     * if {@link #isShadowCapacityPlanning() shadow capacity planning} is enabled.
+     *
+     * @param host the Host to get the used MIPS
+     * @return the used MIPS
+     * @see Host#getUtilizationOfCpuMips()
+     */
+    protected double getHostUtilizationOfCpuMips(final Host host) {
+        if(shadowCapacityPlanning) {
+            return host.getUtilizationOfCpuMips() + capacityShadow.getPlannedCpuMipsUsage(host);
+        }
+
+        return host.getUtilizationOfCpuMips();
+    }
+
     /**
      * Checks if a host will be over utilized after placing of a candidate VM.
      *
@@ -252,6 +350,11 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
      *         false otherwise
      */
     private boolean isNotHostOverloadedAfterAllocation(final Host host, final Vm vm) {
+        if(shadowCapacityPlanning) {
+            final double usagePercent = (getHostTotalRequestedMips(host) + vm.getCurrentRequestedTotalMips()) / host.getTotalMipsCapacity();
+            return !isHostOverloaded(host, usagePercent);
+        }
+
         if (!host.createTemporaryVm(vm)) {
             return false;
         }
@@ -354,13 +457,25 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
     public Optional<Host> findHostForVm(final Vm vm, final Set<? extends Host> excludedHosts, final Predicate<Host> predicate) {
         final Stream<Host> stream = this.getHostList().stream()
             .filter(host -> !excludedHosts.contains(host))
-            .filter(host -> host.isSuitableForVm(vm))
+            .filter(host -> isSuitableForVm(host, vm))
             .filter(host -> isNotHostOverloadedAfterAllocation(host, vm))
             .filter(predicate);
 
         return findHostForVmInternal(vm, stream);
     }
 
+    /**
+     * Checks if a Host has enough resources to place a VM, also considering the VMs planned
+     * to be migrated to it if {@link #isShadowCapacityPlanning() shadow capacity planning} is enabled.
+     *
+     * @param host the Host to check
+     * @param vm the VM to check if the Host is suitable for
+     * @return true if the Host is suitable for the VM, false otherwise
+     */
+    private boolean isSuitableForVm(final Host host, final Vm vm) {
+        return shadowCapacityPlanning ? capacityShadow.isSuitableForVm(host, vm) : host.isSuitableForVm(vm);
+    }
+
     /**
      * Applies additional filters to the Hosts Stream and performs the actual Host selection.
      * This method is a Stream's final operation, that it, it closes the Stream and returns an {@link Optional} value.
@@ -486,13 +601,18 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
 
     private <T extends Host> void addVmToMigrationMap(final Map<Vm, T> migrationMap, final Vm vm, final T targetHost) {
         /*
-        Temporarily creates the VM into the target Host so that
+        Temporarily creates the VM into the target Host (or just reserves its resources
+        when using shadow capacity planning) so that
         when the next VM is got to be migrated, if the same Host
         is selected as destination, the resource to be
         used by the previous VM will be considered when
         assessing the suitability of such a Host for the next VM.
          */
-        targetHost.createTemporaryVm(vm);
+        if(shadowCapacityPlanning) {
+            capacityShadow.addVm(targetHost, vm);
+        } else {
+            targetHost.createTemporaryVm(vm);
+        }
         migrationMap.put(vm, targetHost);
     }
 
@@ -522,6 +642,10 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
             /*Temporarily destroys the selected VM into the overloaded Host so that
             the loop gets VMs from such a Host until it is not overloaded anymore.*/
             host.destroyTemporaryVm(vm);
+            if(shadowCapacityPlanning) {
+                temporarilyDestroyedVms.add(vm);
+            }
+
             if (!isHostOverloaded(host)) {
                 break;
             }
@@ -603,9 +727,10 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
      * @return
      */
     private double getHostTotalRequestedMips(final Host host) {
-        return host.getVmList().stream()
+        final double requestedMips = host.getVmList().stream()
             .mapToDouble(Vm::getCurrentRequestedTotalMips)
             .sum();
+        return shadowCapacityPlanning ? requestedMips + capacityShadow.getPlannedMips(host) : requestedMips;
     }
 
     /**
@@ -656,6 +781,23 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
         }
     }
 
+    /**
+     * Places back the VMs temporarily removed from overloaded Hosts
+     * during a migration planning using {@link #isShadowCapacityPlanning() shadow capacity planning}.
+     * VMs are placed back in the reverse order they were removed.
+     */
+    private void restoreTemporarilyDestroyedVms() {
+        for (int i = temporarilyDestroyedVms.size() - 1; i >= 0; i--) {
+            final Vm vm = temporarilyDestroyedVms.get(i);
+            if (!vm.getHost().createTemporaryVm(vm)) {
+                LOGGER.error("Couldn't restore {} on {}", vm, vm.getHost());
+            }
+            vm.setCreated(true);
+        }
+
+        temporarilyDestroyedVms.clear();
+    }
+
     /**
      * Gets the power consumption of a host after the supposed placement of a candidate VM.
      * The VM is not in fact placed at the host.
@@ -688,7 +830,7 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
      */
     protected double getMaxUtilizationAfterAllocation(final Host host, final Vm vm) {
         final double requestedTotalMips = vm.getCurrentRequestedTotalMips();
-        final double hostUtilizationMips = getUtilizationOfCpuMips(host);
+        final double hostUtilizationMips = getUtilizationOfCpuMips(host) + (shadowCapacityPlanning ? capacityShadow.getPlannedMips(host) : 0);
         final double hostPotentialMipsUse = hostUtilizationMips + requestedTotalMips;
         return hostPotentialMipsUse / host.getTotalMipsCapacity();
     }
@@ -721,18 +863,51 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
      * @param metric the metric to be added to the metric history map
      */
     protected void addHistoryEntryIfAbsent(final Host host, final double metric) {
-        timeHistory.putIfAbsent(host, new LinkedList<>());
-        utilizationHistory.putIfAbsent(host, new LinkedList<>());
-        metricHistory.putIfAbsent(host, new LinkedList<>());
-
-        final Simulation simulation = host.getSimulation();
-        if (!timeHistory.get(host).contains(simulation.clock())) {
-            timeHistory.get(host).add(simulation.clock());
-            utilizationHistory.get(host).add(host.getUtilizationOfCpu());
-            metricHistory.get(host).add(metric);
+        final HistoryBuffer hostUtilizationHistory =
+            utilizationHistory.computeIfAbsent(host, h -> new HistoryBuffer(maxHistoryEntries));
+        final HistoryBuffer hostMetricHistory =
+            metricHistory.computeIfAbsent(host, h -> new HistoryBuffer(maxHistoryEntries));
+
+        final double time = host.getSimulation().clock();
+        if (hostUtilizationHistory.indexOf(time) < 0) {
+            hostUtilizationHistory.add(time, host.getUtilizationOfCpu());
+            hostMetricHistory.add(time, metric);
         }
     }
 
+    /**
+     * Gets the maximum number of entries to store in the
+     * {@link #getUtilizationHistory() utilization} and {@link #getMetricHistory() metric}
+     * history of each Host.
+     *
+     * @return
+     */
+    public int getMaxHistoryEntries() {
+        return maxHistoryEntries;
+    }
+
+    /**
+     * Sets the maximum number of entries to store in the
+     * {@link #getUtilizationHistory() utilization} and {@link #getMetricHistory() metric}
+     * history of each Host. When such a number is reached,
+     * the oldest entry is discarded to store a new one.
+     * The default value is {@link Integer#MAX_VALUE}, which makes all entries to be stored.
+     * Reducing this value bounds the memory used by long-running simulations.
+     *
+     * @param maxHistoryEntries the maximum number of entries to set
+     * @return
+     */
+    public VmAllocationPolicyMigrationAbstract setMaxHistoryEntries(final int maxHistoryEntries) {
+        if(maxHistoryEntries <= 0){
+            throw new IllegalArgumentException("Maximum number of history entries must be greater than zero.");
+        }
+
+        this.maxHistoryEntries = maxHistoryEntries;
+        utilizationHistory.values().forEach(history -> history.setMaxEntries(maxHistoryEntries));
+        metricHistory.values().forEach(history -> history.setMaxEntries(maxHistoryEntries));
+        return this;
+    }
+
     /**
      * Sets the vm selection policy.
      *
@@ -753,17 +928,34 @@ public abstract class VmAllocationPolicyMigrationAbstract extends VmAllocationPo
 
     @Override
     public Map<Host, List<Double>> getUtilizationHistory() {
-        return Collections.unmodifiableMap(utilizationHistory);
+        return historyView(utilizationHistory, HistoryBuffer::valuesView);
     }
 
     @Override
     public Map<Host, List<Double>> getMetricHistory() {
-        return Collections.unmodifiableMap(metricHistory);
+        return historyView(metricHistory, HistoryBuffer::valuesView);
     }
 
     @Override
     public Map<Host, List<Double>> getTimeHistory() {
-        return Collections.unmodifiableMap(timeHistory);
+        return historyView(utilizationHistory, HistoryBuffer::timesView);
+    }
+
+    /**
+     * Gets a read-only map where the values are List views of
+     * the {@link HistoryBuffer}s of each Host.
+     *
+     * @param historyMap the map containing the HistoryBuffer of each Host
+     * @param viewFunction a function that gets a List view from a HistoryBuffer
+     * @return
+     */
+    private Map<Host, List<Double>> historyView(
+        final Map<Host, HistoryBuffer> historyMap,
+        final Function<HistoryBuffer, List<Double>> viewFunction)
+    {
+        final Map<Host, List<Double>> map = new HashMap<>(historyMap.size());
+        historyMap.forEach((host, history) -> map.put(host, viewFunction.apply(history)));
+        return Collections.unmodifiableMap(map);
     }
 
     @Override
@@ -10,7 +10,7 @@ package org.cloudbus.cloudsim.allocationpolicies.migration;
 
 import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.selectionpolicies.power.PowerVmSelectionPolicy;
-import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.HistoryBuffer;
 
 /**
  * A VM allocation policy that uses Inter Quartile Range (IQR) to compute
@@ -74,9 +74,9 @@ public class VmAllocationPolicyMigrationInterQuartileRange extends VmAllocationP
      */
     @Override
     public double computeHostUtilizationMeasure(final Host host) throws IllegalArgumentException {
-        final double[] cpuUsageArray = host.getUtilizationHistorySum().values().stream().mapToDouble(cpuUsage -> cpuUsage).toArray();
-        if (MathUtil.countNonZeroBeginning(cpuUsageArray) >= MIN_HISTORY_ENTRIES_FOR_IRQ) {
-            return MathUtil.iqr(cpuUsageArray);
+        final HistoryBuffer cpuUsageHistory = host.getCpuUtilizationHistory().getSumHistory();
+        if (cpuUsageHistory.countNonZeroBeginning() >= MIN_HISTORY_ENTRIES_FOR_IRQ) {
+            return cpuUsageHistory.getIqr();
         }
 
         throw new IllegalArgumentException("There is not enough Host history to compute Host utilization IRQ");
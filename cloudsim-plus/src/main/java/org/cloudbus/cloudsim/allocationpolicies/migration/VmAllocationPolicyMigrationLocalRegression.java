@@ -9,15 +9,12 @@
 package org.cloudbus.cloudsim.allocationpolicies.migration;
 
 import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.hosts.HostUtilizationHistory;
 import org.cloudbus.cloudsim.resources.Resource;
 import org.cloudbus.cloudsim.selectionpolicies.power.PowerVmSelectionPolicy;
 import org.cloudbus.cloudsim.util.MathUtil;
 import org.cloudbus.cloudsim.vms.Vm;
 
-import java.util.Comparator;
-import java.util.DoubleSummaryStatistics;
-import java.util.Map;
-
 /**
  * A VM allocation policy that uses Local Regression (LR) to predict host utilization (load)
  * and define if a host is overloaded or not.
@@ -118,19 +115,13 @@ public class VmAllocationPolicyMigrationLocalRegression extends VmAllocationPoli
     public double computeHostUtilizationMeasure(final Host host) throws IllegalArgumentException{
         final int length = 10; // we use 10 to make the regression responsive enough to latest values
 
-        final Comparator<Map.Entry<Double, DoubleSummaryStatistics>> keyComparator = Comparator.comparingDouble(Map.Entry::getKey);
-        final double[] utilizationHistoryReversed = host.getUtilizationHistory()
-            .entrySet()
-            .stream()
-            .sorted(keyComparator.reversed())
-            .limit(length)
-            .mapToDouble(entry -> entry.getValue().getSum())
-            .toArray();
-
-        if (utilizationHistoryReversed.length < length) {
+        final HostUtilizationHistory utilizationHistory = host.getCpuUtilizationHistory();
+        if (utilizationHistory.size() < length) {
             throw new IllegalArgumentException("There is not enough Host history to estimate its utilization using Local Regression");
         }
 
+        final double[] utilizationHistoryReversed = utilizationHistory.getNewestSumsReversed(length);
+
         final double[] estimates = getParameterEstimates(utilizationHistoryReversed);
         final double migrationIntervals = Math.ceil(getMaximumVmMigrationTime(host) / getSchedulingInterval());
         return estimates[0] + estimates[1] * (length + migrationIntervals);
@@ -6,6 +6,7 @@ import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.vms.Vm;
 import org.cloudsimplus.autoscaling.VerticalVmScaling;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +32,9 @@ final class VmAllocationPolicyMigrationNull implements VmAllocationPolicyMigrati
     @Override public boolean scaleVmVertically(VerticalVmScaling scaling) {
         return false;
     }
+    @Override public <T extends Vm> List<T> allocateHostForVmList(List<T> vmList) {
+        return new ArrayList<>(vmList);
+    }
     @Override public void deallocateHostForVm(Vm vm) {/**/}
     @Override public Optional<Host> findHostForVm(Vm vm) { return Optional.empty(); }
     @Override public <T extends Host> List<T> getHostList() {
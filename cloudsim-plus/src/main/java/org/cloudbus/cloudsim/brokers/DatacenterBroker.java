@@ -376,4 +376,40 @@ public interface DatacenterBroker extends SimEntity {
     Vm defaultVmMapper(Cloudlet cloudlet);
 
     List<Cloudlet> getCloudletSubmittedList();
+
+    /**
+     * Gets a VM submitted to this broker from its id.
+     *
+     * @param id the ID of the VM to get
+     * @return the VM if found or {@link Vm#NULL} otherwise
+     */
+    Vm getVmById(long id);
+
+    /**
+     * Gets a Cloudlet submitted to this broker from its id.
+     *
+     * @param id the ID of the Cloudlet to get
+     * @return the Cloudlet if found or {@link Cloudlet#NULL} otherwise
+     */
+    Cloudlet getCloudletById(long id);
+
+    /**
+     * Notifies the broker that the ID of a VM was changed,
+     * so that {@link #getVmById(long)} finds the VM by the new ID if it was already submitted.
+     * This method is called by the VM itself.
+     *
+     * @param vm the VM which had its ID changed
+     * @param previousId the ID the VM had before
+     */
+    void notifyVmIdChanged(Vm vm, long previousId);
+
+    /**
+     * Notifies the broker that the ID of a Cloudlet was changed,
+     * so that {@link #getCloudletById(long)} finds the Cloudlet by the new ID if it was already submitted.
+     * This method is called by the Cloudlet itself.
+     *
+     * @param cloudlet the Cloudlet which had its ID changed
+     * @param previousId the ID the Cloudlet had before
+     */
+    void notifyCloudletIdChanged(Cloudlet cloudlet, long previousId);
 }
@@ -11,6 +11,7 @@ import org.cloudbus.cloudsim.cloudlets.Cloudlet;
 import org.cloudbus.cloudsim.core.*;
 import org.cloudbus.cloudsim.core.events.SimEvent;
 import org.cloudbus.cloudsim.datacenters.Datacenter;
+import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletScheduler;
 import org.cloudbus.cloudsim.utilizationmodels.UtilizationModel;
 import org.cloudbus.cloudsim.vms.Vm;
@@ -97,6 +98,18 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
     /** @see #getCloudletCreatedList() () */
     private final List<Cloudlet> cloudletsCreatedList;
 
+    /**
+     * An index of all VMs submitted to the broker, where each key is a VM ID.
+     * @see #getVmById(long)
+     */
+    private final Map<Long, Vm> vmsById;
+
+    /**
+     * An index of all Cloudlets submitted to the broker, where each key is a Cloudlet ID.
+     * @see #getCloudletById(long)
+     */
+    private final Map<Long, Cloudlet> cloudletsById;
+
     /**
      * Checks if the last time checked, there were waiting cloudlets or not.
      */
@@ -143,6 +156,16 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
      */
     private Function<Vm, Double> vmDestructionDelayFunction;
 
+    /**
+     * @see #isBatchVmCreation()
+     */
+    private boolean batchVmCreation;
+
+    /**
+     * @see #isBatchCloudletSubmission()
+     */
+    private boolean batchCloudletSubmission;
+
     /**
      * Creates a DatacenterBroker.
      *
@@ -180,6 +203,8 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
         this.cloudletsFinishedList = new ArrayList<>();
         this.cloudletsCreatedList = new ArrayList<>();
         this.cloudletSubmittedList = new ArrayList<>();
+        this.vmsById = new HashMap<>();
+        this.cloudletsById = new HashMap<>();
 
         setDatacenterList(new TreeSet<>());
         datacenterRequestedList = new TreeSet<>();
@@ -228,6 +253,7 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
         setBrokerForEntities(list);
         lastSubmittedVm = setIdForEntitiesWithoutOne(list, lastSubmittedVm);
         vmWaitingList.addAll(list);
+        addEntitiesToIndex(list, vmsById);
 
         if (isStarted() && !list.isEmpty()) {
             LOGGER.info(
@@ -259,6 +285,19 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
         return Simulation.setIdForEntitiesWithoutOne(list, lastSubmittedEntity) ? list.get(list.size() - 1) : lastSubmittedEntity;
     }
 
+    /**
+     * Adds a list of {@link CustomerEntity} entities to a map indexed by entity ID.
+     *
+     * @param list the list of entities to index
+     * @param index the map to add the entities to
+     * @param <T> the type of the entities
+     */
+    private <T extends CustomerEntity> void addEntitiesToIndex(final List<? extends T> list, final Map<Long, T> index) {
+        for (final T entity : list) {
+            index.put(entity.getId(), entity);
+        }
+    }
+
     private void sortVmsIfComparatorIsSet(final List<? extends Vm> list) {
         if (vmComparator != null) {
             list.sort(vmComparator);
@@ -330,6 +369,7 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
             return;
         }
         cloudletSubmittedList.addAll(list);
+        addEntitiesToIndex(list, cloudletsById);
         setSimulationForCloudletUtilizationModels(list);
         cloudletWaitingList.addAll(list);
         wereThereWaitingCloudlets = true;
@@ -434,12 +474,8 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
             case CloudSimTags.CLOUDLET_READY:
                 processCloudletReady(evt);
                 return true;
-            /* The data of such a kind of event is a Runnable that has all
-             * the logic to update the Cloudlet's attributes.
-             * This way, it will be run to perform such an update.
-             * Check the documentation of the tag below for details.*/
             case CloudSimTags.CLOUDLET_UPDATE_ATTRIBUTES:
-                ((Runnable) evt.getData()).run();
+                processCloudletUpdateAttributes(evt);
                 return true;
             case CloudSimTags.CLOUDLET_PAUSE:
                 processCloudletPause(evt);
@@ -488,6 +524,24 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
         return false;
     }
 
+    /**
+     * Runs the {@link Runnable} received as the event data,
+     * which has all the logic to update the attributes of some Cloudlets.
+     * Check the documentation of the {@link CloudSimTags#CLOUDLET_UPDATE_ATTRIBUTES} tag for details.
+     *
+     * <p>Since the Runnable may change the CPU usage of any Cloudlet (such as its utilization model),
+     * the CPU utilization cached by the Host of every running VM is invalidated.</p>
+     *
+     * @param evt the event data
+     * @see Host#invalidateUtilizationCache()
+     */
+    private void processCloudletUpdateAttributes(final SimEvent evt) {
+        ((Runnable) evt.getData()).run();
+        for (final Vm vm : vmExecList) {
+            vm.getHost().invalidateUtilizationCache();
+        }
+    }
+
     /**
      * Sets the status of a received Cloudlet to {@link Cloudlet.Status#READY}
      * so that the Cloudlet can be selected to start running as soon as possible
@@ -858,20 +912,27 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
      * @see #submitVmList(java.util.List)
      */
     protected void requestDatacenterToCreateWaitingVms(final Datacenter datacenter, final boolean isFallbackDatacenter) {
-        int requestedVms = 0;
+        final List<Vm> requestedVms = new ArrayList<>();
         final String fallbackMsg = isFallbackDatacenter ? " (due to lack of a suitable Host in previous one)" : "";
         for (final Vm vm : vmWaitingList) {
             if (!vmsToDatacentersMap.containsKey(vm) && !vmCreationRequestsMap.containsKey(vm)) {
                 LOGGER.info(
                     "{}: {}: Trying to Create {} in {}{}",
                     getSimulation().clock(), getName(), vm, datacenter.getName(), fallbackMsg);
-                sendNow(datacenter, CloudSimTags.VM_CREATE_ACK, vm);
+                if(!batchVmCreation) {
+                    sendNow(datacenter, CloudSimTags.VM_CREATE_ACK, vm);
+                }
                 vmCreationRequestsMap.put(vm, datacenter);
-                requestedVms++;
+                requestedVms.add(vm);
             }
         }
+
+        if(batchVmCreation && !requestedVms.isEmpty()) {
+            sendNow(datacenter, CloudSimTags.VM_CREATE_BATCH_ACK, requestedVms);
+        }
+
         datacenterRequestedList.add(datacenter);
-        this.vmCreationRequests += requestedVms;
+        this.vmCreationRequests += requestedVms.size();
     }
 
     /**
@@ -891,7 +952,10 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
          * See https://github.com/manoelcampos/cloudsim-plus/issues/126
          */
 
-        final List<Cloudlet> successfullySubmitted = new ArrayList<>();
+        final Set<Cloudlet> successfullySubmitted = Collections.newSetFromMap(new IdentityHashMap<>());
+        /* Batches of Cloudlets to submit to each Datacenter, grouped by submission delay,
+         * since the delay is defined for the whole event sending a batch. */
+        final Map<Datacenter, Map<Double, List<Cloudlet>>> batches = new LinkedHashMap<>();
         for (final Cloudlet cloudlet : cloudletWaitingList) {
             if (cloudletCreationRequestsMap.containsKey(cloudlet)) {
                 continue;
@@ -907,26 +971,56 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
                 continue;
             }
 
-            final String delayStr =
-                cloudlet.getSubmissionDelay() > 0 ?
-                    String.format(" with a requested delay of %.0f seconds", cloudlet.getSubmissionDelay()) :
-                    "";
-            LOGGER.info(
-                "{}: {}: Sending {} to {} in {}{}.",
-                getSimulation().clock(), getName(), cloudlet,
-                lastSelectedVm, lastSelectedVm.getHost(), delayStr);
             cloudlet.setVm(lastSelectedVm);
-            send(getDatacenter(lastSelectedVm),
-                cloudlet.getSubmissionDelay(), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
-            cloudletCreationRequestsMap.put(cloudlet, getDatacenter(lastSelectedVm));
+            final Datacenter datacenter = getDatacenter(lastSelectedVm);
+            if(batchCloudletSubmission) {
+                batches.computeIfAbsent(datacenter, dc -> new LinkedHashMap<>())
+                       .computeIfAbsent(cloudlet.getSubmissionDelay(), delay -> new ArrayList<>())
+                       .add(cloudlet);
+            } else {
+                final String delayStr =
+                    cloudlet.getSubmissionDelay() > 0 ?
+                        String.format(" with a requested delay of %.0f seconds", cloudlet.getSubmissionDelay()) :
+                        "";
+                LOGGER.info(
+                    "{}: {}: Sending {} to {} in {}{}.",
+                    getSimulation().clock(), getName(), cloudlet,
+                    lastSelectedVm, lastSelectedVm.getHost(), delayStr);
+                send(datacenter, cloudlet.getSubmissionDelay(), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+            }
+
+            cloudletCreationRequestsMap.put(cloudlet, datacenter);
             cloudletsCreatedList.add(cloudlet);
             successfullySubmitted.add(cloudlet);
         }
 
-        cloudletWaitingList.removeAll(successfullySubmitted);
+        sendCloudletBatches(batches);
+        if(!successfullySubmitted.isEmpty()) {
+            cloudletWaitingList.removeIf(successfullySubmitted::contains);
+        }
+
         allWaitingCloudletsSubmittedToVm();
     }
 
+    /**
+     * Sends batches of Cloudlets to Datacenters,
+     * each one in a single {@link CloudSimTags#CLOUDLET_SUBMIT_BATCH} event.
+     *
+     * @param batches a map where each key is a Datacenter and each value is another map,
+     *                containing the list of Cloudlets to be sent after a given submission delay
+     * @see #isBatchCloudletSubmission()
+     */
+    private void sendCloudletBatches(final Map<Datacenter, Map<Double, List<Cloudlet>>> batches) {
+        for (final Map.Entry<Datacenter, Map<Double, List<Cloudlet>>> dcEntry : batches.entrySet()) {
+            for (final Map.Entry<Double, List<Cloudlet>> batch : dcEntry.getValue().entrySet()) {
+                LOGGER.info(
+                    "{}: {}: Sending a batch of {} Cloudlets to {} with a requested delay of {} seconds.",
+                    getSimulation().clock(), getName(), batch.getValue().size(), dcEntry.getKey(), batch.getKey());
+                send(dcEntry.getKey(), batch.getKey(), CloudSimTags.CLOUDLET_SUBMIT_BATCH, batch.getValue());
+            }
+        }
+    }
+
     private boolean allWaitingCloudletsSubmittedToVm() {
         if (!cloudletWaitingList.isEmpty()) {
             return false;
@@ -1125,6 +1219,65 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
         return this;
     }
 
+    /**
+     * Checks if the VMs waiting to be created are sent to a Datacenter
+     * in a single request, so that they are placed all together.
+     * Otherwise, one request is sent for each VM.
+     * It is disabled by default.
+     *
+     * @return true if batch VM creation is enabled, false otherwise
+     * @see CloudSimTags#VM_CREATE_BATCH_ACK
+     * @see org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicy#allocateHostForVmList(List)
+     */
+    public boolean isBatchVmCreation() {
+        return batchVmCreation;
+    }
+
+    /**
+     * Enables or disables sending the VMs waiting to be created to a Datacenter
+     * in a single request, so that they are placed all together
+     * by the Datacenter's {@link org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicy}.
+     * That reduces the number of events for large bursts of VMs
+     * and enables the policy to sort VMs before placing them.
+     *
+     * @param batchVmCreation true to enable batch VM creation, false to disable
+     * @return
+     * @see org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicy#allocateHostForVmList(List)
+     */
+    public DatacenterBroker setBatchVmCreation(final boolean batchVmCreation) {
+        this.batchVmCreation = batchVmCreation;
+        return this;
+    }
+
+    /**
+     * Checks if the Cloudlets waiting to be created are sent to each Datacenter
+     * in batches, instead of one request for each Cloudlet.
+     * All Cloudlets sent to the same Datacenter with the same
+     * {@link Cloudlet#getSubmissionDelay() submission delay} are placed into a single batch.
+     * It is disabled by default.
+     *
+     * @return true if batch Cloudlet submission is enabled, false otherwise
+     * @see CloudSimTags#CLOUDLET_SUBMIT_BATCH
+     */
+    public boolean isBatchCloudletSubmission() {
+        return batchCloudletSubmission;
+    }
+
+    /**
+     * Enables or disables sending the Cloudlets waiting to be created to each Datacenter
+     * in batches. That largely reduces the number of events when a huge
+     * number of Cloudlets is submitted, since a single processing update
+     * is scheduled by the Datacenter for each batch.
+     *
+     * @param batchCloudletSubmission true to enable batch Cloudlet submission, false to disable
+     * @return
+     * @see #isBatchCloudletSubmission()
+     */
+    public DatacenterBroker setBatchCloudletSubmission(final boolean batchCloudletSubmission) {
+        this.batchCloudletSubmission = batchCloudletSubmission;
+        return this;
+    }
+
     @Override
     public boolean isThereWaitingCloudlets() {
         return !cloudletWaitingList.isEmpty();
@@ -1134,4 +1287,43 @@ public abstract class DatacenterBrokerAbstract extends CloudSimEntity implements
     public List<Cloudlet> getCloudletSubmittedList() {
         return cloudletSubmittedList;
     }
+
+    @Override
+    public Vm getVmById(final long id) {
+        return getEntityById(id, vmsById, Vm.NULL);
+    }
+
+    @Override
+    public Cloudlet getCloudletById(final long id) {
+        return getEntityById(id, cloudletsById, Cloudlet.NULL);
+    }
+
+    /**
+     * Gets an entity from its ID, using a given index.
+     *
+     * @param id the ID of the entity to get
+     * @param index the map where the entities are indexed by ID
+     * @param nullEntity the object to return when the entity is not found
+     * @param <T> the type of the entity
+     * @return the entity if found, otherwise the given nullEntity
+     */
+    private <T extends CustomerEntity> T getEntityById(final long id, final Map<Long, T> index, final T nullEntity) {
+        return index.getOrDefault(id, nullEntity);
+    }
+
+    @Override
+    public void notifyVmIdChanged(final Vm vm, final long previousId) {
+        reindexEntity(vm, previousId, vmsById);
+    }
+
+    @Override
+    public void notifyCloudletIdChanged(final Cloudlet cloudlet, final long previousId) {
+        reindexEntity(cloudlet, previousId, cloudletsById);
+    }
+
+    private <T extends CustomerEntity> void reindexEntity(final T entity, final long previousId, final Map<Long, T> index) {
+        if(index.remove(previousId, entity)) {
+            index.put(entity.getId(), entity);
+        }
+    }
 }
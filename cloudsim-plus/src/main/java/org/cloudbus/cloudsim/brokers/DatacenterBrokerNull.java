@@ -84,6 +84,10 @@ final class DatacenterBrokerNull implements DatacenterBroker {
     @Override public DatacenterBroker setVmDestructionDelayFunction(Function<Vm, Double> function) { return this; }
     @Override public Vm defaultVmMapper(Cloudlet cloudlet) { return Vm.NULL; }
     @Override public List<Cloudlet> getCloudletSubmittedList() { return Collections.emptyList(); }
+    @Override public Vm getVmById(long id) { return Vm.NULL; }
+    @Override public Cloudlet getCloudletById(long id) { return Cloudlet.NULL; }
+    @Override public void notifyVmIdChanged(Vm vm, long previousId) {/**/}
+    @Override public void notifyCloudletIdChanged(Cloudlet cloudlet, long previousId) {/**/}
     @Override public void setVmComparator(Comparator<Vm> comparator) {/**/}
     @Override public void setCloudletComparator(Comparator<Cloudlet> comparator) {/**/}
     @Override public void submitCloudlet(Cloudlet cloudlet) {/**/}
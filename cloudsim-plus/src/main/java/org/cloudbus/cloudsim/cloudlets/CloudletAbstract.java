@@ -146,6 +146,7 @@ public abstract class CloudletAbstract implements Cloudlet {
         this.datacenterExecutionList = new ArrayList<>(2);
         this.requiredFiles = new LinkedList<>();
 
+        setBroker(DatacenterBroker.NULL);
         this.setId(id);
         this.setJobId(NOT_ASSIGNED);
 
@@ -156,7 +157,6 @@ public abstract class CloudletAbstract implements Cloudlet {
         this.setNumberOfPes(pesNumber);
 
         this.lastExecutedDatacenterIdx = NOT_ASSIGNED;
-        setBroker(DatacenterBroker.NULL);
         setFinishTime(NOT_ASSIGNED);    // meaning this Cloudlet hasn't finished yet
         setVm(Vm.NULL);
 
@@ -554,7 +554,11 @@ public abstract class CloudletAbstract implements Cloudlet {
 
     @Override
     public final void setId(final long id) {
+        final long previousId = this.id;
         this.id = id;
+        if(previousId != id) {
+            broker.notifyCloudletIdChanged(this, previousId);
+        }
     }
 
     @Override
@@ -16,8 +16,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
-import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
@@ -97,13 +98,22 @@ public class CloudSim implements Simulation {
 
     /**
      * The queue of events that will be sent in a future simulation time.
+     * @see #setFutureQueue(FutureEventQueue)
      */
-    private final FutureQueue future;
+    private FutureEventQueue future;
 
     /**
      * The deferred event queue.
+     * @see #setDeferredQueue(DeferredEventQueue)
      */
-    private final DeferredQueue deferred;
+    private DeferredEventQueue deferred;
+
+    /**
+     * Executes entities in parallel, grouped into logical processes,
+     * or null if the parallel execution is disabled.
+     * @see #enableParallelExecution(ForkJoinPool)
+     */
+    private LogicalProcessExecutor parallelExecutor;
 
     /**
      * @see #clock()
@@ -176,7 +186,7 @@ public class CloudSim implements Simulation {
         this.entities = new ArrayList<>();
         this.future = new FutureQueue();
         this.deferred = new DeferredQueue();
-        this.waitPredicates = new HashMap<>();
+        this.waitPredicates = new ConcurrentHashMap<>();
         this.networkTopology = NetworkTopology.NULL;
         this.clock = 0;
         this.running = false;
@@ -375,10 +385,23 @@ public class CloudSim implements Simulation {
     public void addEntity(final CloudSimEntity entity) {
         requireNonNull(entity);
         if (running) {
-            final SimEvent evt = new CloudSimEvent(SimEvent.Type.CREATE, 0, entity, null, -1, entity);
-            future.addEvent(evt);
+            final SimEvent evt = new CloudSimEvent(SimEvent.Type.CREATE, 0, entity, SimEntity.NULL, -1, entity);
+            addFutureEvent(evt, false);
+        }
+
+        //Entities created by other ones running in parallel are just registered when their logical process finishes
+        if (parallelExecutor != null && parallelExecutor.buffer(entity)) {
+            return;
         }
 
+        registerEntity(entity);
+    }
+
+    /**
+     * Adds an entity to the {@link #entities} list, assigning its id.
+     * @param entity the entity to add
+     */
+    private void registerEntity(final CloudSimEntity entity) {
         if (entity.getId() == -1) { // Only add once!
             entity.setId(entities.size());
             entities.add(entity);
@@ -393,7 +416,7 @@ public class CloudSim implements Simulation {
     private boolean runClockTickAndProcessFutureEvents() {
         executeRunnableEntities();
         if (!future.isEmpty()) {
-            future.stream().findFirst().ifPresent(this::processFutureEventsHappeningAtSameTimeOfTheFirstOne);
+            processFutureEventsHappeningAtSameTimeOfTheFirstOne();
             return true;
         }
 
@@ -434,18 +457,17 @@ public class CloudSim implements Simulation {
                 .min().orElse(minTimeBetweenEvents);
     }
 
-    private void processFutureEventsHappeningAtSameTimeOfTheFirstOne(final SimEvent firstEvent) {
-        processEvent(firstEvent);
-        future.remove(firstEvent);
-
-        //Uses iterator to increase efficiency and avoid ConcurrentModificationException while removing
-        for(final Iterator<SimEvent> it = future.iterator(); it.hasNext();){
-            SimEvent evt = it.next();
-            if(evt.getTime() == firstEvent.getTime()){
-                processEvent(evt);
-                it.remove();
-            }
-        }
+    /**
+     * Processes all events happening at the same time of the first event in the {@link #future future event queue}.
+     * Such events are removed from the queue as batches by calling {@link FutureEventQueue#removeFirstBatch()}.
+     * If new events happening at that same time are added while a batch is processed,
+     * they are processed before advancing the simulation clock.
+     */
+    private void processFutureEventsHappeningAtSameTimeOfTheFirstOne() {
+        final double time = future.first().getTime();
+        do {
+            future.removeFirstBatch().forEach(this::processEvent);
+        } while(!future.isEmpty() && future.first().getTime() == time);
     }
 
     /**
@@ -453,6 +475,10 @@ public class CloudSim implements Simulation {
      * and execute them.
      */
     private void executeRunnableEntities() {
+        if (parallelExecutor != null && parallelExecutor.execute(entities, future)) {
+            return;
+        }
+
         /*Uses an indexed for instead of anything else to avoid
         ConcurrencyModificationException when a HostFaultInjection is created inside a Datacenter*/
         for (int i = 0; i < entities.size(); i++) {
@@ -481,9 +507,27 @@ public class CloudSim implements Simulation {
     public void send(final SimEvent evt) {
         requireNonNull(evt);
         //Events with a negative tag have higher priority (except the "end of the simulation" event)
-        if(evt.getTag() < 0 && evt.getTag() != CloudSimTags.END_OF_SIMULATION)
+        addFutureEvent(evt, evt.getTag() < 0 && evt.getTag() != CloudSimTags.END_OF_SIMULATION);
+    }
+
+    /**
+     * Adds an event to the {@link #future future event queue}.
+     * If the event is sent by an entity executing in parallel,
+     * it's buffered until all {@link #addLogicalProcess(SimEntity...) logical processes} finish.
+     *
+     * @param evt the event to add
+     * @param first indicates if the event has to be added to the head of the queue
+     */
+    private void addFutureEvent(final SimEvent evt, final boolean first) {
+        if (parallelExecutor != null && parallelExecutor.buffer(evt, first)) {
+            return;
+        }
+
+        if (first) {
             future.addEventFirst(evt);
-        else future.addEvent(evt);
+        } else {
+            future.addEvent(evt);
+        }
     }
 
     @Override
@@ -493,7 +537,7 @@ public class CloudSim implements Simulation {
 
     @Override
     public void sendFirst(SimEvent evt) {
-        future.addEventFirst(evt);
+        addFutureEvent(evt, true);
     }
 
     @Override
@@ -507,7 +551,7 @@ public class CloudSim implements Simulation {
 
     @Override
     public long waiting(final SimEntity dest, final Predicate<SimEvent> p) {
-        return filterEventsToDestinationEntity(deferred, p, dest).count();
+        return deferred.count(dest, p);
     }
 
     @Override
@@ -519,45 +563,38 @@ public class CloudSim implements Simulation {
 
     @Override
     public SimEvent findFirstDeferred(final SimEntity dest, final Predicate<SimEvent> p) {
-        return filterEventsToDestinationEntity(deferred, p, dest).findFirst().orElse(SimEvent.NULL);
-    }
-
-    /**
-     * Gets a stream of events inside a specific queue that match a given predicate
-     * and are targeted to an specific entity.
-     *
-     * @param queue the queue to get the events from
-     * @param p the event selection predicate
-     * @param dest Id of entity that the event has to be sent to
-     * @return a Stream of events from the queue
-     */
-    private Stream<SimEvent> filterEventsToDestinationEntity(final EventQueue queue, final Predicate<SimEvent> p, final SimEntity dest) {
-        return filterEvents(queue, p.and(e -> e.getDestination() == dest));
+        return deferred.findFirst(dest, p);
     }
 
     @Override
     public SimEvent cancel(final SimEntity src, final Predicate<SimEvent> p) {
-        final SimEvent evt = future.stream().filter(p.and(e -> e.getSource().equals(src))).findFirst().orElse(SimEvent.NULL);
+        final Predicate<SimEvent> predicate = p.and(e -> e.getSource().equals(src));
+        if (isEntityExecutingInParallel()) {
+            return parallelExecutor.cancel(future, src, predicate);
+        }
+
+        final SimEvent evt = future.stream().filter(predicate).findFirst().orElse(SimEvent.NULL);
         future.remove(evt);
         return evt;
     }
 
     @Override
     public boolean cancelAll(final SimEntity src, final Predicate<SimEvent> p) {
-        final int previousSize = future.size();
-        future.removeIf(p.and(evt -> evt.getSource().equals(src)));
-        return previousSize < future.size();
+        final Predicate<SimEvent> predicate = p.and(evt -> evt.getSource().equals(src));
+        if (isEntityExecutingInParallel()) {
+            return parallelExecutor.cancelAll(future, src, predicate);
+        }
+
+        return future.removeIf(predicate);
     }
 
     /**
-     * Gets a stream of events inside a specific queue that match a given predicate.
-     *
-     * @param queue the queue to get the events from
-     * @param p the event selection predicate
-     * @return a Strem of events from the queue
+     * Checks if the current thread is executing an entity
+     * inside a {@link #addLogicalProcess(SimEntity...) logical process}.
+     * @return
      */
-    private Stream<SimEvent> filterEvents(final EventQueue queue, final Predicate<SimEvent> p) {
-        return queue.stream().filter(p);
+    private boolean isEntityExecutingInParallel() {
+        return parallelExecutor != null && parallelExecutor.isExecutingEntity();
     }
 
     /**
@@ -720,14 +757,14 @@ public class CloudSim implements Simulation {
     @Override
     public void pauseEntity(final SimEntity src, final double delay) {
         final SimEvent evt = new CloudSimEvent(SimEvent.Type.HOLD_DONE, delay, src);
-        future.addEvent(evt);
+        addFutureEvent(evt, false);
         src.setState(SimEntity.State.HOLDING);
     }
 
     @Override
     public void holdEntity(final SimEntity src, final long delay) {
         final SimEvent evt = new CloudSimEvent(SimEvent.Type.HOLD_DONE, delay, src);
-        future.addEvent(evt);
+        addFutureEvent(evt, false);
         src.setState(SimEntity.State.HOLDING);
     }
 
@@ -778,6 +815,12 @@ public class CloudSim implements Simulation {
 
     @Override
     public long getNumberOfFutureEvents(final Predicate<SimEvent> predicate){
+        if (isEntityExecutingInParallel()) {
+            throw new IllegalStateException(
+                "Future events cannot be counted by entities inside a logical process, " +
+                "since the events sent by other logical processes at the current time are not in the queue yet.");
+        }
+
         return future.stream()
                 .filter(predicate)
                 .count();
@@ -797,7 +840,7 @@ public class CloudSim implements Simulation {
     }
 
     private boolean isNextFutureEventHappeningAfterTimeToPause() {
-        return future.iterator().next().getTime() >= pauseAt;
+        return future.first().getTime() >= pauseAt;
     }
 
     /**
@@ -863,6 +906,183 @@ public class CloudSim implements Simulation {
         return onClockTickListeners.remove(requireNonNull(listener));
     }
 
+    /**
+     * Gets the queue of events that will be processed in a future simulation time.
+     * @return
+     * @see #setFutureQueue(FutureEventQueue)
+     */
+    public FutureEventQueue getFutureQueue() {
+        return future;
+    }
+
+    /**
+     * Sets the queue to store events that will be processed in a future simulation time.
+     * By default, a {@link FutureQueue} is used.
+     * Simulations with a large number of pending events may use
+     * a {@link CalendarQueue}, which has amortized O(1) time to add and remove events,
+     * or a {@link TimeIndexedQueue}, which removes all events happening
+     * at the same time in a single operation.
+     *
+     * <p>Any event already in the current queue is moved to the new one,
+     * keeping its order.</p>
+     *
+     * @param futureQueue the future event queue to set
+     * @return
+     * @throws UnsupportedOperationException when the simulation is already running
+     */
+    public CloudSim setFutureQueue(final FutureEventQueue futureQueue) {
+        requireNonNull(futureQueue);
+        if(running){
+            throw new UnsupportedOperationException("The future event queue cannot be changed after the simulation has started.");
+        }
+
+        if(futureQueue != future) {
+            future.stream().forEach(futureQueue::addEvent);
+            future.clear();
+            future = futureQueue;
+        }
+
+        return this;
+    }
+
+    /**
+     * Gets the queue of events already sent to entities,
+     * which are waiting to be processed by them.
+     * @return
+     * @see #setDeferredQueue(DeferredEventQueue)
+     */
+    public DeferredEventQueue getDeferredQueue() {
+        return deferred;
+    }
+
+    /**
+     * Sets the queue to store events already sent to entities,
+     * which are waiting to be processed by them.
+     * By default, a {@link DeferredQueue} is used.
+     * Simulations with lots of entities, such as many brokers,
+     * may use an {@link IndexedDeferredQueue},
+     * which keeps the events sent to each entity separately.
+     *
+     * <p>Any event already in the current queue is moved to the new one.</p>
+     *
+     * @param deferredQueue the deferred event queue to set
+     * @return
+     * @throws UnsupportedOperationException when the simulation is already running
+     */
+    public CloudSim setDeferredQueue(final DeferredEventQueue deferredQueue) {
+        requireNonNull(deferredQueue);
+        if(running){
+            throw new UnsupportedOperationException("The deferred event queue cannot be changed after the simulation has started.");
+        }
+
+        if(parallelExecutor != null && !(deferredQueue instanceof IndexedDeferredQueue)){
+            throw new IllegalArgumentException("The parallel execution requires an IndexedDeferredQueue.");
+        }
+
+        if(deferredQueue != deferred) {
+            deferred.stream().forEach(deferredQueue::addEvent);
+            deferred.clear();
+            deferred = deferredQueue;
+        }
+
+        return this;
+    }
+
+    /**
+     * Enables the parallel execution of entities, which are grouped into logical processes (LPs)
+     * by calling {@link #addLogicalProcess(SimEntity...)}.
+     * Entities inside the same LP are executed sequentially,
+     * while different LPs are executed concurrently by the given {@link ForkJoinPool}.
+     * A usual partition is one LP for each {@link Datacenter}, together with the brokers using it.
+     * Entities not added to any LP, such as the {@link CloudInformationService},
+     * are executed alone, after the entities added to the simulation before them finish.
+     *
+     * <p>The synchronization between LPs is conservative:
+     * all LPs execute the events delivered up to the current simulation time,
+     * then they wait each other before the clock advances.
+     * Events sent by entities are buffered and added to the future event queue
+     * in the same order the sequential execution does.
+     * This way, the results are deterministic and identical to the sequential execution,
+     * whatever the network delay between LPs is.
+     * The speedup depends on the number of LPs having events to process at the same time,
+     * such as Datacenters updating the processing of their Hosts
+     * at the same {@link Datacenter#getSchedulingInterval() scheduling interval}.</p>
+     *
+     * <p>Entities in different LPs must interact only by sending events.
+     * Directly calling methods of objects that are changed by entities in another LP
+     * (such as a broker reading the state of VMs running in a Datacenter from another LP)
+     * makes the results non-deterministic.
+     * Listeners are notified by the thread executing the LP of the entity that triggered them,
+     * thus they must be thread-safe.</p>
+     *
+     * <p>An entity inside a LP cannot count the {@link #getNumberOfFutureEvents(Predicate) future events}
+     * nor cancel the events sent by entities inside other LPs, since such events
+     * may not be in the future queue yet. Entities doing so, such as a
+     * {@link org.cloudsimplus.faultinjection.HostFaultInjection}, must not be added to any LP.
+     * Entities created by an entity inside a LP are just added to the simulation
+     * (receiving their ids) after all LPs finish executing the current simulation time.</p>
+     *
+     * <p>Since the parallel execution requires an {@link IndexedDeferredQueue},
+     * the {@link #getDeferredQueue() deferred queue} is changed to such a kind of queue, if it isn't yet.</p>
+     *
+     * @param pool the pool used to execute LPs
+     * @return
+     * @throws UnsupportedOperationException when the simulation is already running
+     * @see #addLogicalProcess(SimEntity...)
+     */
+    public CloudSim enableParallelExecution(final ForkJoinPool pool) {
+        requireNonNull(pool);
+        if(running){
+            throw new UnsupportedOperationException("The parallel execution cannot be enabled after the simulation has started.");
+        }
+
+        if(!(deferred instanceof IndexedDeferredQueue)) {
+            setDeferredQueue(new IndexedDeferredQueue());
+        }
+
+        parallelExecutor = new LogicalProcessExecutor(pool, this::registerEntity);
+        return this;
+    }
+
+    /**
+     * Checks if the {@link #enableParallelExecution(ForkJoinPool) parallel execution} of entities is enabled.
+     * @return
+     */
+    public boolean isParallelExecutionEnabled() {
+        return parallelExecutor != null;
+    }
+
+    /**
+     * Creates a logical process (LP) with a group of entities that will be executed sequentially,
+     * but in parallel with entities in other LPs.
+     * An entity previously added to another LP is moved to the new one.
+     *
+     * @param entities the entities to add to the LP
+     * @return the id of the created LP
+     * @throws IllegalStateException when the {@link #enableParallelExecution(ForkJoinPool) parallel execution}
+     *                               is not enabled
+     * @see #enableParallelExecution(ForkJoinPool)
+     */
+    public int addLogicalProcess(final SimEntity... entities) {
+        if(parallelExecutor == null){
+            throw new IllegalStateException("The parallel execution must be enabled before adding logical processes.");
+        }
+
+        return parallelExecutor.addLogicalProcess(entities);
+    }
+
+    /**
+     * Gets the id of the logical process (LP) a given entity belongs to.
+     *
+     * @param entity the entity to get its LP
+     * @return the LP id, or 0 if the entity wasn't added to any LP
+     *         or the {@link #enableParallelExecution(ForkJoinPool) parallel execution} is not enabled
+     * @see #addLogicalProcess(SimEntity...)
+     */
+    public int getLogicalProcess(final SimEntity entity) {
+        return parallelExecutor == null ? LogicalProcessExecutor.DEFAULT_LOGICAL_PROCESS : parallelExecutor.getLogicalProcess(entity);
+    }
+
     @Override
     public NetworkTopology getNetworkTopology() {
         return networkTopology;
@@ -13,6 +13,8 @@ import org.cloudbus.cloudsim.core.events.SimEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Predicate;
 
@@ -53,6 +55,11 @@ public abstract class CloudSimEntity implements SimEntity {
      */
     private State state;
 
+    /**
+     * @see #isBatchEventProcessing()
+     */
+    private boolean batchEventProcessing;
+
     /**
      * Creates a new entity.
      *
@@ -325,6 +332,11 @@ public abstract class CloudSimEntity implements SimEntity {
 
     @Override
     public void run() {
+        if(batchEventProcessing && buffer == null){
+            runEventBatches();
+            return;
+        }
+
         SimEvent evt = buffer == null ? getNextEvent() : buffer;
 
         while (evt != null) {
@@ -339,6 +351,79 @@ public abstract class CloudSimEntity implements SimEntity {
         buffer = null;
     }
 
+    /**
+     * Gets the events waiting in the entity's deferred queue, grouping consecutive events
+     * happening at the same time, and sends each group to {@link #processEventBatch(List)}.
+     * This way, events are processed in the same order they would be one by one.
+     */
+    private void runEventBatches() {
+        for (SimEvent evt = getNextEvent(); evt != null; evt = getNextEvent()) {
+            final List<SimEvent> batch = new ArrayList<>();
+            for (SimEvent next = evt; next != null; next = getNextEventAt(evt.getTime())) {
+                batch.add(next);
+            }
+
+            processEventBatch(batch);
+            if (state != State.RUNNABLE) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Gets the first event waiting in the entity's deferred queue
+     * if it happens at a given time.
+     *
+     * @param time the time the event must happen
+     * @return the next event or null if there is no event waiting or it happens at a different time
+     */
+    private SimEvent getNextEventAt(final double time) {
+        final SimEvent evt = simulation.findFirstDeferred(this, Simulation.ANY_EVT);
+        return evt == SimEvent.NULL || evt.getTime() != time ? null : selectEvent(Simulation.ANY_EVT);
+    }
+
+    /**
+     * Processes a batch of events received by this entity, all of them happening at the same time.
+     * It's just called when the {@link #isBatchEventProcessing() batch processing} is enabled.
+     * The default implementation just calls {@link #processEvent(SimEvent)} for each event,
+     * but subclasses can override it to coalesce repeated events into a single processing.
+     *
+     * @param batch the list of events to process, in the order they were sent
+     * @see #setBatchEventProcessing(boolean)
+     */
+    protected void processEventBatch(final List<SimEvent> batch) {
+        for (final SimEvent evt : batch) {
+            processEvent(evt);
+        }
+    }
+
+    /**
+     * Checks if the entity receives all the events happening at the same time together,
+     * by means of the {@link #processEventBatch(List)} method.
+     * @return
+     */
+    public boolean isBatchEventProcessing() {
+        return batchEventProcessing;
+    }
+
+    /**
+     * Enables or disables the entity to receive all the events happening at the same time together,
+     * by means of the {@link #processEventBatch(List)} method.
+     * The batch processing is disabled by default,
+     * but it's enabled by the {@link org.cloudbus.cloudsim.datacenters.DatacenterSimple}.
+     *
+     * <p>Entities that wait for specific events,
+     * using {@link #waitForEvent(Predicate)}, shouldn't enable batch processing,
+     * since all the events in a batch are processed, even if the entity starts waiting.</p>
+     *
+     * @param batchEventProcessing true to enable the batch processing, false to disable
+     * @return
+     */
+    public CloudSimEntity setBatchEventProcessing(final boolean batchEventProcessing) {
+        this.batchEventProcessing = batchEventProcessing;
+        return this;
+    }
+
     /**
      * Gets a clone of the entity. This is used when independent replications
      * have been specified as an output analysis method. Clones or backups of
@@ -106,6 +106,16 @@ public final class CloudSimTags {
      */
     public static final int CLOUDLET_SUBMIT_ACK = BASE + 17;
 
+    /**
+     * Denotes the submission of a batch of Cloudlets to a {@link Datacenter},
+     * all of them having the same {@link Cloudlet#getSubmissionDelay() submission delay}.
+     * The Cloudlets are submitted to their VMs in a row and a single
+     * processing update is scheduled for the whole batch.
+     * When an event of this type is sent, the {@link SimEvent#getData()}
+     * must be a {@code List<Cloudlet>}.
+     */
+    public static final int CLOUDLET_SUBMIT_BATCH = BASE + 38;
+
     /**
      * Cancels a Cloudlet submitted in the Datacenter entity.
      * When an event of this type is sent, the {@link SimEvent#getData()}
@@ -233,6 +243,16 @@ public final class CloudSimTags {
      */
     public static final int VM_CREATE_ACK = BASE + 32;
 
+    /**
+     * Denotes a request to create a batch of VMs in a {@link Datacenter},
+     * which are placed together by calling
+     * {@link org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicy#allocateHostForVmList(java.util.List)}.
+     * When an event of this type is sent, the {@link SimEvent#getData()}
+     * must be a {@code List<Vm>}.
+     * The Datacenter sends a {@link #VM_CREATE_ACK} event for each VM back to its broker.
+     */
+    public static final int VM_CREATE_BATCH_ACK = BASE + 37;
+
     /**
      * Denotes a request to destroy a VM in a {@link Datacenter}.
      * When an event of this type is sent, the {@link SimEvent#getData()}
@@ -326,6 +346,23 @@ public final class CloudSimTags {
      */
     public static final int HOST_REMOVE = BASE + 61;
 
+    /**
+     * Defines the tag of events which just make the simulation clock to advance until the time
+     * a {@link org.cloudsimplus.traces.TraceFeeder} has to read the next records from a trace file,
+     * even if there is no other event to process until then.
+     * Such events are sent to the {@link CloudInformationService}, which ignores them,
+     * and their {@link SimEvent#getData()} is the {@link org.cloudsimplus.traces.TraceFeeder} to wake up.
+     */
+    public static final int TRACE_FEEDING = BASE + 62;
+
+    /**
+     * Defines the tag of events a {@link org.cloudbus.cloudsim.datacenters.network.NetworkDatacenter}
+     * sends to itself when a network flow is expected to finish, if the
+     * {@link org.cloudbus.cloudsim.network.FlowLevelNetwork flow-level network model} is enabled.
+     * Such events don't carry any data.
+     */
+    public static final int NETWORK_FLOW_UPDATE = BASE + 63;
+
     /**
      * Private constructor to avoid instantiating such a class.
      */
@@ -0,0 +1,468 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.core;
+
+import org.cloudbus.cloudsim.core.events.FutureEventQueue;
+import org.cloudbus.cloudsim.core.events.SimEvent;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Executes the {@link SimEntity.State#RUNNABLE runnable} entities of a {@link CloudSim} simulation in parallel,
+ * grouping them into logical processes (LPs).
+ * Entities inside the same LP are executed sequentially, in the order they were added to the simulation,
+ * while different LPs are executed concurrently by a {@link ForkJoinPool}.
+ * Entities not added to any LP, such as the {@link CloudInformationService},
+ * are executed alone, at their position in the order entities were added to the simulation.
+ * This way, they see the future events exactly as the sequential execution shows them.
+ *
+ * <p>It implements a conservative synchronization where all LPs advance together:
+ * the LPs only execute the events already delivered up to the current simulation time,
+ * then a barrier waits all of them to finish before the simulation clock moves forward.
+ * This way, no LP can receive an event in its past.</p>
+ *
+ * <p>Events sent by an entity while it's executing inside a LP are not directly added to the
+ * {@link FutureEventQueue}, but buffered into an outbox for that entity.
+ * Entities it creates are buffered as well, being just added to the simulation
+ * (receiving their ids) when the outbox is flushed.
+ * When all LPs finish, outboxes are flushed in the order entities were added to the simulation,
+ * which is the same order entities are executed by the sequential engine.
+ * Therefore, events receive the same serial numbers, entities receive the same ids
+ * and the simulation results are deterministic and identical to the sequential execution.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ * @see CloudSim#enableParallelExecution(ForkJoinPool)
+ * @see CloudSim#addLogicalProcess(SimEntity...)
+ */
+final class LogicalProcessExecutor {
+    /**
+     * The id of the LP where entities not explicitly assigned to one are placed.
+     * Such entities are not executed in parallel.
+     */
+    static final int DEFAULT_LOGICAL_PROCESS = 0;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * A function that adds an entity created inside a LP to the simulation.
+     */
+    private final Consumer<CloudSimEntity> registry;
+
+    /**
+     * A map where each key is an entity and each value is the id of the LP it belongs to.
+     * Entities are compared by reference, as done by {@link CloudSim}.
+     */
+    private final Map<SimEntity, Integer> logicalProcesses;
+
+    /**
+     * The outbox for the entity currently being executed by each thread,
+     * or null if the thread isn't executing any entity inside a LP.
+     */
+    private final ThreadLocal<Outbox> currentOutbox;
+
+    private int lastLogicalProcessId;
+
+    /**
+     * Creates an executor.
+     * @param pool the pool used to execute LPs
+     * @param registry a function that adds an entity created inside a LP to the simulation
+     */
+    LogicalProcessExecutor(final ForkJoinPool pool, final Consumer<CloudSimEntity> registry) {
+        this.pool = Objects.requireNonNull(pool);
+        this.registry = Objects.requireNonNull(registry);
+        this.logicalProcesses = new IdentityHashMap<>();
+        this.currentOutbox = new ThreadLocal<>();
+    }
+
+    /**
+     * Creates a new LP containing the given entities.
+     * An entity previously assigned to another LP is moved to the new one.
+     *
+     * @param entities the entities to add to the LP
+     * @return the id of the created LP
+     */
+    int addLogicalProcess(final SimEntity... entities) {
+        final int id = ++lastLogicalProcessId;
+        for (final SimEntity entity : entities) {
+            logicalProcesses.put(Objects.requireNonNull(entity), id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Gets the id of the LP a given entity belongs to.
+     * @param entity the entity to get its LP
+     * @return the LP id or {@link #DEFAULT_LOGICAL_PROCESS} if the entity wasn't assigned to any LP
+     */
+    int getLogicalProcess(final SimEntity entity) {
+        return logicalProcesses.getOrDefault(entity, DEFAULT_LOGICAL_PROCESS);
+    }
+
+    /**
+     * Executes the runnable entities, running each LP in parallel.
+     * The entities between two ones not assigned to any LP are executed in parallel
+     * and their outboxes are flushed, then the next entity not assigned to any LP is executed alone.
+     * Entities created during this process are executed at the end, as the sequential execution does.
+     *
+     * @param entities the list of all simulation entities
+     * @param future the queue where the events sent by the entities will be added
+     *               after all LPs finish
+     * @return true if the entities were executed,
+     *         false if less than two LPs had runnable entities
+     *         (in which case the caller should execute the entities sequentially)
+     */
+    boolean execute(final List<CloudSimEntity> entities, final FutureEventQueue future) {
+        final CloudSimEntity[] snapshot = entities.toArray(new CloudSimEntity[0]);
+        if (countRunnableLogicalProcesses(snapshot) < 2) {
+            return false;
+        }
+
+        final List<CloudSimEntity> segment = new ArrayList<>();
+        for (final CloudSimEntity entity : snapshot) {
+            if (getLogicalProcess(entity) != DEFAULT_LOGICAL_PROCESS) {
+                segment.add(entity);
+                continue;
+            }
+
+            runInParallel(segment, future);
+            segment.clear();
+            runIfRunnable(entity);
+        }
+
+        runInParallel(segment, future);
+
+        //Uses an indexed for since the executed entities may create other ones
+        for (int i = snapshot.length; i < entities.size(); i++) {
+            runIfRunnable(entities.get(i));
+        }
+
+        return true;
+    }
+
+    /**
+     * Counts the LPs having runnable entities.
+     * @param snapshot the simulation entities
+     * @return
+     */
+    private int countRunnableLogicalProcesses(final CloudSimEntity[] snapshot) {
+        final Set<Integer> ids = new HashSet<>();
+        for (final CloudSimEntity entity : snapshot) {
+            final int id = getLogicalProcess(entity);
+            if (id != DEFAULT_LOGICAL_PROCESS && entity.getState() == SimEntity.State.RUNNABLE) {
+                ids.add(id);
+            }
+        }
+
+        return ids.size();
+    }
+
+    private static void runIfRunnable(final CloudSimEntity entity) {
+        if (entity.getState() == SimEntity.State.RUNNABLE) {
+            entity.run();
+        }
+    }
+
+    /**
+     * Executes each LP of a list of entities in parallel,
+     * then flushes the outboxes of such entities, in the order of the list.
+     *
+     * @param segment the entities to execute, which all belong to some LP
+     * @param future the queue where the events sent by the entities will be added
+     */
+    private void runInParallel(final List<CloudSimEntity> segment, final FutureEventQueue future) {
+        if (segment.isEmpty()) {
+            return;
+        }
+
+        final Map<Integer, List<CloudSimEntity>> groups = new TreeMap<>();
+        final Map<SimEntity, Outbox> outboxes = new IdentityHashMap<>();
+        for (final CloudSimEntity entity : segment) {
+            groups.computeIfAbsent(getLogicalProcess(entity), id -> new ArrayList<>()).add(entity);
+            outboxes.put(entity, new Outbox(entity));
+        }
+
+        final List<ForkJoinTask<?>> tasks = groups.values().stream()
+            .map(group -> ForkJoinTask.adapt(() -> run(group, outboxes)))
+            .collect(toList());
+        pool.invoke(ForkJoinTask.adapt(() -> {ForkJoinTask.invokeAll(tasks);}));
+
+        for (final CloudSimEntity entity : segment) {
+            outboxes.get(entity).flush(future, registry);
+        }
+    }
+
+    /**
+     * Sequentially executes the entities of a LP.
+     * @param group the entities in the LP
+     * @param outboxes the outbox for each entity
+     */
+    private void run(final List<CloudSimEntity> group, final Map<SimEntity, Outbox> outboxes) {
+        try {
+            for (final CloudSimEntity entity : group) {
+                if (entity.getState() == SimEntity.State.RUNNABLE) {
+                    currentOutbox.set(outboxes.get(entity));
+                    entity.run();
+                }
+            }
+        } finally {
+            currentOutbox.remove();
+        }
+    }
+
+    /**
+     * Checks if the current thread is executing an entity inside a LP.
+     * @return
+     */
+    boolean isExecutingEntity() {
+        return currentOutbox.get() != null;
+    }
+
+    /**
+     * Buffers an event sent by the entity being executed by the current thread.
+     *
+     * @param evt the event to buffer
+     * @param first indicates if the event has to be added to the head of the future queue
+     * @return true if the event was buffered,
+     *         false if the current thread isn't executing an entity
+     *         (in which case the event must be directly added to the future queue)
+     */
+    boolean buffer(final SimEvent evt, final boolean first) {
+        final Outbox outbox = currentOutbox.get();
+        if (outbox == null) {
+            return false;
+        }
+
+        outbox.add(evt, first);
+        return true;
+    }
+
+    /**
+     * Buffers an entity created by the entity being executed by the current thread.
+     *
+     * @param entity the created entity
+     * @return true if the entity was buffered,
+     *         false if the current thread isn't executing an entity
+     *         (in which case the entity must be directly added to the simulation)
+     */
+    boolean buffer(final CloudSimEntity entity) {
+        final Outbox outbox = currentOutbox.get();
+        if (outbox == null) {
+            return false;
+        }
+
+        outbox.entities.add(entity);
+        return true;
+    }
+
+    /**
+     * Cancels the first event matching a predicate, considering both the events already
+     * in the future queue and the ones buffered by the entity being executed by the current thread.
+     *
+     * @param future the future event queue
+     * @param src the entity that sent the events to cancel
+     * @param predicate the predicate to select the event to cancel
+     * @return the canceled event or {@link SimEvent#NULL} if no event was found
+     * @throws IllegalStateException when the events to cancel may be buffered by an entity in another LP
+     */
+    SimEvent cancel(final FutureEventQueue future, final SimEntity src, final Predicate<SimEvent> predicate) {
+        final Outbox outbox = currentOutbox.get();
+        checkEventsSource(outbox, src);
+        final SimEvent queued;
+        synchronized (future) {
+            queued = future.stream().filter(predicate).findFirst().orElse(SimEvent.NULL);
+        }
+
+        final int index = outbox.indexOfFirst(predicate);
+        if (index >= 0 && (queued == SimEvent.NULL || outbox.precedes(index, queued))) {
+            return outbox.remove(index);
+        }
+
+        synchronized (future) {
+            future.remove(queued);
+        }
+
+        return queued;
+    }
+
+    /**
+     * Cancels all events matching a predicate, considering both the events already
+     * in the future queue and the ones buffered by the entity being executed by the current thread.
+     *
+     * @param future the future event queue
+     * @param src the entity that sent the events to cancel
+     * @param predicate the predicate to select the events to cancel
+     * @return true if at least one event was canceled, false otherwise
+     * @throws IllegalStateException when the events to cancel may be buffered by an entity in another LP
+     */
+    boolean cancelAll(final FutureEventQueue future, final SimEntity src, final Predicate<SimEvent> predicate) {
+        final Outbox outbox = currentOutbox.get();
+        checkEventsSource(outbox, src);
+        final boolean removedFromFuture;
+        synchronized (future) {
+            removedFromFuture = future.removeIf(predicate);
+        }
+
+        final boolean removedFromOutbox = outbox.removeIf(predicate);
+        return removedFromFuture || removedFromOutbox;
+    }
+
+    /**
+     * Checks if the entity being executed by the current thread can cancel events sent by a given entity.
+     * That is just allowed for events sent by the current entity itself or by an entity not assigned to any LP,
+     * since the events sent by other entities executing in parallel are buffered
+     * into outboxes not visible to the current thread.
+     *
+     * @param outbox the outbox of the current entity
+     * @param src the entity that sent the events to cancel
+     * @throws IllegalStateException when the events cannot be canceled by the current entity
+     */
+    private void checkEventsSource(final Outbox outbox, final SimEntity src) {
+        if (src != outbox.entity && getLogicalProcess(src) != DEFAULT_LOGICAL_PROCESS) {
+            throw new IllegalStateException(
+                String.format(
+                    "%s cannot cancel events sent by %s, since the latter is inside a logical process.",
+                    outbox.entity.getName(), src.getName()));
+        }
+    }
+
+    /**
+     * Stores the events sent and entities created by a single entity while it's executed inside a LP,
+     * in the order they were sent or created.
+     */
+    private static final class Outbox {
+        /** The entity the outbox belongs to. */
+        private final SimEntity entity;
+
+        private final List<SimEvent> events = new ArrayList<>();
+
+        /** Indicates which {@link #events} have to be added to the head of the future queue. */
+        private final BitSet firstEvents = new BitSet();
+
+        private final List<CloudSimEntity> entities = new ArrayList<>();
+
+        Outbox(final SimEntity entity) {
+            this.entity = entity;
+        }
+
+        void add(final SimEvent evt, final boolean first) {
+            firstEvents.set(events.size(), first);
+            events.add(evt);
+        }
+
+        /**
+         * Gets the index of the first event matching a predicate,
+         * according to the order events will be processed after being added to the future queue.
+         *
+         * @param predicate the predicate to select the event
+         * @return the index of the event or -1 if not found
+         */
+        int indexOfFirst(final Predicate<SimEvent> predicate) {
+            int found = -1;
+            for (int i = 0; i < events.size(); i++) {
+                if (predicate.test(events.get(i)) && (found < 0 || isProcessedBefore(i, found))) {
+                    found = i;
+                }
+            }
+
+            return found;
+        }
+
+        private boolean isProcessedBefore(final int i, final int j) {
+            final double time1 = events.get(i).getTime();
+            final double time2 = events.get(j).getTime();
+            if (time1 != time2) {
+                return time1 < time2;
+            }
+
+            return firstEvents.get(i) && !firstEvents.get(j);
+        }
+
+        /**
+         * Checks if a buffered event will be processed before an event already in the future queue.
+         * @param index the index of the buffered event
+         * @param queued the event in the future queue
+         * @return
+         */
+        boolean precedes(final int index, final SimEvent queued) {
+            final double time = events.get(index).getTime();
+            if (time != queued.getTime()) {
+                return time < queued.getTime();
+            }
+
+            return firstEvents.get(index) && queued.getSerial() != 0;
+        }
+
+        SimEvent remove(final int index) {
+            final SimEvent evt = events.remove(index);
+            removeFlag(index);
+            return evt;
+        }
+
+        private void removeFlag(final int index) {
+            for (int i = index; i < events.size(); i++) {
+                firstEvents.set(i, firstEvents.get(i + 1));
+            }
+
+            firstEvents.clear(events.size());
+        }
+
+        boolean removeIf(final Predicate<SimEvent> predicate) {
+            boolean removed = false;
+            for (int i = events.size() - 1; i >= 0; i--) {
+                if (predicate.test(events.get(i))) {
+                    remove(i);
+                    removed = true;
+                }
+            }
+
+            return removed;
+        }
+
+        /**
+         * Adds the buffered entities to the simulation, in the order they were created,
+         * then adds the buffered events to the future queue, in the order they were sent.
+         *
+         * @param future the future event queue
+         * @param registry a function that adds an entity to the simulation
+         */
+        void flush(final FutureEventQueue future, final Consumer<CloudSimEntity> registry) {
+            entities.forEach(registry);
+            for (int i = 0; i < events.size(); i++) {
+                if (firstEvents.get(i)) {
+                    future.addEventFirst(events.get(i));
+                } else {
+                    future.addEvent(events.get(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,617 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.core.events;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link FutureEventQueue} implemented as a Calendar Queue,
+ * which provides amortized O(1) time to add and remove events,
+ * instead of the O(log n) time of the {@link FutureQueue}.
+ *
+ * <p>The queue is organized as a calendar of one "year", divided into
+ * {@link #getBucketsNumber() buckets} ("days") of {@link #getBucketWidth() equal width}.
+ * An event is stored in the bucket corresponding to its time,
+ * modulo the year length. Each bucket keeps its events sorted
+ * by time and serial number, exactly as the {@link FutureQueue},
+ * so that both queues deliver events in the same order.
+ * The calendar is automatically resized as the number of events grows or shrinks,
+ * in order to keep just a few events per bucket.</p>
+ *
+ * <p>It can be used by calling {@link CloudSim#setFutureQueue(FutureEventQueue)}
+ * before starting the simulation.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ * @see <a href="https://doi.org/10.1145/63039.63045">R. Brown, "Calendar queues: a fast O(1) priority queue implementation
+ * for the simulation event set problem", Communications of the ACM, 1988.</a>
+ */
+public class CalendarQueue implements FutureEventQueue {
+    /**
+     * The minimum number of buckets the calendar can have.
+     */
+    private static final int MIN_BUCKETS = 16;
+
+    /**
+     * The number of different event times used to estimate a new bucket width
+     * when the calendar is resized.
+     */
+    private static final int WIDTH_SAMPLE_SIZE = 32;
+
+    /**
+     * Compares events by time and serial number.
+     * Events with the same time and serial are considered equal,
+     * so that the latest added one is placed after the existing ones.
+     */
+    private static final Comparator<SimEvent> COMPARATOR =
+        Comparator.comparingDouble(SimEvent::getTime).thenComparingLong(SimEvent::getSerial);
+
+    /**
+     * @see #getBucketsNumber()
+     */
+    private Bucket[] buckets;
+
+    /**
+     * @see #getBucketWidth()
+     */
+    private double bucketWidth;
+
+    /**
+     * The index of the virtual bucket (the bucket number as if
+     * the calendar had infinite buckets) where the lowest-time event may be.
+     * There is no event in any virtual bucket lower than this one.
+     */
+    private long currentVirtualBucket;
+
+    /**
+     * The event with the lowest time, or null if it has to be found again.
+     */
+    private SimEvent first;
+
+    private int size;
+
+    /**
+     * A incremental number used for {@link SimEvent#getSerial()} event attribute.
+     */
+    private long serial;
+
+    /**
+     * Number of structural changes in the queue, used to make iterators fail-fast.
+     */
+    private int modCount;
+
+    /**
+     * Creates a Calendar Queue with a default initial bucket width of 1 second.
+     */
+    public CalendarQueue() {
+        this(1);
+    }
+
+    /**
+     * Creates a Calendar Queue with a given initial bucket width.
+     * The width is automatically adjusted as the calendar is resized.
+     *
+     * @param initialBucketWidth the initial width (in seconds) of each bucket
+     */
+    public CalendarQueue(final double initialBucketWidth) {
+        if(initialBucketWidth <= 0){
+            throw new IllegalArgumentException("The initial bucket width must be greater than zero.");
+        }
+
+        this.bucketWidth = initialBucketWidth;
+        this.buckets = newBuckets(MIN_BUCKETS);
+    }
+
+    private static Bucket[] newBuckets(final int number) {
+        final Bucket[] array = new Bucket[number];
+        for (int i = 0; i < number; i++) {
+            array[i] = new Bucket();
+        }
+
+        return array;
+    }
+
+    @Override
+    public void addEvent(final SimEvent newEvent) {
+        newEvent.setSerial(serial++);
+        insert(newEvent);
+    }
+
+    @Override
+    public void addEventFirst(final SimEvent newEvent) {
+        newEvent.setSerial(0);
+        insert(newEvent);
+    }
+
+    private void insert(final SimEvent newEvent) {
+        final long virtualBucket = virtualBucket(newEvent.getTime());
+        bucket(virtualBucket).add(newEvent);
+        size++;
+        modCount++;
+
+        if(size == 1 || virtualBucket < currentVirtualBucket) {
+            currentVirtualBucket = virtualBucket;
+        }
+
+        if(first != null && COMPARATOR.compare(newEvent, first) < 0){
+            first = newEvent;
+        }
+
+        if(size > 2*buckets.length) {
+            resize(2*buckets.length);
+        }
+    }
+
+    @Override
+    public SimEvent first() throws NoSuchElementException {
+        if(size == 0){
+            throw new NoSuchElementException("The Calendar Queue is empty.");
+        }
+
+        if(first == null) {
+            first = findFirst();
+        }
+
+        return first;
+    }
+
+    /**
+     * Finds the event with the lowest time, scanning buckets from the
+     * {@link #currentVirtualBucket} for at most one year.
+     * If no event is found in such a year, performs a direct search
+     * in the head of every bucket.
+     *
+     * @return the event with the lowest time
+     */
+    private SimEvent findFirst() {
+        for (int i = 0; i < buckets.length; i++) {
+            final long virtualBucket = currentVirtualBucket + i;
+            final Bucket bucket = bucket(virtualBucket);
+            if(!bucket.isEmpty() && virtualBucket(bucket.head().getTime()) == virtualBucket){
+                currentVirtualBucket = virtualBucket;
+                return bucket.head();
+            }
+        }
+
+        SimEvent min = null;
+        for (final Bucket bucket : buckets) {
+            if(!bucket.isEmpty() && (min == null || COMPARATOR.compare(bucket.head(), min) < 0)){
+                min = bucket.head();
+            }
+        }
+
+        currentVirtualBucket = virtualBucket(min.getTime());
+        return min;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Since the first event is cached, this implementation just removes events
+     * from the head of the calendar while they have the same time,
+     * avoiding the creation of an iterator.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SimEvent> removeFirstBatch() throws NoSuchElementException {
+        final SimEvent firstEvent = first();
+        final List<SimEvent> batch = new ArrayList<>();
+        do {
+            final SimEvent evt = first();
+            remove(evt);
+            batch.add(evt);
+        } while (size > 0 && first().getTime() == firstEvent.getTime());
+
+        return batch;
+    }
+
+    @Override
+    public boolean remove(final SimEvent event) {
+        if(size == 0 || !bucket(virtualBucket(event.getTime())).remove(event)) {
+            return false;
+        }
+
+        afterRemoval(event);
+        return true;
+    }
+
+    private void afterRemoval(final SimEvent event) {
+        size--;
+        modCount++;
+        if(event == first) {
+            first = null;
+        }
+
+        if(size < buckets.length/2 && buckets.length > MIN_BUCKETS) {
+            resize(buckets.length/2);
+        }
+    }
+
+    @Override
+    public boolean removeAll(final Collection<SimEvent> events) {
+        boolean removed = false;
+        for (final SimEvent event : events) {
+            removed |= remove(event);
+        }
+
+        return removed;
+    }
+
+    @Override
+    public boolean removeIf(final Predicate<SimEvent> predicate) {
+        int removed = 0;
+        for (final Bucket bucket : buckets) {
+            removed += bucket.removeIf(predicate);
+        }
+
+        if(removed == 0) {
+            return false;
+        }
+
+        size -= removed;
+        modCount++;
+        first = null;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        buckets = newBuckets(MIN_BUCKETS);
+        size = 0;
+        first = null;
+        currentVirtualBucket = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The events are returned in the same order they will be processed.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Iterator<SimEvent> iterator() {
+        return new CalendarIterator();
+    }
+
+    @Override
+    public Stream<SimEvent> stream() {
+        final Spliterator<SimEvent> spliterator =
+            Spliterators.spliterator(iterator(), size, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Gets the current number of buckets in the calendar.
+     * @return
+     */
+    public int getBucketsNumber() {
+        return buckets.length;
+    }
+
+    /**
+     * Gets the current width (in seconds) of each bucket in the calendar.
+     * @return
+     */
+    public double getBucketWidth() {
+        return bucketWidth;
+    }
+
+    private long virtualBucket(final double time) {
+        return (long)Math.floor(time / bucketWidth);
+    }
+
+    private Bucket bucket(final long virtualBucket) {
+        return buckets[(int)Math.floorMod(virtualBucket, (long)buckets.length)];
+    }
+
+    /**
+     * Changes the number of buckets and recomputes the bucket width,
+     * then redistributes all events into the new buckets.
+     *
+     * @param bucketsNumber the new number of buckets
+     */
+    private void resize(final int bucketsNumber) {
+        final double newWidth = estimateBucketWidth();
+        final List<SimEvent> events = new ArrayList<>(size);
+        for (final Bucket bucket : buckets) {
+            bucket.addTo(events);
+        }
+
+        buckets = newBuckets(bucketsNumber);
+        bucketWidth = newWidth;
+        for (final SimEvent event : events) {
+            bucket(virtualBucket(event.getTime())).add(event);
+        }
+
+        first = null;
+        currentVirtualBucket = events.stream().mapToLong(e -> virtualBucket(e.getTime())).min().orElse(0);
+        modCount++;
+    }
+
+    /**
+     * Estimates a bucket width based on the time span
+     * of the next events to be processed, so that each bucket
+     * holds about 3 events, as suggested by Brown.
+     * Since simulations usually have lots of events happening at the same time,
+     * events are sampled until {@link #WIDTH_SAMPLE_SIZE} different times are found.
+     *
+     * @return the new bucket width or the current one if it cannot be estimated
+     */
+    private double estimateBucketWidth() {
+        if(size < 2) {
+            return bucketWidth;
+        }
+
+        final Iterator<SimEvent> it = iterator();
+        final double firstTime = it.next().getTime();
+        double lastTime = firstTime;
+        int sampledEvents = 1;
+        int distinctTimes = 1;
+        while (distinctTimes <= WIDTH_SAMPLE_SIZE && it.hasNext()) {
+            final double time = it.next().getTime();
+            sampledEvents++;
+            if(time > lastTime) {
+                distinctTimes++;
+                lastTime = time;
+            }
+        }
+
+        return lastTime == firstTime ? bucketWidth : 3*(lastTime - firstTime)/sampledEvents;
+    }
+
+    /**
+     * Iterates over the events in the calendar, in the order they will be processed,
+     * by walking through the buckets in the same way {@link #findFirst()} does,
+     * but keeping a cursor into each bucket instead of removing events.
+     */
+    private final class CalendarIterator implements Iterator<SimEvent> {
+        private final int[] cursors = new int[buckets.length];
+        private long virtualBucket = currentVirtualBucket;
+        private int remaining = size;
+        private int expectedModCount = modCount;
+
+        /**
+         * The index of the bucket containing the last returned event,
+         * or -1 if such an event was removed or no event was returned yet.
+         */
+        private int lastIndex = -1;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public SimEvent next() {
+            checkForComodification();
+            if(remaining == 0) {
+                throw new NoSuchElementException();
+            }
+
+            lastIndex = nextBucketIndex();
+            remaining--;
+            return buckets[lastIndex].get(cursors[lastIndex]++);
+        }
+
+        private int nextBucketIndex() {
+            for (int i = 0; i < buckets.length; i++) {
+                final int index = (int)Math.floorMod(virtualBucket + i, (long)buckets.length);
+                final Bucket bucket = buckets[index];
+                if(cursors[index] < bucket.size() && virtualBucket(bucket.get(cursors[index]).getTime()) == virtualBucket + i){
+                    virtualBucket += i;
+                    return index;
+                }
+            }
+
+            int minIndex = -1;
+            for (int index = 0; index < buckets.length; index++) {
+                final Bucket bucket = buckets[index];
+                if(cursors[index] < bucket.size() &&
+                   (minIndex == -1 || COMPARATOR.compare(bucket.get(cursors[index]), buckets[minIndex].get(cursors[minIndex])) < 0))
+                {
+                    minIndex = index;
+                }
+            }
+
+            virtualBucket = virtualBucket(buckets[minIndex].get(cursors[minIndex]).getTime());
+            return minIndex;
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+            if(lastIndex == -1) {
+                throw new IllegalStateException();
+            }
+
+            final SimEvent event = buckets[lastIndex].removeAt(--cursors[lastIndex]);
+            lastIndex = -1;
+            size--;
+            modCount++;
+            if(event == first) {
+                first = null;
+            }
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * A calendar bucket that keeps its events sorted.
+     * Since events are mostly removed from the head,
+     * a start index is used to avoid shifting
+     * the remaining events at every removal.
+     */
+    private static final class Bucket {
+        private SimEvent[] events = new SimEvent[4];
+        private int start;
+        private int end;
+
+        boolean isEmpty() {
+            return start == end;
+        }
+
+        int size() {
+            return end - start;
+        }
+
+        SimEvent head() {
+            return events[start];
+        }
+
+        SimEvent get(final int index) {
+            return events[start + index];
+        }
+
+        /**
+         * Adds an event after all the existing ones that are not greater than it.
+         * @param event the event to add
+         */
+        void add(final SimEvent event) {
+            ensureCapacity();
+            int low = start;
+            int high = end;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (COMPARATOR.compare(events[mid], event) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            System.arraycopy(events, low, events, low + 1, end - low);
+            events[low] = event;
+            end++;
+        }
+
+        private void ensureCapacity() {
+            if(end < events.length) {
+                return;
+            }
+
+            final int count = size();
+            final SimEvent[] array = count*2 < events.length ? events : new SimEvent[events.length*2];
+            System.arraycopy(events, start, array, 0, count);
+            if(array == events) {
+                Arrays.fill(events, count, end, null);
+            }
+
+            events = array;
+            start = 0;
+            end = count;
+        }
+
+        boolean remove(final SimEvent event) {
+            for (int i = lowerBound(event); i < end && COMPARATOR.compare(events[i], event) == 0; i++) {
+                if (events[i] == event) {
+                    removeAt(i - start);
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Gets the position of the first event that is not lower than a given one.
+         * @param event the event to search for its position
+         * @return the position into the internal array
+         */
+        private int lowerBound(final SimEvent event) {
+            int low = start;
+            int high = end;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (COMPARATOR.compare(events[mid], event) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+
+        SimEvent removeAt(final int index) {
+            final int position = start + index;
+            final SimEvent event = events[position];
+            if(position == start) {
+                events[start++] = null;
+            } else {
+                System.arraycopy(events, position + 1, events, position, end - position - 1);
+                events[--end] = null;
+            }
+
+            if(isEmpty()) {
+                start = end = 0;
+            }
+
+            return event;
+        }
+
+        int removeIf(final Predicate<SimEvent> predicate) {
+            int kept = start;
+            for (int i = start; i < end; i++) {
+                if(!predicate.test(events[i])) {
+                    events[kept++] = events[i];
+                }
+            }
+
+            final int removed = end - kept;
+            Arrays.fill(events, kept, end, null);
+            end = kept;
+            if(isEmpty()) {
+                start = end = 0;
+            }
+
+            return removed;
+        }
+
+        void addTo(final List<SimEvent> list) {
+            for (int i = start; i < end; i++) {
+                list.add(events[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.core.events;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * An interface to be implemented by queues that store the events
+ * already sent to entities, which are waiting to be processed by them
+ * (the deferred events).
+ * Since entities always look for events sent to themselves,
+ * it provides methods to select events by their destination entity.
+ *
+ * <p>The queue used by a simulation can be changed by calling
+ * {@link CloudSim#setDeferredQueue(DeferredEventQueue)} before starting it.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ * @see DeferredQueue
+ * @see IndexedDeferredQueue
+ */
+public interface DeferredEventQueue extends EventQueue {
+    /**
+     * Removes the event from the queue.
+     *
+     * @param event the event
+     * @return true, if successful
+     */
+    boolean remove(SimEvent event);
+
+    /**
+     * Clears the queue.
+     */
+    void clear();
+
+    /**
+     * Returns a stream of the events in the queue that are sent to a given entity.
+     *
+     * @param dest the entity the events were sent to
+     * @return the stream
+     */
+    default Stream<SimEvent> stream(final SimEntity dest) {
+        return stream().filter(evt -> evt.getDestination() == dest);
+    }
+
+    /**
+     * Finds the first event sent to a given entity which matches a given predicate.
+     *
+     * @param dest the entity the event was sent to
+     * @param predicate the event selection predicate
+     * @return the first matched event or {@link SimEvent#NULL} if not found
+     */
+    default SimEvent findFirst(final SimEntity dest, final Predicate<SimEvent> predicate) {
+        return stream(dest).filter(predicate).findFirst().orElse(SimEvent.NULL);
+    }
+
+    /**
+     * Counts the events sent to a given entity which match a given predicate.
+     *
+     * @param dest the entity the events were sent to
+     * @param predicate the event selection predicate
+     * @return the number of matched events
+     */
+    default long count(final SimEntity dest, final Predicate<SimEvent> predicate) {
+        return stream(dest).filter(predicate).count();
+    }
+}
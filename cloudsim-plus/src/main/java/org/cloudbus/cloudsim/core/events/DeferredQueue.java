@@ -21,8 +21,9 @@ import java.util.stream.Stream;
  * @since CloudSim Toolkit 1.0
  * @see CloudSim
  * @see SimEvent
+ * @see IndexedDeferredQueue
  */
-public class DeferredQueue implements EventQueue {
+public class DeferredQueue implements DeferredEventQueue {
 
 	/** The list of events. */
 	private final List<SimEvent> list = new LinkedList<>();
@@ -92,12 +93,7 @@ public class DeferredQueue implements EventQueue {
         return list.isEmpty();
     }
 
-    /**
-     * Removes the event from the queue.
-     *
-     * @param event the event
-     * @return true, if successful
-     */
+    @Override
     public boolean remove(final SimEvent event) {
         return list.remove(event);
     }
@@ -111,9 +107,7 @@ public class DeferredQueue implements EventQueue {
         return list.get(0);
     }
 
-    /**
-	 * Clears the queue.
-	 */
+	@Override
 	public void clear() {
 		list.clear();
 	}
@@ -0,0 +1,120 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.core.events;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * An interface to be implemented by queues that store the events
+ * to be processed by {@link CloudSim} in a future simulation time.
+ * Implementations must keep events ordered by {@link SimEvent#getTime() time}
+ * and then by {@link SimEvent#getSerial() serial number},
+ * so that {@link #first()} and {@link #iterator()} always follow such an order.
+ *
+ * <p>The queue used by a simulation can be changed by calling
+ * {@link CloudSim#setFutureQueue(FutureEventQueue)} before starting it.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ * @see FutureQueue
+ * @see CalendarQueue
+ * @see TimeIndexedQueue
+ */
+public interface FutureEventQueue extends EventQueue {
+    /**
+     * Adds a new event to the head of the queue,
+     * that is, before any other event with the same time.
+     *
+     * @param newEvent The event to be put in the queue.
+     */
+    void addEventFirst(SimEvent newEvent);
+
+    /**
+     * Removes the event from the queue.
+     *
+     * @param event the event
+     * @return true, if successful
+     */
+    boolean remove(SimEvent event);
+
+    /**
+     * Removes all the events from the queue.
+     *
+     * @param events the events
+     * @return true, if successful
+     */
+    boolean removeAll(Collection<SimEvent> events);
+
+    /**
+     * Removes all the events matching a given predicate.
+     *
+     * @param predicate the predicate to select the events to remove
+     * @return true if some event was removed, false otherwise
+     */
+    boolean removeIf(Predicate<SimEvent> predicate);
+
+    /**
+     * Clears the queue.
+     */
+    void clear();
+
+    /**
+     * Removes all the events happening at the same time of the {@link #first()} event,
+     * returning them in the order they have to be processed.
+     *
+     * <p>The default implementation walks through the queue {@link #iterator()},
+     * removing events while they have the same time of the first one.
+     * Implementations that index events by time, such as the {@link TimeIndexedQueue},
+     * are able to remove the whole batch in a single operation.</p>
+     *
+     * @return the list of removed events
+     * @throws NoSuchElementException when the queue is empty
+     */
+    default List<SimEvent> removeFirstBatch() throws NoSuchElementException {
+        final Iterator<SimEvent> it = iterator();
+        final SimEvent first = it.next();
+        it.remove();
+
+        final List<SimEvent> batch = new ArrayList<>();
+        batch.add(first);
+        while (it.hasNext()) {
+            final SimEvent evt = it.next();
+            if (evt.getTime() != first.getTime()) {
+                break;
+            }
+
+            batch.add(evt);
+            it.remove();
+        }
+
+        return batch;
+    }
+}
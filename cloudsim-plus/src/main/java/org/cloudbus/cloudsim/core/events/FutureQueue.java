@@ -20,9 +20,10 @@ import java.util.stream.Stream;
  *
  * @author Marcos Dias de Assuncao
  * @see java.util.TreeSet
+ * @see CalendarQueue
  * @since CloudSim Toolkit 1.0
  */
-public class FutureQueue implements EventQueue {
+public class FutureQueue implements FutureEventQueue {
 
     /**
      * The sorted set of events.
@@ -40,11 +41,7 @@ public class FutureQueue implements EventQueue {
         sortedSet.add(newEvent);
     }
 
-    /**
-     * Adds a new event to the head of the queue.
-     *
-     * @param newEvent The event to be put in the queue.
-     */
+    @Override
     public void addEventFirst(final SimEvent newEvent) {
         newEvent.setSerial(0);
         sortedSet.add(newEvent);
@@ -70,27 +67,18 @@ public class FutureQueue implements EventQueue {
         return sortedSet.isEmpty();
     }
 
-    /**
-     * Removes the event from the queue.
-     *
-     * @param event the event
-     * @return true, if successful
-     */
+    @Override
     public boolean remove(final SimEvent event) {
         return sortedSet.remove(event);
     }
 
-    /**
-     * Removes all the events from the queue.
-     *
-     * @param events the events
-     * @return true, if successful
-     */
+    @Override
     public boolean removeAll(final Collection<SimEvent> events) {
         return sortedSet.removeAll(events);
     }
 
-    public boolean removeIf(final Predicate predicate){
+    @Override
+    public boolean removeIf(final Predicate<SimEvent> predicate){
         return sortedSet.removeIf(predicate);
     }
 
@@ -99,9 +87,7 @@ public class FutureQueue implements EventQueue {
         return sortedSet.first();
     }
 
-    /**
-     * Clears the queue.
-     */
+    @Override
     public void clear() {
         sortedSet.clear();
     }
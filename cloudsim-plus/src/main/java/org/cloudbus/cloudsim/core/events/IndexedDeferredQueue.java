@@ -0,0 +1,559 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.core.events;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.Simulation;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link DeferredEventQueue} that keeps the events sent to each entity
+ * into a separate bucket, so that looking for or removing events sent
+ * to a given entity just accesses the bucket of that entity,
+ * instead of scanning the events sent to all entities, as the {@link DeferredQueue} does.
+ *
+ * <p>Each bucket can optionally index its events by {@link SimEvent#getTag() tag}.
+ * This way, looking for events using a {@link PredicateType} just accesses
+ * the events with the given tag.
+ * Looking for events using {@link Simulation#ANY_EVT} just gets the head of the bucket.
+ * Other predicates are tested against the events in the bucket only.
+ * Buckets and tag indexes are discarded when all their events are removed,
+ * so that entities which don't receive events anymore don't keep using memory.</p>
+ *
+ * <p>Events sent to an entity are kept in the same order of the {@link DeferredQueue}.
+ * Buckets are also ordered by the time and {@link SimEvent#getSerial() serial} of their first event,
+ * so that getting the {@link #first() first event} in the queue doesn't require looking into every bucket.
+ * When iterating over all the events in the queue, the buckets are merged following that order.
+ * It can be used by calling {@link CloudSim#setDeferredQueue(DeferredEventQueue)}
+ * before starting the simulation.</p>
+ *
+ * <p>Events sent to different entities can be concurrently looked for and removed,
+ * as long as no event is being added at the same time.
+ * That is required by the {@link CloudSim#enableParallelExecution(java.util.concurrent.ForkJoinPool) parallel execution},
+ * where entities are executed in parallel, but events are just added by the simulation thread.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public class IndexedDeferredQueue implements DeferredEventQueue {
+
+    /**
+     * A map where each key is an entity and each value is the bucket
+     * of events sent to that entity.
+     * Entities are compared by reference, as done by {@link CloudSim}.
+     */
+    private final Map<SimEntity, Bucket> buckets = new IdentityHashMap<>();
+
+    /**
+     * The keys of the non-empty buckets, ordered by the first event of each bucket.
+     * It's a concurrent set because the events of different entities
+     * (changing the first event of their buckets) may be removed concurrently.
+     */
+    private final NavigableSet<HeadKey> orderedBuckets = new ConcurrentSkipListSet<>();
+
+    /**
+     * Buckets which became empty after removing events.
+     * Since events may be removed concurrently, such buckets are just discarded
+     * from the {@link #buckets} map when a new event is added,
+     * which never happens concurrently with removals.
+     */
+    private final Queue<Bucket> drainedBuckets = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @see #isTagIndexEnabled()
+     */
+    private final boolean tagIndexEnabled;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * The number of buckets created, used to assign a unique id to each one.
+     */
+    private long createdBuckets;
+
+    /**
+     * Creates a deferred queue with events indexed by destination entity and by tag.
+     */
+    public IndexedDeferredQueue() {
+        this(true);
+    }
+
+    /**
+     * Creates a deferred queue with events indexed by destination entity.
+     *
+     * @param tagIndexEnabled indicates if the events sent to each entity
+     *                        must also be indexed by their tag
+     */
+    public IndexedDeferredQueue(final boolean tagIndexEnabled) {
+        this.tagIndexEnabled = tagIndexEnabled;
+    }
+
+    @Override
+    public void addEvent(final SimEvent newEvent) {
+        discardDrainedBuckets();
+        final Bucket bucket = buckets.computeIfAbsent(newEvent.getDestination(), this::newBucket);
+        if(bucket.headKey != null) {
+            orderedBuckets.remove(bucket.headKey);
+        }
+
+        bucket.add(newEvent);
+        orderedBuckets.add(bucket.updateHeadKey());
+        size.incrementAndGet();
+    }
+
+    private Bucket newBucket(final SimEntity entity) {
+        return new Bucket(entity, createdBuckets++, tagIndexEnabled);
+    }
+
+    /**
+     * Removes from the {@link #buckets} map the buckets which have no events anymore.
+     */
+    private void discardDrainedBuckets() {
+        Bucket bucket;
+        while((bucket = drainedBuckets.poll()) != null) {
+            if(bucket.isEmpty()) {
+                buckets.remove(bucket.entity, bucket);
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(final SimEvent event) {
+        final Bucket bucket = buckets.get(event.getDestination());
+        if(bucket == null || !bucket.contains(event)) {
+            return false;
+        }
+
+        final boolean headRemoved = bucket.head() == event;
+        if(headRemoved) {
+            orderedBuckets.remove(bucket.headKey);
+        }
+
+        bucket.remove(event);
+        afterRemoval(bucket, headRemoved);
+        return true;
+    }
+
+    /**
+     * Updates the indexes after an event is removed from a bucket.
+     * @param bucket the bucket the event was removed from
+     * @param headRemoved indicates if the removed event was the first one in the bucket
+     *                    (where the bucket was already removed from the {@link #orderedBuckets})
+     */
+    private void afterRemoval(final Bucket bucket, final boolean headRemoved) {
+        size.decrementAndGet();
+        if(bucket.isEmpty()) {
+            bucket.headKey = null;
+            drainedBuckets.add(bucket);
+            return;
+        }
+
+        if(headRemoved) {
+            orderedBuckets.add(bucket.updateHeadKey());
+        }
+    }
+
+    @Override
+    public void clear() {
+        buckets.clear();
+        orderedBuckets.clear();
+        drainedBuckets.clear();
+        size.set(0);
+    }
+
+    @Override
+    public Stream<SimEvent> stream(final SimEntity dest) {
+        final Bucket bucket = buckets.get(dest);
+        return bucket == null ? Stream.empty() : bucket.events.values().stream();
+    }
+
+    @Override
+    public SimEvent findFirst(final SimEntity dest, final Predicate<SimEvent> predicate) {
+        final Bucket bucket = buckets.get(dest);
+        if(bucket == null) {
+            return SimEvent.NULL;
+        }
+
+        for (final SimEvent evt : bucket.candidates(predicate)) {
+            if(predicate.test(evt)) {
+                return evt;
+            }
+        }
+
+        return SimEvent.NULL;
+    }
+
+    @Override
+    public long count(final SimEntity dest, final Predicate<SimEvent> predicate) {
+        final Bucket bucket = buckets.get(dest);
+        if(bucket == null) {
+            return 0;
+        }
+
+        final Collection<SimEvent> candidates = bucket.candidates(predicate);
+        if(predicate == Simulation.ANY_EVT || (tagIndexEnabled && isTagPredicate(predicate))) {
+            return candidates.size();
+        }
+
+        return candidates.stream().filter(predicate).count();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The events of all buckets are lazily merged, following the order of buckets' first events.
+     * Iterating over the events sent to a given entity using
+     * {@link #stream(SimEntity)} is faster.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Iterator<SimEvent> iterator() {
+        return new MergeIterator();
+    }
+
+    @Override
+    public Stream<SimEvent> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED), false);
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    @Override
+    public SimEvent first() throws NoSuchElementException {
+        final HeadKey key = orderedBuckets.isEmpty() ? null : orderedBuckets.first();
+        if(key == null) {
+            throw new NoSuchElementException("The Deferred Queue is empty.");
+        }
+
+        return key.bucket.head();
+    }
+
+    /**
+     * Gets the number of buckets currently stored, which is
+     * the number of entities having events in the queue
+     * (plus drained buckets not discarded yet).
+     * @return
+     */
+    int getBucketsNumber() {
+        return buckets.size();
+    }
+
+    /**
+     * Checks if a predicate just selects events by tag.
+     * Subclasses of {@link PredicateType} are not considered,
+     * since they may define a different selection criteria.
+     *
+     * @param predicate the predicate to check
+     * @return true if it's a {@link PredicateType}, false otherwise
+     */
+    private static boolean isTagPredicate(final Predicate<SimEvent> predicate) {
+        return predicate != null && predicate.getClass() == PredicateType.class;
+    }
+
+    /**
+     * Checks if the events sent to each entity are also indexed by their tag.
+     * @return
+     */
+    public boolean isTagIndexEnabled() {
+        return tagIndexEnabled;
+    }
+
+    /**
+     * Iterates over the events of all buckets, always getting the next event
+     * from the bucket whose current event happens first.
+     * Removing an event through the iterator updates the queue indexes.
+     */
+    private final class MergeIterator implements Iterator<SimEvent> {
+        /** The positions inside buckets, ordered by their current event. */
+        private final PriorityQueue<BucketCursor> cursors;
+        private SimEvent last;
+
+        private MergeIterator() {
+            cursors = new PriorityQueue<>(Math.max(1, buckets.size()));
+            for (final HeadKey key : orderedBuckets) {
+                final BucketCursor cursor = new BucketCursor(key.bucket);
+                if(cursor.current != null) {
+                    cursors.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public SimEvent next() {
+            final BucketCursor cursor = cursors.poll();
+            if(cursor == null) {
+                throw new NoSuchElementException();
+            }
+
+            last = cursor.current;
+            if(cursor.advance()) {
+                cursors.add(cursor);
+            }
+
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if(last == null) {
+                throw new IllegalStateException();
+            }
+
+            IndexedDeferredQueue.this.remove(last);
+            last = null;
+        }
+    }
+
+    /**
+     * An immutable key identifying a bucket by the time and serial of its first event.
+     * Buckets having equivalent first events are ordered by their creation,
+     * ensuring distinct buckets are never considered equal.
+     */
+    private static final class HeadKey implements Comparable<HeadKey> {
+        private final double time;
+        private final long serial;
+        private final Bucket bucket;
+
+        private HeadKey(final SimEvent head, final Bucket bucket) {
+            this.time = head.getTime();
+            this.serial = head.getSerial();
+            this.bucket = bucket;
+        }
+
+        @Override
+        public int compareTo(final HeadKey other) {
+            final int byTime = Double.compare(time, other.time);
+            if(byTime != 0) {
+                return byTime;
+            }
+
+            final int bySerial = Long.compare(serial, other.serial);
+            return bySerial != 0 ? bySerial : Long.compare(bucket.id, other.bucket.id);
+        }
+    }
+
+    /**
+     * The position of a {@link MergeIterator} inside a bucket.
+     * It starts at the bucket's first event and just takes a snapshot of the bucket events
+     * when advancing beyond it, so that events can be removed while iterating.
+     */
+    private static final class BucketCursor implements Comparable<BucketCursor> {
+        private final Bucket bucket;
+        private SimEvent[] events;
+        private int nextIndex;
+        private SimEvent current;
+
+        private BucketCursor(final Bucket bucket) {
+            this.bucket = bucket;
+            this.current = bucket.head();
+        }
+
+        private boolean advance() {
+            if(events == null) {
+                events = bucket.events.values().toArray(new SimEvent[0]);
+                nextIndex = 1;
+            }
+
+            current = nextIndex < events.length ? events[nextIndex++] : null;
+            return current != null;
+        }
+
+        @Override
+        public int compareTo(final BucketCursor other) {
+            final int byTime = Double.compare(current.getTime(), other.current.getTime());
+            if(byTime != 0) {
+                return byTime;
+            }
+
+            final int bySerial = Long.compare(current.getSerial(), other.current.getSerial());
+            return bySerial != 0 ? bySerial : Long.compare(bucket.id, other.bucket.id);
+        }
+    }
+
+    /**
+     * Stores the events sent to a single entity,
+     * keeping them in the order they were added,
+     * but ensuring the temporal order of events.
+     * Events are sorted by their {@link Position} inside the bucket,
+     * so that an event added out of temporal order is inserted in O(log n) time,
+     * and any event can be removed in O(log n) time.
+     */
+    private static final class Bucket {
+        private final SimEntity entity;
+
+        /** A unique id used to order buckets having equivalent first events. */
+        private final long id;
+
+        /** The events in this bucket, sorted by their position. */
+        private final NavigableMap<Position, SimEvent> events = new TreeMap<>();
+
+        /** A map where each key is an event in this bucket and each value is its position. */
+        private final Map<SimEvent, Position> positions = new HashMap<>();
+
+        /**
+         * A map where each key is an event tag and each value contains the events in this bucket having such a tag,
+         * sorted by their position, or null if the tag index is disabled.
+         */
+        private final Map<Integer, NavigableMap<Position, SimEvent>> eventsByTag;
+
+        /** The number of events added to this bucket, used to order events having the same time. */
+        private long addedEvents;
+
+        /**
+         * The key of this bucket inside the ordered set of buckets,
+         * or null if the bucket is empty.
+         */
+        private HeadKey headKey;
+
+        Bucket(final SimEntity entity, final long id, final boolean tagIndexEnabled) {
+            this.entity = entity;
+            this.id = id;
+            eventsByTag = tagIndexEnabled ? new HashMap<>() : null;
+        }
+
+        /**
+         * Gets the first event in the bucket.
+         * @return the first event or null if the bucket is empty
+         */
+        SimEvent head() {
+            return events.isEmpty() ? null : events.firstEntry().getValue();
+        }
+
+        /**
+         * Creates a new key for the current first event in the bucket.
+         * @return the new key
+         */
+        HeadKey updateHeadKey() {
+            headKey = new HeadKey(head(), this);
+            return headKey;
+        }
+
+        boolean isEmpty() {
+            return events.isEmpty();
+        }
+
+        boolean contains(final SimEvent event) {
+            return positions.containsKey(event);
+        }
+
+        /**
+         * Adds an event after all the ones happening at the same time or before it,
+         * which is where the {@link DeferredQueue} inserts it.
+         * @param newEvent the event to add
+         */
+        void add(final SimEvent newEvent) {
+            final Position position = new Position(newEvent.getTime(), addedEvents++);
+            events.put(position, newEvent);
+            positions.put(newEvent, position);
+            if(eventsByTag != null) {
+                eventsByTag.computeIfAbsent(newEvent.getTag(), tag -> new TreeMap<>()).put(position, newEvent);
+            }
+        }
+
+        boolean remove(final SimEvent event) {
+            final Position position = positions.remove(event);
+            if(position == null) {
+                return false;
+            }
+
+            events.remove(position);
+            removeFromTagIndex(event, position);
+            return true;
+        }
+
+        /**
+         * Removes an event from the tag index,
+         * discarding the events for the event tag if they become empty.
+         * @param event the event to remove
+         * @param position the position of the event in this bucket
+         */
+        private void removeFromTagIndex(final SimEvent event, final Position position) {
+            if(eventsByTag == null) {
+                return;
+            }
+
+            final NavigableMap<Position, SimEvent> tagEvents = eventsByTag.get(event.getTag());
+            if(tagEvents != null && tagEvents.remove(position) != null && tagEvents.isEmpty()) {
+                eventsByTag.remove(event.getTag());
+            }
+        }
+
+        /**
+         * Gets the events which may match a given predicate.
+         * @param predicate the event selection predicate
+         * @return the events sent to this bucket's entity with the tag
+         * selected by the predicate (if it's a {@link PredicateType} and the tag index is enabled);
+         * or all the events sent to such an entity otherwise.
+         */
+        Collection<SimEvent> candidates(final Predicate<SimEvent> predicate) {
+            if(eventsByTag != null && isTagPredicate(predicate)) {
+                final NavigableMap<Position, SimEvent> tagEvents = eventsByTag.get(((PredicateType) predicate).getTag());
+                return tagEvents == null ? Collections.emptyList() : tagEvents.values();
+            }
+
+            return events.values();
+        }
+    }
+
+    /**
+     * The position of an event inside a {@link Bucket}, given by the event time and
+     * the order the event was added to the bucket.
+     */
+    private static final class Position implements Comparable<Position> {
+        private final double time;
+        private final long order;
+
+        private Position(final double time, final long order) {
+            this.time = time;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(final Position other) {
+            final int byTime = Double.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(order, other.order);
+        }
+    }
+}
@@ -30,6 +30,14 @@ public class PredicateType implements Predicate<SimEvent> {
         this.tag = tag;
     }
 
+    /**
+     * Gets the tag of the events selected by this predicate.
+     * @return
+     */
+    public int getTag() {
+        return tag;
+    }
+
     /**
      * Matches any event that has one of the specified {@link #tag}.
      *
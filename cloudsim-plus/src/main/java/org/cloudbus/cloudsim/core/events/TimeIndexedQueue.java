@@ -0,0 +1,301 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.core.events;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A {@link FutureEventQueue} that indexes events by their time,
+ * keeping all events happening at the same time into a single batch.
+ * This way, the {@link CloudSim} engine is able to remove all the events
+ * for the next simulation time in a single operation,
+ * by calling {@link #removeFirstBatch()}.
+ *
+ * <p>Adding an event takes O(log t) time,
+ * where t is the number of different times in the queue,
+ * which is usually much lower than the number of events,
+ * since simulations have lots of events happening at the same time.
+ * Removing the next batch of events also takes O(log t) time,
+ * instead of O(k log n) to remove k events one by one from the {@link FutureQueue}.</p>
+ *
+ * <p>Events inside a batch are kept in the same order
+ * of the {@link FutureQueue}, according to their {@link SimEvent#getSerial() serial}.
+ * It can be used by calling {@link CloudSim#setFutureQueue(FutureEventQueue)}
+ * before starting the simulation.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public class TimeIndexedQueue implements FutureEventQueue {
+    /**
+     * A map where each key is a simulation time and
+     * each value is the list of events happening at that time,
+     * sorted by the event serial.
+     */
+    private final NavigableMap<Double, List<SimEvent>> batches = new TreeMap<>();
+
+    private int size;
+
+    /**
+     * A incremental number used for {@link SimEvent#getSerial()} event attribute.
+     */
+    private long serial;
+
+    /**
+     * Number of structural changes in the queue, used to make iterators fail-fast.
+     */
+    private int modCount;
+
+    @Override
+    public void addEvent(final SimEvent newEvent) {
+        newEvent.setSerial(serial++);
+        //Since serials are always increasing, the event is the last one in its batch
+        batch(newEvent.getTime()).add(newEvent);
+        afterAddition();
+    }
+
+    @Override
+    public void addEventFirst(final SimEvent newEvent) {
+        newEvent.setSerial(0);
+        final List<SimEvent> batch = batch(newEvent.getTime());
+
+        //Places the event after the ones that were also added to the head of the batch
+        int index = 0;
+        while (index < batch.size() && batch.get(index).getSerial() == 0) {
+            index++;
+        }
+
+        batch.add(index, newEvent);
+        afterAddition();
+    }
+
+    private List<SimEvent> batch(final double time) {
+        return batches.computeIfAbsent(key(time), t -> new ArrayList<>());
+    }
+
+    /**
+     * Gets the key of the batch for a given time.
+     * Since {@link Double#compareTo(Double)} considers -0.0 lower than 0.0,
+     * the time is normalized so that both values, which are equal
+     * when compared with ==, are placed into the same batch.
+     *
+     * @param time the time to get the batch key
+     * @return the batch key
+     */
+    private static Double key(final double time) {
+        return time + 0.0;
+    }
+
+    private void afterAddition() {
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public SimEvent first() throws NoSuchElementException {
+        if(size == 0){
+            throw new NoSuchElementException("The Time Indexed Queue is empty.");
+        }
+
+        return batches.firstEntry().getValue().get(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * This implementation removes the whole batch in a single operation.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SimEvent> removeFirstBatch() throws NoSuchElementException {
+        if(size == 0){
+            throw new NoSuchElementException("The Time Indexed Queue is empty.");
+        }
+
+        final List<SimEvent> batch = batches.pollFirstEntry().getValue();
+        size -= batch.size();
+        modCount++;
+        return batch;
+    }
+
+    @Override
+    public boolean remove(final SimEvent event) {
+        final List<SimEvent> batch = batches.get(key(event.getTime()));
+        if(batch == null) {
+            return false;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            if(batch.get(i) == event) {
+                removeFromBatch(batch, i);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void removeFromBatch(final List<SimEvent> batch, final int index) {
+        final SimEvent event = batch.remove(index);
+        if(batch.isEmpty()) {
+            batches.remove(key(event.getTime()));
+        }
+
+        size--;
+        modCount++;
+    }
+
+    @Override
+    public boolean removeAll(final Collection<SimEvent> events) {
+        boolean removed = false;
+        for (final SimEvent event : events) {
+            removed |= remove(event);
+        }
+
+        return removed;
+    }
+
+    @Override
+    public boolean removeIf(final Predicate<SimEvent> predicate) {
+        final int previousSize = size;
+        for (final Iterator<List<SimEvent>> it = batches.values().iterator(); it.hasNext(); ) {
+            final List<SimEvent> batch = it.next();
+            final int batchSize = batch.size();
+            if(batch.removeIf(predicate)) {
+                size -= batchSize - batch.size();
+                if(batch.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+
+        if(size == previousSize) {
+            return false;
+        }
+
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        batches.clear();
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<SimEvent> iterator() {
+        return new BatchIterator();
+    }
+
+    @Override
+    public Stream<SimEvent> stream() {
+        return batches.values().stream().flatMap(List::stream);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the number of different times for the events in the queue.
+     * @return
+     */
+    public int getBatchesNumber() {
+        return batches.size();
+    }
+
+    /**
+     * Iterates over the events of every batch, in the order they will be processed.
+     */
+    private final class BatchIterator implements Iterator<SimEvent> {
+        private final Iterator<List<SimEvent>> batchIterator = batches.values().iterator();
+        private List<SimEvent> batch = Collections.emptyList();
+
+        /**
+         * Index of the next event to return from the current batch.
+         */
+        private int index;
+
+        private int remaining = size;
+        private int expectedModCount = modCount;
+        private boolean canRemove;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public SimEvent next() {
+            checkForComodification();
+            if(remaining == 0) {
+                throw new NoSuchElementException();
+            }
+
+            while (index == batch.size()) {
+                batch = batchIterator.next();
+                index = 0;
+            }
+
+            remaining--;
+            canRemove = true;
+            return batch.get(index++);
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+            if(!canRemove) {
+                throw new IllegalStateException();
+            }
+
+            batch.remove(--index);
+            if(batch.isEmpty()) {
+                batchIterator.remove();
+            }
+
+            canRemove = false;
+            size--;
+            modCount++;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -125,6 +125,34 @@ public interface Datacenter extends SimEntity, PowerAware {
      */
     <T extends Vm> List<T> getVmList();
 
+    /**
+     * Notifies the Datacenter that a VM is about to be placed into a given Host,
+     * so that the Datacenter can bring the Host processing up to the current time before that.
+     * This method is called by the Host itself.
+     *
+     * @param host the Host which is about to have its VM list changed
+     */
+    void notifyHostVmListChanging(Host host);
+
+    /**
+     * Notifies the Datacenter that VMs were placed into or removed from a given Host,
+     * so that the list returned by {@link #getVmList()} is updated.
+     * Host implementations must call this method every time their VM list changes.
+     *
+     * @param host the Host which had its VM list changed
+     */
+    void notifyHostVmListChanged(Host host);
+
+    /**
+     * Notifies the Datacenter that the ID of one of its Hosts was changed,
+     * so that {@link #getHostById(long)} finds the Host by the new ID.
+     * This method is called by the Host itself.
+     *
+     * @param host the Host which had its ID changed
+     * @param previousId the ID the Host had before
+     */
+    void notifyHostIdChanged(Host host, long previousId);
+
     /**
      * Gets the scheduling interval to process each event received by the
      * Datacenter (in seconds). This value defines the interval in which
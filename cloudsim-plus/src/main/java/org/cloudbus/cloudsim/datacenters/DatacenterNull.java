@@ -43,6 +43,9 @@ final class DatacenterNull implements Datacenter {
         return Host.NULL;
     }
     @Override public Host getHostById(long id) { return Host.NULL; }
+    @Override public void notifyHostVmListChanging(Host host) {/**/}
+    @Override public void notifyHostVmListChanged(Host host) {/**/}
+    @Override public void notifyHostIdChanged(Host host, long previousId) {/**/}
     @Override public <T extends Host> Datacenter addHostList(List<T> hostList) { return this; }
     @Override public <T extends Host> Datacenter removeHost(T host) { return this; }
     @Override public Datacenter addHost(Host host) { return this; }
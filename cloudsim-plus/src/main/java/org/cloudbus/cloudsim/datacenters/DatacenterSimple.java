@@ -19,10 +19,12 @@ import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.network.IcmpPacket;
 import org.cloudbus.cloudsim.resources.DatacenterStorage;
 import org.cloudbus.cloudsim.resources.FileStorage;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletScheduler;
 import org.cloudbus.cloudsim.util.Conversion;
 import org.cloudbus.cloudsim.util.MathUtil;
 import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudsimplus.autoscaling.HorizontalVmScaling;
 import org.cloudsimplus.autoscaling.VerticalVmScaling;
 import org.cloudsimplus.faultinjection.HostFaultInjection;
 import org.cloudsimplus.listeners.EventListener;
@@ -31,6 +33,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
@@ -47,6 +53,14 @@ import static java.util.stream.Collectors.toList;
 public class DatacenterSimple extends CloudSimEntity implements Datacenter {
     private static final Logger LOGGER = LoggerFactory.getLogger(DatacenterSimple.class.getSimpleName());
 
+    /**
+     * The minimum number of Hosts each task updates when the
+     * {@link #setHostsProcessingExecutor(ExecutorService) parallel processing of Hosts} is enabled.
+     * Datacenters with less than twice this number of Hosts update them sequentially,
+     * since splitting the work wouldn't pay off.
+     */
+    public static final int MIN_HOSTS_PER_PROCESSING_TASK = 256;
+
     /**
      * @see #getBandwidthPercentForMigration()
      */
@@ -64,6 +78,26 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
 
     private List<? extends Host> hostList;
 
+    /**
+     * A read-only view of the {@link #hostList} which is created just once,
+     * so that {@link #getHostList()} doesn't instantiate a new wrapper at every call.
+     */
+    private List<? extends Host> hostListView;
+
+    /**
+     * An index of the {@link #hostList}, where each key is a Host ID,
+     * to enable {@link #getHostById(long)} to find a Host in constant time.
+     */
+    private final Map<Long, Host> hostsById;
+
+    /**
+     * A read-only list of all VMs from all Hosts, cached so that {@link #getVmList()}
+     * doesn't build a new list at every call.
+     * It's set to null when some Host's VM list changes, to be built again on the next call.
+     * @see #notifyHostVmListChanged(Host)
+     */
+    private List<Vm> vmList;
+
     /** @see #getCharacteristics() */
     private final DatacenterCharacteristics characteristics;
 
@@ -82,6 +116,50 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
 
     private List<EventListener<HostEventInfo>> onHostAvailableListeners;
 
+    /** @see #getHostsProcessingExecutor() */
+    private ExecutorService hostsProcessingExecutor;
+
+    /** @see #isIncrementalHostsProcessing() */
+    private boolean incrementalHostsProcessing;
+
+    /**
+     * The time each Host has to be updated when the
+     * {@link #isIncrementalHostsProcessing() incremental processing} is enabled.
+     */
+    private final HostUpdateTimeQueue hostUpdateTimeQueue;
+
+    /**
+     * Hosts whose VMs or Cloudlets have changed since their last processing update,
+     * which have to be updated in the next one when the
+     * {@link #isIncrementalHostsProcessing() incremental processing} is enabled.
+     */
+    private final Set<Host> changedHosts;
+
+    /**
+     * Hosts updated since the last time the completion of Cloudlets was checked,
+     * when the {@link #isIncrementalHostsProcessing() incremental processing} is enabled.
+     */
+    private final Set<Host> hostsToCheckCloudletsCompletion;
+
+    /**
+     * A map where each key is a Host and each value is its power consumption (in Watts)
+     * at the last time it was updated, when the
+     * {@link #isIncrementalHostsProcessing() incremental processing} is enabled.
+     * @see #hostsPowerSum
+     */
+    private final Map<Host, Double> hostsPower;
+
+    /**
+     * The sum of the values in {@link #hostsPower}.
+     */
+    private double hostsPowerSum;
+
+    /**
+     * A map where each key is a Host and each value is the last time its processing was updated,
+     * when the {@link #isIncrementalHostsProcessing() incremental processing} is enabled.
+     */
+    private final Map<Host, Double> hostsUpdateTime;
+
     /**
      * Creates a Datacenter with an empty {@link #getDatacenterStorage() storage}
      * and no Hosts.
@@ -148,6 +226,7 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
         final DatacenterStorage storage)
     {
         super(simulation);
+        this.hostsById = new HashMap<>();
         setHostList(hostList);
 
         setLastProcessTime(0.0);
@@ -155,15 +234,22 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
         setDatacenterStorage(storage);
 
         this.onHostAvailableListeners = new ArrayList<>();
+        this.hostUpdateTimeQueue = new HostUpdateTimeQueue();
+        this.changedHosts = new LinkedHashSet<>();
+        this.hostsToCheckCloudletsCompletion = new LinkedHashSet<>();
+        this.hostsPower = new IdentityHashMap<>();
+        this.hostsUpdateTime = new IdentityHashMap<>();
         this.characteristics = new DatacenterCharacteristicsSimple(this);
         this.bandwidthPercentForMigration = DEF_BW_PERCENT_FOR_MIGRATION;
         this.migrationsEnabled = true;
+        setBatchEventProcessing(true);
 
         setVmAllocationPolicy(vmAllocationPolicy);
     }
 
     private void setHostList(final List<? extends Host> hostList) {
         this.hostList = requireNonNull(hostList);
+        this.hostListView = Collections.unmodifiableList(hostList);
         setupHosts();
     }
 
@@ -174,6 +260,9 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
         }
 
         Simulation.setIdForEntitiesWithoutOne(this.hostList);
+        hostsById.clear();
+        hostList.forEach(host -> hostsById.put(host.getId(), host));
+        vmList = null;
     }
 
     @Override
@@ -185,6 +274,41 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
         LOGGER.trace("{}: {}: Unknown event {} received.", getSimulation().clock(), this, evt.getTag());
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Consecutive {@link CloudSimTags#VM_UPDATE_CLOUDLET_PROCESSING} events in the batch
+     * are coalesced: if the processing of Cloudlets was already updated at the current time,
+     * such events don't sweep all Hosts again and the completion of Cloudlets
+     * is checked just once for the whole sequence.
+     * The pending check is performed before any other event is processed,
+     * so that events such as a Cloudlet cancellation or pause see the same state
+     * they would see if the events were processed one by one.</p>
+     *
+     * @param batch {@inheritDoc}
+     */
+    @Override
+    protected void processEventBatch(final List<SimEvent> batch) {
+        boolean completionCheckPending = false;
+        for (final SimEvent evt : batch) {
+            if (evt.getTag() == CloudSimTags.VM_UPDATE_CLOUDLET_PROCESSING && !isTimeToUpdateCloudletsProcessing()) {
+                completionCheckPending = true;
+                continue;
+            }
+
+            if (completionCheckPending) {
+                checkCloudletsCompletionForAllHosts();
+                completionCheckPending = false;
+            }
+
+            processEvent(evt);
+        }
+
+        if (completionCheckPending) {
+            checkCloudletsCompletionForAllHosts();
+        }
+    }
+
     private boolean processHostEvents(final SimEvent evt) {
         if (evt.getTag() == CloudSimTags.HOST_ADD) {
             processHostAdditionRequest(evt);
@@ -231,6 +355,7 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
             LOGGER.error(
                 "{}: {}: Host {} removed from {} due to injected failure.",
                 getSimulation().clock(), getClass().getSimpleName(), host.getId(), this);
+            notifyHostChange(host);
             fault.generateHostFault(host);
         } finally{
             fault.shutdownEntity();
@@ -274,6 +399,9 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
             case CloudSimTags.VM_CREATE_ACK:
                 processVmCreate(evt, true);
                 return true;
+            case CloudSimTags.VM_CREATE_BATCH_ACK:
+                processVmCreateBatch(evt);
+                return true;
             case CloudSimTags.VM_VERTICAL_SCALING:
                 requestVmVerticalScaling(evt);
                 return true;
@@ -310,7 +438,10 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
             return false;
         }
 
-        return vmAllocationPolicy.scaleVmVertically((VerticalVmScaling)evt.getData());
+        final VerticalVmScaling scaling = (VerticalVmScaling)evt.getData();
+        final Host host = scaling.getVm().getHost();
+        notifyHostChange(host);
+        return vmAllocationPolicy.scaleVmVertically(scaling);
     }
 
     private boolean processCloudletEvents(final SimEvent evt) {
@@ -323,6 +454,10 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
             case CloudSimTags.CLOUDLET_SUBMIT_ACK:
                 processCloudletSubmit(evt, true);
                 return true;
+            // A batch of new Cloudlets arrives
+            case CloudSimTags.CLOUDLET_SUBMIT_BATCH:
+                processCloudletSubmitBatch(evt);
+                return true;
             // Cancels a previously submitted Cloudlet
             case CloudSimTags.CLOUDLET_CANCEL:
                 processCloudlet(evt, CloudSimTags.CLOUDLET_CANCEL);
@@ -416,10 +551,39 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
             return;
         }
 
-        cloudlet.assignToDatacenter(this);
         submitCloudletToVm(cloudlet, ack);
     }
 
+    /**
+     * Processes the submission of a batch of Cloudlets by a DatacenterBroker,
+     * submitting all of them to their VMs and scheduling a single update
+     * of Cloudlets processing for the whole batch,
+     * instead of one for each Cloudlet.
+     *
+     * @param evt information about the event just happened, containing the list of Cloudlets to submit
+     * @see CloudSimTags#CLOUDLET_SUBMIT_BATCH
+     */
+    @SuppressWarnings("unchecked")
+    protected void processCloudletSubmitBatch(final SimEvent evt) {
+        final List<Cloudlet> cloudletList = (List<Cloudlet>) evt.getData();
+        double nextFinishTime = Double.MAX_VALUE;
+        for (final Cloudlet cloudlet : cloudletList) {
+            if (cloudlet.isFinished()) {
+                notifyBrokerAboutFinishedCloudlet(cloudlet, false);
+                continue;
+            }
+
+            final double estimatedFinishTime = submitCloudletToVmScheduler(cloudlet);
+            if (isCloudletInExecution(estimatedFinishTime)) {
+                nextFinishTime = Math.min(nextFinishTime, estimatedFinishTime);
+            }
+        }
+
+        if (nextFinishTime < Double.MAX_VALUE) {
+            send(this, getCloudletProcessingUpdateInterval(nextFinishTime), CloudSimTags.VM_UPDATE_CLOUDLET_PROCESSING);
+        }
+    }
+
     /**
      * Submits a cloudlet to be executed inside its bind VM.
      *
@@ -428,14 +592,8 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
      * receives the cloudlet submission
      */
     private void submitCloudletToVm(final Cloudlet cloudlet, final boolean ack) {
-        // time to transfer cloudlet's files
-        final double fileTransferTime = getDatacenterStorage().predictFileTransferTime(cloudlet.getRequiredFiles());
-
-        final CloudletScheduler scheduler = cloudlet.getVm().getCloudletScheduler();
-        final double estimatedFinishTime = scheduler.cloudletSubmit(cloudlet, fileTransferTime);
-
-        // if this cloudlet is in the exec queue
-        if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
+        final double estimatedFinishTime = submitCloudletToVmScheduler(cloudlet);
+        if (isCloudletInExecution(estimatedFinishTime)) {
             send(this,
                 getCloudletProcessingUpdateInterval(estimatedFinishTime),
                 CloudSimTags.VM_UPDATE_CLOUDLET_PROCESSING);
@@ -444,6 +602,33 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
         sendCloudletSubmitAckToBroker(cloudlet, ack);
     }
 
+    /**
+     * Assigns a Cloudlet to this Datacenter and submits it to the {@link CloudletScheduler} of its VM.
+     *
+     * @param cloudlet the cloudlet to the executed
+     * @return the estimated time for the Cloudlet to finish
+     * or 0 if it was added to the waiting list
+     */
+    private double submitCloudletToVmScheduler(final Cloudlet cloudlet) {
+        cloudlet.assignToDatacenter(this);
+        notifyHostChange(cloudlet.getVm().getHost());
+
+        // time to transfer cloudlet's files
+        final double fileTransferTime = getDatacenterStorage().predictFileTransferTime(cloudlet.getRequiredFiles());
+
+        final CloudletScheduler scheduler = cloudlet.getVm().getCloudletScheduler();
+        return scheduler.cloudletSubmit(cloudlet, fileTransferTime);
+    }
+
+    /**
+     * Checks if a Cloudlet was added to the execution list of its VM's scheduler.
+     * @param estimatedFinishTime the estimated finish time returned when the Cloudlet was submitted
+     * @return true if the Cloudlet is in the execution list, false otherwise
+     */
+    private boolean isCloudletInExecution(final double estimatedFinishTime) {
+        return estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime);
+    }
+
     /**
      * Gets the time when the next update of cloudlets has to be performed.
      * This is the minimum value between the {@link #getSchedulingInterval()} and the given time
@@ -482,6 +667,7 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
      * acknowledge message when the event finishes to be processed
      */
     protected void processCloudletResume(final Cloudlet cloudlet, final boolean ack) {
+        notifyHostChange(cloudlet.getVm().getHost());
         final double estimatedFinishTime = cloudlet.getVm()
             .getCloudletScheduler().cloudletResume(cloudlet);
 
@@ -504,6 +690,7 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
      * acknowledge message when the event finishes to be processed
      */
     protected void processCloudletPause(final Cloudlet cloudlet, final boolean ack) {
+        notifyHostChange(cloudlet.getVm().getHost());
         cloudlet.getVm().getCloudletScheduler().cloudletPause(cloudlet);
 
         if (ack) {
@@ -517,6 +704,7 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
      * @param cloudlet cloudlet to be canceled
      */
     protected void processCloudletCancel(final Cloudlet cloudlet) {
+        notifyHostChange(cloudlet.getVm().getHost());
         cloudlet.getVm().getCloudletScheduler().cloudletCancel(cloudlet);
         sendNow(cloudlet.getBroker(), CloudSimTags.CLOUDLET_CANCEL, cloudlet);
     }
@@ -535,7 +723,44 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
         final Vm vm = (Vm) evt.getData();
 
         final boolean hostAllocatedForVm = vmAllocationPolicy.allocateHostForVm(vm);
+        processVmCreateResult(vm, hostAllocatedForVm, ackRequested);
+        return hostAllocatedForVm;
+    }
+
+    /**
+     * Process the event for a Broker which wants to create a batch of VMs in this
+     * Datacenter, placing all of them at once using the {@link #getVmAllocationPolicy()}.
+     * This Datacenter will then send the status of each VM back to its Broker.
+     *
+     * @param evt information about the event just happened, containing the list of VMs to create
+     * @return the list of VMs for which a host could not be allocated
+     * @see VmAllocationPolicy#allocateHostForVmList(List)
+     */
+    @SuppressWarnings("unchecked")
+    protected List<Vm> processVmCreateBatch(final SimEvent evt) {
+        final List<Vm> vmList = (List<Vm>) evt.getData();
+
+        final List<Vm> notAllocatedVms = vmAllocationPolicy.allocateHostForVmList(vmList);
+        final Set<Vm> notAllocatedVmsSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        notAllocatedVmsSet.addAll(notAllocatedVms);
+        for (final Vm vm : vmList) {
+            processVmCreateResult(vm, !notAllocatedVmsSet.contains(vm), true);
+        }
+
+        return notAllocatedVms;
+    }
 
+    /**
+     * Process the result of the request to create a VM,
+     * sending the status back to the Broker if requested and
+     * updating the VM processing if it was placed into a Host.
+     *
+     * @param vm the VM requested to be created
+     * @param hostAllocatedForVm indicates if a host was allocated to the VM
+     * @param ackRequested indicates if the event's sender expects to receive an
+     * acknowledge message when the event finishes to be processed
+     */
+    private void processVmCreateResult(final Vm vm, final boolean hostAllocatedForVm, final boolean ackRequested) {
         if (ackRequested) {
             send(vm.getBroker(), getSimulation().getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_ACK, vm);
         }
@@ -545,11 +770,9 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
                 vm.setCreated(true);
             }
 
-            final List<Double> mipsList = vm.getHost().getVmScheduler().getAllocatedMips(vm);
-            vm.updateProcessing(getSimulation().clock(), mipsList);
+            final MipsShare mipsShare = vm.getHost().getVmScheduler().getAllocatedMipsShare(vm);
+            vm.updateProcessingWithMipsShare(getSimulation().clock(), mipsShare);
         }
-
-        return hostAllocatedForVm;
     }
 
     /**
@@ -564,6 +787,7 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
     protected void processVmDestroy(final SimEvent evt, final boolean ack) {
         final Vm vm = (Vm) evt.getData();
         final int cloudlets = vm.getCloudletScheduler().getCloudletList().size();
+        notifyHostChange(vm.getHost());
         vmAllocationPolicy.deallocateHostForVm(vm);
 
         if (ack) {
@@ -595,6 +819,8 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
 
         final Vm vm = entry.getKey();
         final Host targetHost = entry.getValue();
+        notifyHostChange(vm.getHost());
+        notifyHostChange(targetHost);
 
         //Updates processing of all Hosts to get the latest state for all Hosts before migrating VMs
         updateHostsProcessing();
@@ -610,6 +836,7 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
         }
 
         vm.setInMigration(false);
+        notifyHostChange(targetHost);
 
         final SimEvent event = getSimulation().findFirstDeferred(this, new PredicateType(CloudSimTags.VM_MIGRATE));
         if (event == null || event.getTime() > getSimulation().clock()) {
@@ -678,12 +905,33 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
      * or {@link Double#MAX_VALUE} if there is no next Cloudlet to execute
      */
     private double updateHostsProcessing() {
+        if (incrementalHostsProcessing) {
+            return updateChangedHostsProcessing();
+        }
+
+        if (isParallelHostsProcessing()) {
+            return updateHostsProcessingInParallel();
+        }
+
         double nextSimulationTime = Double.MAX_VALUE;
         for (final Host host : getHostList()) {
             final double time = host.updateProcessing(getSimulation().clock());
             nextSimulationTime = Math.min(time, nextSimulationTime);
         }
 
+        return finishHostsProcessing(nextSimulationTime);
+    }
+
+    /**
+     * Performs the final steps after all Hosts are updated,
+     * which are the same for the sequential and the parallel update:
+     * ensures a minimal interval for the next update and
+     * computes the power consumed by Hosts since the last update.
+     *
+     * @param nextSimulationTime the predicted completion time of the earliest finishing cloudlet in all Hosts
+     * @return the given time, increased to the minimal interval between events if needed
+     */
+    private double finishHostsProcessing(double nextSimulationTime) {
         // Guarantees a minimal interval before scheduling the event
         final double minTimeBetweenEvents = getSimulation().getMinTimeBetweenEvents()+0.01;
         nextSimulationTime = Math.max(nextSimulationTime, minTimeBetweenEvents);
@@ -712,16 +960,273 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
 
         double datacenterTimeSpanPowerUse = 0;
         for (final Host host : this.getHostList()) {
-            final double prevCpuUsage = host.getPreviousUtilizationOfCpu();
-            final double cpuUsage = host.getUtilizationOfCpu();
-            final double timeFrameHostEnergy =
-                host.getPowerModel().getEnergyLinearInterpolation(prevCpuUsage, cpuUsage, getSimulation().clock() - getLastProcessTime());
-            datacenterTimeSpanPowerUse += timeFrameHostEnergy;
+            datacenterTimeSpanPowerUse += getHostPowerUsageForTimeSpan(host, getSimulation().clock() - getLastProcessTime());
         }
 
         return datacenterTimeSpanPowerUse;
     }
 
+    /**
+     * Gets an <b>estimation</b> of the power consumed (in Watts-sec) by a Host in a given time span.
+     *
+     * @param host the Host to get the power consumption
+     * @param timeSpan the time span since the last time the processing of Cloudlets in the Host was updated
+     * @return the <b>estimated</b> power consumed (in Watts-sec) by the Host in the given time span
+     */
+    private double getHostPowerUsageForTimeSpan(final Host host, final double timeSpan) {
+        return getHostPowerUsageForTimeSpan(host, host.getPreviousUtilizationOfCpu(), timeSpan);
+    }
+
+    private double getHostPowerUsageForTimeSpan(final Host host, final double prevCpuUsage, final double timeSpan) {
+        final double cpuUsage = host.getUtilizationOfCpu();
+        return host.getPowerModel().getEnergyLinearInterpolation(prevCpuUsage, cpuUsage, timeSpan);
+    }
+
+    /**
+     * Checks if the processing of Hosts has to be updated in parallel,
+     * which just happens when an {@link #setHostsProcessingExecutor(ExecutorService) executor} is set
+     * and there are enough Hosts to split the work.
+     * @return
+     */
+    private boolean isParallelHostsProcessing() {
+        return hostsProcessingExecutor != null && getHostList().size() >= 2 * MIN_HOSTS_PER_PROCESSING_TASK;
+    }
+
+    /**
+     * Updates the processing of all Hosts in parallel, splitting the Host list into
+     * contiguous sub-lists that are updated by the {@link #getHostsProcessingExecutor() executor}.
+     *
+     * <p>A VM being migrated is inside the VM list of both the source and target Hosts,
+     * so that updating such Hosts concurrently would update the same VM and Cloudlet scheduler at the same time.
+     * Additionally, the scaling objects of a VM are notified when the VM is updated
+     * and may submit new VMs to the broker or send events, which can't be performed concurrently.
+     * Therefore, Hosts with VMs migrating in or out, or with VMs having some scaling object,
+     * are not updated by the parallel tasks, but sequentially (in the order of the Host list) after all tasks finish.
+     * Since all the other Hosts don't share any VM, the result is the same of the sequential update.</p>
+     *
+     * <p>The power consumed by Hosts is just computed after all of them are updated,
+     * in the order of the Host list. This way, the {@link #getPower() Datacenter power}
+     * is exactly the same computed by the sequential update.</p>
+     *
+     * @return the predicted completion time of the earliest finishing cloudlet
+     * (which is a relative delay from the current simulation time),
+     * or {@link Double#MAX_VALUE} if there is no next Cloudlet to execute
+     * @see #updateHostsProcessing()
+     */
+    private double updateHostsProcessingInParallel() {
+        final List<? extends Host> hosts = getHostList();
+        final List<Host> independentHosts = new ArrayList<>(hosts.size());
+        final List<Host> sequentialHosts = new ArrayList<>();
+        for (final Host host : hosts) {
+            if (isSequentialUpdateRequired(host)) {
+                sequentialHosts.add(host);
+            } else {
+                independentHosts.add(host);
+            }
+        }
+
+        final int tasksNumber = Math.max(1, Math.min(independentHosts.size() / MIN_HOSTS_PER_PROCESSING_TASK, Runtime.getRuntime().availableProcessors()));
+        final List<Callable<Double>> tasks = new ArrayList<>(tasksNumber);
+        for (int i = 0; i < tasksNumber; i++) {
+            final int fromIndex = (int)((long)independentHosts.size() * i / tasksNumber);
+            final int toIndex = (int)((long)independentHosts.size() * (i + 1) / tasksNumber);
+            tasks.add(() -> updateHostsProcessing(independentHosts.subList(fromIndex, toIndex)));
+        }
+
+        double nextSimulationTime = Double.MAX_VALUE;
+        for (final Future<Double> future : invokeHostsProcessingTasks(tasks)) {
+            nextSimulationTime = Math.min(getHostsProcessingTaskResult(future), nextSimulationTime);
+        }
+
+        nextSimulationTime = Math.min(updateHostsProcessing(sequentialHosts), nextSimulationTime);
+        return finishHostsProcessing(nextSimulationTime);
+    }
+
+    /**
+     * Checks if a Host has to be updated sequentially during the
+     * {@link #updateHostsProcessingInParallel() parallel update of Hosts}.
+     * That happens when the Host has VMs migrating in or out
+     * (which are also updated by another Host)
+     * or VMs with some scaling object.
+     * Scaling objects are notified when VMs are updated and may submit new VMs
+     * or send events, which can't be performed concurrently.
+     *
+     * @param host the Host to check
+     * @return true if the Host must be updated sequentially, false otherwise
+     */
+    private boolean isSequentialUpdateRequired(final Host host) {
+        if (!host.getVmsMigratingIn().isEmpty() || !host.getVmsMigratingOut().isEmpty()) {
+            return true;
+        }
+
+        for (final Vm vm : host.getVmList()) {
+            if (vm.getHorizontalScaling() != HorizontalVmScaling.NULL ||
+                vm.getRamVerticalScaling() != VerticalVmScaling.NULL ||
+                vm.getBwVerticalScaling() != VerticalVmScaling.NULL ||
+                vm.getPeVerticalScaling() != VerticalVmScaling.NULL)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Updates the processing of a list of Hosts.
+     *
+     * @param hosts the Hosts to update
+     * @return the predicted completion time of the earliest finishing cloudlet in the list of Hosts
+     */
+    private double updateHostsProcessing(final List<Host> hosts) {
+        final double clock = getSimulation().clock();
+        double nextSimulationTime = Double.MAX_VALUE;
+        for (final Host host : hosts) {
+            nextSimulationTime = Math.min(host.updateProcessing(clock), nextSimulationTime);
+        }
+
+        return nextSimulationTime;
+    }
+
+    /**
+     * Updates just the processing of Hosts that have changed or that are
+     * scheduled to be updated up to the current time,
+     * when the {@link #isIncrementalHostsProcessing() incremental processing} is enabled.
+     *
+     * <p>The power consumed by the updated Hosts since the {@link #getLastProcessTime() last processing time}
+     * is computed the same way the update of all Hosts does, from the CPU utilization
+     * before and after the update (even if a Host was brought up to date before a change in between).
+     * The power consumed by the other Hosts is computed considering their CPU utilization
+     * didn't change since their last update.
+     * This way, the {@link #getPower() Datacenter power} is the same computed by the update of all Hosts.</p>
+     *
+     * @return the predicted completion time of the earliest finishing cloudlet
+     * (which is a relative delay from the current simulation time),
+     * or {@link Double#MAX_VALUE} if there is no next Cloudlet to execute
+     * @see #updateHostsProcessing()
+     */
+    private double updateChangedHostsProcessing() {
+        final double clock = getSimulation().clock();
+        final double timeSpan = clock - getLastProcessTime();
+        /*Hosts scheduled to be updated closer to the current time than the minimal time between events
+        * are also due, the same way that the processing update isn't performed twice in such an interval.
+        * This way, Hosts aren't missed due to rounding errors in their scheduled time.*/
+        final List<Host> hosts = hostUpdateTimeQueue.removeDue(clock + getSimulation().getMinTimeBetweenEvents());
+        changedHosts.removeAll(hosts);
+        hosts.addAll(changedHosts);
+        changedHosts.clear();
+
+        double updatedHostsTimeSpanPowerUse = 0;
+        double updatedHostsPower = 0;
+        for (final Host host : hosts) {
+            final double nextTime = updateHostProcessing(host);
+            hostUpdateTimeQueue.schedule(host, nextTime == Double.MAX_VALUE ? nextTime : clock + nextTime);
+            hostsToCheckCloudletsCompletion.add(host);
+
+            final double hostPower = getHostPowerUsageForTimeSpan(host, host.getUtilizationOfCpu(), 1);
+            final Double previousPower = hostsPower.put(host, hostPower);
+            if (previousPower != null) {
+                hostsPowerSum -= previousPower;
+            }
+            hostsPowerSum += hostPower;
+            updatedHostsPower += hostPower;
+
+            if (timeSpan != 0) {
+                updatedHostsTimeSpanPowerUse += getHostPowerUsageForTimeSpan(host, timeSpan);
+            }
+        }
+
+        double nextSimulationTime = hostUpdateTimeQueue.getFirstTime();
+        nextSimulationTime = nextSimulationTime == Double.MAX_VALUE ? nextSimulationTime : nextSimulationTime - clock;
+
+        // Guarantees a minimal interval before scheduling the event
+        final double minTimeBetweenEvents = getSimulation().getMinTimeBetweenEvents()+0.01;
+        nextSimulationTime = Math.max(nextSimulationTime, minTimeBetweenEvents);
+
+        if (nextSimulationTime == Double.MAX_VALUE) {
+            return nextSimulationTime;
+        }
+
+        if (timeSpan != 0) {
+            final double notUpdatedHostsPower = hostsPowerSum - updatedHostsPower;
+            power += updatedHostsTimeSpanPowerUse + notUpdatedHostsPower * timeSpan;
+        }
+
+        return nextSimulationTime;
+    }
+
+    /**
+     * Indicates that the VMs or Cloudlets inside a Host are about to change,
+     * when the {@link #isIncrementalHostsProcessing() incremental processing} is enabled.
+     * The Host processing is brought up to the current time, so that the change
+     * doesn't affect the processing done since its last update.
+     * Then, the Host is included in the next processing update.
+     *
+     * @param host the Host that will change
+     */
+    private void notifyHostChange(final Host host) {
+        if (!incrementalHostsProcessing || host == null || host == Host.NULL) {
+            return;
+        }
+
+        changedHosts.add(host);
+        if (!isHostUpdatedAtCurrentTime(host)) {
+            updateHostProcessing(host);
+            hostsToCheckCloudletsCompletion.add(host);
+        }
+    }
+
+    /**
+     * Updates the processing of a Host up to the current time,
+     * when the {@link #isIncrementalHostsProcessing() incremental processing} is enabled.
+     *
+     * @param host the Host to update
+     * @return the predicted completion time of the earliest finishing cloudlet inside the Host
+     * (which is a relative delay from the current simulation time),
+     * or {@link Double#MAX_VALUE} if there is no next Cloudlet to execute
+     */
+    private double updateHostProcessing(final Host host) {
+        final double clock = getSimulation().clock();
+        final double nextTime = host.updateProcessing(clock);
+        hostsUpdateTime.put(host, clock);
+        return nextTime;
+    }
+
+    /**
+     * Checks if the processing of a Host was already updated at the current simulation time,
+     * when the {@link #isIncrementalHostsProcessing() incremental processing} is enabled.
+     * @param host the Host to check
+     * @return true if the Host was updated at the current time, false otherwise
+     */
+    private boolean isHostUpdatedAtCurrentTime(final Host host) {
+        final Double time = hostsUpdateTime.get(host);
+        return time != null && time == getSimulation().clock();
+    }
+
+    private List<Future<Double>> invokeHostsProcessingTasks(final List<Callable<Double>> tasks) {
+        try {
+            return hostsProcessingExecutor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while updating the processing of Hosts in " + getName(), e);
+        }
+    }
+
+    private double getHostsProcessingTaskResult(final Future<Double> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while updating the processing of Hosts in " + getName(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
     /**
      * Updates processing of each Host, that fires the update of VMs,
      * which in turn updates cloudlets running in this Datacenter.
@@ -826,6 +1331,12 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
      * If yes, send them to the User/Broker
      */
     protected void checkCloudletsCompletionForAllHosts() {
+        if (incrementalHostsProcessing) {
+            hostsToCheckCloudletsCompletion.forEach(this::checkCloudletsCompletionForGivenHost);
+            hostsToCheckCloudletsCompletion.clear();
+            return;
+        }
+
         final List<? extends Host> hosts = vmAllocationPolicy.getHostList();
         hosts.forEach(this::checkCloudletsCompletionForGivenHost);
     }
@@ -869,7 +1380,7 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
 
     @Override
     public <T extends Host> List<T> getHostList() {
-        return (List<T>)Collections.unmodifiableList(hostList);
+        return (List<T>)hostListView;
     }
 
     @Override
@@ -927,12 +1438,40 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
         this.datacenterStorage = datacenterStorage;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>The returned list is a snapshot of the VMs inside the Hosts at the time of the call.
+     * It's just built again after the VM list of some Host changes.</p>
+     *
+     * @param <T> {@inheritDoc}
+     * @return {@inheritDoc}
+     */
     @Override
     public <T extends Vm> List<T> getVmList() {
-        return (List<T>) Collections.unmodifiableList(
-                getHostList().stream()
-                    .flatMap(h -> h.getVmList().stream())
-                    .collect(toList()));
+        if(vmList == null) {
+            final List<Vm> list = new ArrayList<>();
+            hostList.forEach(host -> list.addAll(host.getVmList()));
+            vmList = Collections.unmodifiableList(list);
+        }
+
+        return (List<T>) vmList;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The Host processing is just updated before the change when the
+     * {@link #isIncrementalHostsProcessing() incremental processing} is enabled.</p>
+     *
+     * @param host {@inheritDoc}
+     */
+    @Override
+    public void notifyHostVmListChanging(final Host host) {
+        notifyHostChange(host);
+    }
+
+    @Override
+    public void notifyHostVmListChanged(final Host host) {
+        vmList = null;
     }
 
     @Override
@@ -946,6 +1485,114 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
         return this;
     }
 
+    /**
+     * Gets the executor used to update the processing of Hosts in parallel,
+     * or null if Hosts are updated sequentially.
+     * @return
+     * @see #setHostsProcessingExecutor(ExecutorService)
+     */
+    public ExecutorService getHostsProcessingExecutor() {
+        return hostsProcessingExecutor;
+    }
+
+    /**
+     * Sets an executor to update the processing of Hosts in parallel,
+     * splitting the Host list into sub-lists of at least {@link #MIN_HOSTS_PER_PROCESSING_TASK} Hosts.
+     * By default, Hosts are updated sequentially.
+     * It can speed up Datacenters with lots of Hosts, since updating the
+     * processing of each Host also updates its VMs and Cloudlets.
+     *
+     * <p>The parallel update is deterministic, providing the same results of the sequential one,
+     * as long as Hosts don't share mutable objects.
+     * For instance, a {@link org.cloudbus.cloudsim.utilizationmodels.UtilizationModelDynamic}
+     * must not be shared by Cloudlets running in different Hosts.
+     * Hosts having VMs with {@link Vm#getHorizontalScaling() horizontal} or vertical scaling
+     * are always updated sequentially, since scaling may submit VMs or send events.
+     * Other listeners notified when the processing of Hosts, VMs and Cloudlets is updated
+     * are called concurrently, thus they must be thread-safe and must not send events.</p>
+     *
+     * @param executor the executor to update Hosts in parallel, or null to update them sequentially
+     * @return
+     */
+    public DatacenterSimple setHostsProcessingExecutor(final ExecutorService executor) {
+        this.hostsProcessingExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Checks if the incremental processing of Hosts is enabled.
+     * @return
+     * @see #setIncrementalHostsProcessing(boolean)
+     */
+    public boolean isIncrementalHostsProcessing() {
+        return incrementalHostsProcessing;
+    }
+
+    /**
+     * Enables or disables the incremental processing of Hosts.
+     * By default, every time the processing of Cloudlets is updated,
+     * all Hosts are visited to update their VMs and Cloudlets,
+     * to compute the next time some Cloudlet will finish
+     * and to check which Cloudlets have finished.
+     *
+     * <p>When the incremental processing is enabled, the predicted time each Host
+     * has to be updated (the finish time of its earliest finishing Cloudlet)
+     * is kept into a priority queue.
+     * Each processing update just visits the Hosts whose predicted update time was reached
+     * and the Hosts that have changed (because their VMs received, paused, resumed or canceled Cloudlets,
+     * were created, destroyed, migrated or scaled).
+     * This way, the cost of each update is proportional to the number of changed Hosts,
+     * instead of the total number of Hosts.
+     * Before such changes are applied, the processing of the Host is brought
+     * up to the current time.</p>
+     *
+     * <p>Since Hosts are not updated at every {@link #getSchedulingInterval() scheduling interval},
+     * the incremental processing is suitable when the resource utilization of Cloudlets
+     * doesn't change between events, such as when using a
+     * {@link org.cloudbus.cloudsim.utilizationmodels.UtilizationModelFull}.
+     * The {@link Host#getStateHistory() state history} of Hosts and utilization history of VMs
+     * are just recorded when they are actually updated.
+     * Hosts changed without sending an event to the Datacenter are updated only
+     * at their predicted update time.</p>
+     *
+     * @param incremental true to enable the incremental processing, false to disable it
+     * @return
+     */
+    public DatacenterSimple setIncrementalHostsProcessing(final boolean incremental) {
+        if (this.incrementalHostsProcessing == incremental) {
+            return this;
+        }
+
+        this.incrementalHostsProcessing = incremental;
+        hostUpdateTimeQueue.clear();
+        changedHosts.clear();
+        hostsToCheckCloudletsCompletion.clear();
+        hostsPower.clear();
+        hostsPowerSum = 0;
+        hostsUpdateTime.clear();
+        if (incremental) {
+            //All Hosts are updated the first time
+            changedHosts.addAll(getHostList());
+        }
+
+        return this;
+    }
+
+    private void removeHostFromIncrementalProcessing(final Host host) {
+        if (!incrementalHostsProcessing) {
+            return;
+        }
+
+        hostUpdateTimeQueue.remove(host);
+        changedHosts.remove(host);
+        hostsToCheckCloudletsCompletion.remove(host);
+        hostsUpdateTime.remove(host);
+        final Double hostPower = hostsPower.remove(host);
+        if (hostPower != null) {
+            hostsPowerSum -= hostPower;
+        }
+    }
+
     @Override
     public Host getHost(final int index) {
         if (index >= 0 && index < getHostList().size()) {
@@ -957,7 +1604,14 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
 
     @Override
     public Host getHostById(final long id) {
-        return hostList.stream().filter(h -> h.getId()==id).findFirst().map(h -> (Host)h).orElse(Host.NULL);
+        return hostsById.getOrDefault(id, Host.NULL);
+    }
+
+    @Override
+    public void notifyHostIdChanged(final Host host, final long previousId) {
+        if(hostsById.remove(previousId, host)) {
+            hostsById.put(host.getId(), host);
+        }
     }
 
     @Override
@@ -982,6 +1636,11 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
             host.setStartTime((int) getSimulation().clock());
         }
         ((List<T>)hostList).add(host);
+        hostsById.put(host.getId(), host);
+        vmList = null;
+        if (incrementalHostsProcessing) {
+            changedHosts.add(host);
+        }
 
         //Sets the Datacenter again so that the new Host is registered internally on the VmAllocationPolicy
         vmAllocationPolicy.setDatacenter(this);
@@ -995,6 +1654,9 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
     @Override
     public <T extends Host> Datacenter removeHost(final T host) {
         hostList.remove(host);
+        hostsById.remove(host.getId(), host);
+        vmList = null;
+        removeHostFromIncrementalProcessing(host);
         ((VmAllocationPolicyAbstract)vmAllocationPolicy).addPesFromHost(host);
         return this;
     }
@@ -0,0 +1,132 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.datacenters;
+
+import org.cloudbus.cloudsim.hosts.Host;
+
+import java.util.*;
+
+/**
+ * An indexed priority queue storing the time each {@link Host} of a {@link Datacenter}
+ * has to have its processing updated, which is the predicted finish time
+ * of the earliest finishing Cloudlet running inside it.
+ * Each Host is stored at most once, thus rescheduling a Host
+ * replaces its previous update time.
+ *
+ * <p>It's used by the {@link DatacenterSimple#setIncrementalHostsProcessing(boolean) incremental processing}
+ * of Hosts, to get the Hosts requiring update at a given time without
+ * visiting all Hosts in the Datacenter.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+final class HostUpdateTimeQueue {
+    /**
+     * A map where each key is a time and each value is the set of Hosts
+     * that have to be updated at such a time, in the order they were scheduled.
+     */
+    private final NavigableMap<Double, Set<Host>> hostsByTime = new TreeMap<>();
+
+    /**
+     * A map where each key is a Host and each value is the time it's scheduled to be updated.
+     */
+    private final Map<Host, Double> timeByHost = new IdentityHashMap<>();
+
+    /**
+     * Schedules the update of a Host to a given time,
+     * replacing any previously scheduled time.
+     *
+     * @param host the Host to schedule
+     * @param time the absolute time the Host has to be updated,
+     *             or {@link Double#MAX_VALUE} if it doesn't need to be updated
+     *             (in which case, the Host is just removed from the queue)
+     */
+    void schedule(final Host host, final double time) {
+        remove(host);
+        if (time == Double.MAX_VALUE) {
+            return;
+        }
+
+        timeByHost.put(host, time);
+        hostsByTime.computeIfAbsent(time, key -> new LinkedHashSet<>()).add(host);
+    }
+
+    /**
+     * Removes a Host from the queue.
+     * @param host the Host to remove
+     * @return true if the Host was in the queue, false otherwise
+     */
+    boolean remove(final Host host) {
+        final Double time = timeByHost.remove(host);
+        if (time == null) {
+            return false;
+        }
+
+        final Set<Host> hosts = hostsByTime.get(time);
+        hosts.remove(host);
+        if (hosts.isEmpty()) {
+            hostsByTime.remove(time);
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes the Hosts scheduled to be updated up to a given time.
+     *
+     * @param time the time to get the Hosts to update
+     * @return the removed Hosts, sorted by their scheduled time
+     */
+    List<Host> removeDue(final double time) {
+        final List<Host> dueHosts = new ArrayList<>();
+        final Iterator<Set<Host>> it = hostsByTime.headMap(time, true).values().iterator();
+        while (it.hasNext()) {
+            for (final Host host : it.next()) {
+                timeByHost.remove(host);
+                dueHosts.add(host);
+            }
+
+            it.remove();
+        }
+
+        return dueHosts;
+    }
+
+    /**
+     * Gets the earliest time some Host is scheduled to be updated.
+     * @return the earliest update time or {@link Double#MAX_VALUE} if the queue is empty
+     */
+    double getFirstTime() {
+        return hostsByTime.isEmpty() ? Double.MAX_VALUE : hostsByTime.firstKey();
+    }
+
+    int size() {
+        return timeByHost.size();
+    }
+
+    void clear() {
+        hostsByTime.clear();
+        timeByHost.clear();
+    }
+}
@@ -8,16 +8,21 @@
 package org.cloudbus.cloudsim.datacenters.network;
 
 import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicy;
+import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.Simulation;
+import org.cloudbus.cloudsim.core.events.SimEvent;
 import org.cloudbus.cloudsim.datacenters.Datacenter;
 import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
 import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.hosts.network.NetworkHost;
+import org.cloudbus.cloudsim.network.FlowLevelNetwork;
 import org.cloudbus.cloudsim.network.switches.EdgeSwitch;
 import org.cloudbus.cloudsim.network.switches.Switch;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import static java.util.stream.Collectors.toList;
 
@@ -49,6 +54,16 @@ public class NetworkDatacenter extends DatacenterSimple {
      */
     private final List<Switch> switchMap;
 
+    /**
+     * @see #getFlowLevelNetwork()
+     */
+    private final FlowLevelNetwork flowLevelNetwork;
+
+    /**
+     * @see #isFlowLevelNetworkEnabled()
+     */
+    private boolean flowLevelNetworkEnabled;
+
     /**
      * Creates a NetworkDatacenter with the given parameters.
      *
@@ -69,6 +84,32 @@ public class NetworkDatacenter extends DatacenterSimple {
         super(simulation, hostList, vmAllocationPolicy);
 
         switchMap = new ArrayList<>();
+        flowLevelNetwork = new FlowLevelNetwork(this);
+    }
+
+    @Override
+    public void processEvent(final SimEvent evt) {
+        if (evt.getTag() == CloudSimTags.NETWORK_FLOW_UPDATE) {
+            processFlowUpdate();
+            return;
+        }
+
+        super.processEvent(evt);
+    }
+
+    /**
+     * Updates the flows of the {@link #getFlowLevelNetwork() flow-level network}
+     * and, if some of them have finished, requests the update of Cloudlets processing,
+     * so that the destination Hosts forward the received packets to the respective Cloudlets.
+     */
+    private void processFlowUpdate() {
+        if (!flowLevelNetwork.updateFlows()) {
+            return;
+        }
+
+        //If the processing was already updated at the current time, the request would be ignored
+        final double delay = getLastProcessTime() < getSimulation().clock() ? 0 : getSimulation().getMinTimeBetweenEvents();
+        schedule(this, delay, CloudSimTags.VM_UPDATE_CLOUDLET_PROCESSING);
     }
 
     /**
@@ -99,4 +140,56 @@ public class NetworkDatacenter extends DatacenterSimple {
     public List<Switch> getSwitchMap() {
         return Collections.unmodifiableList(switchMap);
     }
+
+    /**
+     * Checks if the network is simulated at flow level, instead of per-packet.
+     * @return
+     * @see #setFlowLevelNetworkEnabled(boolean)
+     */
+    public boolean isFlowLevelNetworkEnabled() {
+        return flowLevelNetworkEnabled;
+    }
+
+    /**
+     * Enables or disables the simulation of the network at flow level.
+     * When enabled, packets sent between VMs in different Hosts are transferred by the
+     * {@link #getFlowLevelNetwork() flow-level network model}, instead of being forwarded
+     * packet by packet through the Datacenter {@link Switch}es.
+     * That reduces the number of simulation events to the ones required when flows start or finish,
+     * which is meant for large network workloads. It must be set before the simulation starts.
+     *
+     * @param enabled true to simulate the network at flow level, false to simulate it per-packet (the default)
+     * @return
+     */
+    public NetworkDatacenter setFlowLevelNetworkEnabled(final boolean enabled) {
+        this.flowLevelNetworkEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * Gets the model used to simulate the Datacenter network at flow level,
+     * if it's {@link #isFlowLevelNetworkEnabled() enabled}.
+     * @return
+     */
+    public FlowLevelNetwork getFlowLevelNetwork() {
+        return flowLevelNetwork;
+    }
+
+    /**
+     * {@inheritDoc}
+     * It isn't supported by NetworkDatacenters, since {@link NetworkHost}s
+     * send packets to each other while their processing is updated.
+     *
+     * @param executor {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws UnsupportedOperationException when a non-null executor is given
+     */
+    @Override
+    public DatacenterSimple setHostsProcessingExecutor(final ExecutorService executor) {
+        if(executor != null) {
+            throw new UnsupportedOperationException("NetworkDatacenter doesn't support updating Hosts processing in parallel.");
+        }
+
+        return super.setHostsProcessingExecutor(null);
+    }
 }
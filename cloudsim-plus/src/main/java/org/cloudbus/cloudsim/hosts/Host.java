@@ -309,6 +309,17 @@ public interface Host extends Machine, Comparable<Host> {
      */
     <T extends Vm> List<T> getVmList();
 
+    /**
+     * Notifies the Host that the ID or broker of one of its VMs was changed,
+     * so that {@link #getVm(int, int)} finds the VM by the new values.
+     * This method is called by the VM itself.
+     *
+     * @param vm the VM which had its ID or broker changed
+     * @param previousId the ID the VM had before
+     * @param previousBrokerId the ID of the broker the VM had before
+     */
+    void notifyVmIdChanged(Vm vm, long previousId, long previousBrokerId);
+
     /**
      * Gets a <b>read-only</b> list of all VMs which have been created into the host
      * during the entire simulation.
@@ -493,10 +504,29 @@ public interface Host extends Machine, Comparable<Host> {
      * Gets the current total utilization of CPU in MIPS,
      * considering the usage of all its PEs.
      *
+     * <p>The value may be cached for the current simulation time,
+     * so that multiple queries in the same time don't need
+     * to iterate over all VMs again.</p>
+     *
      * @return
+     * @see #invalidateUtilizationCache()
      */
     double getUtilizationOfCpuMips();
 
+    /**
+     * Notifies the Host that the resource usage of its VMs may have changed
+     * in the current simulation time (for instance, due to a Cloudlet
+     * submitted to some VM or a VM that was scaled),
+     * so that the {@link #getUtilizationOfCpuMips() cached CPU utilization}
+     * is computed again in the next query.
+     * The Host invalidates such a cache by itself when VMs are placed, removed or migrated
+     * and when it updates the processing of its VMs.
+     * The {@link org.cloudbus.cloudsim.schedulers.vm.VmScheduler} of the Host and the
+     * {@link org.cloudbus.cloudsim.schedulers.cloudlet.CloudletScheduler} of its VMs
+     * also invalidate it when MIPS are allocated to VMs or Cloudlets start or stop executing.
+     */
+    void invalidateUtilizationCache();
+
     /**
      * Gets the current utilization of bw (in absolute values).
      *
@@ -572,6 +602,49 @@ public interface Host extends Machine, Comparable<Host> {
      */
     SortedMap<Double, Double> getUtilizationHistorySum();
 
+    /**
+     * Gets the host CPU utilization percentage history (between [0 and 1]),
+     * based on its VM utilization history, as an array of primitive values
+     * in increasing time order.
+     * It holds the same values of {@link #getUtilizationHistorySum()}, but they are copied directly
+     * from the sum column of the {@link #getCpuUtilizationHistory()},
+     * without creating intermediate Maps and boxed values.
+     *
+     * @return an array with the sum of all CPU utilization of the VMs running inside this Host,
+     *         for each time that data was collected
+     * @see #getUtilizationHistorySum()
+     */
+    double[] getUtilizationHistorySumValues();
+
+    /**
+     * Gets the host CPU utilization history, aggregating the
+     * {@link org.cloudbus.cloudsim.vms.UtilizationHistory#getHistoryBuffer() history buffers} of its VMs.
+     * Each entry stores the sum, minimum and maximum CPU utilization of the VMs
+     * at a given time, as a percentage of the Host CPU capacity (between [0 and 1]).
+     *
+     * <p>The history is kept in primitive columns and only the VMs' entries added
+     * since the last call are aggregated, instead of rebuilding the whole history
+     * each time it is requested.</p>
+     *
+     * @return the Host CPU utilization history
+     * @see #getUtilizationHistorySumValues()
+     * @see #setCpuUtilizationHistoryMaxEntries(int)
+     */
+    HostUtilizationHistory getCpuUtilizationHistory();
+
+    /**
+     * Sets the maximum number of entries to store into the {@link #getCpuUtilizationHistory() CPU utilization history}.
+     * When such a number is reached, the oldest entries are discarded.
+     * By default, the history is unbounded.
+     * Bounding it reduces the memory used by long simulations,
+     * but VM migration policies which compute statistics from the history,
+     * such as the MAD and IQR ones, will just consider the entries kept.
+     *
+     * @param maxEntries the maximum number of entries to set
+     * @return
+     */
+    Host setCpuUtilizationHistoryMaxEntries(int maxEntries);
+
     /**
      * Gets the {@link PowerModel} used by the host
      * to define how it consumes power.
@@ -94,6 +94,7 @@ final class HostNull implements Host {
     }
     @Override public <T extends Vm> List<T> getVmCreatedList() { return Collections.emptyList(); }
     @Override public List<Vm> getVmList() { return Collections.emptyList(); }
+    @Override public void notifyVmIdChanged(Vm vm, long previousId, long previousBrokerId) {/**/}
     @Override public VmScheduler getVmScheduler() {
         return VmScheduler.NULL;
     }
@@ -156,10 +157,14 @@ final class HostNull implements Host {
     @Override public List<Pe> getFreePeList() { return Collections.emptyList(); }
     @Override public double getUtilizationOfCpu() { return 0.0; }
     @Override public double getUtilizationOfCpuMips() { return 0.0; }
+    @Override public void invalidateUtilizationCache() {/**/}
     @Override public long getUtilizationOfBw() { return 0; }
     @Override public long getUtilizationOfRam() { return 0; }
     @Override public SortedMap<Double, DoubleSummaryStatistics> getUtilizationHistory() { return Collections.emptySortedMap(); }
     @Override public SortedMap<Double, Double> getUtilizationHistorySum() { return Collections.emptySortedMap(); }
+    @Override public double[] getUtilizationHistorySumValues() { return new double[0]; }
+    @Override public HostUtilizationHistory getCpuUtilizationHistory() { return HostUtilizationHistory.NULL; }
+    @Override public Host setCpuUtilizationHistoryMaxEntries(int maxEntries) { return this; }
     @Override public PowerModel getPowerModel() { return PowerModel.NULL; }
     @Override public Host setPowerModel(PowerModel powerModel) { return this; }
     @Override public double getPreviousUtilizationOfCpu() { return 0; }
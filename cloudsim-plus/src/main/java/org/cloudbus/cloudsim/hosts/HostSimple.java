@@ -15,6 +15,7 @@ import org.cloudbus.cloudsim.provisioners.ResourceProvisionerSimple;
 import org.cloudbus.cloudsim.resources.*;
 import org.cloudbus.cloudsim.schedulers.vm.VmScheduler;
 import org.cloudbus.cloudsim.schedulers.vm.VmSchedulerSpaceShared;
+import org.cloudbus.cloudsim.util.HistoryBuffer;
 import org.cloudbus.cloudsim.vms.UtilizationHistory;
 import org.cloudbus.cloudsim.vms.Vm;
 import org.cloudbus.cloudsim.vms.VmStateHistoryEntry;
@@ -84,6 +85,47 @@ public class HostSimple implements Host {
     /** @see #getVmList() */
     private final List<Vm> vmList = new ArrayList<>();
 
+    /**
+     * A read-only view of the {@link #vmList} which is created just once,
+     * so that {@link #getVmList()} doesn't instantiate a new wrapper at every call.
+     */
+    private final List<Vm> vmListView = Collections.unmodifiableList(vmList);
+
+    /**
+     * An index of the {@link #vmList} to enable {@link #getVm(int, int)}
+     * to find a VM in constant time.
+     * Each key is composed of the VM's broker ID and the VM ID.
+     * The index is just rebuilt when a VM is looked up after the list has changed.
+     * @see #vmKey(long, long)
+     * @see #vmIndexVersion
+     */
+    private final Map<Long, Vm> vmsByKey = new HashMap<>();
+
+    /**
+     * A counter incremented every time the {@link #vmList} changes,
+     * used to check if data computed from the list is out-of-date.
+     */
+    private long vmListVersion;
+
+    /**
+     * The {@link #vmListVersion} when the {@link #vmsByKey} index was built.
+     */
+    private long vmIndexVersion;
+
+    /**
+     * The total CPU MIPS used by all VMs, cached to avoid
+     * iterating over the VMs for every query in the same simulation time.
+     * @see #getUtilizationOfCpuMips()
+     */
+    private double cpuMipsUsage;
+
+    /**
+     * The simulation time when the {@link #cpuMipsUsage} was computed,
+     * or a negative value if it has to be computed again.
+     * @see #invalidateUtilizationCache()
+     */
+    private double cpuMipsUsageTime;
+
     /** @see #getPeList() */
     private List<Pe> peList;
 
@@ -113,6 +155,21 @@ public class HostSimple implements Host {
     private List<ResourceProvisioner> provisioners;
     private final List<Vm> vmCreatedList;
 
+    /** @see #getCpuUtilizationHistory() */
+    private final HostUtilizationHistory cpuUtilizationHistory;
+
+    /**
+     * The time of the newest utilization history entry of each VM in the {@link #vmCreatedList}
+     * (using the same indexes) already aggregated into the {@link #cpuUtilizationHistory}.
+     */
+    private double[] vmsHistorySyncedTime;
+
+    /**
+     * A reusable array to store the times of VMs' utilization history entries
+     * which have to be aggregated into the {@link #cpuUtilizationHistory}.
+     */
+    private double[] timesToSync;
+
     /**
      * The previous utilization mips.
      */
@@ -141,9 +198,10 @@ public class HostSimple implements Host {
      * @see #setVmScheduler(VmScheduler)
      */
     public HostSimple(final long ram, final long bw, final long storage, final List<Pe> peList) {
-        this.setId(-1);
         this.setActive(true);
         this.setSimulation(Simulation.NULL);
+        this.setDatacenter(Datacenter.NULL);
+        this.setId(-1);
 
         this.ram = new Ram(ram);
         this.bw = new Bandwidth(bw);
@@ -155,12 +213,15 @@ public class HostSimple implements Host {
         this.setPeList(peList);
         this.setFailed(false);
         this.shutdownTime = -1;
-        this.setDatacenter(Datacenter.NULL);
         this.onUpdateProcessingListeners = new HashSet<>();
         this.resources = new ArrayList<>();
         this.vmCreatedList = new ArrayList<>();
+        this.cpuUtilizationHistory = new HostUtilizationHistory();
+        this.vmsHistorySyncedTime = new double[0];
+        this.timesToSync = new double[0];
         this.provisioners = new ArrayList<>();
         this.vmsMigratingIn = new HashSet<>();
+        this.cpuMipsUsageTime = -1;
         this.vmsMigratingOut = new HashSet<>();
         this.powerModel = PowerModel.NULL;
         this.stateHistory = new LinkedList<>();
@@ -206,10 +267,13 @@ public class HostSimple implements Host {
          * e.g., in cases when Vm is destroyed during simulation execution.*/
         for (int i = 0; i < vmList.size(); i++) {
             final Vm vm = vmList.get(i);
-            final double nextTime = vm.updateProcessing(currentTime, vmScheduler.getAllocatedMips(vm));
+            final double nextTime = vm.updateProcessingWithMipsShare(currentTime, vmScheduler.getAllocatedMipsShare(vm));
             nextSimulationTime = Math.min(nextTime, nextSimulationTime);
         }
 
+        //The VMs processing update may have changed their CPU usage
+        invalidateUtilizationCache();
+
         notifyOnUpdateProcessingListeners(nextSimulationTime);
         addStateHistory(currentTime);
 
@@ -222,11 +286,14 @@ public class HostSimple implements Host {
 
     @Override
     public boolean removeVmMigratingIn(final Vm vm){
+        invalidateUtilizationCache();
         return vmsMigratingIn.remove(vm);
     }
 
     @Override
     public boolean createVm(final Vm vm) {
+        datacenter.notifyHostVmListChanging(this);
+
         final boolean result = createVmInternal(vm);
         if(result) {
             addVmToCreatedList(vm);
@@ -250,7 +317,7 @@ public class HostSimple implements Host {
             return false;
         }
 
-        vmList.add(vm);
+        addVmToList(vm);
         return true;
     }
 
@@ -306,7 +373,7 @@ public class HostSimple implements Host {
     public void reallocateMigratingInVms() {
         for (final Vm vm : getVmsMigratingIn()) {
             if (!vmList.contains(vm)) {
-                vmList.add(vm);
+                addVmToList(vm);
             }
             ramProvisioner.allocateResourceForVm(vm, vm.getCurrentRequestedRam());
             bwProvisioner.allocateResourceForVm(vm, vm.getCurrentRequestedBw());
@@ -352,7 +419,7 @@ public class HostSimple implements Host {
 
     private void destroyVmInternal(final Vm vm) {
         deallocateResourcesOfVm(requireNonNull(vm));
-        vmList.remove(vm);
+        removeVmFromList(vm);
     }
 
     /**
@@ -377,6 +444,7 @@ public class HostSimple implements Host {
         }
 
         vmList.clear();
+        notifyVmListChanged();
     }
 
     /**
@@ -390,9 +458,35 @@ public class HostSimple implements Host {
 
     @Override
     public Vm getVm(final int vmId, final int brokerId) {
-        return vmList.stream()
-            .filter(vm -> vm.getId() == vmId && vm.getBroker().getId() == brokerId)
-            .findFirst().orElse(Vm.NULL);
+        if(vmIndexVersion != vmListVersion){
+            vmsByKey.clear();
+            for (final Vm vm : vmList) {
+                vmsByKey.put(vmKey(vm.getId(), vm.getBroker().getId()), vm);
+            }
+            vmIndexVersion = vmListVersion;
+        }
+
+        return vmsByKey.getOrDefault(vmKey(vmId, brokerId), Vm.NULL);
+    }
+
+    @Override
+    public void notifyVmIdChanged(final Vm vm, final long previousId, final long previousBrokerId) {
+        if(vmsByKey.remove(vmKey(previousId, previousBrokerId), vm)) {
+            vmsByKey.put(vmKey(vm.getId(), vm.getBroker().getId()), vm);
+        }
+    }
+
+    /**
+     * Gets the key used to index a VM inside the {@link #vmsByKey} map,
+     * composed of the ID of the VM's broker (at the most significant bits)
+     * and the ID of the VM (at the least significant bits).
+     *
+     * @param vmId the VM ID
+     * @param brokerId the ID of the VM's broker
+     * @return
+     */
+    private static long vmKey(final long vmId, final long brokerId) {
+        return (brokerId << 32) ^ (vmId & 0xFFFFFFFFL);
     }
 
     /**
@@ -464,7 +558,11 @@ public class HostSimple implements Host {
 
     @Override
     public final void setId(long id) {
+        final long previousId = this.id;
         this.id = id;
+        if(previousId != id) {
+            datacenter.notifyHostIdChanged(this, previousId);
+        }
     }
 
     @Override
@@ -564,7 +662,7 @@ public class HostSimple implements Host {
 
     @Override
     public <T extends Vm> List<T> getVmList() {
-        return (List<T>) Collections.unmodifiableList(vmList);
+        return (List<T>) vmListView;
     }
 
     @Override
@@ -574,6 +672,33 @@ public class HostSimple implements Host {
 
     protected void addVmToList(final Vm vm){
         vmList.add(requireNonNull(vm));
+        notifyVmListChanged();
+    }
+
+    /**
+     * Removes a VM from the {@link #getVmList() list of VMs placed into the Host}.
+     *
+     * @param vm the VM to remove
+     * @return true if the VM was removed, false if it wasn't in the list
+     */
+    protected boolean removeVmFromList(final Vm vm){
+        if(!vmList.remove(vm)){
+            return false;
+        }
+
+        notifyVmListChanged();
+        return true;
+    }
+
+    /**
+     * Updates the {@link #vmListVersion} and invalidates the CPU utilization cache
+     * after VMs are placed into or removed from the Host,
+     * then notifies the Datacenter about that.
+     */
+    private void notifyVmListChanged() {
+        vmListVersion++;
+        invalidateUtilizationCache();
+        datacenter.notifyHostVmListChanged(this);
     }
 
     protected void addVmToCreatedList(final Vm vm){
@@ -614,6 +739,7 @@ public class HostSimple implements Host {
         }
 
         vmsMigratingIn.add(vm);
+        invalidateUtilizationCache();
         if(!allocateResourcesForVm(vm, true)){
             vmsMigratingIn.remove(vm);
             return false;
@@ -629,7 +755,8 @@ public class HostSimple implements Host {
     public void removeMigratingInVm(final Vm vm) {
         deallocateResourcesOfVm(vm);
         vmsMigratingIn.remove(vm);
-        vmList.remove(vm);
+        invalidateUtilizationCache();
+        removeVmFromList(vm);
         vm.setInMigration(false);
     }
 
@@ -640,11 +767,13 @@ public class HostSimple implements Host {
 
     @Override
     public boolean addVmMigratingOut(final Vm vm) {
+        invalidateUtilizationCache();
         return this.vmsMigratingOut.add(vm);
     }
 
     @Override
     public boolean removeVmMigratingOut(final Vm vm) {
+        invalidateUtilizationCache();
         return this.vmsMigratingOut.remove(vm);
     }
 
@@ -797,7 +926,38 @@ public class HostSimple implements Host {
 
     @Override
     public double getUtilizationOfCpuMips() {
-        return vmList.stream().mapToDouble(Vm::getTotalCpuMipsUsage).sum();
+        if(isUtilizationCacheValid()){
+            return cpuMipsUsage;
+        }
+
+        double mipsUsage = 0;
+        for (int i = 0; i < vmList.size(); i++) {
+            mipsUsage += vmList.get(i).getTotalCpuMipsUsage();
+        }
+
+        setCpuMipsUsage(mipsUsage);
+        return mipsUsage;
+    }
+
+    private void setCpuMipsUsage(final double mipsUsage) {
+        this.cpuMipsUsage = mipsUsage;
+        this.cpuMipsUsageTime = simulation.clock();
+    }
+
+    /**
+     * Checks if the {@link #cpuMipsUsage} can be returned without computing it again.
+     * The cache isn't used while VMs are migrating into or out of the Host,
+     * since such VMs are also updated by the other Host involved in the migration.
+     *
+     * @return true if the cached CPU usage is up-to-date, false otherwise
+     */
+    private boolean isUtilizationCacheValid() {
+        return cpuMipsUsageTime == simulation.clock() && vmsMigratingIn.isEmpty() && vmsMigratingOut.isEmpty();
+    }
+
+    @Override
+    public void invalidateUtilizationCache() {
+        this.cpuMipsUsageTime = -1;
     }
 
     @Override
@@ -828,13 +988,107 @@ public class HostSimple implements Host {
 
     @Override
     public SortedMap<Double, Double> getUtilizationHistorySum() {
-        /*Remaps the value of an entry inside the Utilization History map.*/
-        final Function<Entry<Double, DoubleSummaryStatistics>, Double> valueMapper = entry -> entry.getValue().getSum();
+        final HostUtilizationHistory history = getCpuUtilizationHistory();
+        final SortedMap<Double, Double> map = new TreeMap<>();
+        for (int i = 0; i < history.size(); i++) {
+            map.put(history.getTime(i), history.getSum(i));
+        }
 
-        return getUtilizationHistory()
-                    .entrySet()
-                    .stream()
-                    .collect(toMap(Entry::getKey, valueMapper, this::mergeFunction, TreeMap::new));
+        return map;
+    }
+
+    @Override
+    public double[] getUtilizationHistorySumValues() {
+        return getCpuUtilizationHistory().toSumArray();
+    }
+
+    @Override
+    public HostUtilizationHistory getCpuUtilizationHistory() {
+        syncCpuUtilizationHistory();
+        return cpuUtilizationHistory;
+    }
+
+    @Override
+    public Host setCpuUtilizationHistoryMaxEntries(final int maxEntries) {
+        cpuUtilizationHistory.setMaxEntries(maxEntries);
+        return this;
+    }
+
+    /**
+     * Aggregates into the {@link #cpuUtilizationHistory} the entries added to the VMs' utilization history
+     * since the last time this method was called.
+     * The newest entry already aggregated for each VM is checked again,
+     * since its value may have been replaced.
+     */
+    private void syncCpuUtilizationHistory() {
+        final int vmsNumber = vmCreatedList.size();
+        if (vmsHistorySyncedTime.length < vmsNumber) {
+            final int previousLength = vmsHistorySyncedTime.length;
+            vmsHistorySyncedTime = Arrays.copyOf(vmsHistorySyncedTime, vmsNumber);
+            Arrays.fill(vmsHistorySyncedTime, previousLength, vmsNumber, Double.NEGATIVE_INFINITY);
+        }
+
+        int timesNumber = 0;
+        for (int i = 0; i < vmsNumber; i++) {
+            final HistoryBuffer vmHistory = vmCreatedList.get(i).getUtilizationHistory().getHistoryBuffer();
+            for (int j = vmHistory.size() - 1; j >= 0 && vmHistory.getTime(j) >= vmsHistorySyncedTime[i]; j--) {
+                if (timesNumber == timesToSync.length) {
+                    timesToSync = Arrays.copyOf(timesToSync, Math.max(16, timesNumber * 2));
+                }
+
+                timesToSync[timesNumber++] = vmHistory.getTime(j);
+            }
+
+            if (!vmHistory.isEmpty()) {
+                vmsHistorySyncedTime[i] = vmHistory.getLastTime();
+            }
+        }
+
+        if (timesNumber == 0) {
+            return;
+        }
+
+        Arrays.sort(timesToSync, 0, timesNumber);
+        final double totalMipsCapacity = getTotalMipsCapacity();
+        for (int t = 0; t < timesNumber; t++) {
+            if (t > 0 && timesToSync[t] == timesToSync[t - 1]) {
+                continue;
+            }
+
+            addCpuUtilizationHistoryEntry(timesToSync[t], totalMipsCapacity);
+        }
+    }
+
+    /**
+     * Aggregates the utilization of all VMs at a given time into a {@link #cpuUtilizationHistory} entry,
+     * where each VM utilization is converted to a percentage of the Host CPU capacity.
+     *
+     * @param time the time to aggregate the VMs' utilization
+     * @param totalMipsCapacity the Host total CPU capacity
+     */
+    private void addCpuUtilizationHistoryEntry(final double time, final double totalMipsCapacity) {
+        double sum = 0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        int count = 0;
+        for (int i = 0; i < vmCreatedList.size(); i++) {
+            final Vm vm = vmCreatedList.get(i);
+            final HistoryBuffer vmHistory = vm.getUtilizationHistory().getHistoryBuffer();
+            final int index = vmHistory.indexOf(time);
+            if (index < 0) {
+                continue;
+            }
+
+            final double utilization = totalMipsCapacity == 0 ? 0 : vmHistory.getValue(index) * vm.getTotalMipsCapacity() / totalMipsCapacity;
+            sum += utilization;
+            min = Math.min(min, utilization);
+            max = Math.max(max, utilization);
+            count++;
+        }
+
+        if (count > 0) {
+            cpuUtilizationHistory.put(time, sum, min, max, count);
+        }
     }
 
     /**
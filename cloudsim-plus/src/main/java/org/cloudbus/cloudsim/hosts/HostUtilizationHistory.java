@@ -0,0 +1,275 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.hosts;
+
+import org.cloudbus.cloudsim.util.HistoryBuffer;
+import org.cloudbus.cloudsim.vms.UtilizationHistory;
+
+/**
+ * A columnar history of the CPU utilization of a {@link Host},
+ * aggregating the utilization of its VMs for each time data was collected.
+ * Each entry has the time plus the sum, minimum, maximum and number of
+ * the VMs' utilization values (as a percentage of the Host CPU capacity) for that time.
+ *
+ * <p>Each column is a {@link HistoryBuffer}, the same structure used by
+ * {@link UtilizationHistory VM utilization history}.
+ * Entries are appended as VMs' utilization is collected, so that getting
+ * any of the newest entries doesn't require merging the history of VMs again.
+ * Since every column receives the same times, entries at the same index
+ * of different columns belong to the same time.</p>
+ *
+ * <p>By default, the history is unbounded, keeping all the data
+ * used by VM migration policies such as the
+ * {@link org.cloudbus.cloudsim.allocationpolicies.migration.VmAllocationPolicyMigrationMedianAbsoluteDeviation MAD}
+ * and {@link org.cloudbus.cloudsim.allocationpolicies.migration.VmAllocationPolicyMigrationInterQuartileRange IQR} ones.
+ * A {@link #setMaxEntries(int) maximum number of entries} can be set to bound the memory used by long simulations,
+ * discarding the oldest entries. In such a case, the statistics
+ * computed by those policies just consider the entries kept.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ * @see Host#getCpuUtilizationHistory()
+ */
+public class HostUtilizationHistory {
+    /**
+     * An attribute that implements the Null Object Design Pattern for {@link HostUtilizationHistory} objects,
+     * which is always empty and ignores any change.
+     */
+    public static final HostUtilizationHistory NULL = new HostUtilizationHistoryNull();
+
+    /** @see #getSumHistory() */
+    private final HistoryBuffer sums;
+
+    /** @see #getMin(int) */
+    private final HistoryBuffer mins;
+
+    /** @see #getMax(int) */
+    private final HistoryBuffer maxs;
+
+    /** @see #getCount(int) */
+    private final HistoryBuffer counts;
+
+    /**
+     * Creates a history that stores an unlimited number of entries.
+     */
+    public HostUtilizationHistory() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a history that stores up to a given number of entries.
+     *
+     * @param maxEntries the maximum number of entries to store
+     */
+    public HostUtilizationHistory(final int maxEntries) {
+        this.sums = new HistoryBuffer(maxEntries);
+        this.mins = new HistoryBuffer(maxEntries);
+        this.maxs = new HistoryBuffer(maxEntries);
+        this.counts = new HistoryBuffer(maxEntries);
+    }
+
+    /**
+     * Adds an entry collected at a given time.
+     * If there is already an entry for such a time, it's replaced.
+     * If the history is full, the oldest entry is discarded.
+     *
+     * @param time the time the entry was collected
+     * @param sum the sum of the VMs' utilization at that time
+     * @param min the minimum VM utilization at that time
+     * @param max the maximum VM utilization at that time
+     * @param count the number of VMs' utilization values aggregated into the entry
+     */
+    public void put(final double time, final double sum, final double min, final double max, final int count) {
+        sums.add(time, sum);
+        mins.add(time, min);
+        maxs.add(time, max);
+        counts.add(time, count);
+    }
+
+    /**
+     * Searches for the index of the entry collected at a given time.
+     *
+     * @param time the time to search
+     * @return the index of the entry (where index 0 is the oldest entry) if found;
+     *         otherwise, {@code (-(insertion point) - 1)}, as in {@link HistoryBuffer#indexOf(double)}
+     */
+    public int indexOf(final double time) {
+        return sums.indexOf(time);
+    }
+
+    /**
+     * Gets the time of the entry at a given index.
+     *
+     * @param index the entry index, where 0 is the oldest entry
+     * @return
+     */
+    public double getTime(final int index) {
+        return sums.getTime(index);
+    }
+
+    /**
+     * Gets the sum of the VMs' utilization for the entry at a given index,
+     * which represents the Host CPU utilization percentage (between [0 and 1]) at that time.
+     *
+     * @param index the entry index, where 0 is the oldest entry
+     * @return
+     */
+    public double getSum(final int index) {
+        return sums.getValue(index);
+    }
+
+    /**
+     * Gets the minimum VM utilization for the entry at a given index.
+     *
+     * @param index the entry index, where 0 is the oldest entry
+     * @return
+     */
+    public double getMin(final int index) {
+        return mins.getValue(index);
+    }
+
+    /**
+     * Gets the maximum VM utilization for the entry at a given index.
+     *
+     * @param index the entry index, where 0 is the oldest entry
+     * @return
+     */
+    public double getMax(final int index) {
+        return maxs.getValue(index);
+    }
+
+    /**
+     * Gets the number of VMs' utilization values aggregated into the entry at a given index.
+     *
+     * @param index the entry index, where 0 is the oldest entry
+     * @return
+     */
+    public int getCount(final int index) {
+        return (int) counts.getValue(index);
+    }
+
+    /**
+     * Gets the mean VM utilization for the entry at a given index.
+     *
+     * @param index the entry index, where 0 is the oldest entry
+     * @return
+     */
+    public double getMean(final int index) {
+        final int count = getCount(index);
+        return count == 0 ? 0 : getSum(index) / count;
+    }
+
+    /**
+     * Gets the sum column of this history, which represents the Host CPU utilization
+     * percentage (between [0 and 1]) along the time.
+     * Statistics such as the {@link HistoryBuffer#getMad() MAD} and {@link HistoryBuffer#getIqr() IQR}
+     * of the Host CPU utilization can be computed directly from it, without copying the history.
+     *
+     * <p><b>The returned history must not be changed.
+     * Entries must be added only by calling {@link #put(double, double, double, double, int)}.</b></p>
+     *
+     * @return
+     */
+    public HistoryBuffer getSumHistory() {
+        return sums;
+    }
+
+    /**
+     * Gets the time of the newest entry.
+     * @return
+     */
+    public double getLastTime() {
+        return sums.getLastTime();
+    }
+
+    /**
+     * Gets the number of entries currently stored.
+     * @return
+     */
+    public int size() {
+        return sums.size();
+    }
+
+    /**
+     * Checks if there is no entry stored.
+     * @return
+     */
+    public boolean isEmpty() {
+        return sums.isEmpty();
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        sums.clear();
+        mins.clear();
+        maxs.clear();
+        counts.clear();
+    }
+
+    /**
+     * Gets the maximum number of entries to store.
+     * @return the maximum number of entries, which is {@link Integer#MAX_VALUE} if the history is unbounded
+     */
+    public int getMaxEntries() {
+        return sums.getMaxEntries();
+    }
+
+    /**
+     * Sets the maximum number of entries to store.
+     * If there are more entries than the given value,
+     * the oldest ones are discarded.
+     *
+     * @param maxEntries the maximum number of entries to set
+     */
+    public void setMaxEntries(final int maxEntries) {
+        sums.setMaxEntries(maxEntries);
+        mins.setMaxEntries(maxEntries);
+        maxs.setMaxEntries(maxEntries);
+        counts.setMaxEntries(maxEntries);
+    }
+
+    /**
+     * Gets a new array with the sums of all entries, in increasing time order.
+     * @return
+     * @see #getSum(int)
+     */
+    public double[] toSumArray() {
+        return sums.toValueArray();
+    }
+
+    /**
+     * Gets a new array with the sums of the newest entries, in decreasing time order
+     * (the first position has the newest value).
+     *
+     * @param length the maximum number of values to get
+     * @return an array with the newest sums, which has a length smaller than the requested one
+     *         if there aren't enough entries stored
+     * @see HistoryBuffer#getNewestValuesReversed(int)
+     */
+    public double[] getNewestSumsReversed(final int length) {
+        return sums.getNewestValuesReversed(length);
+    }
+}
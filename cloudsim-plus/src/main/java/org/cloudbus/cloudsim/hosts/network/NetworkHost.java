@@ -8,8 +8,10 @@
 package org.cloudbus.cloudsim.hosts.network;
 
 import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.datacenters.network.NetworkDatacenter;
 import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.hosts.HostSimple;
+import org.cloudbus.cloudsim.network.FlowLevelNetwork;
 import org.cloudbus.cloudsim.network.HostPacket;
 import org.cloudbus.cloudsim.network.VmPacket;
 import org.cloudbus.cloudsim.network.switches.EdgeSwitch;
@@ -179,8 +181,8 @@ public class NetworkHost extends HostSimple {
 
         if (!pktsToSendForLocalVms.isEmpty()) {
             for (final Vm vm : getVmList()) {
-                vm.updateProcessing(
-                    getSimulation().clock(), getVmScheduler().getAllocatedMips(vm));
+                vm.updateProcessingWithMipsShare(
+                    getSimulation().clock(), getVmScheduler().getAllocatedMipsShare(vm));
             }
         }
 
@@ -190,8 +192,21 @@ public class NetworkHost extends HostSimple {
     /**
      * Gets the packets from the local packets buffer and sends them
      * to VMs outside this host.
+     * If the Datacenter {@link NetworkDatacenter#isFlowLevelNetworkEnabled() network is simulated at flow level},
+     * each packet is transferred as a flow. Otherwise, packets are sent to the {@link #getEdgeSwitch() Edge Switch}.
      */
     private void sendPacketsToExternalVms() {
+        if (isFlowLevelNetworkEnabled()) {
+            final FlowLevelNetwork network = ((NetworkDatacenter) getDatacenter()).getFlowLevelNetwork();
+            for (final HostPacket hostPkt : pktsToSendForExternalVms) {
+                totalDataTransferBytes += hostPkt.getVmPacket().getSize();
+            }
+
+            network.startFlows(pktsToSendForExternalVms);
+            pktsToSendForExternalVms.clear();
+            return;
+        }
+
         final double availableBwByPacket = getBandwidthByPacket(pktsToSendForExternalVms.size());
         for (final HostPacket hostPkt : pktsToSendForExternalVms) {
             final double delay = Conversion.bytesToMegaBits(hostPkt.getVmPacket().getSize()) / availableBwByPacket;
@@ -206,6 +221,11 @@ public class NetworkHost extends HostSimple {
         pktsToSendForExternalVms.clear();
     }
 
+    private boolean isFlowLevelNetworkEnabled() {
+        return getDatacenter() instanceof NetworkDatacenter &&
+               ((NetworkDatacenter) getDatacenter()).isFlowLevelNetworkEnabled();
+    }
+
     /**
      * Gets the bandwidth (in  Megabits/s) that will be available for each packet considering a given number of packets
      * that are expected to be sent.
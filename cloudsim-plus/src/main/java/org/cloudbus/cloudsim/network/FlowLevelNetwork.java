@@ -0,0 +1,546 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.network;
+
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.datacenters.network.NetworkDatacenter;
+import org.cloudbus.cloudsim.hosts.network.NetworkHost;
+import org.cloudbus.cloudsim.network.switches.EdgeSwitch;
+import org.cloudbus.cloudsim.network.switches.Switch;
+import org.cloudbus.cloudsim.util.Conversion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A flow-level model for the network of a {@link NetworkDatacenter}, which is a fast alternative
+ * to the per-packet simulation performed by {@link Switch}es.
+ * Each {@link HostPacket} sent from a {@link org.cloudbus.cloudsim.cloudlets.network.CloudletSendTask}
+ * to a {@link org.cloudbus.cloudsim.cloudlets.network.CloudletReceiveTask} in another Host
+ * is modeled as a flow that transfers the packet data along the links
+ * between the source and destination Hosts.
+ *
+ * <p>Active flows share links' bandwidth following a max-min fairness policy:
+ * the bandwidth of every link is divided equally among its flows,
+ * but a flow which is constrained by a more congested link (its bottleneck)
+ * leaves its unused share for the other flows.
+ * Flow rates are just recomputed when flows start or finish,
+ * once for all flows started or finished at the same simulation time,
+ * so that the Datacenter receives an event only when some flow is expected to finish,
+ * instead of events for every packet hop between switches.</p>
+ *
+ * <p>The path of a flow goes from the source Host to its {@link EdgeSwitch},
+ * up through the {@link Switch#getUplinkSwitches() uplink switches} until reaching a switch
+ * that is also above the destination Host, then down to the destination Host.
+ * The capacity of the link from a Host to its Edge Switch is the {@link NetworkHost#getBandwidth() Host bandwidth};
+ * the capacity of the links from a switch to its parent or children are the switch's
+ * {@link Switch#getUplinkBandwidth() uplink} and {@link Switch#getDownlinkBandwidth() downlink} bandwidth.
+ * The {@link Switch#getSwitchingDelay() switching delay} isn't considered by this model.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ * @see NetworkDatacenter#setFlowLevelNetworkEnabled(boolean)
+ */
+public class FlowLevelNetwork {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowLevelNetwork.class.getSimpleName());
+
+    /**
+     * A time interval (in seconds) below which the remaining transfer time of a flow
+     * is considered zero, to avoid floating-point errors delaying the finish of flows.
+     */
+    private static final double TIME_EPSILON = 1e-9;
+
+    private final NetworkDatacenter datacenter;
+
+    /**
+     * The flows currently transferring data, in the order they were started.
+     */
+    private final List<Flow> flows;
+
+    /**
+     * The links used by active flows, where each key
+     * is a pair of (source, destination) nodes (Hosts or Switches).
+     */
+    private final Map<Map.Entry<Object, Object>, Link> links;
+
+    /**
+     * The times of the {@link CloudSimTags#NETWORK_FLOW_UPDATE} events already scheduled.
+     * Since flows may finish earlier or later than expected when other flows start or finish,
+     * previously scheduled events aren't cancelled (which would require searching the whole event queue).
+     * An event is just scheduled if there is no one until the time the next flow is expected to finish.
+     */
+    private final NavigableSet<Double> scheduledEventTimes;
+
+    /**
+     * The last time the remaining data of flows was updated.
+     */
+    private double lastUpdateTime;
+
+    /**
+     * Indicates if flows were started after the last time rates were allocated,
+     * so that rates must be allocated again before being used.
+     * @see #startFlows(Collection)
+     */
+    private boolean ratesOutdated;
+
+    /** @see #getFinishedFlowsNumber() */
+    private long finishedFlowsNumber;
+
+    /**
+     * Creates a flow-level network model for a given Datacenter.
+     * @param datacenter the Datacenter whose network will be modeled
+     */
+    public FlowLevelNetwork(final NetworkDatacenter datacenter) {
+        this.datacenter = requireNonNull(datacenter);
+        this.flows = new ArrayList<>();
+        this.links = new HashMap<>();
+        this.scheduledEventTimes = new TreeSet<>();
+    }
+
+    /**
+     * Starts a flow to transfer a packet from its {@link HostPacket#getSource() source Host}
+     * to the Host where the packet's destination VM is placed.
+     *
+     * @param hostPkt the packet to transfer
+     * @see #startFlows(Collection)
+     */
+    public void startFlow(final HostPacket hostPkt) {
+        startFlows(Collections.singletonList(hostPkt));
+    }
+
+    /**
+     * Starts a flow for each given packet, to transfer it from its {@link HostPacket#getSource() source Host}
+     * to the Host where the packet's destination VM is placed.
+     *
+     * <p>Flow rates aren't allocated at every call. They are allocated just once
+     * for all flows started at the current simulation time,
+     * when a {@link CloudSimTags#NETWORK_FLOW_UPDATE} event is received
+     * or a flow {@link #getRate(HostPacket) rate} is requested.</p>
+     *
+     * @param packets the packets to transfer
+     */
+    public void startFlows(final Collection<HostPacket> packets) {
+        if (packets.isEmpty()) {
+            return;
+        }
+
+        final double clock = datacenter.getSimulation().clock();
+        updateRemainingData(clock);
+        for (final HostPacket hostPkt : packets) {
+            addFlow(hostPkt, clock);
+        }
+
+        if (ratesOutdated) {
+            return;
+        }
+
+        ratesOutdated = true;
+        if (scheduledEventTimes.isEmpty() || scheduledEventTimes.first() > clock + TIME_EPSILON) {
+            scheduledEventTimes.add(clock);
+            datacenter.schedule(datacenter, 0, CloudSimTags.NETWORK_FLOW_UPDATE);
+        }
+    }
+
+    private void addFlow(final HostPacket hostPkt, final double clock) {
+        final NetworkHost destination = (NetworkHost) hostPkt.getVmPacket().getDestination().getHost();
+        hostPkt.setDestination(destination);
+        hostPkt.setSendTime(clock);
+
+        final Flow flow = new Flow(hostPkt, Conversion.bytesToMegaBits(hostPkt.getSize()));
+        for (final Map.Entry<Object, Object> linkKey : getPath(hostPkt.getSource(), destination)) {
+            final Link link = links.computeIfAbsent(linkKey, key -> new Link(key, getCapacity(key)));
+            link.flows.add(flow);
+            flow.path.add(link);
+        }
+
+        flows.add(flow);
+        LOGGER.trace(
+            "{}: {}: Flow of {} bytes started from {} to {}",
+            clock, getClass().getSimpleName(), hostPkt.getSize(), hostPkt.getSource(), destination);
+    }
+
+    /**
+     * Updates the data transferred by active flows until the current simulation time,
+     * delivering the packets of the flows which have finished to their destination Hosts.
+     * It's called when a {@link CloudSimTags#NETWORK_FLOW_UPDATE} event is received.
+     *
+     * @return true if some flow has finished, false otherwise
+     */
+    public boolean updateFlows() {
+        final double clock = datacenter.getSimulation().clock();
+        scheduledEventTimes.headSet(clock, true).clear();
+        updateRemainingData(clock);
+
+        boolean finished = false;
+        final Iterator<Flow> it = flows.iterator();
+        while (it.hasNext()) {
+            final Flow flow = it.next();
+            if (flow.getRemainingTime() > TIME_EPSILON) {
+                continue;
+            }
+
+            it.remove();
+            finishFlow(flow, clock);
+            finished = true;
+        }
+
+        if (finished || ratesOutdated) {
+            reallocateRates();
+        }
+
+        scheduleNextFinish(clock);
+        return finished;
+    }
+
+    private void finishFlow(final Flow flow, final double clock) {
+        for (final Link link : flow.path) {
+            link.flows.remove(flow);
+            if (link.flows.isEmpty()) {
+                links.remove(link.key);
+            }
+        }
+
+        flow.packet.setReceiveTime(clock);
+        flow.packet.getDestination().addReceivedNetworkPacket(flow.packet);
+        finishedFlowsNumber++;
+        LOGGER.trace(
+            "{}: {}: Flow of {} bytes finished from {} to {}",
+            clock, getClass().getSimpleName(), flow.packet.getSize(),
+            flow.packet.getSource(), flow.packet.getDestination());
+    }
+
+    /**
+     * Decreases the remaining data of each flow according to the
+     * data transferred at its current rate since the last update.
+     *
+     * @param clock the current simulation time
+     */
+    private void updateRemainingData(final double clock) {
+        final double timeSpan = clock - lastUpdateTime;
+        lastUpdateTime = clock;
+        if (timeSpan <= 0) {
+            return;
+        }
+
+        for (final Flow flow : flows) {
+            flow.remainingMegabits = Math.max(0, flow.remainingMegabits - flow.rate * timeSpan);
+        }
+    }
+
+    /**
+     * Computes the max-min fair rate of every flow by progressive filling:
+     * the link offering the smallest equal share to its flows which don't have a rate yet
+     * is the bottleneck of such flows, which get that share as their rate.
+     * The share is then deducted from the capacity of the other links those flows use,
+     * and the process is repeated until every flow has a rate.
+     *
+     * <p>Links are kept in a priority queue ordered by their fair share.
+     * Since allocating the smallest share to some flows can only increase the share of the
+     * other links those flows use, a link is just added to the queue again with its new share,
+     * and entries with an out-of-date share are ignored when removed from the queue.</p>
+     */
+    private void reallocateRates() {
+        ratesOutdated = false;
+        final PriorityQueue<LinkShare> queue = new PriorityQueue<>(Math.max(1, links.size()));
+        for (final Link link : links.values()) {
+            link.availableCapacity = link.capacity;
+            link.unallocatedFlows = link.flows.size();
+            queue.add(new LinkShare(link));
+        }
+
+        for (final Flow flow : flows) {
+            flow.rate = -1;
+        }
+
+        while (!queue.isEmpty()) {
+            final LinkShare bottleneck = queue.poll();
+            if (bottleneck.isOutdated()) {
+                continue;
+            }
+
+            for (final Flow flow : bottleneck.link.flows) {
+                if (flow.rate < 0) {
+                    allocateRate(flow, bottleneck.share, queue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the rate of a flow and deducts it from the links the flow uses,
+     * adding these links to the queue again with their new fair share.
+     *
+     * @param flow the flow to set the rate
+     * @param rate the rate to set
+     * @param queue the queue of links ordered by their fair share
+     */
+    private void allocateRate(final Flow flow, final double rate, final PriorityQueue<LinkShare> queue) {
+        flow.rate = rate;
+        for (final Link link : flow.path) {
+            link.availableCapacity = Math.max(0, link.availableCapacity - rate);
+            link.unallocatedFlows--;
+            if (link.unallocatedFlows > 0) {
+                queue.add(new LinkShare(link));
+            }
+        }
+    }
+
+    /**
+     * Schedules an event to the Datacenter for the time the next flow is expected to finish,
+     * unless there is already an event scheduled until that time.
+     *
+     * @param clock the current simulation time
+     */
+    private void scheduleNextFinish(final double clock) {
+        double delay = Double.MAX_VALUE;
+        for (final Flow flow : flows) {
+            delay = Math.min(delay, flow.getRemainingTime());
+        }
+
+        if (delay == Double.MAX_VALUE) {
+            return;
+        }
+
+        final double time = clock + delay;
+        if (!scheduledEventTimes.isEmpty() && scheduledEventTimes.first() <= time + TIME_EPSILON) {
+            return;
+        }
+
+        scheduledEventTimes.add(time);
+        datacenter.schedule(datacenter, delay, CloudSimTags.NETWORK_FLOW_UPDATE);
+    }
+
+    /**
+     * Gets the links between two Hosts, as pairs of (source, destination) nodes.
+     * @param source the source Host
+     * @param destination the destination Host
+     * @return the list of links from the source to the destination Host
+     */
+    private List<Map.Entry<Object, Object>> getPath(final NetworkHost source, final NetworkHost destination) {
+        final List<Switch> upPath = getSwitchesAbove(source);
+        final List<Switch> downPath = getSwitchesAbove(destination);
+
+        /* Finds the lowest switch above both Hosts.
+         * If there is no such a switch (since uplink switches weren't connected),
+         * the top switches above each Host are considered directly connected. */
+        int upIndex = upPath.size() - 1;
+        int downIndex = downPath.size() - 1;
+        for (int i = 0; i < upPath.size(); i++) {
+            final int j = downPath.indexOf(upPath.get(i));
+            if (j >= 0) {
+                upIndex = i;
+                downIndex = j;
+                break;
+            }
+        }
+
+        final List<Map.Entry<Object, Object>> path = new ArrayList<>();
+        path.add(new AbstractMap.SimpleImmutableEntry<>(source, upPath.get(0)));
+        for (int i = 0; i < upIndex; i++) {
+            path.add(new AbstractMap.SimpleImmutableEntry<>(upPath.get(i), upPath.get(i + 1)));
+        }
+
+        for (int i = downIndex; i > 0; i--) {
+            path.add(new AbstractMap.SimpleImmutableEntry<>(downPath.get(i), downPath.get(i - 1)));
+        }
+        path.add(new AbstractMap.SimpleImmutableEntry<>(downPath.get(0), destination));
+
+        return path;
+    }
+
+    /**
+     * Gets the switches above a Host, from its Edge Switch up to the top of the network.
+     * As in the per-packet simulation, it's assumed each switch is connected to a single uplink switch.
+     *
+     * @param host the Host to get the switches above it
+     * @return the list of switches above the Host, starting from its Edge Switch
+     */
+    private List<Switch> getSwitchesAbove(final NetworkHost host) {
+        if (host.getEdgeSwitch() == null) {
+            throw new IllegalStateException(host + " isn't connected to an Edge Switch.");
+        }
+
+        final List<Switch> list = new ArrayList<>();
+        Switch swt = host.getEdgeSwitch();
+        list.add(swt);
+        while (!swt.getUplinkSwitches().isEmpty() && !list.contains(swt.getUplinkSwitches().get(0))) {
+            swt = swt.getUplinkSwitches().get(0);
+            list.add(swt);
+        }
+
+        return list;
+    }
+
+    /**
+     * Gets the capacity of a link (in Megabits/s).
+     * @param link the pair of (source, destination) nodes of the link
+     * @return
+     */
+    private double getCapacity(final Map.Entry<Object, Object> link) {
+        if (link.getKey() instanceof NetworkHost) {
+            return ((NetworkHost) link.getKey()).getBandwidth();
+        }
+
+        final Switch swt = (Switch) link.getKey();
+        if (link.getValue() instanceof Switch && swt.getUplinkSwitches().contains(link.getValue())) {
+            return swt.getUplinkBandwidth();
+        }
+
+        return swt.getDownlinkBandwidth();
+    }
+
+    /**
+     * Gets the number of flows currently transferring data.
+     * @return
+     */
+    public int getActiveFlowsNumber() {
+        return flows.size();
+    }
+
+    /**
+     * Gets the number of flows which have finished,
+     * delivering their packets to the destination Hosts.
+     * @return
+     */
+    public long getFinishedFlowsNumber() {
+        return finishedFlowsNumber;
+    }
+
+    /**
+     * Gets the current rate (in Megabits/s) of the flow transferring a given packet.
+     *
+     * @param hostPkt the packet being transferred
+     * @return the flow rate or 0 if there is no active flow for such a packet
+     */
+    public double getRate(final HostPacket hostPkt) {
+        if (ratesOutdated) {
+            reallocateRates();
+        }
+
+        for (final Flow flow : flows) {
+            if (flow.packet == hostPkt) {
+                return flow.rate;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * A flow transferring the data of a packet along a path of links.
+     */
+    private static final class Flow {
+        private final HostPacket packet;
+        private final List<Link> path;
+        private double remainingMegabits;
+
+        /**
+         * The current transfer rate (in Megabits/s),
+         * which is zero until rates are allocated after the flow starts.
+         * While rates are being allocated, it's negative for flows which weren't allocated a rate yet.
+         */
+        private double rate;
+
+        private Flow(final HostPacket packet, final double megabits) {
+            this.packet = packet;
+            this.path = new ArrayList<>();
+            this.remainingMegabits = megabits;
+        }
+
+        /**
+         * Gets the time (in seconds) the flow is expected to finish transferring its data at the current rate.
+         * @return the remaining time or {@link Double#MAX_VALUE} if the flow isn't transferring data
+         */
+        private double getRemainingTime() {
+            if (remainingMegabits <= 0) {
+                return 0;
+            }
+
+            return rate > 0 ? remainingMegabits / rate : Double.MAX_VALUE;
+        }
+    }
+
+    /**
+     * A unidirectional link between two nodes, which is shared by a set of flows.
+     */
+    private static final class Link {
+        /** The pair of (source, destination) nodes of the link, used as key in the {@link #links} map. */
+        private final Map.Entry<Object, Object> key;
+
+        /** The link capacity (in Megabits/s). */
+        private final double capacity;
+
+        /** The flows using the link, in the order they were started. */
+        private final Set<Flow> flows;
+
+        /** The capacity not allocated to flows yet, while rates are being computed. */
+        private double availableCapacity;
+
+        /** The number of flows which weren't allocated a rate yet, while rates are being computed. */
+        private int unallocatedFlows;
+
+        private Link(final Map.Entry<Object, Object> key, final double capacity) {
+            this.key = key;
+            this.capacity = capacity;
+            this.flows = new LinkedHashSet<>();
+        }
+
+        private double getFairShare() {
+            return availableCapacity / unallocatedFlows;
+        }
+    }
+
+    /**
+     * The fair share of a link at the time it was added to the queue used to allocate flow rates.
+     */
+    private static final class LinkShare implements Comparable<LinkShare> {
+        private final Link link;
+        private final double share;
+        private final int unallocatedFlows;
+
+        private LinkShare(final Link link) {
+            this.link = link;
+            this.share = link.getFairShare();
+            this.unallocatedFlows = link.unallocatedFlows;
+        }
+
+        /**
+         * Checks if the link share has changed since this object was created
+         * (meaning there is a newer entry for the link in the queue)
+         * or if all flows using the link were already allocated a rate.
+         * @return
+         */
+        private boolean isOutdated() {
+            return unallocatedFlows != link.unallocatedFlows || link.unallocatedFlows == 0;
+        }
+
+        @Override
+        public int compareTo(final LinkShare other) {
+            return Double.compare(share, other.share);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.schedulers;
+
+import org.cloudbus.cloudsim.resources.Pe;
+import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletScheduler;
+import org.cloudbus.cloudsim.schedulers.vm.VmScheduler;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The MIPS capacity of each {@link Pe} shared by a {@link VmScheduler} with a VM
+ * and then by the VM with its {@link CloudletScheduler},
+ * stored as primitive values to avoid boxing Doubles and creating lists
+ * every time the processing of VMs is updated.
+ *
+ * <p>An instance is owned by a scheduler and its values
+ * are updated as the MIPS allocation changes, reusing the same internal array.
+ * Schedulers just expose a {@link #readOnly() read-only view} of their shares,
+ * whose values must be {@link #setValues(MipsShare) copied} to be changed.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public final class MipsShare {
+    /**
+     * The share actually storing the values,
+     * which is this object itself, unless it is a read-only view.
+     */
+    private final MipsShare owner;
+
+    private double[] values;
+
+    /**
+     * @see #pes()
+     */
+    private int pes;
+
+    /**
+     * A read-only view of the values, created just when requested.
+     * @see #asList()
+     */
+    private List<Double> listView;
+
+    /**
+     * @see #readOnly()
+     */
+    private MipsShare readOnlyView;
+
+    /**
+     * Creates an empty MIPS share.
+     */
+    public MipsShare() {
+        this.owner = this;
+        this.values = new double[0];
+    }
+
+    /**
+     * Creates a MIPS share where all PEs have the same capacity.
+     *
+     * @param pes the number of PEs
+     * @param mips the MIPS capacity of each PE
+     */
+    public MipsShare(final long pes, final double mips) {
+        this.owner = this;
+        this.values = new double[(int) pes];
+        this.pes = values.length;
+        Arrays.fill(values, mips);
+    }
+
+    /**
+     * Creates a MIPS share from a list of MIPS capacities.
+     *
+     * @param mipsList the MIPS capacity of each PE
+     */
+    public MipsShare(final List<Double> mipsList) {
+        this();
+        setValues(mipsList);
+    }
+
+    /**
+     * Creates a read-only view of a given share.
+     * @param owner the share to create a view for
+     */
+    private MipsShare(final MipsShare owner) {
+        this.owner = owner;
+        this.readOnlyView = this;
+    }
+
+    /**
+     * Gets the number of PEs in the share.
+     * @return
+     */
+    public int pes() {
+        return owner.pes;
+    }
+
+    /**
+     * Checks if there is no PE in the share.
+     * @return
+     */
+    public boolean isEmpty() {
+        return owner.pes == 0;
+    }
+
+    /**
+     * Gets the MIPS capacity of a given PE.
+     *
+     * @param pe the index of the PE
+     * @return
+     * @throws IndexOutOfBoundsException when the index is not between 0 and {@link #pes()} - 1
+     */
+    public double mips(final int pe) {
+        if (pe < 0 || pe >= owner.pes) {
+            throw new IndexOutOfBoundsException("PE index: " + pe + ", PEs: " + owner.pes);
+        }
+
+        return owner.values[pe];
+    }
+
+    /**
+     * Gets the MIPS capacity of the first PE or 0 if the share is empty.
+     * @return
+     */
+    public double firstMips() {
+        return owner.pes == 0 ? 0 : owner.values[0];
+    }
+
+    /**
+     * Gets the sum of the MIPS capacity of all PEs.
+     * @return
+     */
+    public double totalMips() {
+        final double[] mips = owner.values;
+        double total = 0;
+        for (int i = 0; i < owner.pes; i++) {
+            total += mips[i];
+        }
+
+        return total;
+    }
+
+    /**
+     * Checks if this object is a read-only view of a share.
+     * @return
+     * @see #readOnly()
+     */
+    public boolean isReadOnly() {
+        return owner != this;
+    }
+
+    /**
+     * Gets a read-only view of the share,
+     * which reflects later changes in the share
+     * but throws an {@link UnsupportedOperationException}
+     * when some method tries to change its values.
+     * The view is created just once for each share.
+     *
+     * @return
+     */
+    public MipsShare readOnly() {
+        if (readOnlyView == null) {
+            readOnlyView = new MipsShare(this);
+        }
+
+        return readOnlyView;
+    }
+
+    /**
+     * Replaces the values of this share by the ones from another share,
+     * reusing the internal array when it has enough room.
+     *
+     * @param source the share to copy values from
+     * @throws UnsupportedOperationException when this share is {@link #isReadOnly() read-only}
+     */
+    public void setValues(final MipsShare source) {
+        checkWritable();
+        final MipsShare sourceOwner = source.owner;
+        if (sourceOwner == this) {
+            return;
+        }
+
+        ensureCapacity(sourceOwner.pes);
+        System.arraycopy(sourceOwner.values, 0, values, 0, sourceOwner.pes);
+        pes = sourceOwner.pes;
+    }
+
+    /**
+     * Replaces the values of this share by the ones from a list of MIPS capacities,
+     * reusing the internal array when it has enough room.
+     *
+     * @param mipsList the MIPS capacity of each PE
+     * @throws UnsupportedOperationException when this share is {@link #isReadOnly() read-only}
+     */
+    public void setValues(final List<Double> mipsList) {
+        checkWritable();
+        ensureCapacity(requireNonNull(mipsList).size());
+        pes = 0;
+        for (final double mips : mipsList) {
+            values[pes++] = mips;
+        }
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (values.length < capacity) {
+            values = new double[capacity];
+        }
+    }
+
+    /**
+     * Removes a given number of PEs from the beginning of the share.
+     *
+     * @param pesToRemove the number of PEs to remove
+     * @return the number of PEs actually removed,
+     *         which is lower than the requested when there aren't enough PEs
+     * @throws UnsupportedOperationException when this share is {@link #isReadOnly() read-only}
+     */
+    public int remove(final int pesToRemove) {
+        checkWritable();
+        final int removed = Math.max(0, Math.min(pesToRemove, pes));
+        System.arraycopy(values, removed, values, 0, pes - removed);
+        pes -= removed;
+        return removed;
+    }
+
+    private void checkWritable() {
+        if (isReadOnly()) {
+            throw new UnsupportedOperationException("The MIPS share is read-only.");
+        }
+    }
+
+    /**
+     * Gets a read-only {@link List} view of the share,
+     * for APIs that still work with lists of MIPS.
+     * The view reflects later changes in the share
+     * and is created just once for each share.
+     *
+     * @return
+     */
+    public List<Double> asList() {
+        if (owner.listView == null) {
+            owner.listView = new AbstractList<Double>() {
+                @Override public Double get(final int index) { return owner.mips(index); }
+                @Override public int size() { return owner.pes; }
+            };
+        }
+
+        return owner.listView;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof MipsShare)) {
+            return false;
+        }
+
+        final MipsShare share = owner;
+        final MipsShare other = ((MipsShare) obj).owner;
+        if (share.pes != other.pes) {
+            return false;
+        }
+
+        for (int i = 0; i < share.pes; i++) {
+            if (Double.compare(share.values[i], other.values[i]) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < owner.pes; i++) {
+            hash = 31 * hash + Double.hashCode(owner.values[i]);
+        }
+
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return asList().toString();
+    }
+}
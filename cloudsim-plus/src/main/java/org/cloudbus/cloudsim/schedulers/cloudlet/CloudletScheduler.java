@@ -13,6 +13,7 @@ import org.cloudbus.cloudsim.cloudlets.CloudletExecution;
 import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
 import org.cloudbus.cloudsim.network.VmPacket;
 import org.cloudbus.cloudsim.resources.Pe;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.schedulers.cloudlet.network.CloudletTaskScheduler;
 import org.cloudbus.cloudsim.vms.Vm;
 
@@ -280,12 +281,28 @@ public interface CloudletScheduler extends Serializable {
      * Updates the processing of cloudlets inside the Vm running under management of this scheduler.
      *
      * @param currentTime current simulation time
+     * @param mipsShare the MIPS share of each Pe available to the scheduler,
+     *                  which must not be changed by the scheduler
+     * @return the predicted completion time of the earliest finishing cloudlet
+     * (which is a relative delay from the current simulation time),
+     * or {@link Double#MAX_VALUE} if there is no next Cloudlet to execute
+     */
+    double updateProcessingWithMipsShare(double currentTime, MipsShare mipsShare);
+
+    /**
+     * Updates the processing of cloudlets inside the Vm running under management of this scheduler,
+     * given the MIPS share as a List.
+     *
+     * @param currentTime current simulation time
      * @param mipsShare list with MIPS share of each Pe available to the scheduler
      * @return the predicted completion time of the earliest finishing cloudlet
      * (which is a relative delay from the current simulation time),
      * or {@link Double#MAX_VALUE} if there is no next Cloudlet to execute
+     * @see #updateProcessingWithMipsShare(double, MipsShare)
      */
-    double updateProcessing(double currentTime, List<Double> mipsShare);
+    default double updateProcessing(final double currentTime, final List<Double> mipsShare) {
+        return updateProcessingWithMipsShare(currentTime, new MipsShare(mipsShare));
+    }
 
     /**
      * Gets the Vm that uses the scheduler.
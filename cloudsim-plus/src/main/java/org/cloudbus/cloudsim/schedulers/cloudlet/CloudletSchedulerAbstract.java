@@ -16,6 +16,7 @@ import org.cloudbus.cloudsim.datacenters.Datacenter;
 import org.cloudbus.cloudsim.resources.Pe;
 import org.cloudbus.cloudsim.resources.Ram;
 import org.cloudbus.cloudsim.resources.ResourceManageable;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.schedulers.cloudlet.network.CloudletTaskScheduler;
 import org.cloudbus.cloudsim.util.Conversion;
 import org.cloudbus.cloudsim.utilizationmodels.UtilizationModel;
@@ -26,7 +27,6 @@ import org.slf4j.LoggerFactory;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
@@ -72,15 +72,26 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
     /**
      * @see #getCurrentMipsShare()
      */
-    private List<Double> currentMipsShare;
+    private final MipsShare currentMipsShare;
     /**
      * @see #getCloudletExecList()
      */
     private final List<CloudletExecution> cloudletExecList;
     /**
+     * The Cloudlets waiting to execute, stored in a collection
+     * defined by the scheduler implementation, which defines the order
+     * waiting Cloudlets are got to execute.
      * @see #getCloudletWaitingList()
+     * @see #CloudletSchedulerAbstract(Collection)
      */
-    private final List<CloudletExecution> cloudletWaitingList;
+    private final Collection<CloudletExecution> cloudletWaitingList;
+
+    /**
+     * A read-only view of the {@link #cloudletWaitingList},
+     * created once to avoid creating a new wrapper or copy for every request.
+     * @see #getCloudletWaitingList()
+     */
+    private final List<CloudletExecution> cloudletWaitingListView;
 
     /**
      * @see #getVm()
@@ -96,15 +107,30 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
      * Creates a new CloudletScheduler object.
      */
     protected CloudletSchedulerAbstract() {
+        this(new ArrayList<>());
+    }
+
+    /**
+     * Creates a new CloudletScheduler object which stores waiting Cloudlets into a given collection.
+     * This way, a scheduler can keep waiting Cloudlets in a data structure
+     * sorted according to its own policy (such as a tree),
+     * instead of the default list sorted by arrival order.
+     *
+     * @param cloudletWaitingList the empty collection to store the waiting Cloudlets
+     */
+    protected CloudletSchedulerAbstract(final Collection<CloudletExecution> cloudletWaitingList) {
         setPreviousTime(0.0);
         vm = Vm.NULL;
         cloudletExecList = new ArrayList<>();
         cloudletPausedList = new ArrayList<>();
         cloudletFinishedList = new ArrayList<>();
         cloudletFailedList = new ArrayList<>();
-        cloudletWaitingList = new ArrayList<>();
+        this.cloudletWaitingList = requireNonNull(cloudletWaitingList);
+        this.cloudletWaitingListView = cloudletWaitingList instanceof List ?
+                                            Collections.unmodifiableList((List<CloudletExecution>) cloudletWaitingList) :
+                                            new ReadOnlyListView<>(cloudletWaitingList);
         cloudletReturnedList = new HashSet<>();
-        currentMipsShare = new ArrayList<>();
+        currentMipsShare = new MipsShare();
         taskScheduler = CloudletTaskScheduler.NULL;
     }
 
@@ -124,16 +150,42 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
     }
 
     /**
-     * Gets a <b>read-only</b> list of current mips capacity from the VM that will be
+     * Gets the <b>read-only</b> current mips capacity from the VM that will be
      * made available to the scheduler. This mips share will be allocated
      * to Cloudlets as requested.
      *
-     * @return the current mips share list, where each item represents
+     * @return the current mips share, where each item represents
      * the MIPS capacity of a {@link Pe}. that is available to the scheduler.
-     *
+     * @see #getCurrentMipsShareView()
      */
     public List<Double> getCurrentMipsShare() {
-        return Collections.unmodifiableList(currentMipsShare);
+        return currentMipsShare.asList();
+    }
+
+    /**
+     * Gets a read-only view of the current mips capacity from the VM that will be
+     * made available to the scheduler, without boxing its values into a List.
+     *
+     * @return
+     * @see #getCurrentMipsShare()
+     */
+    public MipsShare getCurrentMipsShareView() {
+        return currentMipsShare.readOnly();
+    }
+
+    /**
+     * Sets the current mips share available for the VM using the
+     * scheduler. The values are copied, so that the given share
+     * is not changed when PEs are deallocated from the scheduler.
+     *
+     * @param currentMipsShare the new current mips share
+     * @see #getCurrentMipsShare()
+     */
+    protected void setCurrentMipsShare(final MipsShare currentMipsShare) {
+        if(currentMipsShare.pes() > vm.getNumberOfPes()){
+            LOGGER.warn("Requested {} PEs but {} has just {}", currentMipsShare.pes(), vm, vm.getNumberOfPes());
+        }
+        this.currentMipsShare.setValues(currentMipsShare);
     }
 
     /**
@@ -141,13 +193,10 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
      * scheduler.
      *
      * @param currentMipsShare the new current mips share
-     * @see #getCurrentMipsShare()
+     * @see #setCurrentMipsShare(MipsShare)
      */
     protected void setCurrentMipsShare(final List<Double> currentMipsShare) {
-        if(currentMipsShare.size() > vm.getNumberOfPes()){
-            LOGGER.warn("Requested {} PEs but {} has just {}", currentMipsShare.size(), vm, vm.getNumberOfPes());
-        }
-        this.currentMipsShare = currentMipsShare;
+        setCurrentMipsShare(new MipsShare(currentMipsShare));
     }
 
     /**
@@ -173,29 +222,30 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
      */
     public double getAvailableMipsByPe(){
         final long totalPesOfAllExecCloudlets = totalPesOfAllExecCloudlets();
-        if(totalPesOfAllExecCloudlets > currentMipsShare.size()) {
-            return getTotalMipsShare() / totalPesOfAllExecCloudlets;
+        if(totalPesOfAllExecCloudlets > currentMipsShare.pes()) {
+            return currentMipsShare.totalMips() / totalPesOfAllExecCloudlets;
         }
 
         return getPeCapacity();
     }
 
-    private Double getPeCapacity() {
-        return currentMipsShare.stream().findFirst().orElse(0.0);
+    private double getPeCapacity() {
+        return currentMipsShare.firstMips();
     }
 
     /**
      * Gets the total number of PEs of all cloudlets currently executing in this processor.
      * @return
      */
-    private long totalPesOfAllExecCloudlets() {
-        return cloudletExecList.stream()
-            .map(CloudletExecution::getCloudlet)
-            .mapToLong(Cloudlet::getNumberOfPes).sum();
-    }
+    @SuppressWarnings("ForLoopReplaceableByForEach")
+    protected long totalPesOfAllExecCloudlets() {
+        //Uses a traditional for since it's called for every Cloudlet each time the processing is updated
+        long pes = 0;
+        for (int i = 0; i < cloudletExecList.size(); i++) {
+            pes += cloudletExecList.get(i).getCloudlet().getNumberOfPes();
+        }
 
-    private double getTotalMipsShare(){
-        return currentMipsShare.stream().mapToDouble(mips -> mips).sum();
+        return pes;
     }
 
     @Override
@@ -214,6 +264,16 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
         cloudletWaitingList.add(cle);
     }
 
+    /**
+     * Removes a Cloudlet from the list of waiting cloudlets.
+     *
+     * @param cle the Cloudlet to be removed
+     * @return true if the Cloudlet was found and removed, false otherwise
+     */
+    protected boolean removeCloudletFromWaitingList(final CloudletExecution cle) {
+        return cloudletWaitingList.remove(cle);
+    }
+
     /**
      * Gets the list of paused cloudlets.
      *
@@ -237,17 +297,33 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
         return cloudletFailedList;
     }
 
+    /**
+     * {@inheritDoc}
+     * The returned List is a view which reflects the changes in the waiting Cloudlets.
+     * If such Cloudlets aren't stored into a {@link List}
+     * (see {@link #CloudletSchedulerAbstract(Collection)}),
+     * the view returns them in the order they are got to execute,
+     * but getting a Cloudlet by its index takes linear time.
+     * In this case, iterate over the List instead.
+     *
+     * @return {@inheritDoc}
+     */
     @Override
     public List<CloudletExecution> getCloudletWaitingList() {
-        return Collections.unmodifiableList(cloudletWaitingList);
+        return cloudletWaitingListView;
     }
 
     /**
      * Sorts the {@link #cloudletWaitingList} using a given {@link Comparator}.
+     * If the waiting Cloudlets aren't stored into a {@link List},
+     * nothing is done, since their order is defined by the collection where they are stored.
+     *
      * @param comparator the {@link Comparator} to sort the Waiting Cloudlets List
      */
     protected void sortCloudletWaitingList(final Comparator<CloudletExecution> comparator){
-        cloudletWaitingList.sort(comparator);
+        if(cloudletWaitingList instanceof List){
+            ((List<CloudletExecution>) cloudletWaitingList).sort(comparator);
+        }
     }
 
     @Override
@@ -292,6 +368,16 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
         cle.setLastProcessingTime(getVm().getSimulation().clock());
         cloudletExecList.add(cle);
         addUsedPes(cle.getNumberOfPes());
+        invalidateHostUtilizationCache();
+    }
+
+    /**
+     * Notifies the Host of the {@link #getVm() VM} that the CPU usage of the VM
+     * may have changed, due to a Cloudlet entering or leaving the execution list.
+     * @see org.cloudbus.cloudsim.hosts.Host#invalidateUtilizationCache()
+     */
+    private void invalidateHostUtilizationCache() {
+        vm.getHost().invalidateUtilizationCache();
     }
 
     @Override
@@ -346,14 +432,14 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
      */
     protected Optional<CloudletExecution> findCloudletInAllLists(final double cloudletId) {
         //Concatenate all lists into a stream
-        final Stream<List<CloudletExecution>> streamOfAllLists
+        final Stream<Collection<CloudletExecution>> streamOfAllLists
             = Stream.of(cloudletExecList, cloudletPausedList, cloudletWaitingList,
             cloudletFinishedList, cloudletFailedList);
 
         //Gets all elements in each list and makes them a single full list,
         //returning the first Cloudlet with the given id
         return streamOfAllLists
-            .flatMap(List::stream)
+            .flatMap(Collection::stream)
             .filter(cle -> cle.getCloudletId() == cloudletId)
             .findFirst();
     }
@@ -422,6 +508,7 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
     private void changeInExecToPaused(final CloudletExecution cle) {
         changeStatusOfCloudlet(cle, Status.INEXEC, Status.PAUSED);
         removeUsedPes(cle.getNumberOfPes());
+        invalidateHostUtilizationCache();
     }
 
     private void changeReadyToPaused(final CloudletExecution cle) {
@@ -455,6 +542,7 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
             cloudletExecList, cloudlet,
             cle -> changeStatusOfCloudlet(cle, Status.INEXEC, stopStatus));
         if (found) {
+            invalidateHostUtilizationCache();
             return cloudlet;
         }
 
@@ -513,12 +601,16 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
      * @return true if the Cloudlet was found, false otherwise
      */
     private boolean changeStatusOfCloudletIntoList(
-        final List<CloudletExecution> cloudletList,
+        final Collection<CloudletExecution> cloudletList,
         final Cloudlet cloudlet,
         final Consumer<CloudletExecution> cloudletStatusUpdaterConsumer)
     {
         final Function<CloudletExecution, Cloudlet> removeCloudletAndUpdateStatus = cle -> {
-            cloudletList.remove(cle);
+            if(cloudletList == cloudletWaitingList) {
+                removeCloudletFromWaitingList(cle);
+            } else {
+                cloudletList.remove(cle);
+            }
             cloudletStatusUpdaterConsumer.accept(cle);
             return cle.getCloudlet();
         };
@@ -531,7 +623,7 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
     }
 
     @Override
-    public double updateProcessing(final double currentTime, final List<Double> mipsShare) {
+    public double updateProcessingWithMipsShare(final double currentTime, final MipsShare mipsShare) {
         setCurrentMipsShare(mipsShare);
 
         if (isEmpty()) {
@@ -633,7 +725,7 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
      * @param cloudlet the Cloudlet to get the absolute value of RAM utilization
      * @return the Cloudlet RAM utilization in absolute value
      */
-    private double getCloudletRamAbsoluteUtilization(final Cloudlet cloudlet) {
+    protected double getCloudletRamAbsoluteUtilization(final Cloudlet cloudlet) {
         final ResourceManageable ram = vm.getResource(Ram.class);
         final UtilizationModel um = cloudlet.getUtilizationModelRam();
         return um.getUnit() == Unit.ABSOLUTE ?
@@ -693,7 +785,7 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
      * @return true if the time to transfer the files has passed, false
      * otherwise
      */
-    private boolean hasCloudletFileTransferTimePassed(final CloudletExecution cle, final double currentTime) {
+    protected boolean hasCloudletFileTransferTimePassed(final CloudletExecution cle, final double currentTime) {
         return cle.getFileTransferTime() == 0 ||
                currentTime - cle.getCloudletArrivalTime() > cle.getFileTransferTime() ||
                cle.getCloudlet().getFinishedLengthSoFar() > 0;
@@ -732,7 +824,13 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
         return finishedCloudlets.size();
     }
 
-    private void addCloudletToFinishedList(final CloudletExecution cle) {
+    /**
+     * Sets a Cloudlet as finished, moving it from the
+     * {@link #getCloudletExecList() execution list} to the finished list.
+     *
+     * @param cle the Cloudlet to finish
+     */
+    protected void addCloudletToFinishedList(final CloudletExecution cle) {
         setCloudletFinishTimeAndAddToFinishedList(cle);
         removeCloudletFromExecList(cle);
     }
@@ -745,6 +843,7 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
      */
     protected CloudletExecution removeCloudletFromExecList(final CloudletExecution cle) {
         removeUsedPes(cle.getNumberOfPes());
+        invalidateHostUtilizationCache();
         return cloudletExecList.remove(cle) ? cle : CloudletExecution.NULL;
     }
 
@@ -816,7 +915,7 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
      * <p>
      * <p>
      * This method is called internally by the
-     * {@link CloudletScheduler#updateProcessing(double, List)}.</p>
+     * {@link CloudletScheduler#updateProcessingWithMipsShare(double, MipsShare)}.</p>
      */
     protected void moveNextCloudletsFromWaitingToExecList() {
         Optional<CloudletExecution> optional = Optional.of(CloudletExecution.NULL);
@@ -859,7 +958,7 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
     protected CloudletExecution addWaitingCloudletToExecList(final CloudletExecution cle) {
         /*If the Cloudlet is not found in the waiting List, there is no problem.
         * Just add it to the exec List.*/
-        cloudletWaitingList.remove(cle);
+        removeCloudletFromWaitingList(cle);
         addCloudletToExecList(cle);
         return cle;
     }
@@ -902,7 +1001,7 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
      */
     @Override
     public long getFreePes() {
-        return currentMipsShare.size() - getUsedPes();
+        return currentMipsShare.pes() - getUsedPes();
     }
 
     /**
@@ -1047,9 +1146,9 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
 
     @Override
     public void deallocatePesFromVm(int pesToRemove) {
-        pesToRemove = Math.min(pesToRemove, currentMipsShare.size());
+        pesToRemove = Math.min(pesToRemove, currentMipsShare.pes());
         removeUsedPes(pesToRemove);
-        IntStream.range(0, pesToRemove).forEach(idx -> currentMipsShare.remove(0));
+        currentMipsShare.remove(pesToRemove);
     }
 
     @Override
@@ -1093,4 +1192,48 @@ public abstract class CloudletSchedulerAbstract implements CloudletScheduler {
      * @see #canExecuteCloudlet(CloudletExecution)
      */
     protected abstract boolean canExecuteCloudletInternal(CloudletExecution cle);
+
+    /**
+     * A read-only {@link List} view of a {@link Collection} which isn't a List,
+     * keeping the iteration order of such a Collection.
+     * Since the Collection has no indexes, {@link #get(int)} takes linear time.
+     *
+     * @param <T> the type of the elements
+     */
+    private static final class ReadOnlyListView<T> extends AbstractList<T> {
+        private final Collection<T> collection;
+
+        private ReadOnlyListView(final Collection<T> collection) {
+            this.collection = Collections.unmodifiableCollection(collection);
+        }
+
+        @Override
+        public T get(final int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+
+            final Iterator<T> iterator = collection.iterator();
+            for (int i = 0; i < index; i++) {
+                iterator.next();
+            }
+
+            return iterator.next();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return collection.iterator();
+        }
+
+        @Override
+        public int size() {
+            return collection.size();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            return collection.contains(obj);
+        }
+    }
 }
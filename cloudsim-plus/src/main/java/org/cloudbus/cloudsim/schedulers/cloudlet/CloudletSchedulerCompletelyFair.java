@@ -24,16 +24,17 @@
 package org.cloudbus.cloudsim.schedulers.cloudlet;
 
 import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet.Status;
 import org.cloudbus.cloudsim.cloudlets.CloudletExecution;
 import org.cloudbus.cloudsim.datacenters.Datacenter;
 import org.cloudbus.cloudsim.resources.Pe;
-import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.NavigableSet;
 import java.util.Optional;
-import java.util.function.Predicate;
-
-import static java.util.stream.Collectors.toList;
+import java.util.TreeSet;
 
 /**
  * A simplified implementation of the <a href="https://en.wikipedia.org/wiki/Completely_Fair_Scheduler">Completely Fair Scheduler (CFS)</a>
@@ -53,6 +54,13 @@ import static java.util.stream.Collectors.toList;
  * <ul>
  *     <li>Defines a general runqueue (the waiting list which defines which Cloudlets to run next) for all CPU cores ({@link Pe}) instead
  *     of one for each core. More details in the listing below.</li>
+ *     <li>Keeps the runqueue into a Red-Black tree ({@link TreeSet}), as in real implementations of CFS,
+ *     sorting waiting Cloudlets increasingly by their virtual runtime (vruntime or VRT) and
+ *     placing the Cloudlets that have run the least at the beginning of the tree.
+ *     Since different Cloudlets may have the same virtual runtime, ties are broken
+ *     by the Cloudlet priority and then by the Cloudlet ID, making each Cloudlet
+ *     have a unique position into the tree. That enables inserting a Cloudlet into the runqueue
+ *     and picking the next one to run in O(log n) time.</li>
  *     <li>Computes process ({@link Cloudlet}) niceness based on its priority: {@code niceness = -priority}.
  *     The nice value (niceness) defines how nice a process is to the other ones.
  *     Lower niceness (negative values) represents higher priority and consequently higher weight, while
@@ -83,13 +91,6 @@ import static java.util.stream.Collectors.toList;
  *     that can be run), it doesn't matter which PEs are "running" the application.
  *     </li>
  *	   </li>
- *	   <li>It doesn't use a Red-Black tree (such as the TreeSet), as in real implementations of CFS,
- *	   to sort waiting Cloudlets (runqueue list) increasingly, based on their virtual runtime (vruntime or VRT)
- *	   (placing the Cloudlets that have run the least at the top of the tree).
- *	   Furthermore, the use of such a data structure added some complexity to the implementation.
- *	   Since different Cloudlets may have the same virtual runtime, this introduced some issues when adding or
- *	   removing elements in a structure such as the TreeSet, that requires
- *	   each value (the virtual runtime in this case) used to sort the Set to be unique.</li>
  * </ul>
  * </p>
  *
@@ -127,28 +128,58 @@ public final class CloudletSchedulerCompletelyFair extends CloudletSchedulerTime
 	 */
 	private int latency = 3;
 
+    /**
+     * The runqueue where the Cloudlets of the {@link #getCloudletWaitingList()} are stored,
+     * sorted by the {@link #waitingCloudletsComparator(CloudletExecution, CloudletExecution)}.
+     * The virtual runtime of a Cloudlet must not be changed while it is inside this set,
+     * otherwise the Cloudlet will be misplaced into the tree.
+     */
+    private final NavigableSet<CloudletExecution> runQueue;
+
+    /**
+     * Cloudlets from the {@link #getCloudletExecList()} that have reached their timeslice
+     * during the last processing update and have to be preempted.
+     * This way, the execution list doesn't need to be traversed again to find such Cloudlets.
+     */
+    private final List<CloudletExecution> expiredVrtCloudlets;
+
+    /**
+     * Creates a Completely Fair Scheduler.
+     */
+    public CloudletSchedulerCompletelyFair(){
+        this(new TreeSet<>(CloudletSchedulerCompletelyFair::waitingCloudletsComparator));
+    }
+
+    /**
+     * Creates a Completely Fair Scheduler which stores the waiting Cloudlets into a given runqueue.
+     * @param runQueue the runqueue to store the waiting Cloudlets
+     */
+    private CloudletSchedulerCompletelyFair(final NavigableSet<CloudletExecution> runQueue){
+        super(runQueue);
+        this.runQueue = runQueue;
+        this.expiredVrtCloudlets = new ArrayList<>();
+    }
+
     /**
      * A comparator used to ascendingly sort Cloudlets into the waiting list
      * based on their virtual runtime (vruntime or VRT). By this way, the Cloudlets in the beginning
      * of such a list will be that ones which have run the least and have to be
      * prioritized when getting Cloudlets from this list to add to the execution
-     * list.
+     * list. Cloudlets having the same vruntime are sorted by their priority and then by their ID.
      *
      * @param c1 first Cloudlet to compare
      * @param c2 second Cloudlet to compare
      * @return a negative value if c1 is lower than c2, zero if they are equals,
      * a positive value if c1 is greater than c2
      */
-    private int waitingCloudletsComparator(final CloudletExecution c1, final CloudletExecution c2){
-        final double vRuntimeDiff = c1.getVirtualRuntime() - c2.getVirtualRuntime();
-        if (vRuntimeDiff != 0) {
-            return MathUtil.doubleToInt(vRuntimeDiff);
+    private static int waitingCloudletsComparator(final CloudletExecution c1, final CloudletExecution c2){
+        final int vRuntimeComparison = Double.compare(c1.getVirtualRuntime(), c2.getVirtualRuntime());
+        if (vRuntimeComparison != 0) {
+            return vRuntimeComparison;
         }
 
-        final long priorityDiff = c1.getCloudlet().getPriority() - c2.getCloudlet().getPriority();
-        final long idDiff = c1.getCloudletId() - c2.getCloudletId();
-        //Since the computed value is long but the comparator return must be int, rounds the value to the closest int
-        return Math.round(priorityDiff == 0 ? idDiff : priorityDiff);
+        final int priorityComparison = Integer.compare(c1.getCloudlet().getPriority(), c2.getCloudlet().getPriority());
+        return priorityComparison == 0 ? Long.compare(c1.getCloudletId(), c2.getCloudletId()) : priorityComparison;
     }
 
     /**
@@ -211,7 +242,11 @@ public final class CloudletSchedulerCompletelyFair extends CloudletSchedulerTime
 
     /**
      * Gets a <b>read-only</b> list of Cloudlets which are waiting to run, the so called
-     * <a href="https://en.wikipedia.org/wiki/Run_queue">run queue</a>.
+     * <a href="https://en.wikipedia.org/wiki/Run_queue">run queue</a>,
+     * sorted by their virtual runtime (the order they will be got to run).
+     * The list is a view of the runqueue, reflecting its changes.
+     * Since the runqueue has no indexes, iterate over the list
+     * instead of getting Cloudlets by their index.
      *
      * <p>
      * <b>NOTE:</b> Different from real implementations, this scheduler uses just one run queue
@@ -223,6 +258,7 @@ public final class CloudletSchedulerCompletelyFair extends CloudletSchedulerTime
      */
     @Override
     public List<CloudletExecution> getCloudletWaitingList() {
+        //The method was overridden here just to extend its JavaDoc.
         return super.getCloudletWaitingList();
     }
 
@@ -231,13 +267,24 @@ public final class CloudletSchedulerCompletelyFair extends CloudletSchedulerTime
      * The cloudlet waiting list (runqueue) is sorted according to the virtual runtime (vruntime or VRT),
      * which indicates the amount of time the Cloudlet has run.
      * This runtime increases as the Cloudlet executes.
+     * Since the runqueue is kept sorted, the Cloudlet which has run the least is
+     * usually got in O(log n) time.
      *
      * @return {@inheritDoc}
      */
     @Override
     protected Optional<CloudletExecution> findSuitableWaitingCloudlet() {
-        sortCloudletWaitingList(this::waitingCloudletsComparator);
-        return super.findSuitableWaitingCloudlet();
+        if(getVm().getProcessor().getAvailableResource() == 0){
+            return Optional.empty();
+        }
+
+        for (final CloudletExecution cle : runQueue) {
+            if (cle.getCloudlet().getStatus().ordinal() < Status.FROZEN.ordinal() && canExecuteCloudletInternal(cle)) {
+                return Optional.of(cle);
+            }
+        }
+
+        return Optional.empty();
     }
 
 	/**
@@ -358,8 +405,8 @@ public final class CloudletSchedulerCompletelyFair extends CloudletSchedulerTime
      * the time of the next expiring Cloudlet, enabling the preemption process), or Double.MAX_VALUE if there is no next events
      */
     @Override
-    public double updateProcessing(final double currentTime, final List<Double> mipsShare) {
-        super.updateProcessing(currentTime, mipsShare);
+    public double updateProcessingWithMipsShare(final double currentTime, final MipsShare mipsShare) {
+        super.updateProcessingWithMipsShare(currentTime, mipsShare);
         return getCloudletExecList().stream()
                 .mapToDouble(CloudletExecution::getTimeSlice)
                 .min().orElse(Double.MAX_VALUE);
@@ -380,6 +427,10 @@ public final class CloudletSchedulerCompletelyFair extends CloudletSchedulerTime
         final long partialFinishedMI = super.updateCloudletProcessing(cle, currentTime);
 
         cle.addVirtualRuntime(cloudletTimeSpan);
+        if(cle.getVirtualRuntime() >= cle.getTimeSlice()){
+            expiredVrtCloudlets.add(cle);
+        }
+
         return partialFinishedMI;
     }
 
@@ -484,7 +535,13 @@ public final class CloudletSchedulerCompletelyFair extends CloudletSchedulerTime
         is reset so that they can compete with other waiting Cloudlets to use
         the processor again.*/
         for(final CloudletExecution c: preemptedCloudlets) {
+            /*The Cloudlet is removed from the runqueue before changing its vruntime,
+            so that it can be re-inserted at the right position.*/
+            final boolean waiting = runQueue.remove(c);
             c.setVirtualRuntime(computeCloudletInitialVirtualRuntime(c));
+            if(waiting) {
+                runQueue.add(c);
+            }
         }
     }
 
@@ -492,6 +549,8 @@ public final class CloudletSchedulerCompletelyFair extends CloudletSchedulerTime
      * Checks which Cloudlets in the execution list have an expired virtual
      * runtime (that have reached the execution time slice) and
      * preempts its execution, moving them to the waiting list.
+     * Such Cloudlets were already collected when their processing was updated,
+     * avoiding traversing the whole execution list again.
      *
      * @return The list of preempted Cloudlets, that were removed from the execution list
      * and must have their virtual runtime (VRT) reset after the next cloudlets are put into
@@ -499,16 +558,18 @@ public final class CloudletSchedulerCompletelyFair extends CloudletSchedulerTime
      *
      */
     private List<CloudletExecution> preemptExecCloudletsWithExpiredVRuntimeAndMoveToWaitingList() {
-        final Predicate<CloudletExecution> vrtReachedTimeSlice = cle -> cle.getVirtualRuntime() >= cle.getTimeSlice();
-        final List<CloudletExecution> expiredVrtCloudlets =
-            getCloudletExecList()
-                .stream()
-                .filter(vrtReachedTimeSlice)
-                .collect(toList());
-
-        expiredVrtCloudlets.forEach(cle -> addCloudletToWaitingList(removeCloudletFromExecList(cle)));
-        return expiredVrtCloudlets;
+        final List<CloudletExecution> preemptedCloudlets = new ArrayList<>(expiredVrtCloudlets.size());
+        for (final CloudletExecution cle : expiredVrtCloudlets) {
+            /*Cloudlets which have finished or were paused/canceled in the meantime
+            are not in the execution list anymore.*/
+            if(cle.getCloudlet().getStatus() == Status.INEXEC && cle.getVirtualRuntime() >= cle.getTimeSlice()) {
+                addCloudletToWaitingList(removeCloudletFromExecList(cle));
+                preemptedCloudlets.add(cle);
+            }
+        }
+
+        expiredVrtCloudlets.clear();
+        return preemptedCloudlets;
     }
 
 }
-
@@ -2,6 +2,7 @@ package org.cloudbus.cloudsim.schedulers.cloudlet;
 
 import org.cloudbus.cloudsim.cloudlets.Cloudlet;
 import org.cloudbus.cloudsim.cloudlets.CloudletExecution;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.schedulers.cloudlet.network.CloudletTaskScheduler;
 import org.cloudbus.cloudsim.vms.Vm;
 
@@ -69,6 +70,9 @@ final class CloudletSchedulerNull implements CloudletScheduler {
     @Override public double updateProcessing(double currentTime, List<Double> mipsShare) {
         return 0.0;
     }
+    @Override public double updateProcessingWithMipsShare(double currentTime, MipsShare mipsShare) {
+        return 0.0;
+    }
     @Override public Vm getVm() {
         return Vm.NULL;
     }
@@ -10,6 +10,7 @@ import org.cloudbus.cloudsim.cloudlets.Cloudlet;
 import org.cloudbus.cloudsim.cloudlets.CloudletExecution;
 import org.cloudbus.cloudsim.schedulers.vm.VmScheduler;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -70,6 +71,22 @@ import java.util.List;
  * @see CloudletSchedulerCompletelyFair
  */
 public class CloudletSchedulerTimeShared extends CloudletSchedulerAbstract {
+    /**
+     * Creates a time-shared CloudletScheduler.
+     */
+    public CloudletSchedulerTimeShared() {
+        super();
+    }
+
+    /**
+     * Creates a time-shared CloudletScheduler which stores waiting Cloudlets into a given collection.
+     *
+     * @param cloudletWaitingList the empty collection to store the waiting Cloudlets
+     * @see CloudletSchedulerAbstract#CloudletSchedulerAbstract(Collection)
+     */
+    protected CloudletSchedulerTimeShared(final Collection<CloudletExecution> cloudletWaitingList) {
+        super(cloudletWaitingList);
+    }
 
     /**
      * {@inheritDoc}
@@ -0,0 +1,501 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.schedulers.cloudlet;
+
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.cloudlets.CloudletExecution;
+import org.cloudbus.cloudsim.resources.Ram;
+import org.cloudbus.cloudsim.resources.ResourceManageable;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
+import org.cloudbus.cloudsim.schedulers.cloudlet.network.CloudletTaskScheduler;
+import org.cloudbus.cloudsim.util.Conversion;
+import org.cloudbus.cloudsim.utilizationmodels.UtilizationModel;
+import org.cloudbus.cloudsim.utilizationmodels.UtilizationModelDynamic;
+import org.cloudbus.cloudsim.utilizationmodels.UtilizationModelFull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Supplier;
+
+/**
+ * A {@link CloudletSchedulerTimeShared} that, instead of updating every running Cloudlet
+ * each time the processing is updated, keeps running Cloudlets into a min-heap
+ * sorted by the amount of work that has to be executed until they finish.
+ *
+ * <p>Since in a time-shared scheduler all running Cloudlets get the same
+ * {@link #getAvailableMipsByPe() MIPS capacity by PE}, the amount of work executed
+ * by a Cloudlet using 100% of the CPU is tracked by a single virtual-work counter,
+ * that is advanced whenever the MIPS share or the set of running Cloudlets changes.
+ * A Cloudlet finishes when such a counter reaches the value stored for it when it started running.
+ * This way, when the processing is updated, only Cloudlets that actually finish
+ * are touched, making the update cost O(f log n) instead of O(n),
+ * where f is the number of finished Cloudlets and n the number of running ones.
+ * </p>
+ *
+ * <p><b>NOTES:</b>
+ * <ul>
+ *     <li>Only Cloudlets whose CPU utilization is known to be constant have their processing lazily computed.
+ *     They are the ones using a {@link UtilizationModelFull} or a {@link UtilizationModelDynamic}
+ *     in {@link UtilizationModel.Unit#PERCENTAGE percentage} without a
+ *     {@link UtilizationModelDynamic#hasUtilizationUpdateFunction() utilization update function}.
+ *     The CPU utilization of such Cloudlets is sampled when they start running.
+ *     Cloudlets using any other CPU utilization model
+ *     or waiting for their required files to be transferred
+ *     are updated as in the regular {@link CloudletSchedulerTimeShared}.</li>
+ *     <li>The RAM allocated to a Cloudlet is defined when it starts running and
+ *     released when it leaves the execution list.</li>
+ *     <li>The progress of running Cloudlets (such as the {@link Cloudlet#getFinishedLengthSoFar()})
+ *     is only updated when they finish, are paused, canceled or migrated.
+ *     It can be updated at any time by calling {@link #updateCloudletsProgress()}.</li>
+ *     <li>If a {@link CloudletTaskScheduler} is set, since it has to process
+ *     the tasks of every running Cloudlet at each update,
+ *     the scheduler just behaves as its superclass.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public class CloudletSchedulerTimeSharedLazy extends CloudletSchedulerTimeShared {
+    private static final long serialVersionUID = -4006411627287361226L;
+
+    /**
+     * Information about a running Cloudlet,
+     * used to lazily compute its progress from the {@link #virtualWork} counter.
+     */
+    private static final class RunningCloudlet {
+        private final CloudletExecution cle;
+
+        /**
+         * Indicates if the Cloudlet processing is updated at every
+         * scheduler update, instead of being lazily computed.
+         */
+        private boolean eager;
+
+        /**
+         * The percentage of the CPU the Cloudlet uses, in scale from [0 to 1].
+         */
+        private double weight;
+
+        /**
+         * The value of the {@link #virtualWork} counter when the Cloudlet progress was last updated.
+         */
+        private double lastWork;
+
+        /**
+         * The value of the {@link #virtualWork} counter when the Cloudlet is expected to finish.
+         */
+        private double finishWork;
+
+        /**
+         * The amount of RAM allocated to the Cloudlet.
+         */
+        private long ram;
+
+        /**
+         * Indicates the Cloudlet has left the execution list,
+         * so that it has to be ignored when it's got from the {@link #completionHeap}.
+         */
+        private boolean removed;
+
+        private RunningCloudlet(final CloudletExecution cle) {
+            this.cle = cle;
+        }
+    }
+
+    /**
+     * The relative tolerance to consider that the {@link #virtualWork} counter
+     * has reached the value expected for a Cloudlet to finish,
+     * avoiding floating-point errors to postpone the Cloudlet conclusion.
+     */
+    private static final double FINISH_TOLERANCE = 1e-9;
+
+    /**
+     * The amount of Million Instructions (MI) executed by each running Cloudlet
+     * using 100% of the CPU since the scheduler was created.
+     */
+    private double virtualWork;
+
+    /**
+     * The last time the {@link #virtualWork} was advanced.
+     */
+    private double virtualWorkTime;
+
+    /**
+     * The total number of PEs of all running Cloudlets.
+     */
+    private long execPes;
+
+    /**
+     * Running Cloudlets which have their processing lazily computed,
+     * sorted by the {@link RunningCloudlet#finishWork}.
+     */
+    private final PriorityQueue<RunningCloudlet> completionHeap;
+
+    /**
+     * Running Cloudlets which have their processing updated each time
+     * the scheduler is updated.
+     */
+    private final List<RunningCloudlet> eagerCloudlets;
+
+    /**
+     * A map of running Cloudlets, where each key is a Cloudlet ID.
+     */
+    private final Map<Long, RunningCloudlet> runningCloudlets;
+
+    /**
+     * Creates a lazy time-shared scheduler.
+     */
+    public CloudletSchedulerTimeSharedLazy() {
+        super();
+        completionHeap = new PriorityQueue<>(
+            Comparator.<RunningCloudlet>comparingDouble(rc -> rc.finishWork).thenComparingLong(rc -> rc.cle.getCloudletId()));
+        eagerCloudlets = new ArrayList<>();
+        runningCloudlets = new HashMap<>();
+    }
+
+    @Override
+    public double updateProcessingWithMipsShare(final double currentTime, final MipsShare mipsShare) {
+        if(isThereTaskScheduler()){
+            return super.updateProcessingWithMipsShare(currentTime, mipsShare);
+        }
+
+        advanceVirtualWork(currentTime);
+        setCurrentMipsShare(mipsShare);
+
+        if (isEmpty()) {
+            setPreviousTime(currentTime);
+            return Double.MAX_VALUE;
+        }
+
+        updateEagerCloudletsProcessing(currentTime);
+        finishCompletedCloudlets();
+        moveNextCloudletsFromWaitingToExecList();
+
+        final double nextSimulationTime = getEstimatedFinishTimeOfSoonerFinishingCloudlet(currentTime);
+        setPreviousTime(currentTime);
+        return nextSimulationTime;
+    }
+
+    /**
+     * Updates the processing of Cloudlets that cannot be lazily computed,
+     * finishing the completed ones and changing the ones that
+     * can now be lazily computed.
+     *
+     * @param currentTime current simulation time
+     */
+    private void updateEagerCloudletsProcessing(final double currentTime) {
+        if(eagerCloudlets.isEmpty()){
+            return;
+        }
+
+        final List<RunningCloudlet> finishedCloudlets = new ArrayList<>();
+        final Iterator<RunningCloudlet> it = eagerCloudlets.iterator();
+        while (it.hasNext()) {
+            final RunningCloudlet rc = it.next();
+            updateCloudletProcessing(rc.cle, currentTime);
+            if(rc.cle.getCloudlet().isFinished()){
+                finishedCloudlets.add(rc);
+            } else if(isLazilyComputable(rc.cle, currentTime)) {
+                it.remove();
+                addToCompletionHeap(rc);
+            }
+        }
+
+        finishedCloudlets.forEach(rc -> addCloudletToFinishedList(rc.cle));
+    }
+
+    /**
+     * Finishes the Cloudlets from the {@link #completionHeap}
+     * for which the {@link #virtualWork} has reached the expected value.
+     */
+    private void finishCompletedCloudlets() {
+        for (RunningCloudlet rc = peekCompletionHeap(); rc != null && isCompleted(rc); rc = peekCompletionHeap()) {
+            completionHeap.poll();
+            updateCloudletProgress(rc);
+
+            //Ensures the length lost due to rounding in previous updates is added to the Cloudlet
+            final Cloudlet cloudlet = rc.cle.getCloudlet();
+            final long remainingLength = cloudlet.getLength() - cloudlet.getFinishedLengthSoFar();
+            rc.cle.updateProcessing(remainingLength * Conversion.MILLION);
+            addCloudletToFinishedList(rc.cle);
+        }
+    }
+
+    private boolean isCompleted(final RunningCloudlet rc) {
+        return rc.finishWork - virtualWork <= FINISH_TOLERANCE * Math.max(1, Math.abs(rc.finishWork));
+    }
+
+    /**
+     * Gets the Cloudlet which is expected to finish first, discarding
+     * the ones which have already left the execution list.
+     * @return the Cloudlet expected to finish first or null if there is no running Cloudlet
+     */
+    private RunningCloudlet peekCompletionHeap() {
+        while (!completionHeap.isEmpty() && completionHeap.peek().removed) {
+            completionHeap.poll();
+        }
+
+        return completionHeap.peek();
+    }
+
+    @Override
+    protected double getEstimatedFinishTimeOfSoonerFinishingCloudlet(final double currentTime) {
+        if(isThereTaskScheduler()){
+            return super.getEstimatedFinishTimeOfSoonerFinishingCloudlet(currentTime);
+        }
+
+        double nextFinishTime = Double.MAX_VALUE;
+        final RunningCloudlet rc = peekCompletionHeap();
+        final double mipsByPe = getAvailableMipsByPe();
+        if(rc != null && mipsByPe > 0 && !Double.isInfinite(rc.finishWork)) {
+            final double finishTime = (rc.finishWork - virtualWork) / mipsByPe;
+            nextFinishTime = Math.max(finishTime, getVm().getSimulation().getMinTimeBetweenEvents());
+        }
+
+        for (final RunningCloudlet eager : eagerCloudlets) {
+            nextFinishTime = Math.min(nextFinishTime, getEstimatedFinishTimeOfCloudlet(eager.cle, currentTime));
+        }
+
+        return nextFinishTime;
+    }
+
+    /**
+     * Updates the progress of all running Cloudlets up to the current simulation time,
+     * such as the {@link Cloudlet#getFinishedLengthSoFar()}.
+     * Since such a progress is lazily computed, it's only updated when
+     * Cloudlets finish, are paused, canceled or migrated.
+     */
+    public void updateCloudletsProgress() {
+        advanceVirtualWork(getVm().getSimulation().clock());
+        runningCloudlets.values().forEach(this::updateCloudletProgress);
+    }
+
+    /**
+     * Adds the work executed by a lazily computed Cloudlet since its last update.
+     * @param rc the Cloudlet to update
+     */
+    private void updateCloudletProgress(final RunningCloudlet rc) {
+        if(rc.eager) {
+            return;
+        }
+
+        final double work = virtualWork - rc.lastWork;
+        rc.lastWork = virtualWork;
+        if(work > 0) {
+            rc.cle.updateProcessing((long) (work * rc.weight * Conversion.MILLION));
+        }
+    }
+
+    /**
+     * Advances the {@link #virtualWork} counter up to a given time,
+     * according to the MIPS capacity running Cloudlets had since the last time it was advanced.
+     * It must be called before such a capacity changes.
+     *
+     * @param time the time to advance the counter to
+     */
+    private void advanceVirtualWork(final double time) {
+        if(time <= virtualWorkTime) {
+            return;
+        }
+
+        if(execPes > 0) {
+            virtualWork += getAvailableMipsByPe() * (time - virtualWorkTime);
+        }
+
+        virtualWorkTime = time;
+    }
+
+    @Override
+    protected void setCurrentMipsShare(final MipsShare currentMipsShare) {
+        advanceVirtualWork(getVm().getSimulation().clock());
+        super.setCurrentMipsShare(currentMipsShare);
+    }
+
+    @Override
+    public void deallocatePesFromVm(final int pesToRemove) {
+        advanceVirtualWork(getVm().getSimulation().clock());
+        super.deallocatePesFromVm(pesToRemove);
+    }
+
+    @Override
+    protected long totalPesOfAllExecCloudlets() {
+        return isThereTaskScheduler() ? super.totalPesOfAllExecCloudlets() : execPes;
+    }
+
+    @Override
+    protected void addCloudletToExecList(final CloudletExecution cle) {
+        if(isThereTaskScheduler()){
+            super.addCloudletToExecList(cle);
+            return;
+        }
+
+        final double time = getVm().getSimulation().clock();
+        advanceVirtualWork(time);
+        super.addCloudletToExecList(cle);
+
+        final RunningCloudlet rc = new RunningCloudlet(cle);
+        runningCloudlets.put(cle.getCloudletId(), rc);
+        execPes += cle.getNumberOfPes();
+        allocateRam(rc);
+        if(isLazilyComputable(cle, time)) {
+            addToCompletionHeap(rc);
+        } else {
+            rc.eager = true;
+            eagerCloudlets.add(rc);
+        }
+    }
+
+    /**
+     * Checks if the processing of a Cloudlet can be lazily computed.
+     * @param cle the Cloudlet to check
+     * @param time the current simulation time
+     * @return true if the Cloudlet processing can be lazily computed, false otherwise
+     */
+    private boolean isLazilyComputable(final CloudletExecution cle, final double time) {
+        return isConstantPercentage(cle.getCloudlet().getUtilizationModelCpu()) &&
+               hasCloudletFileTransferTimePassed(cle, time);
+    }
+
+    /**
+     * Checks if a CPU utilization model is known to always return the same percentage of utilization,
+     * so that the utilization can be sampled just once.
+     * Subclasses of the checked models are not considered constant,
+     * since they may change how the utilization is computed.
+     *
+     * @param model the utilization model to check
+     * @return true if the model has a constant utilization percentage, false otherwise
+     */
+    private boolean isConstantPercentage(final UtilizationModel model) {
+        if (model.getClass() == UtilizationModelFull.class) {
+            return true;
+        }
+
+        return model.getClass() == UtilizationModelDynamic.class &&
+               model.getUnit() == UtilizationModel.Unit.PERCENTAGE &&
+               !((UtilizationModelDynamic) model).hasUtilizationUpdateFunction();
+    }
+
+    private void addToCompletionHeap(final RunningCloudlet rc) {
+        final Cloudlet cloudlet = rc.cle.getCloudlet();
+        rc.eager = false;
+        rc.weight = cloudlet.getUtilizationModelCpu().getUtilization();
+        rc.lastWork = virtualWork;
+        final long remainingLength = cloudlet.getLength() - cloudlet.getFinishedLengthSoFar();
+        rc.finishWork = cloudlet.getLength() > 0 && rc.weight > 0 ?
+                            virtualWork + remainingLength / rc.weight :
+                            Double.POSITIVE_INFINITY;
+        completionHeap.add(rc);
+    }
+
+    private void allocateRam(final RunningCloudlet rc) {
+        final ResourceManageable ram = getVm().getResource(Ram.class);
+        final long requested = (long)getCloudletRamAbsoluteUtilization(rc.cle.getCloudlet());
+        rc.ram = Math.min(requested, ram.getAvailableResource());
+        ram.allocateResource(rc.ram);
+    }
+
+    @Override
+    protected CloudletExecution removeCloudletFromExecList(final CloudletExecution cle) {
+        removeRunningCloudlet(cle.getCloudletId());
+        return super.removeCloudletFromExecList(cle);
+    }
+
+    /**
+     * Removes a Cloudlet from the running ones, after updating its progress.
+     * @param cloudletId the ID of the Cloudlet to remove
+     */
+    private void removeRunningCloudlet(final long cloudletId) {
+        final RunningCloudlet rc = runningCloudlets.remove(cloudletId);
+        if(rc == null) {
+            return;
+        }
+
+        advanceVirtualWork(getVm().getSimulation().clock());
+        updateCloudletProgress(rc);
+        rc.removed = true;
+        if(rc.eager) {
+            eagerCloudlets.remove(rc);
+        }
+
+        execPes -= rc.cle.getNumberOfPes();
+        getVm().getResource(Ram.class).deallocateResource(rc.ram);
+    }
+
+    @Override
+    public void cloudletFinish(final CloudletExecution cle) {
+        final RunningCloudlet rc = runningCloudlets.get(cle.getCloudletId());
+        if(rc != null) {
+            advanceVirtualWork(getVm().getSimulation().clock());
+            updateCloudletProgress(rc);
+        }
+
+        super.cloudletFinish(cle);
+    }
+
+    @Override
+    public boolean cloudletPause(final Cloudlet cloudlet) {
+        return updateProgressAndRemoveIfStopped(cloudlet, () -> super.cloudletPause(cloudlet));
+    }
+
+    @Override
+    public Cloudlet cloudletFail(final Cloudlet cloudlet) {
+        return updateProgressAndRemoveIfStopped(cloudlet, () -> super.cloudletFail(cloudlet));
+    }
+
+    @Override
+    public Cloudlet cloudletCancel(final Cloudlet cloudlet) {
+        return updateProgressAndRemoveIfStopped(cloudlet, () -> super.cloudletCancel(cloudlet));
+    }
+
+    /**
+     * Updates the progress of a Cloudlet before performing an operation
+     * that may remove it from the execution list,
+     * then stops tracking the Cloudlet if it has in fact left that list.
+     *
+     * @param cloudlet the Cloudlet to perform the operation
+     * @param operation the operation to perform
+     * @param <T> the type of the operation result
+     * @return the operation result
+     */
+    private <T> T updateProgressAndRemoveIfStopped(final Cloudlet cloudlet, final Supplier<T> operation) {
+        final RunningCloudlet rc = runningCloudlets.get(cloudlet.getId());
+        if(rc != null) {
+            advanceVirtualWork(getVm().getSimulation().clock());
+            updateCloudletProgress(rc);
+        }
+
+        final T result = operation.get();
+        if(rc != null && rc.cle.getCloudlet().getStatus() != Cloudlet.Status.INEXEC) {
+            removeRunningCloudlet(cloudlet.getId());
+        }
+
+        return result;
+    }
+}
@@ -10,6 +10,7 @@ package org.cloudbus.cloudsim.schedulers.vm;
 import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.resources.Pe;
 import org.cloudbus.cloudsim.resources.Resource;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.vms.Vm;
 
 import java.util.List;
@@ -108,13 +109,25 @@ public interface VmScheduler {
 
     /**
      * Gets the MIPS share of each host's Pe that is allocated to a given VM.
+     * The returned object is a read-only view of the share kept by the scheduler.
+     *
+     * @param vm the vm to get the MIPS share
+     * @return
+     */
+    MipsShare getAllocatedMipsShare(Vm vm);
+
+    /**
+     * Gets a read-only list of the MIPS share of each host's Pe that is allocated to a given VM.
      *
      * @param vm the vm to get the MIPS share
      * @return
      * @pre $none
      * @post $none
+     * @see #getAllocatedMipsShare(Vm)
      */
-    List<Double> getAllocatedMips(Vm vm);
+    default List<Double> getAllocatedMips(final Vm vm) {
+        return getAllocatedMipsShare(vm).asList();
+    }
 
     /**
      * Gets the total amount of MIPS that is currently free.
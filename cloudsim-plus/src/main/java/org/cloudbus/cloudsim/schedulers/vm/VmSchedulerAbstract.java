@@ -9,6 +9,7 @@ package org.cloudbus.cloudsim.schedulers.vm;
 import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.provisioners.PeProvisioner;
 import org.cloudbus.cloudsim.resources.Pe;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,7 +53,13 @@ public abstract class VmSchedulerAbstract implements VmScheduler {
     /**
      * @see #getAllocatedMipsMap()
      */
-    private Map<Vm, List<Double>> allocatedMipsMap;
+    private Map<Vm, MipsShare> allocatedMipsMap;
+
+    /**
+     * The MIPS share returned for VMs without allocated MIPS,
+     * avoiding creating an empty share for every request.
+     */
+    private final MipsShare emptyMipsShare;
 
     /**
      * @see #getVmMigrationCpuOverhead()
@@ -72,6 +79,7 @@ public abstract class VmSchedulerAbstract implements VmScheduler {
         setHost(Host.NULL);
         this.vmMigrationCpuOverhead = vmMigrationCpuOverhead;
         this.requestedMipsMap = new HashMap<>();
+        this.emptyMipsShare = new MipsShare();
     }
 
     @Override
@@ -109,6 +117,8 @@ public abstract class VmSchedulerAbstract implements VmScheduler {
         }
 
         requestedMipsMap.put(vm, requestedMips);
+        //The VM capacity may have changed (for instance, due to vertical scaling)
+        host.invalidateUtilizationCache();
         if(allocatePesForVmInternal(vm, requestedMips)) {
             setHostPesStatusForVmUsedPes(vm, getHost().getFreePeList(), Pe.Status.BUSY);
             return true;
@@ -161,6 +171,7 @@ public abstract class VmSchedulerAbstract implements VmScheduler {
 
         deallocatePesFromVmInternal(vm, pesToRemove);
         freeUsedPes();
+        host.invalidateUtilizationCache();
     }
 
     /**
@@ -169,7 +180,7 @@ public abstract class VmSchedulerAbstract implements VmScheduler {
      */
     private void freeUsedPes() {
         //Gets the total virtual PEs of currently created VMs
-        final long totalVirtualPesNumber = getAllocatedMipsMap().values().stream().mapToLong(Collection::size).sum();
+        final long totalVirtualPesNumber = getAllocatedMipsMap().values().stream().mapToLong(MipsShare::pes).sum();
         final List<Pe> peList = getHost().getBuzyPeList();
         final long vPesNumber = Math.min(peList.size() - totalVirtualPesNumber, 0);
         setHostPesStatusForVmUsedPes(peList, Pe.Status.FREE, vPesNumber);
@@ -206,17 +217,40 @@ public abstract class VmSchedulerAbstract implements VmScheduler {
         return pesToRemove;
     }
 
+    /**
+     * Remove a given number of PEs from the MIPS allocated to a VM,
+     * removing the VM from the {@link #getAllocatedMipsMap()} when there is no PE left.
+     *
+     * @param vm the VM to remove PEs from
+     * @param pesToRemove the number of PEs to remove
+     * @return the number of removed PEs
+     */
+    protected int removePesFromAllocatedMips(final Vm vm, final int pesToRemove) {
+        final MipsShare mipsShare = allocatedMipsMap.get(vm);
+        if(mipsShare == null || mipsShare.isEmpty()){
+            return 0;
+        }
+
+        final int removedPes = mipsShare.remove(Math.min((int)vm.getNumberOfPes(), pesToRemove));
+        if(mipsShare.isEmpty()){
+            allocatedMipsMap.remove(vm);
+        }
+
+        return removedPes;
+    }
+
     protected abstract void deallocatePesFromVmInternal(Vm vm, int pesToRemove);
 
     @Override
     public void deallocatePesForAllVms() {
         allocatedMipsMap.clear();
         getWorkingPeList().forEach(pe -> pe.getPeProvisioner().deallocateResourceForAllVms());
+        host.invalidateUtilizationCache();
     }
 
     @Override
-    public List<Double> getAllocatedMips(final Vm vm) {
-        final List<Double> list = allocatedMipsMap.getOrDefault(vm, new ArrayList<>());
+    public MipsShare getAllocatedMipsShare(final Vm vm) {
+        final MipsShare mipsShare = allocatedMipsMap.getOrDefault(vm, emptyMipsShare);
         /*
         When a VM is migrating out of the source Host, its allocated MIPS
         is reduced due to migration overhead.
@@ -224,7 +258,9 @@ public abstract class VmSchedulerAbstract implements VmScheduler {
         experience overhead, but for the first time the VM is allocated into
         the target Host, the allocated MIPS is stored already considering this overhead.
          */
-        return host.getVmsMigratingOut().contains(vm) ? getMipsShareRequestedReduced(vm, list) : list;
+        return host.getVmsMigratingOut().contains(vm) ?
+                new MipsShare(getMipsShareRequestedReduced(vm, mipsShare.asList())) :
+                mipsShare.readOnly();
     }
 
     /**
@@ -244,7 +280,7 @@ public abstract class VmSchedulerAbstract implements VmScheduler {
 
     @Override
     public double getTotalAllocatedMipsForVm(final Vm vm) {
-        return getAllocatedMips(vm).stream().mapToDouble(v -> v).sum();
+        return getAllocatedMipsShare(vm).totalMips();
     }
 
     @Override
@@ -297,7 +333,7 @@ public abstract class VmSchedulerAbstract implements VmScheduler {
      * @see #getAllocatedMips(Vm)
      * @see #getRequestedMipsMap()
      */
-    protected Map<Vm, List<Double>> getAllocatedMipsMap() {
+    protected Map<Vm, MipsShare> getAllocatedMipsMap() {
         return allocatedMipsMap;
     }
 
@@ -326,9 +362,8 @@ public abstract class VmSchedulerAbstract implements VmScheduler {
      * @return the actual requested MIPS sum across all VM PEs,
      * including the CPU overhead of the VM is in migration to this Host
      */
-    private double actualVmTotalRequestedMips(final Map.Entry<Vm, List<Double>> entry) {
-        final List<Double> vmMipsList = entry.getValue() == null ? new ArrayList<>() : entry.getValue();
-        final double totalVmRequestedMips = vmMipsList.stream().reduce(0.0, Double::sum);
+    private double actualVmTotalRequestedMips(final Map.Entry<Vm, MipsShare> entry) {
+        final double totalVmRequestedMips = entry.getValue() == null ? 0 : entry.getValue().totalMips();
 
         /*If the VM is migrating in or out this Host,
         there is a migration overhead.
@@ -2,6 +2,7 @@ package org.cloudbus.cloudsim.schedulers.vm;
 
 import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.resources.Pe;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.vms.Vm;
 
 import java.util.Collections;
@@ -15,12 +16,17 @@ import java.util.List;
  * @see VmScheduler#NULL
  */
 final class VmSchedulerNull implements VmScheduler {
+    /**
+     * An empty read-only MIPS share returned for any VM.
+     */
+    private static final MipsShare EMPTY_MIPS_SHARE = new MipsShare().readOnly();
+
     @Override public boolean allocatePesForVm(Vm vm, List<Double> requestedMips) {
         return false;
     }
     @Override public boolean allocatePesForVm(Vm vm) { return false; }
-    @Override public List<Double> getAllocatedMips(Vm vm) {
-        return Collections.emptyList();
+    @Override public MipsShare getAllocatedMipsShare(Vm vm) {
+        return EMPTY_MIPS_SHARE;
     }
     @Override public double getAvailableMips() {
         return 0.0;
@@ -8,6 +8,7 @@
 package org.cloudbus.cloudsim.schedulers.vm;
 
 import org.cloudbus.cloudsim.resources.Pe;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -103,12 +104,12 @@ public class VmSchedulerSpaceShared extends VmSchedulerAbstract {
             return false;
         }
 
-        getAllocatedMipsMap().put(vm, requestedMips);
+        getAllocatedMipsMap().put(vm, new MipsShare(requestedMips));
         return true;
     }
 
     @Override
     protected void deallocatePesFromVmInternal(final Vm vm, final int pesToRemove) {
-        removePesFromMap(vm, getAllocatedMipsMap(), pesToRemove);
+        removePesFromAllocatedMips(vm, pesToRemove);
     }
 }
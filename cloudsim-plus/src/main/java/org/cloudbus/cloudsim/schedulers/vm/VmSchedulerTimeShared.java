@@ -7,6 +7,7 @@
 package org.cloudbus.cloudsim.schedulers.vm;
 
 import org.cloudbus.cloudsim.resources.Pe;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -115,7 +116,7 @@ public class VmSchedulerTimeShared extends VmSchedulerAbstract {
      */
     protected void allocateMipsShareForVm(final Vm vm, final List<Double> requestedMipsReduced) {
         final List<Double> mipsShare = getMipsShareToAllocate(vm, requestedMipsReduced);
-        getAllocatedMipsMap().put(vm, mipsShare);
+        getAllocatedMipsMap().put(vm, new MipsShare(mipsShare));
     }
 
     /**
@@ -142,11 +143,12 @@ public class VmSchedulerTimeShared extends VmSchedulerAbstract {
      * @param entry an entry from the {@link #getAllocatedMipsMap()} containing a VM and
      *              the list of MIPS to be allocated for each of its PEs
      */
-    private void allocatePesListForVm(final Map.Entry<Vm, List<Double>> entry) {
+    private void allocatePesListForVm(final Map.Entry<Vm, MipsShare> entry) {
         final Vm vm = entry.getKey();
         final Iterator<Pe> hostPesIterator = getWorkingPeList().iterator();
         //Iterate over the list of MIPS requested by each VM PE
-        for (final double requestedMipsForVmPe : entry.getValue()) {
+        for (int i = 0; i < entry.getValue().pes(); i++) {
+            final double requestedMipsForVmPe = entry.getValue().mips(i);
             final double allocatedMipsForVmPe = allocateMipsFromHostPesToGivenVirtualPe(vm, requestedMipsForVmPe, hostPesIterator);
             if(requestedMipsForVmPe > 0.1 && allocatedMipsForVmPe <= 0.1){
                 logMipsUnavailable(vm, requestedMipsForVmPe, allocatedMipsForVmPe);
@@ -344,7 +346,7 @@ public class VmSchedulerTimeShared extends VmSchedulerAbstract {
     @Override
     protected void deallocatePesFromVmInternal(final Vm vm, final int pesToRemove) {
         removePesFromMap(vm, getRequestedMipsMap(), pesToRemove);
-        removePesFromMap(vm, getAllocatedMipsMap(), pesToRemove);
+        removePesFromAllocatedMips(vm, pesToRemove);
 
         for (final Map.Entry<Vm, List<Double>> entry : getRequestedMipsMap().entrySet()) {
             allocateMipsShareForVmInternal(entry.getKey(), entry.getValue());
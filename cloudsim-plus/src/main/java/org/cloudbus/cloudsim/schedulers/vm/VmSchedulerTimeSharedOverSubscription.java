@@ -6,6 +6,7 @@
  */
 package org.cloudbus.cloudsim.schedulers.vm;
 
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -125,7 +126,7 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
             final Vm vm = entry.getKey();
             List<Double> updatedMipsAllocation = getMipsShareToAllocate(vm, entry.getValue());
             updatedMipsAllocation = getMipsShareToAllocate(updatedMipsAllocation, scalingFactor);
-            getAllocatedMipsMap().put(vm, updatedMipsAllocation);
+            getAllocatedMipsMap().put(vm, new MipsShare(updatedMipsAllocation));
         }
     }
 
@@ -10,13 +10,13 @@ package org.cloudbus.cloudsim.selectionpolicies.power;
 
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.util.HistoryBuffer;
 import org.cloudbus.cloudsim.util.MathUtil;
 import org.cloudbus.cloudsim.vms.UtilizationHistory;
 import org.cloudbus.cloudsim.vms.Vm;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * A VM selection policy that selects for migration the VM with the Maximum Correlation Coefficient (MCC) among
@@ -91,7 +91,7 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
         final double[][] utilization = new double[numberVms][minHistorySize];
 
         for (int i = 0; i < numberVms; i++) {
-            final double[] vmUtilization = vmList.get(i).getUtilizationHistory().getHistory().values().stream().mapToDouble(v -> v).toArray();
+            final double[] vmUtilization = vmList.get(i).getUtilizationHistory().getHistoryBuffer().toValueArray();
             if (minHistorySize >= 0) {
                 System.arraycopy(vmUtilization, 0, utilization[i], 0, minHistorySize);
             }
@@ -108,8 +108,8 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
     protected int getMinUtilizationHistorySize(final List<Vm> vmList) {
         return vmList.stream()
             .map(Vm::getUtilizationHistory)
-            .map(UtilizationHistory::getHistory)
-            .mapToInt(Map::size)
+            .map(UtilizationHistory::getHistoryBuffer)
+            .mapToInt(HistoryBuffer::size)
             .min().orElse(0);
     }
 
@@ -0,0 +1,1164 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A trace file stored in a compact binary columnar format, which can be loaded
+ * much faster than parsing the original text file.
+ * Any trace supported by a {@link TraceReaderAbstract} (such as SWF, PlanetLab and Google Cluster traces)
+ * can be {@link #convert(TraceReaderAbstract, Path, boolean) converted} to this format
+ * (such as by the {@code BinaryTraceConversionExample} command line tool
+ * in the examples module).
+ * Trace readers and the {@link org.cloudbus.cloudsim.utilizationmodels.UtilizationModelPlanetLab}
+ * load files with the {@link #EXTENSION} directly, exactly as if the original text files were read.
+ *
+ * <p>Lines are stored into blocks of up to {@link #LINES_PER_BLOCK} lines.
+ * Each block is written as soon as its lines are read from the original trace
+ * and is just decoded when one of its lines is accessed.
+ * This way, neither converting nor reading a trace requires keeping the whole trace in memory,
+ * since just the last block accessed is kept decoded.
+ * Inside a block, each field index in the trace lines is stored as a column whose type is defined by its values:</p>
+ * <ul>
+ *   <li>integer and decimal values are stored as fixed-width deltas between consecutive values
+ *   (such as the timestamps of a trace), using the smallest width (1, 2, 4 or 8 bytes)
+ *   able to store all deltas of the column;</li>
+ *   <li>other values are stored into a dictionary, so that repeated values
+ *   (such as usernames) are stored just once and each line just keeps a fixed-width index.</li>
+ * </ul>
+ *
+ * <p>Numbers are just stored as such when their text can be exactly restored,
+ * so that the values got from a {@link TraceLineCursor} are the same as the ones got from the original file.
+ * Each column may be optionally compressed using the
+ * {@link Deflater#BEST_SPEED fastest} deflate level.
+ * Files are {@link FileChannel#map(FileChannel.MapMode, long, long) memory mapped} when loaded from
+ * the file system, so that uncompressed columns are decoded directly from the file pages
+ * and columns which are never accessed are never decoded.
+ * Since a buffer cannot be larger than 2 GiB, files larger than {@link #MAX_WINDOW_SIZE}
+ * are mapped in multiple windows, each one containing whole blocks.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public final class BinaryTraceFile {
+    /**
+     * The extension of binary trace files.
+     */
+    public static final String EXTENSION = ".cstrace";
+
+    /**
+     * A number identifying binary trace files, stored at their beginning.
+     */
+    private static final int MAGIC = 0x43535452;
+    private static final byte VERSION = 2;
+    private static final byte COMPRESSED_FLAG = 1;
+
+    /**
+     * The size of the header at the beginning of a binary trace file,
+     * containing the {@link #MAGIC} number, the version, the flags and the number of lines per block.
+     */
+    private static final int HEADER_SIZE = 10;
+
+    /**
+     * The size of the trailer at the end of a binary trace file,
+     * containing the number of blocks and lines.
+     * It's preceded by the position of each block inside the file, stored as a long.
+     */
+    private static final int TRAILER_SIZE = 8;
+
+    /**
+     * The maximum size of each window of a file mapped into memory.
+     */
+    private static final int MAX_WINDOW_SIZE = 1 << 30;
+
+    /**
+     * The maximum number of lines stored into each block of a binary trace file.
+     */
+    /* default */ static final int LINES_PER_BLOCK = 16384;
+
+    private static final byte LONG_COLUMN = 0;
+    private static final byte DECIMAL_COLUMN = 1;
+    private static final byte STRING_COLUMN = 2;
+
+    /**
+     * The maximum number of digits of a decimal value stored as a number,
+     * so that it can be converted to the same double given by {@link Double#parseDouble(String)}.
+     * @see TraceLineCursor#getDouble(int)
+     */
+    private static final int MAX_DECIMAL_DIGITS = 15;
+
+    /**
+     * The maximum number of digits of an integer value stored as a number.
+     */
+    private static final int MAX_INTEGER_DIGITS = 18;
+
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?");
+    private static final Pattern INTEGER_TEXT = Pattern.compile("^-?\\d+$");
+    private static final Pattern DECIMAL_TEXT = Pattern.compile("^-?\\d+(\\.?\\d+)?$");
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    /**
+     * The values of a field index for all lines of a {@link Block}.
+     */
+    private static final class Column {
+        private final byte type;
+
+        /**
+         * The lines where the field is empty or doesn't exist,
+         * or null if the field has a value in all lines.
+         */
+        private final BitSet emptyLines;
+
+        /**
+         * The value of the field for each line, for integer and decimal columns.
+         * For decimal columns, values are unscaled (without the decimal point).
+         */
+        private final long[] values;
+
+        /**
+         * The number of digits after the decimal point for each value of a decimal column.
+         */
+        private final byte[] scales;
+
+        /**
+         * The distinct values of a String column.
+         */
+        private final String[] dictionary;
+
+        /**
+         * The index inside the {@link #dictionary} of the value of each line of a String column.
+         */
+        private final int[] indexes;
+
+        private Column(final byte type, final BitSet emptyLines, final long[] values, final byte[] scales,
+                       final String[] dictionary, final int[] indexes)
+        {
+            this.type = type;
+            this.emptyLines = emptyLines;
+            this.values = values;
+            this.scales = scales;
+            this.dictionary = dictionary;
+            this.indexes = indexes;
+        }
+
+        private boolean isEmpty(final int line) {
+            return emptyLines != null && emptyLines.get(line);
+        }
+    }
+
+    /**
+     * A set of consecutive lines of the trace, whose columns are just decoded when accessed.
+     */
+    private static final class Block {
+        /**
+         * The index of the block inside the trace.
+         */
+        private final int index;
+
+        /**
+         * The index of the first line of the block inside the trace.
+         */
+        private final int firstLine;
+
+        private final int lineCount;
+
+        /**
+         * The number of fields of each line.
+         */
+        private final int[] fieldCounts;
+
+        private final boolean compressed;
+
+        /**
+         * The stored section of each column not decoded yet.
+         */
+        private final ByteBuffer[] storedColumns;
+
+        /**
+         * The decoded columns, where the ones not accessed yet are null.
+         */
+        private final Column[] columns;
+
+        /**
+         * Reads a block, without decoding its columns.
+         *
+         * @param index the index of the block
+         * @param firstLine the index of the first line of the block
+         * @param buffer the buffer to read the block from, positioned at the beginning of the block
+         * @param compressed true if the sections of the block are compressed, false otherwise
+         * @throws IOException when the block cannot be decompressed
+         */
+        private Block(final int index, final int firstLine, final ByteBuffer buffer, final boolean compressed) throws IOException {
+            this.index = index;
+            this.firstLine = firstLine;
+            this.compressed = compressed;
+            this.lineCount = buffer.getInt();
+            final int columnCount = buffer.getInt();
+
+            final long[] counts = readFixedWidth(readSection(buffer, compressed), lineCount);
+            this.fieldCounts = new int[lineCount];
+            for (int i = 0; i < lineCount; i++) {
+                fieldCounts[i] = (int) counts[i];
+            }
+
+            this.storedColumns = new ByteBuffer[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                storedColumns[i] = skipSection(buffer);
+            }
+
+            this.columns = new Column[columnCount];
+        }
+
+        /**
+         * Gets a column of the block, decoding it if it wasn't accessed yet.
+         * @param field the field index of the column
+         * @return
+         * @throws UncheckedIOException when the column cannot be decompressed
+         */
+        private synchronized Column getColumn(final int field) {
+            if (columns[field] == null) {
+                try {
+                    columns[field] = readColumn(readSection(storedColumns[field], compressed), lineCount);
+                    storedColumns[field] = null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            return columns[field];
+        }
+    }
+
+    /**
+     * The buffers containing the blocks of the file,
+     * where each one is a window with consecutive whole blocks.
+     */
+    private final ByteBuffer[] windows;
+
+    /**
+     * The index of the window inside the {@link #windows} containing each block.
+     */
+    private final int[] blockWindows;
+
+    /**
+     * The position of each block inside its window.
+     */
+    private final int[] blockPositions;
+
+    private final boolean compressed;
+
+    /**
+     * The maximum number of lines in each block,
+     * which is the number of lines of all blocks but the last one.
+     */
+    private final int linesPerBlock;
+
+    private final int lineCount;
+
+    /**
+     * The last block accessed, which is the only one kept decoded.
+     */
+    private volatile Block lastBlock;
+
+    private BinaryTraceFile(
+        final ByteBuffer[] windows, final int[] blockWindows, final int[] blockPositions,
+        final boolean compressed, final int linesPerBlock, final int lineCount)
+    {
+        this.windows = windows;
+        this.blockWindows = blockWindows;
+        this.blockPositions = blockPositions;
+        this.compressed = compressed;
+        this.linesPerBlock = linesPerBlock;
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Checks if a given file is a binary trace file, according to its {@link #EXTENSION}.
+     *
+     * @param filePath the path of the file to check
+     * @return
+     */
+    public static boolean isBinaryTraceFile(final String filePath) {
+        return filePath.endsWith(EXTENSION);
+    }
+
+    /**
+     * Converts the trace file of a given reader to the binary format.
+     * The trace is parsed according to the reader configuration
+     * (such as the {@link TraceReaderAbstract#getFieldDelimiterRegex() field delimiter}),
+     * but lines are stored as they are, without being processed by the reader.
+     * Lines are written block by block while the trace is read,
+     * so that the trace is never entirely kept in memory.
+     *
+     * @param reader the reader for the trace file to convert
+     * @param outputFile the binary file to create
+     * @param compressed true to compress the columns, false otherwise
+     * @throws IOException when the trace cannot be read or the binary file cannot be written
+     */
+    public static void convert(final TraceReaderAbstract reader, final Path outputFile, final boolean compressed) throws IOException {
+        try (Writer writer = new Writer(outputFile, compressed, LINES_PER_BLOCK)) {
+            reader.readFileFields(line -> writer.add(line.toArray()));
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes a list of trace lines to a binary file.
+     *
+     * @param lines the lines to write, where each one is an array of field values
+     * @param outputFile the binary file to create
+     * @param compressed true to compress the columns, false otherwise
+     * @throws IOException when the file cannot be written
+     */
+    public static void write(final List<String[]> lines, final Path outputFile, final boolean compressed) throws IOException {
+        write(lines, outputFile, compressed, LINES_PER_BLOCK);
+    }
+
+    /**
+     * Writes a list of trace lines to a binary file, using a given maximum number of lines per block.
+     *
+     * @param lines the lines to write, where each one is an array of field values
+     * @param outputFile the binary file to create
+     * @param compressed true to compress the columns, false otherwise
+     * @param linesPerBlock the maximum number of lines in each block
+     * @throws IOException when the file cannot be written
+     */
+    /* default */ static void write(
+        final List<String[]> lines, final Path outputFile,
+        final boolean compressed, final int linesPerBlock) throws IOException
+    {
+        try (Writer writer = new Writer(outputFile, compressed, linesPerBlock)) {
+            for (final String[] line : lines) {
+                writer.add(line);
+            }
+
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes trace lines to a binary file block by block,
+     * just keeping in memory the lines of the block being written.
+     */
+    private static final class Writer implements Closeable {
+        private final CountingOutputStream counter;
+        private final DataOutputStream out;
+        private final boolean compressed;
+        private final int linesPerBlock;
+
+        /**
+         * The lines of the block being written.
+         */
+        private final List<String[]> lines;
+
+        /**
+         * The position of each block already written into the file.
+         */
+        private final List<Long> blockPositions;
+
+        private int lineCount;
+
+        private Writer(final Path outputFile, final boolean compressed, final int linesPerBlock) throws IOException {
+            if (linesPerBlock <= 0) {
+                throw new IllegalArgumentException("The number of lines per block must be greater than zero.");
+            }
+
+            this.compressed = compressed;
+            this.linesPerBlock = linesPerBlock;
+            this.lines = new ArrayList<>();
+            this.blockPositions = new ArrayList<>();
+            this.counter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(outputFile)));
+            this.out = new DataOutputStream(counter);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(compressed ? COMPRESSED_FLAG : 0);
+            out.writeInt(linesPerBlock);
+        }
+
+        /**
+         * Adds a line to the file, writing the current block when it's full.
+         *
+         * @param line the field values of the line
+         * @return true to indicate the line was added
+         * @throws UncheckedIOException when the block cannot be written
+         */
+        private boolean add(final String[] line) {
+            lines.add(line);
+            if (lines.size() == linesPerBlock) {
+                writeBlock();
+            }
+
+            return true;
+        }
+
+        private void writeBlock() {
+            if (lines.isEmpty()) {
+                return;
+            }
+
+            try {
+                blockPositions.add(counter.getCount());
+                final int columnCount = lines.stream().mapToInt(line -> line.length).max().orElse(0);
+                out.writeInt(lines.size());
+                out.writeInt(columnCount);
+
+                final long[] fieldCounts = lines.stream().mapToLong(line -> line.length).toArray();
+                writeSection(out, compressed, section -> writeFixedWidth(section, fieldCounts, fieldCounts.length));
+                for (int column = 0; column < columnCount; column++) {
+                    final int index = column;
+                    writeSection(out, compressed, section -> writeColumn(section, lines, index));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            lineCount += lines.size();
+            lines.clear();
+        }
+
+        /**
+         * Writes the pending lines and the trailer of the file.
+         * If this method isn't called, the file isn't a valid binary trace file.
+         * @throws IOException when the file cannot be written
+         */
+        private void finish() throws IOException {
+            writeBlock();
+            for (final long position : blockPositions) {
+                out.writeLong(position);
+            }
+
+            out.writeInt(blockPositions.size());
+            out.writeInt(lineCount);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * An {@link OutputStream} which counts the bytes written into it,
+     * since {@link DataOutputStream#size()} stops counting at {@link Integer#MAX_VALUE}.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        private long getCount() {
+            return count;
+        }
+    }
+
+    private interface SectionWriter {
+        void write(DataOutputStream section) throws IOException;
+    }
+
+    /**
+     * Writes a section of data, prefixed by its original and stored lengths,
+     * compressing it if requested.
+     */
+    private static void writeSection(final DataOutputStream out, final boolean compressed, final SectionWriter writer) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream section = new DataOutputStream(bytes)) {
+            writer.write(section);
+        }
+
+        final byte[] data = bytes.toByteArray();
+        final byte[] stored = compressed ? deflate(data) : data;
+        out.writeInt(data.length);
+        out.writeInt(stored.length);
+        out.write(stored);
+    }
+
+    private static byte[] deflate(final byte[] data) {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(data);
+        deflater.finish();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+        final byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    private static void writeColumn(final DataOutputStream out, final List<String[]> lines, final int column) throws IOException {
+        final BitSet emptyLines = new BitSet(lines.size());
+        final long[] values = new long[lines.size()];
+        final byte[] scales = new byte[lines.size()];
+        int count = 0;
+        boolean numeric = true;
+        boolean decimal = false;
+        for (int i = 0; i < lines.size(); i++) {
+            final String value = column < lines.get(i).length ? lines.get(i)[column] : "";
+            if (value.isEmpty()) {
+                emptyLines.set(i);
+                continue;
+            }
+
+            if (numeric && !parseNumber(value, values, scales, count)) {
+                numeric = false;
+            }
+
+            decimal = decimal || scales[count] > 0;
+            count++;
+        }
+
+        final byte type = numeric ? (decimal ? DECIMAL_COLUMN : LONG_COLUMN) : STRING_COLUMN;
+        out.writeByte(type);
+        writeEmptyLines(out, emptyLines, lines.size());
+        if (type == STRING_COLUMN) {
+            writeStringColumn(out, lines, column);
+            return;
+        }
+
+        writeDeltas(out, values, count);
+        if (type == DECIMAL_COLUMN) {
+            out.write(scales, 0, count);
+        }
+    }
+
+    /**
+     * Parses a number which can be stored into the binary format,
+     * that is, a number whose text can be exactly restored from its value.
+     *
+     * @param text the text of the number
+     * @param values the array to store the unscaled value of the number
+     * @param scales the array to store the number of digits after the decimal point
+     * @param index the position to store the number into the arrays
+     * @return true if the number could be parsed, false otherwise
+     */
+    private static boolean parseNumber(final String text, final long[] values, final byte[] scales, final int index) {
+        if (!NUMBER.matcher(text).matches()) {
+            return false;
+        }
+
+        final int dot = text.indexOf('.');
+        final int scale = dot < 0 ? 0 : text.length() - dot - 1;
+        final String digits = dot < 0 ? text : text.substring(0, dot) + text.substring(dot + 1);
+        final int digitCount = digits.startsWith("-") ? digits.length() - 1 : digits.length();
+        if (digitCount > (scale > 0 ? MAX_DECIMAL_DIGITS : MAX_INTEGER_DIGITS)) {
+            return false;
+        }
+
+        values[index] = Long.parseLong(digits);
+        scales[index] = (byte) scale;
+        return toText(values[index], scale).equals(text);
+    }
+
+    /**
+     * Gets the text of a number from its unscaled value and number of digits after the decimal point.
+     */
+    private static String toText(final long unscaledValue, final int scale) {
+        if (scale == 0) {
+            return Long.toString(unscaledValue);
+        }
+
+        final StringBuilder digits = new StringBuilder(Long.toString(Math.abs(unscaledValue)));
+        while (digits.length() <= scale) {
+            digits.insert(0, '0');
+        }
+
+        digits.insert(digits.length() - scale, '.');
+        return unscaledValue < 0 ? "-" + digits : digits.toString();
+    }
+
+    private static void writeEmptyLines(final DataOutputStream out, final BitSet emptyLines, final int lineCount) throws IOException {
+        out.writeBoolean(!emptyLines.isEmpty());
+        if (emptyLines.isEmpty()) {
+            return;
+        }
+
+        final long[] words = Arrays.copyOf(emptyLines.toLongArray(), (lineCount + 63) / 64);
+        for (final long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * Writes the differences between consecutive values using the smallest fixed width
+     * able to store all of them.
+     */
+    private static void writeDeltas(final DataOutputStream out, final long[] values, final int count) throws IOException {
+        final long[] deltas = new long[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            deltas[i] = zigZag(values[i] - previous);
+            previous = values[i];
+        }
+
+        writeFixedWidth(out, deltas, count);
+    }
+
+    /**
+     * Writes a list of non-negative values using the smallest fixed width able to store all of them.
+     */
+    private static void writeFixedWidth(final DataOutputStream out, final long[] values, final int count) throws IOException {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max |= values[i];
+        }
+
+        final int width = max >>> 32 != 0 ? 8 : max >>> 16 != 0 ? 4 : max >>> 8 != 0 ? 2 : 1;
+        out.writeByte(width);
+        for (int i = 0; i < count; i++) {
+            switch (width) {
+                case 1: out.writeByte((int) values[i]); break;
+                case 2: out.writeShort((int) values[i]); break;
+                case 4: out.writeInt((int) values[i]); break;
+                default: out.writeLong(values[i]);
+            }
+        }
+    }
+
+    private static void writeStringColumn(final DataOutputStream out, final List<String[]> lines, final int column) throws IOException {
+        final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        final long[] indexes = new long[lines.size()];
+        int count = 0;
+        for (final String[] line : lines) {
+            if (column < line.length && !line[column].isEmpty()) {
+                indexes[count++] = dictionary.computeIfAbsent(line[column], value -> dictionary.size());
+            }
+        }
+
+        out.writeInt(dictionary.size());
+        for (final String value : dictionary.keySet()) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        writeFixedWidth(out, indexes, count);
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Loads a binary trace file from the file system, memory mapping it.
+     *
+     * @param filePath the path of the binary trace file
+     * @return the loaded trace
+     * @throws IOException when the file cannot be read or is not a valid binary trace file
+     */
+    public static BinaryTraceFile load(final Path filePath) throws IOException {
+        return load(filePath, MAX_WINDOW_SIZE);
+    }
+
+    /**
+     * Loads a binary trace file from the file system, memory mapping it in windows of a given maximum size.
+     *
+     * @param filePath the path of the binary trace file
+     * @param maxWindowSize the maximum size of each mapped window
+     * @return the loaded trace
+     * @throws IOException when the file cannot be read, is not a valid binary trace file
+     *                     or has a block larger than the maximum window size
+     */
+    /* default */ static BinaryTraceFile load(final Path filePath, final int maxWindowSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            return load(channel.size(), maxWindowSize, (position, size) -> channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+        }
+    }
+
+    /**
+     * Loads a binary trace file from the file system if it exists there
+     * (memory mapping it), or otherwise from a given {@link InputStream}
+     * (such as when the file is inside a jar).
+     * The stream is always closed.
+     *
+     * @param filePath the path of the binary trace file
+     * @param inputStream the stream to read the file from when it isn't in the file system
+     * @return the loaded trace
+     * @throws IOException when the file cannot be read or is not a valid binary trace file
+     */
+    public static BinaryTraceFile load(final String filePath, final InputStream inputStream) throws IOException {
+        try (InputStream stream = requireNonNull(inputStream)) {
+            final Path path = Paths.get(filePath);
+            if (Files.isRegularFile(path)) {
+                return load(path);
+            }
+
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+
+            final ByteBuffer data = ByteBuffer.wrap(bytes.toByteArray());
+            return load(data.capacity(), MAX_WINDOW_SIZE, (position, size) -> slice(data, (int) position, (int) size));
+        } catch (InvalidPathException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Gets the section of a file starting at a given position, which may be mapped into memory.
+     */
+    private interface FileSection {
+        ByteBuffer get(long position, long size) throws IOException;
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final int position, final int size) {
+        final ByteBuffer data = buffer.duplicate();
+        data.position(position);
+        data.limit(position + size);
+        return data.slice();
+    }
+
+    /**
+     * Loads a binary trace file.
+     *
+     * @param fileSize the size of the file
+     * @param maxWindowSize the maximum size of each window containing whole blocks
+     * @param sections a function to get a section of the file
+     * @return the loaded trace
+     * @throws IOException when the file is not a valid binary trace file
+     *                     or has a block larger than the maximum window size
+     */
+    private static BinaryTraceFile load(final long fileSize, final int maxWindowSize, final FileSection sections) throws IOException {
+        if (fileSize < HEADER_SIZE + TRAILER_SIZE) {
+            throw new IOException("Not a binary trace file.");
+        }
+
+        final ByteBuffer header = sections.get(0, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a binary trace file.");
+        }
+
+        final byte version = header.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary trace file version: " + version);
+        }
+
+        final boolean compressed = (header.get() & COMPRESSED_FLAG) != 0;
+        final int linesPerBlock = header.getInt();
+        final long trailerPosition = fileSize - TRAILER_SIZE;
+        final ByteBuffer trailer = sections.get(trailerPosition, TRAILER_SIZE);
+        final int blockCount = trailer.getInt();
+        final int lineCount = trailer.getInt();
+        final long positionsStart = trailerPosition - (long) blockCount * Long.BYTES;
+        if (linesPerBlock <= 0 || blockCount < 0 || lineCount < 0 || positionsStart < HEADER_SIZE ||
+            lineCount > (long) blockCount * linesPerBlock)
+        {
+            throw new IOException("Corrupted binary trace file.");
+        }
+
+        final long[] positions = new long[blockCount + 1];
+        if (blockCount > 0) {
+            sections.get(positionsStart, (long) blockCount * Long.BYTES).asLongBuffer().get(positions, 0, blockCount);
+        }
+
+        //The end of the last block
+        positions[blockCount] = positionsStart;
+        for (int i = 0; i < blockCount; i++) {
+            if (positions[i] < HEADER_SIZE || positions[i] >= positions[i + 1]) {
+                throw new IOException("Corrupted binary trace file.");
+            }
+        }
+
+        return mapBlocks(positions, maxWindowSize, sections, compressed, linesPerBlock, lineCount);
+    }
+
+    /**
+     * Gets the windows containing the blocks of a file,
+     * where each window has as many consecutive whole blocks as possible.
+     *
+     * @param positions the position of each block inside the file, followed by the position where the last block ends
+     * @return the loaded trace
+     * @throws IOException when a block is larger than the maximum window size
+     */
+    private static BinaryTraceFile mapBlocks(
+        final long[] positions, final int maxWindowSize, final FileSection sections,
+        final boolean compressed, final int linesPerBlock, final int lineCount) throws IOException
+    {
+        final int blockCount = positions.length - 1;
+        final List<ByteBuffer> windows = new ArrayList<>();
+        final int[] blockWindows = new int[blockCount];
+        final int[] blockPositions = new int[blockCount];
+        int first = 0;
+        while (first < blockCount) {
+            final long windowStart = positions[first];
+            int end = first;
+            while (end < blockCount && positions[end + 1] - windowStart <= maxWindowSize) {
+                end++;
+            }
+
+            if (end == first) {
+                throw new IOException(
+                    String.format("Block %d of the binary trace file is larger than %d bytes.", first, maxWindowSize));
+            }
+
+            for (int i = first; i < end; i++) {
+                blockWindows[i] = windows.size();
+                blockPositions[i] = (int) (positions[i] - windowStart);
+            }
+
+            windows.add(sections.get(windowStart, positions[end] - windowStart));
+            first = end;
+        }
+
+        return new BinaryTraceFile(
+            windows.toArray(new ByteBuffer[0]), blockWindows, blockPositions, compressed, linesPerBlock, lineCount);
+    }
+
+    /**
+     * Gets the block containing a given line, decoding it if it isn't the {@link #lastBlock last one accessed}.
+     * @param line the index of the line
+     * @return
+     * @throws UncheckedIOException when the block cannot be decompressed
+     */
+    private Block getBlock(final int line) {
+        final int index = line / linesPerBlock;
+        final Block block = lastBlock;
+        if (block != null && block.index == index) {
+            return block;
+        }
+
+        final ByteBuffer data = windows[blockWindows[index]].duplicate();
+        data.position(blockPositions[index]);
+        try {
+            final Block newBlock = new Block(index, index * linesPerBlock, data, compressed);
+            lastBlock = newBlock;
+            return newBlock;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets a view of a section of data, without decompressing it,
+     * moving the buffer position to the end of the section.
+     * @param buffer the buffer positioned at the beginning of the section
+     * @return a view of the section to be {@link #readSection(ByteBuffer, boolean) read} later
+     */
+    private static ByteBuffer skipSection(final ByteBuffer buffer) {
+        final ByteBuffer section = buffer.slice();
+        buffer.getInt();
+        final int storedLength = buffer.getInt();
+        buffer.position(buffer.position() + storedLength);
+        return section;
+    }
+
+    /**
+     * Reads a section of data, decompressing it if required.
+     * Uncompressed sections are just a view of the given buffer.
+     */
+    private static ByteBuffer readSection(final ByteBuffer buffer, final boolean compressed) throws IOException {
+        final int length = buffer.getInt();
+        final int storedLength = buffer.getInt();
+        final ByteBuffer stored = buffer.slice();
+        stored.limit(storedLength);
+        buffer.position(buffer.position() + storedLength);
+        if (!compressed) {
+            return stored;
+        }
+
+        final byte[] input = new byte[storedLength];
+        stored.get(input);
+        final Inflater inflater = new Inflater();
+        inflater.setInput(input);
+        final byte[] output = new byte[length];
+        try {
+            int inflated = 0;
+            while (inflated < length && !inflater.finished()) {
+                inflated += inflater.inflate(output, inflated, length - inflated);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+
+        return ByteBuffer.wrap(output);
+    }
+
+    private static long[] readFixedWidth(final ByteBuffer section, final int count) {
+        final int width = section.get();
+        final long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            switch (width) {
+                case 1: values[i] = section.get() & 0xFFL; break;
+                case 2: values[i] = section.getShort() & 0xFFFFL; break;
+                case 4: values[i] = section.getInt() & 0xFFFFFFFFL; break;
+                default: values[i] = section.getLong();
+            }
+        }
+
+        return values;
+    }
+
+    private static Column readColumn(final ByteBuffer section, final int lineCount) {
+        final byte type = section.get();
+        BitSet emptyLines = null;
+        if (section.get() != 0) {
+            final long[] words = new long[(lineCount + 63) / 64];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = section.getLong();
+            }
+
+            emptyLines = BitSet.valueOf(words);
+        }
+
+        final int count = lineCount - (emptyLines == null ? 0 : emptyLines.cardinality());
+        if (type == STRING_COLUMN) {
+            final String[] dictionary = new String[section.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                final byte[] bytes = new byte[section.getInt()];
+                section.get(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            final long[] storedIndexes = readFixedWidth(section, count);
+            final int[] indexes = new int[lineCount];
+            for (int line = 0, i = 0; line < lineCount; line++) {
+                if (emptyLines == null || !emptyLines.get(line)) {
+                    indexes[line] = (int) storedIndexes[i++];
+                }
+            }
+
+            return new Column(type, emptyLines, null, null, dictionary, indexes);
+        }
+
+        final long[] deltas = readFixedWidth(section, count);
+        final byte[] storedScales = new byte[type == DECIMAL_COLUMN ? count : 0];
+        section.get(storedScales);
+
+        final long[] values = new long[lineCount];
+        final byte[] scales = type == DECIMAL_COLUMN ? new byte[lineCount] : null;
+        long previous = 0;
+        for (int line = 0, i = 0; line < lineCount; line++) {
+            if (emptyLines == null || !emptyLines.get(line)) {
+                previous += unZigZag(deltas[i]);
+                values[line] = previous;
+                if (scales != null) {
+                    scales[line] = storedScales[i];
+                }
+                i++;
+            }
+        }
+
+        return new Column(type, emptyLines, values, scales, null, null);
+    }
+
+    /**
+     * Gets the number of lines in the trace.
+     * @return
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Reads the lines of the trace, calling a given function for each one.
+     *
+     * @param maxLinesToRead the maximum number of lines to be processed or -1 to process all lines
+     * @param processFieldsFunction a {@link Function} that receives a cursor to access the fields of each line
+     *                              and returns true if the line was processed
+     */
+    public void read(final int maxLinesToRead, final Function<TraceLineCursor, Boolean> processFieldsFunction) {
+        requireNonNull(processFieldsFunction);
+        final TraceLineCursor cursor = new TraceLineCursor();
+        int processedLines = 0;
+        for (int line = 0; line < lineCount && (maxLinesToRead == -1 || processedLines < maxLinesToRead); line++) {
+            if (processFieldsFunction.apply(cursor.setLine(this, line))) {
+                processedLines++;
+            }
+        }
+    }
+
+    /**
+     * Gets the values of all fields of a line as an array of Strings.
+     * @param line the index of the line
+     * @return
+     */
+    /* default */ String[] toArray(final int line) {
+        final Block block = getBlock(line);
+        return toArray(block, line - block.firstLine);
+    }
+
+    /**
+     * Gets the values of all fields of a range of lines,
+     * decoding each block in the range just once, even when other threads access other blocks.
+     *
+     * @param start the index of the first line (inclusive)
+     * @param end the index of the last line (exclusive)
+     * @return a list where each element is an array with the values of all fields of a line
+     */
+    /* default */ List<String[]> getLines(final int start, final int end) {
+        final List<String[]> lines = new ArrayList<>(Math.max(end - start, 0));
+        Block block = null;
+        for (int line = start; line < end; line++) {
+            if (block == null || line - block.firstLine >= block.lineCount) {
+                block = getBlock(line);
+            }
+
+            lines.add(toArray(block, line - block.firstLine));
+        }
+
+        return lines;
+    }
+
+    private static String[] toArray(final Block block, final int line) {
+        final String[] values = new String[block.fieldCounts[line]];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getString(block.getColumn(i), line);
+        }
+
+        return values;
+    }
+
+    /* default */ int getFieldCount(final int line) {
+        final Block block = getBlock(line);
+        return block.fieldCounts[line - block.firstLine];
+    }
+
+    /* default */ String getString(final int line, final int field) {
+        final Block block = getBlock(line);
+        return getString(block.getColumn(field), line - block.firstLine);
+    }
+
+    /**
+     * Gets the value of a field as a String.
+     * @param column the column of the field
+     * @param line the index of the line inside the block of the column
+     * @return
+     */
+    private static String getString(final Column column, final int line) {
+        if (column.isEmpty(line)) {
+            return "";
+        }
+
+        switch (column.type) {
+            case STRING_COLUMN: return column.dictionary[column.indexes[line]];
+            case DECIMAL_COLUMN: return toText(column.values[line], column.scales[line]);
+            default: return Long.toString(column.values[line]);
+        }
+    }
+
+    /**
+     * Gets the value of a field as a long.
+     * @return the value of the field
+     * @throws NumberFormatException when the field is not an integer
+     */
+    /* default */ long getLong(final int line, final int field) {
+        final Block block = getBlock(line);
+        final Column column = block.getColumn(field);
+        final int blockLine = line - block.firstLine;
+        if (column.type == LONG_COLUMN && !column.isEmpty(blockLine)) {
+            return column.values[blockLine];
+        }
+
+        return Long.parseLong(getString(column, blockLine));
+    }
+
+    /**
+     * Gets the value of a field as a double.
+     * @return the value of the field
+     * @throws NumberFormatException when the field is not a number
+     */
+    /* default */ double getDouble(final int line, final int field) {
+        final Block block = getBlock(line);
+        final Column column = block.getColumn(field);
+        final int blockLine = line - block.firstLine;
+        if (column.type == STRING_COLUMN || column.isEmpty(blockLine)) {
+            return Double.parseDouble(getString(column, blockLine));
+        }
+
+        if (column.type == LONG_COLUMN) {
+            return column.values[blockLine];
+        }
+
+        return column.values[blockLine] / POWERS_OF_TEN[column.scales[blockLine]];
+    }
+
+    /* default */ boolean isInteger(final int line, final int field) {
+        final Block block = getBlock(line);
+        final Column column = block.getColumn(field);
+        final int blockLine = line - block.firstLine;
+        if (column.isEmpty(blockLine)) {
+            return false;
+        }
+
+        switch (column.type) {
+            case STRING_COLUMN: return INTEGER_TEXT.matcher(getString(column, blockLine)).matches();
+            case DECIMAL_COLUMN: return column.scales[blockLine] == 0;
+            default: return true;
+        }
+    }
+
+    /* default */ boolean isDecimal(final int line, final int field) {
+        final Block block = getBlock(line);
+        final Column column = block.getColumn(field);
+        final int blockLine = line - block.firstLine;
+        if (column.isEmpty(blockLine)) {
+            return false;
+        }
+
+        return column.type != STRING_COLUMN || DECIMAL_TEXT.matcher(getString(column, blockLine)).matches();
+    }
+}
@@ -0,0 +1,557 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A memory-bounded history of values collected along the simulation time,
+ * such as resource utilization percentages.
+ * Samples are stored in a ring buffer of primitive {@code double} arrays
+ * (one for times and other for values), kept in increasing time order.
+ * When the {@link #getMaxEntries() maximum number of entries} is reached,
+ * the oldest sample is discarded to give room to a new one.
+ *
+ * <p>The sum and sum of squares of the stored values are updated
+ * as samples are added or discarded, so that the {@link #getMean() mean}
+ * and {@link #getVariance() variance} are got in constant time.
+ * Statistics that depend on the order of values, such as the
+ * {@link #getMedian() median}, {@link #getMad() MAD} and {@link #getIqr() IQR},
+ * are computed on demand using an internal scratch array,
+ * without boxing values or creating intermediate collections.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public class HistoryBuffer {
+    /**
+     * An attribute that implements the Null Object Design Pattern for {@link HistoryBuffer} objects,
+     * which is always empty and ignores any change.
+     */
+    public static final HistoryBuffer NULL = new HistoryBufferNull();
+
+    /**
+     * The initial length of the internal arrays,
+     * which grow as needed until the {@link #getMaxEntries() maximum number of entries}.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * @see #getMaxEntries()
+     */
+    private int maxEntries;
+
+    /**
+     * The times when each value was collected, stored in a ring buffer.
+     */
+    private double[] times;
+
+    /**
+     * The collected values, stored in a ring buffer aligned with {@link #times}.
+     */
+    private double[] values;
+
+    /**
+     * A reusable array where values are copied to compute order-based statistics.
+     */
+    private double[] scratch;
+
+    /**
+     * The position inside the internal arrays of the oldest sample.
+     */
+    private int head;
+
+    /**
+     * @see #size()
+     */
+    private int size;
+
+    /**
+     * @see #getSum()
+     */
+    private double sum;
+
+    /**
+     * The sum of the squares of the stored values.
+     */
+    private double sumOfSquares;
+
+    /**
+     * Creates a history that stores an unlimited number of entries.
+     */
+    public HistoryBuffer() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a history that stores up to a given number of entries.
+     *
+     * @param maxEntries the maximum number of entries to store
+     */
+    public HistoryBuffer(final int maxEntries) {
+        this.maxEntries = validateMaxEntries(maxEntries);
+        this.times = new double[Math.min(INITIAL_CAPACITY, maxEntries)];
+        this.values = new double[times.length];
+        this.scratch = new double[0];
+    }
+
+    /**
+     * Adds a value collected at a given time.
+     * If there is already a value for such a time, it's replaced.
+     * If the history is full, the oldest entry is discarded.
+     *
+     * @param time the time the value was collected
+     * @param value the value to add
+     */
+    public void add(final double time, final double value) {
+        if (size == 0 || time > getLastTime()) {
+            append(time, value);
+            return;
+        }
+
+        final int index = indexOf(time);
+        if (index >= 0) {
+            replaceValue(index, value);
+            return;
+        }
+
+        /* The time is older than the last one. It's an unusual case,
+         * where values after the insertion point must be shifted. */
+        final int insertionIndex = -(index + 1);
+        final boolean full = size == maxEntries;
+        if (full && insertionIndex == 0) {
+            return;
+        }
+
+        //Duplicates the last entry (discarding the oldest one if the history is full) to make room for shifting
+        append(getLastTime(), getLastValue());
+        final int newIndex = full ? insertionIndex - 1 : insertionIndex;
+        for (int i = size - 1; i > newIndex; i--) {
+            times[position(i)] = times[position(i - 1)];
+            values[position(i)] = values[position(i - 1)];
+        }
+
+        times[position(newIndex)] = time;
+        values[position(newIndex)] = value;
+        recomputeSums();
+    }
+
+    private void recomputeSums() {
+        sum = 0;
+        sumOfSquares = 0;
+        for (int i = 0; i < size; i++) {
+            addToSums(values[position(i)]);
+        }
+    }
+
+    private void append(final double time, final double value) {
+        if (size == maxEntries) {
+            removeOldest();
+        } else if (size == times.length) {
+            grow();
+        }
+
+        final int pos = position(size);
+        times[pos] = time;
+        values[pos] = value;
+        size++;
+        addToSums(value);
+    }
+
+    private void replaceValue(final int index, final double value) {
+        final int pos = position(index);
+        removeFromSums(values[pos]);
+        values[pos] = value;
+        addToSums(value);
+    }
+
+    private void removeOldest() {
+        removeFromSums(values[head]);
+        head = (head + 1) % times.length;
+        size--;
+        if (size == 0) {
+            sum = 0;
+            sumOfSquares = 0;
+        }
+    }
+
+    private void addToSums(final double value) {
+        sum += value;
+        sumOfSquares += value * value;
+    }
+
+    private void removeFromSums(final double value) {
+        sum -= value;
+        sumOfSquares -= value * value;
+    }
+
+    /**
+     * Doubles the length of the internal arrays (up to the {@link #getMaxEntries() maximum number of entries}),
+     * moving the oldest entry to the beginning of them.
+     */
+    private void grow() {
+        final int newLength = (int) Math.min((long) times.length * 2, maxEntries);
+        times = copyInOrder(times, newLength);
+        values = copyInOrder(values, newLength);
+        head = 0;
+    }
+
+    private double[] copyInOrder(final double[] source, final int newLength) {
+        final double[] target = new double[Math.max(newLength, size)];
+        for (int i = 0; i < size; i++) {
+            target[i] = source[position(i)];
+        }
+
+        return target;
+    }
+
+    /**
+     * Gets the position inside the internal arrays of the entry at a given index,
+     * where index 0 is the oldest entry.
+     * @param index the entry index
+     * @return the entry position inside the internal arrays
+     */
+    private int position(final int index) {
+        final int pos = head + index;
+        return pos < times.length ? pos : pos - times.length;
+    }
+
+    /**
+     * Searches for the index of the entry collected at a given time.
+     *
+     * @param time the time to search
+     * @return the index of the entry (where index 0 is the oldest entry) if found;
+     *         otherwise, {@code (-(insertion point) - 1)}, as in {@link Arrays#binarySearch(double[], double)}
+     */
+    public int indexOf(final double time) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final double midTime = times[position(mid)];
+            if (midTime < time) {
+                low = mid + 1;
+            } else if (midTime > time) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    /**
+     * Gets the time of the entry at a given index.
+     *
+     * @param index the entry index, where 0 is the oldest entry
+     * @return
+     */
+    public double getTime(final int index) {
+        checkIndex(index);
+        return times[position(index)];
+    }
+
+    /**
+     * Gets the value of the entry at a given index.
+     *
+     * @param index the entry index, where 0 is the oldest entry
+     * @return
+     */
+    public double getValue(final int index) {
+        checkIndex(index);
+        return values[position(index)];
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Gets the time of the newest entry.
+     * @return
+     */
+    public double getLastTime() {
+        return getTime(size - 1);
+    }
+
+    /**
+     * Gets the value of the newest entry.
+     * @return
+     */
+    public double getLastValue() {
+        return getValue(size - 1);
+    }
+
+    /**
+     * Gets the number of entries currently stored.
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if there is no entry stored.
+     * @return
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        sum = 0;
+        sumOfSquares = 0;
+    }
+
+    /**
+     * Gets the maximum number of entries to store.
+     * @return
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Sets the maximum number of entries to store.
+     * If there are more entries than the given value,
+     * the oldest ones are discarded.
+     *
+     * @param maxEntries the maximum number of entries to set
+     */
+    public void setMaxEntries(final int maxEntries) {
+        this.maxEntries = validateMaxEntries(maxEntries);
+        while (size > maxEntries) {
+            removeOldest();
+        }
+    }
+
+    private static int validateMaxEntries(final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum number of history entries must be greater than zero.");
+        }
+
+        return maxEntries;
+    }
+
+    /**
+     * Gets the sum of the stored values.
+     * @return
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * Gets the mean of the stored values.
+     * @return the mean or 0 if the history is empty
+     */
+    public double getMean() {
+        return size == 0 ? 0 : sum / size;
+    }
+
+    /**
+     * Gets the (population) variance of the stored values.
+     * @return the variance or 0 if the history is empty
+     */
+    public double getVariance() {
+        if (size == 0) {
+            return 0;
+        }
+
+        final double mean = getMean();
+        return Math.max(0, sumOfSquares / size - mean * mean);
+    }
+
+    /**
+     * Gets the median of the stored values.
+     * @return the median or 0 if the history is empty
+     */
+    public double getMedian() {
+        return size == 0 ? 0 : median(sortedValues(), size);
+    }
+
+    /**
+     * Gets the Median Absolute Deviation (MAD) of the stored values.
+     * @return the MAD or 0 if the history is empty
+     * @see MathUtil#mad(double...)
+     */
+    public double getMad() {
+        if (size == 0) {
+            return 0;
+        }
+
+        final double[] data = sortedValues();
+        final double median = median(data, size);
+        for (int i = 0; i < size; i++) {
+            data[i] = Math.abs(median - data[i]);
+        }
+
+        Arrays.sort(data, 0, size);
+        return median(data, size);
+    }
+
+    /**
+     * Gets the <a href="https://en.wikipedia.org/wiki/Interquartile_range">Interquartile Range (IQR)</a>
+     * of the stored values.
+     * @return the IQR or 0 if the history is empty
+     * @see MathUtil#iqr(double...)
+     */
+    public double getIqr() {
+        if (size == 0) {
+            return 0;
+        }
+
+        final double[] data = sortedValues();
+        final int quartile1 = Math.max(0, (int) Math.round(0.25 * (size + 1)) - 1);
+        final int quartile3 = Math.min(size - 1, (int) Math.round(0.75 * (size + 1)) - 1);
+        return data[quartile3] - data[quartile1];
+    }
+
+    /**
+     * Counts the number of values from the oldest one up to the newest non-zero value,
+     * ignoring zeros at the end of the history.
+     * @return the number of values up to the newest non-zero one or 0 if all values are zero
+     * @see MathUtil#countNonZeroBeginning(double...)
+     */
+    public int countNonZeroBeginning() {
+        int i = size - 1;
+        while (i >= 0 && getValue(i) == 0) {
+            i--;
+        }
+
+        return i + 1;
+    }
+
+    /**
+     * Copies the stored values into the scratch array and sorts them.
+     * @return the scratch array, where only the first {@link #size} positions are valid
+     */
+    private double[] sortedValues() {
+        if (scratch.length < size) {
+            scratch = new double[times.length];
+        }
+
+        copyValues(scratch, 0, size);
+        Arrays.sort(scratch, 0, size);
+        return scratch;
+    }
+
+    /**
+     * Computes the median of the first values of a sorted array,
+     * using the same estimation method of {@link MathUtil#median(double...)}.
+     */
+    private static double median(final double[] sorted, final int length) {
+        final double pos = 0.5 * (length + 1);
+        if (pos < 1) {
+            return sorted[0];
+        }
+
+        if (pos >= length) {
+            return sorted[length - 1];
+        }
+
+        final int lower = (int) Math.floor(pos) - 1;
+        final double fraction = pos - Math.floor(pos);
+        return sorted[lower] + fraction * (sorted[lower + 1] - sorted[lower]);
+    }
+
+    /**
+     * Copies a number of the oldest values into an array, in increasing time order.
+     *
+     * @param dest the array to copy values to
+     * @param destPos the starting position in the destination array
+     * @param length the number of values to copy
+     */
+    public void copyValues(final double[] dest, final int destPos, final int length) {
+        if (length > size) {
+            throw new IndexOutOfBoundsException("Length: " + length + ", Size: " + size);
+        }
+
+        final int firstPartLength = Math.min(length, times.length - head);
+        System.arraycopy(values, head, dest, destPos, firstPartLength);
+        System.arraycopy(values, 0, dest, destPos + firstPartLength, length - firstPartLength);
+    }
+
+    /**
+     * Gets a new array with all stored values, in increasing time order.
+     * @return
+     */
+    public double[] toValueArray() {
+        final double[] array = new double[size];
+        copyValues(array, 0, size);
+        return array;
+    }
+
+    /**
+     * Gets a new array with the newest values, in decreasing time order
+     * (the first position has the newest value),
+     * as required by regression methods such as {@link MathUtil#getLoessParameterEstimates(double...)}.
+     *
+     * @param length the maximum number of values to get
+     * @return an array with the newest values, which has a length smaller than the requested one
+     *         if there aren't enough entries stored
+     */
+    public double[] getNewestValuesReversed(final int length) {
+        final double[] array = new double[Math.min(length, size)];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values[position(size - 1 - i)];
+        }
+
+        return array;
+    }
+
+    /**
+     * Gets a read-only List view of the stored times, in increasing order.
+     * The view reflects later changes in the history.
+     * @return
+     */
+    public List<Double> timesView() {
+        return new AbstractList<Double>() {
+            @Override public Double get(final int index) { return getTime(index); }
+            @Override public int size() { return size; }
+        };
+    }
+
+    /**
+     * Gets a read-only List view of the stored values, in increasing time order.
+     * The view reflects later changes in the history.
+     * @return
+     */
+    public List<Double> valuesView() {
+        return new AbstractList<Double>() {
+            @Override public Double get(final int index) { return getValue(index); }
+            @Override public int size() { return size; }
+        };
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads a plain text trace file by mapping it into memory
+ * and splitting lines into fields directly from the mapped bytes,
+ * which are accessed through a reusable {@link TraceLineCursor}.
+ * That avoids creating a String for each line and an array of Strings
+ * for its fields, as performed by {@link TraceReaderAbstract#parseTraceLine(String)}.
+ *
+ * <p>Lines are split in the same way as {@code line.trim().split(fieldDelimiterRegex)},
+ * but just the following field delimiters are supported:
+ * {@link #WHITESPACE_DELIMITER_REGEX} or a regex matching a single character.
+ * Files larger than {@link #MAX_WINDOW_SIZE} are mapped in multiple windows.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ * @see #isSupportedDelimiter(String)
+ */
+final class MappedTraceTokenizer {
+    /**
+     * The field delimiter regex which splits fields at any sequence of whitespaces.
+     */
+    static final String WHITESPACE_DELIMITER_REGEX = "\\s+";
+
+    /**
+     * The maximum number of bytes of a trace file mapped at once.
+     */
+    private static final int MAX_WINDOW_SIZE = 1 << 28;
+
+    /**
+     * Indicates that fields are delimited by any sequence of whitespaces.
+     */
+    private static final int WHITESPACE = -1;
+
+    /**
+     * Indicates that a given delimiter regex is not supported.
+     */
+    private static final int UNSUPPORTED = -2;
+
+    private final Path filePath;
+    private final byte[][] commentBytes;
+    private final int delimiter;
+    private final TraceLineCursor cursor;
+
+    /**
+     * Creates a tokenizer for a given trace file.
+     *
+     * @param filePath the path of a plain text trace file
+     * @param commentStrings the Strings that identify the start of a comment line
+     * @param fieldDelimiterRegex the regex defining how fields are delimited,
+     *                            which must be a {@link #isSupportedDelimiter(String) supported} one
+     */
+    MappedTraceTokenizer(final Path filePath, final String[] commentStrings, final String fieldDelimiterRegex) {
+        this.filePath = requireNonNull(filePath);
+        this.delimiter = getDelimiter(fieldDelimiterRegex);
+        if (delimiter == UNSUPPORTED) {
+            throw new IllegalArgumentException("Unsupported field delimiter regex: " + fieldDelimiterRegex);
+        }
+
+        this.commentBytes = new byte[commentStrings.length][];
+        for (int i = 0; i < commentStrings.length; i++) {
+            commentBytes[i] = commentStrings[i].getBytes(Charset.defaultCharset());
+        }
+
+        this.cursor = new TraceLineCursor();
+    }
+
+    /**
+     * Checks if a field delimiter regex can be handled by this tokenizer.
+     *
+     * @param fieldDelimiterRegex the regex to check
+     * @return true if the regex is {@link #WHITESPACE_DELIMITER_REGEX} or matches a single ASCII character,
+     *         false otherwise
+     */
+    static boolean isSupportedDelimiter(final String fieldDelimiterRegex) {
+        return getDelimiter(fieldDelimiterRegex) != UNSUPPORTED;
+    }
+
+    private static int getDelimiter(final String regex) {
+        if (WHITESPACE_DELIMITER_REGEX.equals(regex)) {
+            return WHITESPACE;
+        }
+
+        if (regex.length() == 1 && ".$|()[{^?*+\\".indexOf(regex.charAt(0)) < 0 && regex.charAt(0) < 128) {
+            return regex.charAt(0);
+        }
+
+        if (regex.length() == 2 && regex.charAt(0) == '\\') {
+            final char c = regex.charAt(1);
+            if (c == 't') {
+                return '\t';
+            }
+
+            if (c < 128 && !Character.isLetterOrDigit(c)) {
+                return c;
+            }
+        }
+
+        return UNSUPPORTED;
+    }
+
+    /**
+     * Reads the trace file, calling a given function for each non-comment line read.
+     *
+     * @param maxLinesToRead the maximum number of lines to be processed or -1 to process all lines
+     * @param processFieldsFunction a {@link Function} that receives a cursor to access the fields of each line
+     *                              and returns true if the line was processed
+     * @throws IOException when the file cannot be read
+     */
+    void read(final int maxLinesToRead, final Function<TraceLineCursor, Boolean> processFieldsFunction) throws IOException {
+        requireNonNull(processFieldsFunction);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            long windowStart = 0;
+            int processedLines = 0;
+            while (windowStart < fileSize) {
+                final int windowSize = (int) Math.min(MAX_WINDOW_SIZE, fileSize - windowStart);
+                final boolean lastWindow = windowStart + windowSize == fileSize;
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+                cursor.setBuffer(buffer);
+
+                int lineStart = 0;
+                while (lineStart < windowSize) {
+                    int lineEnd = indexOfNewLine(buffer, lineStart, windowSize);
+                    if (lineEnd < 0) {
+                        if (!lastWindow) {
+                            break;
+                        }
+
+                        lineEnd = windowSize;
+                    }
+
+                    if (maxLinesToRead != -1 && processedLines >= maxLinesToRead) {
+                        return;
+                    }
+
+                    if (tokenize(buffer, lineStart, lineEnd) && processFieldsFunction.apply(cursor)) {
+                        processedLines++;
+                    }
+
+                    lineStart = lineEnd + 1;
+                }
+
+                if (lineStart == 0) {
+                    throw new IOException("Trace line starting at byte " + windowStart + " is longer than " + MAX_WINDOW_SIZE + " bytes");
+                }
+
+                windowStart += lineStart;
+            }
+        }
+    }
+
+    /**
+     * Splits all lines inside a buffer into fields.
+     * The buffer must start at the beginning of a line and
+     * its last line is considered complete even if it doesn't end with a new line.
+     *
+     * @param buffer the buffer containing a region of the trace file
+     * @return a List where each element is an array with the fields of a non-comment line
+     */
+    List<String[]> tokenizeLines(final ByteBuffer buffer) {
+        final List<String[]> lines = new ArrayList<>();
+        cursor.setBuffer(buffer);
+        final int limit = buffer.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = indexOfNewLine(buffer, lineStart, limit);
+            if (lineEnd < 0) {
+                lineEnd = limit;
+            }
+
+            if (tokenize(buffer, lineStart, lineEnd)) {
+                lines.add(cursor.toArray());
+            }
+
+            lineStart = lineEnd + 1;
+        }
+
+        return lines;
+    }
+
+    private static int indexOfNewLine(final ByteBuffer buffer, final int from, final int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Splits a line into fields, adding them to the {@link #cursor}.
+     *
+     * @param buffer the buffer containing the line
+     * @param start the position where the line starts (inclusive)
+     * @param end the position where the line ends (exclusive)
+     * @return true if the line has any field, false if it's a comment or all its fields are empty
+     */
+    private boolean tokenize(final ByteBuffer buffer, int start, int end) {
+        cursor.clearFields();
+        if (isComment(buffer, start, end)) {
+            return false;
+        }
+
+        //Trims the line in the same way as String.trim()
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+
+        if (start == end) {
+            //String.split() returns an array with a single empty String for an empty line
+            cursor.addField(start, end);
+            return true;
+        }
+
+        int fieldStart = start;
+        for (int i = start; i < end; i++) {
+            final byte b = buffer.get(i);
+            if (delimiter == WHITESPACE ? isWhitespace(b) : b == delimiter) {
+                cursor.addField(fieldStart, i);
+                if (delimiter == WHITESPACE) {
+                    while (i + 1 < end && isWhitespace(buffer.get(i + 1))) {
+                        i++;
+                    }
+                }
+
+                fieldStart = i + 1;
+            }
+        }
+
+        cursor.addField(fieldStart, end);
+        cursor.removeTrailingEmptyFields();
+        return cursor.getFieldCount() > 0;
+    }
+
+    /**
+     * Checks if a byte is a whitespace according to the regex {@code \s}.
+     */
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+
+    private boolean isComment(final ByteBuffer buffer, final int start, final int end) {
+        for (final byte[] comment : commentBytes) {
+            if (startsWith(buffer, start, end, comment)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean startsWith(final ByteBuffer buffer, final int start, final int end, final byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,512 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads one or more trace files (such as the shards of a large trace), decompressing
+ * and splitting their lines into fields in parallel, while lines
+ * are processed by the calling thread in the order they appear in the files.
+ * This way, the function processing each line doesn't need to be thread-safe.
+ *
+ * <p>Each file is split into chunks which are parsed by a pool of threads:</p>
+ * <ul>
+ *   <li>plain text files that can be {@link TraceReaderAbstract#isMemoryMapped() memory mapped}
+ *   are split into newline-aligned chunks of {@link #CHUNK_SIZE} bytes,
+ *   which are mapped and tokenized independently;</li>
+ *   <li>compressed files or files read from an {@link InputStream} are read sequentially
+ *   (so decompression of a file is not split) in batches of {@link #BATCH_LINES} lines,
+ *   which are tokenized in parallel while the next batch is read;</li>
+ *   <li>{@link BinaryTraceFile binary trace files} have their lines got in batches of {@link #BATCH_LINES} lines,
+ *   just decoding the blocks of the file containing each batch.</li>
+ * </ul>
+ *
+ * <p>The number of chunks parsed ahead of the processing is bounded,
+ * so that memory usage doesn't depend on the trace size.
+ * When multiple files are read, their lines are merged according to a timestamp function,
+ * considering that lines inside each file are sorted by timestamp.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+final class ParallelTraceParser {
+    /**
+     * The size (in bytes) of the chunks a memory-mapped file is split into.
+     */
+    private static final int CHUNK_SIZE = 1 << 22;
+
+    /**
+     * The number of lines of a compressed file (or a file read from a stream) parsed by each task.
+     */
+    private static final int BATCH_LINES = 8192;
+
+    private final TraceReaderAbstract reader;
+    private final ExecutorService executor;
+
+    /**
+     * The maximum number of chunks from each file which may be parsed ahead of the processing.
+     */
+    private final int lookAhead;
+
+    /**
+     * A set of lines parsed from a file.
+     */
+    private static final class Chunk {
+        private final List<String[]> lines;
+        /** Indicates if it is the last chunk of the file. */
+        private final boolean last;
+
+        private Chunk(final List<String[]> lines, final boolean last) {
+            this.lines = lines;
+            this.last = last;
+        }
+    }
+
+    /**
+     * A set of raw lines read from a file, which have yet to be parsed.
+     */
+    private static final class Batch {
+        private final List<String> lines;
+        /** Indicates if it is the last batch of the file. */
+        private final boolean last;
+
+        private Batch(final List<String> lines, final boolean last) {
+            this.lines = lines;
+            this.last = last;
+        }
+    }
+
+    /**
+     * A trace file split into chunks which are parsed asynchronously.
+     */
+    private interface Source extends Closeable {
+        /**
+         * Checks if there are more chunks to be requested by {@link #next()}.
+         */
+        boolean hasNext();
+
+        /**
+         * Requests the next chunk to be parsed.
+         * @return a future that will give the parsed chunk
+         */
+        CompletableFuture<Chunk> next();
+    }
+
+    /**
+     * A plain text file split into newline-aligned chunks,
+     * each one memory mapped and tokenized by a {@link MappedTraceTokenizer}.
+     */
+    private final class MappedFileSource implements Source {
+        private final Path path;
+        private final FileChannel channel;
+        private final long size;
+        private long nextChunkStart;
+
+        private MappedFileSource(final Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.size = channel.size();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextChunkStart < size;
+        }
+
+        @Override
+        public CompletableFuture<Chunk> next() {
+            final long start = nextChunkStart;
+            final long end = findChunkEnd(start);
+            nextChunkStart = end;
+            final boolean last = end >= size;
+            return CompletableFuture.supplyAsync(() -> new Chunk(tokenize(start, end), last), executor);
+        }
+
+        private List<String[]> tokenize(final long start, final long end) {
+            try {
+                final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                final MappedTraceTokenizer tokenizer =
+                    new MappedTraceTokenizer(path, reader.getCommentString(), reader.getFieldDelimiterRegex());
+                return tokenizer.tokenizeLines(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Finds the position where a chunk starting at a given position ends,
+         * which is just after the first new line found after {@link #CHUNK_SIZE} bytes.
+         */
+        private long findChunkEnd(final long start) {
+            long pos = start + CHUNK_SIZE;
+            if (pos >= size) {
+                return size;
+            }
+
+            final ByteBuffer buffer = ByteBuffer.allocate(8192);
+            try {
+                while (pos < size) {
+                    buffer.clear();
+                    final int read = channel.read(buffer, pos);
+                    for (int i = 0; i < read; i++) {
+                        if (buffer.get(i) == '\n') {
+                            return pos + i + 1;
+                        }
+                    }
+
+                    pos += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return size;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * A file read sequentially from an {@link InputStream}, possibly compressed.
+     * Batches of lines are read one after the other (since decompression cannot be split),
+     * but each batch is tokenized in parallel with the reading of the next ones.
+     */
+    private final class StreamSource implements Source {
+        private final TraceFileLineReader lineReader;
+
+        /**
+         * The last batch of lines requested to be read, which must be completed
+         * before the next batch starts being read.
+         */
+        private CompletableFuture<Batch> lastBatch;
+
+        /**
+         * Indicates if the batch including the last lines of the file was requested.
+         * Since batches are read asynchronously, this is just known after such a batch is read.
+         * Requesting batches after the end of the file just gives empty chunks.
+         */
+        private volatile boolean endOfFile;
+
+        private StreamSource(final String filePath, final InputStream inputStream) throws IOException {
+            this.lineReader = new TraceFileLineReader(filePath, inputStream);
+            this.lastBatch = CompletableFuture.completedFuture(new Batch(Collections.emptyList(), false));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !endOfFile;
+        }
+
+        @Override
+        public CompletableFuture<Chunk> next() {
+            //Each batch is just read after the previous one
+            lastBatch = lastBatch.thenApplyAsync(previous -> readBatch(), executor);
+            return lastBatch.thenApplyAsync(batch -> new Chunk(tokenize(batch.lines), batch.last), executor);
+        }
+
+        private Batch readBatch() {
+            final List<String> lines = new ArrayList<>(BATCH_LINES);
+            try {
+                String line;
+                while (lines.size() < BATCH_LINES && (line = lineReader.readLine()) != null) {
+                    lines.add(line);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            final boolean last = lineReader.isEndOfFile();
+            endOfFile = last;
+            return new Batch(lines, last);
+        }
+
+        private List<String[]> tokenize(final List<String> lines) {
+            final List<String[]> parsedLines = new ArrayList<>(lines.size());
+            for (final String line : lines) {
+                final String[] parsedLine = reader.parseTraceLine(line);
+                if (parsedLine.length > 0) {
+                    parsedLines.add(parsedLine);
+                }
+            }
+
+            return parsedLines;
+        }
+
+        @Override
+        public void close() throws IOException {
+            lineReader.close();
+        }
+    }
+
+    /**
+     * A {@link BinaryTraceFile} whose lines are got in batches,
+     * just to be merged with other files.
+     */
+    private final class BinaryFileSource implements Source {
+        private final BinaryTraceFile trace;
+        private int nextLine;
+
+        private BinaryFileSource(final String filePath, final InputStream inputStream) throws IOException {
+            this.trace = BinaryTraceFile.load(filePath, inputStream);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLine < trace.getLineCount();
+        }
+
+        @Override
+        public CompletableFuture<Chunk> next() {
+            final int start = nextLine;
+            final int end = Math.min(start + BATCH_LINES, trace.getLineCount());
+            nextLine = end;
+            final boolean last = end >= trace.getLineCount();
+            return CompletableFuture.supplyAsync(() -> new Chunk(trace.getLines(start, end), last), executor);
+        }
+
+        @Override
+        public void close() {/**/}
+    }
+
+    /**
+     * Keeps track of the chunks being parsed for a {@link Source}
+     * and the next line to be processed from it.
+     */
+    private final class SourceCursor {
+        private final int index;
+        private final Source source;
+        private final Deque<CompletableFuture<Chunk>> pendingChunks;
+        private List<String[]> lines;
+        private int nextLine;
+        private boolean lastChunkTaken;
+        private double timestamp;
+
+        private SourceCursor(final int index, final Source source) {
+            this.index = index;
+            this.source = source;
+            this.pendingChunks = new ArrayDeque<>(lookAhead);
+            this.lines = Collections.emptyList();
+        }
+
+        /**
+         * Moves to the next line, waiting its chunk to be parsed if needed.
+         * @return true if there is a next line, false if the end of the file was reached
+         */
+        private boolean advance() {
+            nextLine++;
+            while (nextLine >= lines.size()) {
+                if (lastChunkTaken) {
+                    return false;
+                }
+
+                requestChunks();
+                //An empty file has no chunk at all
+                if (pendingChunks.isEmpty()) {
+                    return false;
+                }
+
+                final Chunk chunk = join(pendingChunks.poll());
+                lines = chunk.lines;
+                nextLine = 0;
+                lastChunkTaken = chunk.last;
+            }
+
+            return true;
+        }
+
+        private void requestChunks() {
+            while (pendingChunks.size() < lookAhead && source.hasNext()) {
+                pendingChunks.add(source.next());
+            }
+        }
+
+        private String[] currentLine() {
+            return lines.get(nextLine);
+        }
+    }
+
+    /**
+     * Creates a parser for the files of a given trace reader.
+     *
+     * @param reader the reader defining how trace lines must be parsed
+     * @param threads the number of threads to parse the files
+     * @param files the number of files to be read
+     */
+    ParallelTraceParser(final TraceReaderAbstract reader, final int threads, final int files) {
+        this.reader = requireNonNull(reader);
+        this.lookAhead = Math.max(2, 2 * threads / Math.max(files, 1));
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "TraceParser");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads a list of trace files, processing their lines
+     * in timestamp order in the calling thread.
+     *
+     * @param filePaths the paths of the files to read
+     * @param inputStreams the streams to read each file when it cannot be memory mapped
+     *                     (an element may be null to open the file from its path)
+     * @param timestampFunction a function that gets the timestamp of a parsed line,
+     *                          used to merge lines from multiple files
+     * @param processFieldsFunction a {@link Function} that receives a cursor to access the fields of each line read
+     *                              and performs an operation over them, returning true if the operation was executed
+     */
+    void read(
+        final List<String> filePaths,
+        final List<InputStream> inputStreams,
+        final ToDoubleFunction<String[]> timestampFunction,
+        final Function<TraceLineCursor, Boolean> processFieldsFunction)
+    {
+        final List<SourceCursor> cursors = new ArrayList<>(filePaths.size());
+        try {
+            for (int i = 0; i < filePaths.size(); i++) {
+                cursors.add(new SourceCursor(i, createSource(filePaths.get(i), inputStreams.get(i))));
+            }
+
+            processLines(cursors, timestampFunction, processFieldsFunction);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            executor.shutdownNow();
+            closeAll(cursors);
+        }
+    }
+
+    private Source createSource(final String filePath, final InputStream inputStream) throws IOException {
+        if (BinaryTraceFile.isBinaryTraceFile(filePath)) {
+            return new BinaryFileSource(filePath, openIfRequired(filePath, inputStream));
+        }
+
+        final Path path = reader.getMemoryMappedFilePath(filePath);
+        if (path != null) {
+            if (inputStream != null) {
+                inputStream.close();
+            }
+
+            return new MappedFileSource(path);
+        }
+
+        return new StreamSource(filePath, openIfRequired(filePath, inputStream));
+    }
+
+    private InputStream openIfRequired(final String filePath, final InputStream inputStream) {
+        return inputStream == null ? ResourceLoader.getInputStream(getClass(), filePath) : inputStream;
+    }
+
+    private void processLines(
+        final List<SourceCursor> cursors,
+        final ToDoubleFunction<String[]> timestampFunction,
+        final Function<TraceLineCursor, Boolean> processFieldsFunction)
+    {
+        final Comparator<SourceCursor> comparator =
+            Comparator.<SourceCursor>comparingDouble(cursor -> cursor.timestamp).thenComparingInt(cursor -> cursor.index);
+        final PriorityQueue<SourceCursor> queue = new PriorityQueue<>(Math.max(cursors.size(), 1), comparator);
+        //The timestamp is just required when merging multiple files
+        final ToDoubleFunction<String[]> timestamp = cursors.size() > 1 ? timestampFunction : line -> 0;
+        for (final SourceCursor cursor : cursors) {
+            cursor.nextLine = -1;
+            addToQueue(queue, cursor, timestamp);
+        }
+
+        final TraceLineCursor lineCursor = new TraceLineCursor();
+        final int maxLinesToRead = reader.getMaxLinesToRead();
+        int processedLines = 0;
+        while (!queue.isEmpty() && (maxLinesToRead == -1 || processedLines < maxLinesToRead)) {
+            final SourceCursor cursor = queue.poll();
+            if (processFieldsFunction.apply(lineCursor.setFields(cursor.currentLine()))) {
+                processedLines++;
+            }
+
+            addToQueue(queue, cursor, timestamp);
+        }
+    }
+
+    private void addToQueue(
+        final PriorityQueue<SourceCursor> queue,
+        final SourceCursor cursor,
+        final ToDoubleFunction<String[]> timestampFunction)
+    {
+        if (cursor.advance()) {
+            cursor.timestamp = timestampFunction.applyAsDouble(cursor.currentLine());
+            queue.add(cursor);
+        }
+    }
+
+    private static Chunk join(final CompletableFuture<Chunk> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the sources of all given cursors, even if closing some of them fails.
+     * @param cursors the cursors to close their sources
+     * @throws UncheckedIOException if any source couldn't be closed,
+     *         having the failures to close the other sources as suppressed exceptions
+     */
+    private void closeAll(final List<SourceCursor> cursors) {
+        IOException failure = null;
+        for (final SourceCursor cursor : cursors) {
+            try {
+                cursor.source.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+}
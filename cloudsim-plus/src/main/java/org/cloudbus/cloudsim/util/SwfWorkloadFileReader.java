@@ -7,10 +7,12 @@
  */
 package org.cloudbus.cloudsim.util;
 
+import org.cloudbus.cloudsim.brokers.DatacenterBroker;
 import org.cloudbus.cloudsim.cloudlets.Cloudlet;
 import org.cloudbus.cloudsim.cloudlets.CloudletSimple;
 import org.cloudbus.cloudsim.utilizationmodels.UtilizationModel;
 import org.cloudbus.cloudsim.utilizationmodels.UtilizationModelFull;
+import org.cloudsimplus.traces.TraceFeeder;
 
 import java.io.*;
 import java.nio.file.Files;
@@ -19,6 +21,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Reads resource traces and creates a list of ({@link Cloudlet Cloudlets}) (jobs).
  * It follows the <a href="http://www.cs.huji.ac.il/labs/parallel/workload/">Standard Workload Format (*.swf files)</a>
@@ -51,6 +55,7 @@ import java.util.function.Predicate;
  * @author Manoel Campos da Silva Filho
  * @see #getInstance(String, int)
  * @see #generateWorkload()
+ * @see #streamWorkload(DatacenterBroker, double)
  */
 public final class SwfWorkloadFileReader extends TraceReaderAbstract {
 
@@ -127,6 +132,12 @@ public final class SwfWorkloadFileReader extends TraceReaderAbstract {
      */
     private Predicate<Cloudlet> predicate;
 
+    /**
+     * The submission time of the next job to be read when the workload is
+     * {@link #streamWorkload(DatacenterBroker, double) streamed}.
+     */
+    private double nextSubmitTime;
+
     /**
      * Gets a {@link SwfWorkloadFileReader} instance from a workload file
      * inside the <b>application's resource directory</b>.
@@ -201,12 +212,71 @@ public final class SwfWorkloadFileReader extends TraceReaderAbstract {
      */
     public List<Cloudlet> generateWorkload() {
         if (cloudlets.isEmpty()) {
-            readFile(this::createCloudletFromTraceLine);
+            readFileFields(this::createCloudletFromTraceLine);
         }
 
         return cloudlets;
     }
 
+    /**
+     * Streams the jobs ({@link Cloudlet Cloudlets}) from the workload file into the simulation,
+     * submitting them to a given broker as the simulation clock approaches their submission time,
+     * instead of {@link #generateWorkload() generating} the entire workload before the simulation starts.
+     * Just the Cloudlets submitted up to the current simulation time plus a given
+     * look-ahead time are read at a time, so that very long workloads can be simulated
+     * without keeping the entire trace into memory.
+     *
+     * <p>Since the broker may finish running all submitted Cloudlets before the next ones
+     * are read, it may have to be configured to not destroy idle VMs too early.
+     * This method can be called before the simulation starts or while it's running.</p>
+     *
+     * @param broker the broker to submit the Cloudlets to
+     * @param lookAheadTime how many seconds ahead of the simulation clock Cloudlets are read from the workload file
+     * @return the {@link TraceFeeder} that reads the workload along the simulation execution
+     */
+    public TraceFeeder streamWorkload(final DatacenterBroker broker, final double lookAheadTime) {
+        requireNonNull(broker);
+        return new TraceFeeder(broker.getSimulation(), lookAheadTime, time -> submitCloudletsUntil(broker, time)).start();
+    }
+
+    /**
+     * Reads the next jobs from the workload file up to a given submission time,
+     * submitting the created Cloudlets to a broker (if any Cloudlet was created).
+     *
+     * @param broker the broker to submit the Cloudlets to
+     * @param time the maximum submission time of the jobs to read
+     * @return the submission time of the next job to read or -1 if the end of the file was reached
+     */
+    private double submitCloudletsUntil(final DatacenterBroker broker, final double time) {
+        //The list of Cloudlets is just used as a buffer for the jobs read at each call
+        cloudlets.clear();
+        final boolean moreLines = readFileFieldsWhile(line -> isSubmitTimeUntil(line, time), this::createCloudletFromTraceLine);
+
+        final double clock = broker.getSimulation().clock();
+        cloudlets.forEach(cloudlet -> cloudlet.setSubmissionDelay(Math.max(cloudlet.getSubmissionDelay() - clock, 0)));
+        //The window may have no valid job or all its jobs may be rejected by the predicate
+        if (!cloudlets.isEmpty()) {
+            broker.submitCloudletList(new ArrayList<>(cloudlets));
+            cloudlets.clear();
+        }
+
+        return moreLines ? nextSubmitTime : -1;
+    }
+
+    /**
+     * Checks if the submission time of the job in a given line is up to a given time,
+     * storing such a submission time as the {@link #nextSubmitTime}.
+     * Invalid lines are always accepted so that they are just discarded when read.
+     */
+    private boolean isSubmitTimeUntil(final TraceLineCursor parsedLine, final double time) {
+        if (parsedLine.getFieldCount() < FIELD_COUNT) {
+            return true;
+        }
+
+        nextSubmitTime = parsedLine.getLong(SUBMIT_TIME_INDEX);
+        return nextSubmitTime <= time;
+    }
+
     /**
      * Defines a {@link Predicate} which indicates when a {@link Cloudlet}
      * must be created from a trace line read from the workload file.
@@ -225,31 +295,28 @@ public final class SwfWorkloadFileReader extends TraceReaderAbstract {
      * a line from the trace reader, and creates a cloudlet using this
      * information.
      *
-     * @param parsedLineArray an array containing the field values from a parsed trace line
+     * @param parsedLine a cursor to access the field values from a parsed trace line
      * @return true if the parsed line is valid and the Cloudlet was created, false otherwise
      */
-    private boolean createCloudletFromTraceLine(final String[] parsedLineArray) {
+    private boolean createCloudletFromTraceLine(final TraceLineCursor parsedLine) {
         //If all the fields couldn't be read, don't create the Cloudlet.
-        if (parsedLineArray.length < FIELD_COUNT) {
+        if (parsedLine.getFieldCount() < FIELD_COUNT) {
             return false;
         }
 
-        final int id = JOB_NUM_INDEX <= IRRELEVANT ? cloudlets.size() + 1 : Integer.parseInt(parsedLineArray[JOB_NUM_INDEX].trim());
+        final int id = JOB_NUM_INDEX <= IRRELEVANT ? cloudlets.size() + 1 : parsedLine.getInt(JOB_NUM_INDEX);
 
         /* according to the SWF manual, runtime of 0 is possible due
          to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0*/
-        final int runTime = Math.max(Integer.parseInt(parsedLineArray[RUN_TIME_INDEX].trim()), 1);
+        final int runTime = Math.max(parsedLine.getInt(RUN_TIME_INDEX), 1);
 
         /* if the required num of allocated processors field is ignored
         or zero, then use the actual field*/
-        final int maxNumProc = Math.max(
-                                    Integer.parseInt(parsedLineArray[REQ_NUM_PROC_INDEX].trim()),
-                                    Integer.parseInt(parsedLineArray[this.NUM_PROC_INDEX].trim())
-                               );
+        final int maxNumProc = Math.max(parsedLine.getInt(REQ_NUM_PROC_INDEX), parsedLine.getInt(NUM_PROC_INDEX));
         final int numProc = Math.max(maxNumProc, 1);
 
         final Cloudlet cloudlet = createCloudlet(id, runTime, numProc);
-        final long submitTime = Long.parseLong(parsedLineArray[this.SUBMIT_TIME_INDEX].trim());
+        final long submitTime = parsedLine.getLong(SUBMIT_TIME_INDEX);
         cloudlet.setSubmissionDelay(submitTime);
 
         if(predicate.test(cloudlet)){
@@ -0,0 +1,101 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.util;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipInputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the lines of a trace file one by one, decompressing the file if required.
+ * For zip files, lines from all entries inside the file are read in sequence.
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+final class TraceFileLineReader implements Closeable {
+    private final InputStream inputStream;
+    private final ZipInputStream zipInputStream;
+
+    /**
+     * The reader for the current file (or zip entry), which is null after the end of the file.
+     */
+    private BufferedReader lineReader;
+
+    /**
+     * Creates a reader for the lines of a trace file.
+     *
+     * @param filePath the trace file path in one of the following formats: <i>ASCII text, zip, gz.</i>
+     * @param inputStream the stream to read the file from
+     * @throws IOException when the file cannot be read
+     */
+    TraceFileLineReader(final String filePath, final InputStream inputStream) throws IOException {
+        this.inputStream = requireNonNull(inputStream);
+        if (filePath.endsWith(".zip")) {
+            this.zipInputStream = new ZipInputStream(inputStream);
+            this.lineReader = nextZipEntryReader();
+        } else {
+            this.zipInputStream = null;
+            final InputStream stream = filePath.endsWith(".gz") ? new GZIPInputStream(inputStream) : inputStream;
+            this.lineReader = new BufferedReader(new InputStreamReader(stream));
+        }
+    }
+
+    private BufferedReader nextZipEntryReader() throws IOException {
+        return zipInputStream.getNextEntry() == null ? null : new BufferedReader(new InputStreamReader(zipInputStream));
+    }
+
+    /**
+     * Reads the next line from the file.
+     * @return the line read or null if the end of the file was reached
+     * @throws IOException when the file cannot be read
+     */
+    String readLine() throws IOException {
+        while (lineReader != null) {
+            final String line = lineReader.readLine();
+            if (line != null) {
+                return line;
+            }
+
+            lineReader = zipInputStream == null ? null : nextZipEntryReader();
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks if the end of the file was reached.
+     * @return
+     */
+    boolean isEndOfFile() {
+        return lineReader == null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+}
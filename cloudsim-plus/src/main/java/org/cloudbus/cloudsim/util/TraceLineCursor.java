@@ -0,0 +1,459 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A reusable cursor to access the fields of the last line read from a trace file.
+ * The same instance is updated for every line read, avoiding creating
+ * one array of Strings for each line.
+ *
+ * <p>When the trace file is read by a {@link MappedTraceTokenizer}, the cursor just
+ * stores the position of each field inside a memory-mapped buffer and
+ * numeric values are parsed directly from its bytes, without creating Strings.
+ * A String is just created when {@link #getString(int)} is called.
+ * Otherwise, the cursor is backed by an array of Strings, as returned by
+ * {@link TraceReaderAbstract#parseTraceLine(String)}.
+ * When a {@link BinaryTraceFile} is read, the cursor just points to a line of it
+ * and values are got from the columns of the block containing that line,
+ * which are decoded when first accessed.</p>
+ *
+ * <p>Parsing methods follow the same rules of their counterparts in
+ * {@link Integer#parseInt(String)}, {@link Long#parseLong(String)} and
+ * {@link Double#parseDouble(String)}.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public final class TraceLineCursor {
+    /**
+     * Powers of 10 which are exactly represented as double,
+     * used to parse decimal values without rounding errors.
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The maximum number of digits of a decimal value that can be parsed exactly
+     * without calling {@link Double#parseDouble(String)}.
+     */
+    private static final int MAX_FAST_DECIMAL_DIGITS = 15;
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    /**
+     * The values of the fields when the cursor is backed by an array of Strings,
+     * or null when it's backed by a buffer.
+     */
+    private String[] fieldValues;
+
+    /**
+     * The buffer containing the fields when the cursor is backed by a memory-mapped file.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * The position inside the {@link #buffer} where each field starts (inclusive).
+     */
+    private int[] fieldStarts;
+
+    /**
+     * The position inside the {@link #buffer} where each field ends (exclusive).
+     */
+    private int[] fieldEnds;
+
+    /**
+     * The binary trace file containing the fields when the cursor points to one of its lines,
+     * or null when it's backed by an array or a buffer.
+     */
+    private BinaryTraceFile binaryTrace;
+
+    /**
+     * The index of the {@link #binaryTrace} line the cursor points to.
+     */
+    private int binaryTraceLine;
+
+    /**
+     * A reusable array to copy the bytes of a field when creating a String.
+     */
+    private byte[] fieldBytes;
+
+    /**
+     * @see #getFieldCount()
+     */
+    private int fieldCount;
+
+    /**
+     * Creates a cursor not pointing to any field.
+     */
+    public TraceLineCursor() {
+        this.fieldStarts = new int[32];
+        this.fieldEnds = new int[32];
+        this.fieldBytes = new byte[64];
+    }
+
+    /**
+     * Sets the cursor to read fields from an array of Strings.
+     *
+     * @param fieldValues the values of the fields of a trace line
+     * @return
+     */
+    public TraceLineCursor setFields(final String... fieldValues) {
+        this.fieldValues = Objects.requireNonNull(fieldValues);
+        this.buffer = null;
+        this.binaryTrace = null;
+        this.fieldCount = fieldValues.length;
+        return this;
+    }
+
+    /**
+     * Sets the buffer where the fields to be {@link #addField(int, int) added} are stored,
+     * removing any previous field.
+     *
+     * @param buffer the buffer containing trace lines
+     */
+    /* default */ void setBuffer(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.fieldValues = null;
+        this.binaryTrace = null;
+        this.fieldCount = 0;
+    }
+
+    /**
+     * Sets the cursor to read the fields of a line from a binary trace file.
+     *
+     * @param binaryTrace the binary trace file
+     * @param line the index of the line to read
+     * @return
+     */
+    /* default */ TraceLineCursor setLine(final BinaryTraceFile binaryTrace, final int line) {
+        this.binaryTrace = binaryTrace;
+        this.binaryTraceLine = line;
+        this.fieldValues = null;
+        this.buffer = null;
+        this.fieldCount = binaryTrace.getFieldCount(line);
+        return this;
+    }
+
+    /**
+     * Removes all fields from the cursor, keeping the current buffer.
+     */
+    /* default */ void clearFields() {
+        this.fieldCount = 0;
+    }
+
+    /**
+     * Adds a field stored inside the {@link #setBuffer(ByteBuffer) buffer}.
+     *
+     * @param start the position where the field starts (inclusive)
+     * @param end the position where the field ends (exclusive)
+     */
+    /* default */ void addField(final int start, final int end) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount++] = end;
+    }
+
+    /**
+     * Removes the last fields which are empty,
+     * as {@link String#split(String)} does.
+     */
+    /* default */ void removeTrailingEmptyFields() {
+        while (fieldCount > 0 && fieldStarts[fieldCount - 1] == fieldEnds[fieldCount - 1]) {
+            fieldCount--;
+        }
+    }
+
+    /**
+     * Gets the number of fields in the current line.
+     * @return
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+
+    /**
+     * Gets the value of a field as a String.
+     *
+     * @param index the index of the field
+     * @return
+     */
+    public String getString(final int index) {
+        checkIndex(index);
+        if (fieldValues != null) {
+            return fieldValues[index];
+        }
+
+        if (binaryTrace != null) {
+            return binaryTrace.getString(binaryTraceLine, index);
+        }
+
+        final int length = fieldEnds[index] - fieldStarts[index];
+        if (fieldBytes.length < length) {
+            fieldBytes = new byte[length];
+        }
+
+        for (int i = 0; i < length; i++) {
+            fieldBytes[i] = buffer.get(fieldStarts[index] + i);
+        }
+
+        return new String(fieldBytes, 0, length, CHARSET);
+    }
+
+    /**
+     * Gets the values of all fields as an array of Strings.
+     * @return
+     */
+    public String[] toArray() {
+        if (fieldValues != null) {
+            return Arrays.copyOf(fieldValues, fieldCount);
+        }
+
+        if (binaryTrace != null) {
+            return binaryTrace.toArray(binaryTraceLine);
+        }
+
+        final String[] values = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            values[i] = getString(i);
+        }
+
+        return values;
+    }
+
+    /**
+     * Gets the value of a field as an int.
+     *
+     * @param index the index of the field
+     * @return
+     * @throws NumberFormatException when the field is not an int
+     */
+    public int getInt(final int index) {
+        if (binaryTrace != null) {
+            checkIndex(index);
+            final long value = binaryTrace.getLong(binaryTraceLine, index);
+            return value == (int) value ? (int) value : Integer.parseInt(getString(index));
+        }
+
+        final long value = parseIntegerDigits(index, 9);
+        return value == Long.MIN_VALUE ? Integer.parseInt(getString(index)) : (int) value;
+    }
+
+    /**
+     * Gets the value of a field as a long.
+     *
+     * @param index the index of the field
+     * @return
+     * @throws NumberFormatException when the field is not a long
+     */
+    public long getLong(final int index) {
+        if (binaryTrace != null) {
+            checkIndex(index);
+            return binaryTrace.getLong(binaryTraceLine, index);
+        }
+
+        final long value = parseIntegerDigits(index, 18);
+        return value == Long.MIN_VALUE ? Long.parseLong(getString(index)) : value;
+    }
+
+    /**
+     * Parses a field stored into the buffer containing an optional minus sign followed by
+     * up to a given number of digits, which can't overflow the returned type.
+     *
+     * @param index the index of the field
+     * @param maxDigits the maximum number of digits to parse
+     * @return the parsed value or {@link Long#MIN_VALUE} if the field cannot be parsed
+     *         directly from the buffer (so that the parsing is delegated to the Java API).
+     */
+    private long parseIntegerDigits(final int index, final int maxDigits) {
+        checkIndex(index);
+        if (fieldValues != null) {
+            return Long.MIN_VALUE;
+        }
+
+        int pos = fieldStarts[index];
+        final int end = fieldEnds[index];
+        final boolean negative = pos < end && buffer.get(pos) == '-';
+        if (negative) {
+            pos++;
+        }
+
+        final int digits = end - pos;
+        if (digits == 0 || digits > maxDigits) {
+            return Long.MIN_VALUE;
+        }
+
+        long value = 0;
+        for (; pos < end; pos++) {
+            final int digit = buffer.get(pos) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+
+            value = value * 10 + digit;
+        }
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Gets the value of a field as a double.
+     *
+     * @param index the index of the field
+     * @return
+     * @throws NumberFormatException when the field is not a number
+     */
+    public double getDouble(final int index) {
+        checkIndex(index);
+        if (binaryTrace != null) {
+            return binaryTrace.getDouble(binaryTraceLine, index);
+        }
+
+        if (fieldValues == null) {
+            final double value = parseDecimal(index);
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+        }
+
+        return Double.parseDouble(getString(index));
+    }
+
+    /**
+     * Parses a field stored into the buffer in the format {@code -?\d+(\.\d+)?},
+     * with up to {@link #MAX_FAST_DECIMAL_DIGITS} digits.
+     * Since the digits are parsed as an exact long value and then divided by an exact power of 10,
+     * the result is the same as the one got from {@link Double#parseDouble(String)}.
+     *
+     * @param index the index of the field
+     * @return the parsed value or {@link Double#NaN} if the field is not in the expected format
+     */
+    private double parseDecimal(final int index) {
+        int pos = fieldStarts[index];
+        final int end = fieldEnds[index];
+        final boolean negative = pos < end && buffer.get(pos) == '-';
+        if (negative) {
+            pos++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; pos < end; pos++) {
+            final byte b = buffer.get(pos);
+            if (b == '.' && fractionDigits < 0 && digits > 0) {
+                fractionDigits = 0;
+                continue;
+            }
+
+            final int digit = b - '0';
+            if (digit < 0 || digit > 9 || ++digits > MAX_FAST_DECIMAL_DIGITS) {
+                return Double.NaN;
+            }
+
+            value = value * 10 + digit;
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+        }
+
+        if (digits == 0 || fractionDigits == 0) {
+            return Double.NaN;
+        }
+
+        final double result = fractionDigits > 0 ? value / POWERS_OF_TEN[fractionDigits] : value;
+        return negative ? -result : result;
+    }
+
+    /**
+     * Checks if a field contains an integer value in the format {@code -?\d+}.
+     *
+     * @param index the index of the field
+     * @return
+     */
+    public boolean isInteger(final int index) {
+        return matchesNumber(index, false);
+    }
+
+    /**
+     * Checks if a field contains a decimal value in the format {@code -?\d+(\.?\d+)?}.
+     *
+     * @param index the index of the field
+     * @return
+     */
+    public boolean isDecimal(final int index) {
+        return matchesNumber(index, true);
+    }
+
+    private boolean matchesNumber(final int index, final boolean allowFraction) {
+        checkIndex(index);
+        if (fieldValues != null) {
+            return fieldValues[index].matches(allowFraction ? "^-?\\d+(\\.?\\d+)?$" : "^-?\\d+$");
+        }
+
+        if (binaryTrace != null) {
+            return allowFraction ?
+                binaryTrace.isDecimal(binaryTraceLine, index) :
+                binaryTrace.isInteger(binaryTraceLine, index);
+        }
+
+        int pos = fieldStarts[index];
+        final int end = fieldEnds[index];
+        if (pos < end && buffer.get(pos) == '-') {
+            pos++;
+        }
+
+        boolean dotFound = false;
+        boolean lastIsDigit = false;
+        for (; pos < end; pos++) {
+            final byte b = buffer.get(pos);
+            if (b >= '0' && b <= '9') {
+                lastIsDigit = true;
+            } else if (b == '.' && allowFraction && !dotFound && lastIsDigit) {
+                dotFound = true;
+                lastIsDigit = false;
+            } else {
+                return false;
+            }
+        }
+
+        return lastIsDigit;
+    }
+}
@@ -2,9 +2,16 @@ package org.cloudbus.cloudsim.util;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipInputStream;
 
@@ -30,10 +37,49 @@ public abstract class TraceReaderAbstract implements TraceReader {
 
     private String[] commentString = {";", "#"};
 
+    /**
+     * @see #isMemoryMapped()
+     */
+    private boolean memoryMapped;
+
+    /**
+     * @see #getParsingThreads()
+     */
+    private int parsingThreads;
+
+    /**
+     * The reader used to incrementally read the trace file by {@link #readFileFieldsWhile(Predicate, Function)},
+     * which is null if the file wasn't read incrementally yet.
+     */
+    private TraceFileLineReader incrementalReader;
+
+    /**
+     * The first line that didn't meet the condition given to the last call of
+     * {@link #readFileFieldsWhile(Predicate, Function)},
+     * which will be the first one read by the next call.
+     */
+    private String[] pendingLine;
+
+    /**
+     * The number of lines processed by {@link #readFileFieldsWhile(Predicate, Function)}.
+     */
+    private int incrementallyReadLines;
+
+    /**
+     * The binary trace file being incrementally read by {@link #readFileFieldsWhile(Predicate, Function)},
+     * which is null if the trace file is not a {@link BinaryTraceFile} or it wasn't read incrementally yet.
+     */
+    private BinaryTraceFile incrementalBinaryTrace;
+
+    /**
+     * The index of the next line to be read from the {@link #incrementalBinaryTrace}.
+     */
+    private int nextBinaryTraceLine;
+
     /**
      * Create a new SwfWorkloadFileReader object.
      *
-     * @param filePath the workload trace file path in one of the following formats: <i>ASCII text, zip, gz.</i>
+     * @param filePath the workload trace file path in one of the following formats: <i>ASCII text, zip, gz, {@link BinaryTraceFile cstrace}.</i>
      * @throws IllegalArgumentException when the workload trace file name is null or empty; or the resource PE mips <= 0
      * @throws FileNotFoundException    when the trace file is not found
      * @throws IllegalArgumentException when the workload trace file name is null or empty
@@ -45,7 +91,7 @@ public abstract class TraceReaderAbstract implements TraceReader {
     /**
      * Create a new SwfWorkloadFileReader object.
      *
-     * @param filePath the workload trace file path in one of the following formats: <i>ASCII text, zip, gz.</i>
+     * @param filePath the workload trace file path in one of the following formats: <i>ASCII text, zip, gz, {@link BinaryTraceFile cstrace}.</i>
      * @param reader   a {@link InputStreamReader} object to read the file
      * @throws IllegalArgumentException when the workload trace file name is null or empty; or the resource PE mips <= 0
      */
@@ -56,6 +102,8 @@ public abstract class TraceReaderAbstract implements TraceReader {
 
         this.fieldDelimiterRegex = "\\s+";
         this.maxLinesToRead = -1;
+        this.memoryMapped = true;
+        this.parsingThreads = 1;
         this.reader = reader;
         this.filePath = filePath;
     }
@@ -107,6 +155,60 @@ public abstract class TraceReaderAbstract implements TraceReader {
         return filePath;
     }
 
+    /**
+     * Checks if plain text trace files are read by mapping them into memory,
+     * so that {@link #readFileFields(Function)} parses fields directly from the file bytes.
+     * Memory mapping is just used when the {@link #getFilePath() trace file} is a plain text file
+     * which can be found in the file system and the {@link #getFieldDelimiterRegex() field delimiter}
+     * is either {@code \s+} or a single character.
+     * Otherwise, the file is read line by line from the {@link #getReader() reader}.
+     *
+     * @return true if memory mapping is enabled (the default), false otherwise
+     */
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * Enables or disables reading plain text trace files by mapping them into memory.
+     *
+     * @param memoryMapped true to enable memory mapping, false to disable
+     * @return
+     * @see #isMemoryMapped()
+     */
+    public TraceReader setMemoryMapped(final boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+        return this;
+    }
+
+    /**
+     * Gets the number of threads used to decompress and split trace lines into fields.
+     * When greater than 1, the trace file is split into chunks which are parsed in parallel
+     * by {@link #readFileFields(Function)}, while the parsed lines are still processed
+     * in the order they appear in the file by the thread reading the trace.
+     *
+     * @return the number of parsing threads (1 by default, meaning the file is parsed sequentially)
+     */
+    public int getParsingThreads() {
+        return parsingThreads;
+    }
+
+    /**
+     * Sets the number of threads used to decompress and split trace lines into fields.
+     *
+     * @param parsingThreads the number of parsing threads to set
+     * @return
+     * @see #getParsingThreads()
+     */
+    public TraceReader setParsingThreads(final int parsingThreads) {
+        if(parsingThreads <= 0){
+            throw new IllegalArgumentException("The number of parsing threads must be greater than 0");
+        }
+
+        this.parsingThreads = parsingThreads;
+        return this;
+    }
+
     protected InputStream getReader() {
         return reader;
     }
@@ -181,7 +283,9 @@ public abstract class TraceReaderAbstract implements TraceReader {
         /*@todo It would be implemented using specific classes to avoid this if chain.
         If a new format is included, the code has to be changed to include another if*/
         try {
-            if (getFilePath().endsWith(".gz")) {
+            if (BinaryTraceFile.isBinaryTraceFile(getFilePath())) {
+                loadBinaryTrace().read(maxLinesToRead, line -> processParsedLineFunction.apply(line.toArray()));
+            } else if (getFilePath().endsWith(".gz")) {
                 readGZIPFile(getReader(), processParsedLineFunction);
             } else if (getFilePath().endsWith(".zip")) {
                 readZipFile(getReader(), processParsedLineFunction);
@@ -193,6 +297,198 @@ public abstract class TraceReaderAbstract implements TraceReader {
         }
     }
 
+    /**
+     * Reads traces from the file indicated by the {@link #getFilePath()},
+     * giving access to the fields of each line read through a reusable {@link TraceLineCursor}.
+     * If the file is {@link #isMemoryMapped() memory mapped}, fields are parsed
+     * directly from the file bytes. Otherwise, they are got from the array returned by
+     * {@link #parseTraceLine(String)} for each line.
+     * If the file is a {@link BinaryTraceFile}, fields are got from its decoded columns.
+     *
+     * @param processFieldsFunction a {@link Function} that receives a cursor to access the fields of each line read
+     *                              and performs an operation over them, returning true if the operation was executed
+     * @throws UncheckedIOException if the there was any error reading the reader
+     */
+    protected void readFileFields(final Function<TraceLineCursor, Boolean> processFieldsFunction) {
+        requireNonNull(processFieldsFunction);
+        if (BinaryTraceFile.isBinaryTraceFile(filePath)) {
+            try {
+                loadBinaryTrace().read(maxLinesToRead, processFieldsFunction);
+                return;
+            } catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        if (parsingThreads > 1) {
+            readFileFields(Collections.emptyList(), line -> 0, processFieldsFunction);
+            return;
+        }
+
+        final Path path = getMemoryMappedFilePath(filePath);
+        if (path == null) {
+            final TraceLineCursor cursor = new TraceLineCursor();
+            readFile(parsedLine -> processFieldsFunction.apply(cursor.setFields(parsedLine)));
+            return;
+        }
+
+        try {
+            //The file is read directly, thus the already opened reader is not used
+            getReader().close();
+            new MappedTraceTokenizer(path, commentString, fieldDelimiterRegex).read(maxLinesToRead, processFieldsFunction);
+        } catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads traces from the file indicated by the {@link #getFilePath()} and from additional shards
+     * of the same trace, giving access to the fields of each line read through a reusable {@link TraceLineCursor}.
+     * Files are decompressed and split into fields using the {@link #getParsingThreads() parsing threads},
+     * but lines are processed by the calling thread in timestamp order,
+     * considering the lines inside each file are sorted by timestamp.
+     * Lines with the same timestamp are processed in the order files are given.
+     *
+     * @param shardFilePaths the paths of additional trace files to read, in one of the following formats: <i>ASCII text, zip, gz, {@link BinaryTraceFile cstrace}.</i>
+     * @param timestampFunction a function that gets the timestamp of a line (given as an array of fields),
+     *                          used to merge lines from multiple files
+     * @param processFieldsFunction a {@link Function} that receives a cursor to access the fields of each line read
+     *                              and performs an operation over them, returning true if the operation was executed
+     * @throws UncheckedIOException if the there was any error reading the files
+     */
+    protected void readFileFields(
+        final List<String> shardFilePaths,
+        final ToDoubleFunction<String[]> timestampFunction,
+        final Function<TraceLineCursor, Boolean> processFieldsFunction)
+    {
+        requireNonNull(timestampFunction);
+        requireNonNull(processFieldsFunction);
+        final List<String> filePaths = new ArrayList<>(shardFilePaths.size() + 1);
+        final List<InputStream> inputStreams = new ArrayList<>(shardFilePaths.size() + 1);
+        filePaths.add(filePath);
+        inputStreams.add(getReader());
+        for (final String shardFilePath : shardFilePaths) {
+            filePaths.add(shardFilePath);
+            //Shards are opened by the parser when required
+            inputStreams.add(null);
+        }
+
+        new ParallelTraceParser(this, parsingThreads, filePaths.size())
+            .read(filePaths, inputStreams, timestampFunction, processFieldsFunction);
+    }
+
+    /**
+     * Incrementally reads traces from the file indicated by the {@link #getFilePath()},
+     * processing the next lines while they meet a given condition.
+     * Each call resumes reading from the line where the previous call stopped,
+     * so that a large trace file can be consumed in windows, without keeping
+     * data from the entire file into memory.
+     *
+     * <p>The first line not meeting the condition isn't processed, but it's kept to be
+     * checked again by the next call.</p>
+     *
+     * @param condition a {@link Predicate} that receives a cursor to access the fields of the next line,
+     *                  returning true if the line has to be processed in the current call or
+     *                  false to stop reading
+     * @param processFieldsFunction a {@link Function} that receives a cursor to access the fields of each line read
+     *                              and performs an operation over them, returning true if the operation was executed
+     * @return true if there are more lines to read, false if the end of the file was reached
+     * @throws UncheckedIOException if the there was any error reading the reader
+     */
+    protected boolean readFileFieldsWhile(
+        final Predicate<TraceLineCursor> condition,
+        final Function<TraceLineCursor, Boolean> processFieldsFunction)
+    {
+        requireNonNull(condition);
+        requireNonNull(processFieldsFunction);
+        final TraceLineCursor cursor = new TraceLineCursor();
+        try {
+            while (maxLinesToRead == -1 || incrementallyReadLines < maxLinesToRead) {
+                if (pendingLine == null && (pendingLine = readNextParsedLine()) == null) {
+                    return false;
+                }
+
+                if (!condition.test(cursor.setFields(pendingLine))) {
+                    return true;
+                }
+
+                pendingLine = null;
+                if (processFieldsFunction.apply(cursor)) {
+                    incrementallyReadLines++;
+                }
+            }
+
+            if (incrementalReader != null) {
+                incrementalReader.close();
+            }
+
+            return false;
+        } catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the next non-empty and non-comment line of the trace file,
+     * opening the file for incremental reading if required.
+     * @return the fields of the line read or null if the end of the file was reached
+     */
+    private String[] readNextParsedLine() throws IOException {
+        if (BinaryTraceFile.isBinaryTraceFile(filePath)) {
+            if (incrementalBinaryTrace == null) {
+                incrementalBinaryTrace = loadBinaryTrace();
+            }
+
+            return nextBinaryTraceLine < incrementalBinaryTrace.getLineCount() ?
+                incrementalBinaryTrace.toArray(nextBinaryTraceLine++) :
+                null;
+        }
+
+        if (incrementalReader == null) {
+            incrementalReader = new TraceFileLineReader(filePath, getReader());
+        }
+
+        String line;
+        while ((line = incrementalReader.readLine()) != null) {
+            final String[] parsedLine = parseTraceLine(line);
+            if (parsedLine.length > 0) {
+                return parsedLine;
+            }
+        }
+
+        incrementalReader.close();
+        return null;
+    }
+
+    /**
+     * Loads the trace file as a {@link BinaryTraceFile},
+     * memory mapping it when it's available in the file system.
+     * @return the loaded binary trace file
+     */
+    private BinaryTraceFile loadBinaryTrace() throws IOException {
+        return BinaryTraceFile.load(filePath, getReader());
+    }
+
+    /**
+     * Gets the path of a trace file if it can be {@link #isMemoryMapped() memory mapped}.
+     * @param traceFilePath the path of the trace file
+     * @return the trace file path or null if it cannot be memory mapped
+     */
+    /* default */ Path getMemoryMappedFilePath(final String traceFilePath) {
+        if (!memoryMapped || traceFilePath.endsWith(".gz") || traceFilePath.endsWith(".zip") ||
+            !MappedTraceTokenizer.isSupportedDelimiter(fieldDelimiterRegex))
+        {
+            return null;
+        }
+
+        try {
+            final Path path = Paths.get(traceFilePath);
+            return Files.isRegularFile(path) ? path : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
     /**
      * Reads traces from a InputStream linked to a file in any supported format,
      * then creates a Cloudlet for each line read.
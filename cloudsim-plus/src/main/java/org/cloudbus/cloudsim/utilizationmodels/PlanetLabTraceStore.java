@@ -0,0 +1,210 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.utilizationmodels;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A process-wide store of the utilization samples read from PlanetLab trace files,
+ * which is shared by all {@link UtilizationModelPlanetLab} instances.
+ * Since the same trace files are usually used by many VMs or Cloudlets
+ * (and along many simulations executed in the same JVM),
+ * each file is read and stored just once, no matter how many models use it.
+ *
+ * <p>Stored traces are read-only and are kept while some model is using them.
+ * The {@link #getMaxRetainedTraces() last used traces} are also kept when no model is using them,
+ * so that simulations created one after the other don't read the same files again.
+ * Other traces are released to be garbage collected when they are not used anymore.</p>
+ *
+ * <p>Traces are identified by their path, so that changes in a file
+ * are just read after {@link #clear() clearing} the store.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public final class PlanetLabTraceStore {
+    /**
+     * The default value for the {@link #getMaxRetainedTraces()}.
+     */
+    public static final int DEFAULT_MAX_RETAINED_TRACES = 1024;
+
+    /**
+     * A weak reference to a stored trace which knows its key,
+     * so that it can be removed from the store after being garbage collected.
+     */
+    private static final class TraceReference extends WeakReference<double[]> {
+        private final String key;
+
+        private TraceReference(final String key, final double[] trace, final ReferenceQueue<double[]> queue) {
+            super(trace, queue);
+            this.key = key;
+        }
+    }
+
+    /**
+     * All traces in the store, which are removed when garbage collected.
+     */
+    private static final Map<String, TraceReference> TRACES = new HashMap<>();
+
+    /**
+     * The queue where references to garbage collected traces are put,
+     * in order to remove them from the {@link #TRACES} map.
+     */
+    private static final ReferenceQueue<double[]> COLLECTED_TRACES = new ReferenceQueue<>();
+
+    /**
+     * The last used traces, ordered from the least to the most recently used,
+     * which are kept even if not used by any model.
+     */
+    private static final Map<String, double[]> RETAINED_TRACES = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @see #getMaxRetainedTraces()
+     */
+    private static int maxRetainedTraces = DEFAULT_MAX_RETAINED_TRACES;
+
+    /**
+     * A private constructor to avoid class instantiation.
+     */
+    private PlanetLabTraceStore(){/**/}
+
+    /**
+     * Gets a trace from the store, reading it if it is not stored yet.
+     * If many threads request a trace not stored yet, they may read it concurrently,
+     * but just the first trace read is stored and returned to all of them.
+     *
+     * @param key the key identifying the trace (including its path)
+     * @param traceReader a {@link Supplier} to read the trace if it is not stored
+     * @return the stored trace, which must not be changed
+     */
+    /* default */ static double[] getTrace(final String key, final Supplier<double[]> traceReader) {
+        final double[] trace = get(key);
+        return trace == null ? putIfAbsent(key, traceReader.get()) : trace;
+    }
+
+    private static synchronized double[] get(final String key) {
+        removeCollectedTraces();
+        final TraceReference reference = TRACES.get(key);
+        final double[] trace = reference == null ? null : reference.get();
+        if (trace != null) {
+            retain(key, trace);
+        }
+
+        return trace;
+    }
+
+    private static synchronized double[] putIfAbsent(final String key, final double[] trace) {
+        final double[] storedTrace = get(key);
+        if (storedTrace != null) {
+            return storedTrace;
+        }
+
+        TRACES.put(key, new TraceReference(key, trace, COLLECTED_TRACES));
+        retain(key, trace);
+        return trace;
+    }
+
+    /**
+     * Marks a trace as the most recently used one.
+     */
+    private static void retain(final String key, final double[] trace) {
+        RETAINED_TRACES.put(key, trace);
+        retainLastUsedTraces();
+    }
+
+    private static void removeCollectedTraces() {
+        Reference<? extends double[]> reference;
+        while ((reference = COLLECTED_TRACES.poll()) != null) {
+            final String key = ((TraceReference) reference).key;
+            //The trace may have been read again after the collected one
+            if (TRACES.get(key) == reference) {
+                TRACES.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of traces currently in the store.
+     * @return
+     */
+    public static synchronized int size() {
+        removeCollectedTraces();
+        return TRACES.size();
+    }
+
+    /**
+     * Removes all traces from the store.
+     * Models already created keep using the traces they have got.
+     */
+    public static synchronized void clear() {
+        TRACES.clear();
+        RETAINED_TRACES.clear();
+    }
+
+    /**
+     * Gets the maximum number of least recently used traces which are kept into the store
+     * even if they are not being used by any model.
+     * Traces being used are always kept.
+     *
+     * @return
+     */
+    public static synchronized int getMaxRetainedTraces() {
+        return maxRetainedTraces;
+    }
+
+    /**
+     * Sets the maximum number of least recently used traces which are kept into the store
+     * even if they are not being used by any model.
+     *
+     * @param maxRetainedTraces the maximum number of traces to retain (0 to just keep traces being used)
+     * @throws IllegalArgumentException when the given value is negative
+     * @see #getMaxRetainedTraces()
+     */
+    public static synchronized void setMaxRetainedTraces(final int maxRetainedTraces) {
+        if (maxRetainedTraces < 0) {
+            throw new IllegalArgumentException("The maximum number of retained traces cannot be negative.");
+        }
+
+        PlanetLabTraceStore.maxRetainedTraces = maxRetainedTraces;
+        retainLastUsedTraces();
+    }
+
+    /**
+     * Releases the least recently used traces beyond the {@link #getMaxRetainedTraces()}.
+     */
+    private static void retainLastUsedTraces() {
+        final Iterator<String> it = RETAINED_TRACES.keySet().iterator();
+        while (RETAINED_TRACES.size() > maxRetainedTraces) {
+            it.next();
+            it.remove();
+        }
+    }
+}
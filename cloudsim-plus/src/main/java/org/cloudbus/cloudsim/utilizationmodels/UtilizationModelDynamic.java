@@ -42,6 +42,13 @@ import java.util.function.Function;
  * @since CloudSim Plus 1.0
  */
 public class UtilizationModelDynamic extends UtilizationModelAbstract {
+    /**
+     * The default {@link #setUtilizationUpdateFunction(Function) utilization update function},
+     * which just keeps the current utilization.
+     */
+    private static final Function<UtilizationModelDynamic, Double> CONSTANT_UTILIZATION_FUNCTION =
+        modelInstance -> modelInstance.currentUtilization;
+
     private boolean readOnly;
     private double currentUtilization;
 
@@ -137,7 +144,7 @@ public class UtilizationModelDynamic extends UtilizationModelAbstract {
         this.currentUtilizationTime = 0;
         this.setCurrentUtilization(initialUtilization);
 
-        utilizationUpdateFunction = modelInstance -> modelInstance.currentUtilization;
+        utilizationUpdateFunction = CONSTANT_UTILIZATION_FUNCTION;
     }
 
     /**
@@ -155,7 +162,7 @@ public class UtilizationModelDynamic extends UtilizationModelAbstract {
          * to return the current utilization, but the last utilization value stored
          * in the {@link #currentUtilization} attribute.
          */
-        this.utilizationUpdateFunction = modelInstance -> modelInstance.currentUtilization;
+        this.utilizationUpdateFunction = CONSTANT_UTILIZATION_FUNCTION;
         this.readOnly = true;
     }
 
@@ -298,4 +305,13 @@ public class UtilizationModelDynamic extends UtilizationModelAbstract {
         this.utilizationUpdateFunction = Objects.requireNonNull(utilizationUpdateFunction);
         return this;
     }
+
+    /**
+     * Checks if a {@link #setUtilizationUpdateFunction(Function) utilization update function} was set,
+     * so that the resource utilization may change along the time.
+     * @return true if an update function was set, false if the utilization is constant
+     */
+    public boolean hasUtilizationUpdateFunction() {
+        return utilizationUpdateFunction != CONSTANT_UTILIZATION_FUNCTION;
+    }
 }
@@ -1,11 +1,13 @@
 package org.cloudbus.cloudsim.utilizationmodels;
 
+import org.cloudbus.cloudsim.util.BinaryTraceFile;
 import org.cloudbus.cloudsim.util.ResourceLoader;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.UncheckedIOException;
+import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -18,6 +20,9 @@ import java.util.Objects;
  * This value in seconds is commonly used for the {@link #getSchedulingInterval() scheduling interval} attribute
  * when instantiating an object of this class.
  * </p>
+ *
+ * <p>The utilization read from each trace file is stored into the {@link PlanetLabTraceStore},
+ * which shares it among all instances created from the same file.</p>
  */
 public class UtilizationModelPlanetLab extends UtilizationModelAbstract {
 
@@ -48,21 +53,33 @@ public class UtilizationModelPlanetLab extends UtilizationModelAbstract {
      * Instantiates a new PlanetLab resource utilization model from a trace
      * file inside the <b>application's resource directory</b>.
      *
-     * @param traceFilePath the <b>relative path</b> of a PlanetLab Datacenter trace file.
+     * @param traceFilePath the <b>relative path</b> of a PlanetLab Datacenter trace file,
+     *                      which may be a {@link BinaryTraceFile}.
      * @param schedulingInterval the time interval in which precise utilization can be got from the file
      * @throws NumberFormatException the number format exception
      * @see #getSchedulingInterval()
      */
     public static UtilizationModelPlanetLab getInstance(final String traceFilePath, final double schedulingInterval) {
-        final InputStreamReader reader = new InputStreamReader(ResourceLoader.getInputStream(UtilizationModelPlanetLab.class, traceFilePath));
-        return new UtilizationModelPlanetLab(reader, schedulingInterval, DATA_SAMPLES);
+        final String key = "resource:" + traceFilePath + ":" + DATA_SAMPLES;
+        final double[] utilization = PlanetLabTraceStore.getTrace(key, () -> readResourceWorkloadFile(traceFilePath, DATA_SAMPLES));
+        return new UtilizationModelPlanetLab(utilization, schedulingInterval);
+    }
+
+    private static double[] readResourceWorkloadFile(final String traceFilePath, final int dataSamples) {
+        final InputStream input = ResourceLoader.getInputStream(UtilizationModelPlanetLab.class, traceFilePath);
+        if (BinaryTraceFile.isBinaryTraceFile(traceFilePath)) {
+            final String resourcePath = ResourceLoader.getResourcePath(UtilizationModelPlanetLab.class, traceFilePath);
+            return readBinaryWorkloadFile(resourcePath, input, dataSamples);
+        }
+
+        return readWorkloadFile(new InputStreamReader(input), dataSamples);
     }
 
     /**
      * Instantiates a new PlanetLab resource utilization model from a trace
      * file.
      *
-     * @param workloadFilePath the path of a PlanetLab Datacenter workload file.
+     * @param workloadFilePath the path of a PlanetLab Datacenter workload file, which may be a {@link BinaryTraceFile}.
      * @param schedulingInterval the time interval in which precise utilization can be got from the file
      * @throws NumberFormatException the number format exception
      * @see #getSchedulingInterval()
@@ -76,7 +93,7 @@ public class UtilizationModelPlanetLab extends UtilizationModelAbstract {
      * Instantiates a new PlanetLab resource utilization model with variable
      * utilization samples from a workload file.
      *
-     * @param workloadFilePath the path of a PlanetLab Datacenter workload file.
+     * @param workloadFilePath the path of a PlanetLab Datacenter workload file, which may be a {@link BinaryTraceFile}.
      * @param schedulingInterval the time interval in which precise utilization can be got from the file
      * @param dataSamples number of samples to read from the workload file
      * @throws NumberFormatException the number format exception
@@ -84,28 +101,62 @@ public class UtilizationModelPlanetLab extends UtilizationModelAbstract {
      */
     public UtilizationModelPlanetLab(final String workloadFilePath, final double schedulingInterval, final int dataSamples) throws NumberFormatException
     {
-        this(ResourceLoader.getFileReader(workloadFilePath), schedulingInterval, dataSamples);
+        this(getTrace(workloadFilePath, dataSamples), schedulingInterval);
     }
 
     /**
-     * Instantiates a new PlanetLab resource utilization model with variable
-     * utilization samples from a workload file.
+     * Instantiates a new PlanetLab resource utilization model from already read utilization samples.
      *
-     * @param reader the {@link InputStreamReader} to read the workload file
+     * @param utilization the utilization samples read from a workload file,
+     *                    which may be shared with other instances and thus must not be changed
      * @param schedulingInterval the time interval in which precise utilization can be got from the file
-     * @param dataSamples number of samples to read from the workload file
-     * @throws NumberFormatException the number format exception
      * @see #getSchedulingInterval()
      */
-    private UtilizationModelPlanetLab(final InputStreamReader reader, final double schedulingInterval, final int dataSamples) throws NumberFormatException
+    private UtilizationModelPlanetLab(final double[] utilization, final double schedulingInterval)
     {
         super();
         setSchedulingInterval(schedulingInterval);
-        try {
-            utilization = readWorkloadFile(reader, dataSamples);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+        this.utilization = utilization;
+    }
+
+    /**
+     * Converts a PlanetLab workload file to a {@link BinaryTraceFile}.
+     * The conversion follows the same rule used to read the text file,
+     * stopping at the first line starting with "#",
+     * so that both files give the same utilization.
+     *
+     * @param workloadFilePath the path of the PlanetLab Datacenter workload file to convert
+     * @param outputFile the path of the binary file to write
+     * @param compressed whether the binary file must be compressed
+     * @throws IOException when the workload file cannot be read or the binary file cannot be written
+     */
+    public static void convertToBinary(final String workloadFilePath, final Path outputFile, final boolean compressed) throws IOException {
+        final List<String[]> lines = new ArrayList<>();
+        try (BufferedReader input = new BufferedReader(ResourceLoader.getFileReader(workloadFilePath))) {
+            String line;
+            while((line=input.readLine())!=null && !line.startsWith("#")){
+                lines.add(new String[]{line.trim()});
+            }
         }
+
+        BinaryTraceFile.write(lines, outputFile, compressed);
+    }
+
+    private static double[] getTrace(final String workloadFilePath, final int dataSamples) {
+        final String key = "file:" + Paths.get(workloadFilePath).toAbsolutePath().normalize() + ":" + dataSamples;
+        return PlanetLabTraceStore.getTrace(key, () -> readWorkloadFile(workloadFilePath, dataSamples));
+    }
+
+    private static double[] readWorkloadFile(final String workloadFilePath, final int dataSamples) {
+        if (BinaryTraceFile.isBinaryTraceFile(workloadFilePath)) {
+            try {
+                return readBinaryWorkloadFile(workloadFilePath, new FileInputStream(workloadFilePath), dataSamples);
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return readWorkloadFile(ResourceLoader.getFileReader(workloadFilePath), dataSamples);
     }
 
     /**
@@ -119,9 +170,9 @@ public class UtilizationModelPlanetLab extends UtilizationModelAbstract {
      * @param reader the {@link InputStreamReader} to read the file
      * @param dataSamples the number of lines to read
      * @return an array containing the lines read from the file
-     * @throws IOException
+     * @throws UncheckedIOException when the file cannot be read
      */
-    private double[] readWorkloadFile(final InputStreamReader reader, final int dataSamples) throws IOException {
+    private static double[] readWorkloadFile(final InputStreamReader reader, final int dataSamples) {
         Objects.requireNonNull(reader);
         final double[] utilization = createEmptyArray(Math.max(2, dataSamples));
 
@@ -131,12 +182,40 @@ public class UtilizationModelPlanetLab extends UtilizationModelAbstract {
             while((line=input.readLine())!=null && !line.startsWith("#") && lineNum < utilization.length){
                 utilization[lineNum++] = Double.parseDouble(line) / 100.0;
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return utilization;
+    }
+
+    /**
+     * Reads the planet lab workload file converted to a {@link BinaryTraceFile},
+     * in which each one of its lines is a resource utilization percentage.
+     *
+     * @param filePath the path of the binary file
+     * @param inputStream the {@link InputStream} to read the file if it's not in the file system
+     * @param dataSamples the number of lines to read
+     * @return an array containing the lines read from the file
+     * @throws UncheckedIOException when the file cannot be read
+     * @see #readWorkloadFile(InputStreamReader, int)
+     */
+    private static double[] readBinaryWorkloadFile(final String filePath, final InputStream inputStream, final int dataSamples) {
+        final double[] utilization = createEmptyArray(Math.max(2, dataSamples));
+        final int[] lineNum = {0};
+        try {
+            BinaryTraceFile.load(filePath, inputStream).read(utilization.length, line -> {
+                utilization[lineNum[0]++] = line.getDouble(0) / 100.0;
+                return true;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
 
         return utilization;
     }
 
-    private double[] createEmptyArray(final int size) {
+    private static double[] createEmptyArray(final int size) {
         final double[] data = new double[size];
         for (int i = 0; i < size; i++) {
             data[i]=0;
@@ -2,6 +2,7 @@ package org.cloudbus.cloudsim.vms;
 
 import org.cloudbus.cloudsim.core.Machine;
 import org.cloudbus.cloudsim.datacenters.Datacenter;
+import org.cloudbus.cloudsim.util.HistoryBuffer;
 
 import java.util.SortedMap;
 
@@ -60,6 +61,16 @@ public interface UtilizationHistory {
      */
     SortedMap<Double, Double> getHistory();
 
+    /**
+     * Gets the {@link HistoryBuffer} where CPU utilization percentage history is stored,
+     * enabling to read history values and get statistics from them without creating a new Map
+     * (as {@link #getHistory()} does) and without boxing values.
+     * <b>The returned object must not be changed directly</b>.
+     *
+     * @return
+     */
+    HistoryBuffer getHistoryBuffer();
+
     /**
      * Checks if the object is enabled to add data to the history.
      * @return
@@ -86,6 +97,8 @@ public interface UtilizationHistory {
 
     /**
      * Sets the maximum number of entries to store in the history.
+     * When such a number is reached, the oldest entry is discarded
+     * to store a new one.
      * @param maxHistoryEntries the value to set
      */
     void setMaxHistoryEntries(int maxHistoryEntries);
@@ -1,5 +1,7 @@
 package org.cloudbus.cloudsim.vms;
 
+import org.cloudbus.cloudsim.util.HistoryBuffer;
+
 import java.util.Collections;
 import java.util.SortedMap;
 
@@ -17,6 +19,7 @@ final class UtilizationHistoryNull implements UtilizationHistory {
     @Override public double getUtilizationVariance() { return 0; }
     @Override public void addUtilizationHistory(double time) {/**/}
     @Override public SortedMap<Double, Double> getHistory() { return Collections.emptySortedMap(); }
+    @Override public HistoryBuffer getHistoryBuffer() { return HistoryBuffer.NULL; }
     @Override public boolean isEnabled() { return false; }
     @Override public void enable() {/**/}
     @Override public void disable() {/**/}
@@ -15,6 +15,7 @@ import org.cloudbus.cloudsim.core.UniquelyIdentifiable;
 import org.cloudbus.cloudsim.datacenters.Datacenter;
 import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.resources.*;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletScheduler;
 import org.cloudsimplus.autoscaling.HorizontalVmScaling;
 import org.cloudsimplus.autoscaling.VerticalVmScaling;
@@ -389,14 +390,30 @@ public interface Vm extends Machine, UniquelyIdentifiable, Comparable<Vm>, Custo
      * Updates the processing of cloudlets running on this VM.
      *
      * @param currentTime current simulation time
+     * @param mipsShare the MIPS share of each Pe available to the
+     * scheduler, which must not be changed by the VM
+     * @return the predicted completion time of the earliest finishing cloudlet
+     * (which is a relative delay from the current simulation time),
+     * or {@link Double#MAX_VALUE} if there is no next Cloudlet to execute
+     * @pre currentTime >= 0
+     */
+    double updateProcessingWithMipsShare(double currentTime, MipsShare mipsShare);
+
+    /**
+     * Updates the processing of cloudlets running on this VM,
+     * given the MIPS share as a List.
+     *
+     * @param currentTime current simulation time
      * @param mipsShare list with MIPS share of each Pe available to the
      * scheduler
      * @return the predicted completion time of the earliest finishing cloudlet
      * (which is a relative delay from the current simulation time),
      * or {@link Double#MAX_VALUE} if there is no next Cloudlet to execute
-     * @pre currentTime >= 0
+     * @see #updateProcessingWithMipsShare(double, MipsShare)
      */
-    double updateProcessing(double currentTime, List<Double> mipsShare);
+    default double updateProcessing(final double currentTime, final List<Double> mipsShare) {
+        return updateProcessingWithMipsShare(currentTime, new MipsShare(mipsShare));
+    }
 
     /**
      * Sets the Cloudlet scheduler the Vm uses to schedule cloudlets execution.
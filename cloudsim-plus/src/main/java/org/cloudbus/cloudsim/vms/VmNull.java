@@ -8,6 +8,7 @@ import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.resources.Processor;
 import org.cloudbus.cloudsim.resources.Resource;
 import org.cloudbus.cloudsim.resources.ResourceManageable;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletScheduler;
 import org.cloudsimplus.autoscaling.HorizontalVmScaling;
 import org.cloudsimplus.autoscaling.VerticalVmScaling;
@@ -152,6 +153,9 @@ final class VmNull implements Vm {
     @Override public double updateProcessing(double currentTime, List<Double> mipsShare) {
         return 0.0;
     }
+    @Override public double updateProcessingWithMipsShare(double currentTime, MipsShare mipsShare) {
+        return 0.0;
+    }
     @Override public Vm setCloudletScheduler(CloudletScheduler cloudletScheduler) {
         return this;
     }
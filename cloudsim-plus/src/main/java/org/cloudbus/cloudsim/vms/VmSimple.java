@@ -14,6 +14,7 @@ import org.cloudbus.cloudsim.core.UniquelyIdentifiable;
 import org.cloudbus.cloudsim.datacenters.Datacenter;
 import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.resources.*;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletScheduler;
 import org.cloudsimplus.autoscaling.HorizontalVmScaling;
 import org.cloudsimplus.autoscaling.VerticalVmScaling;
@@ -144,8 +145,8 @@ public class VmSimple implements Vm {
         this.stopTime = -1;
         this.lastBusyTime = 0;
 
-        setId(id);
         setBroker(DatacenterBroker.NULL);
+        setId(id);
         setMips(mipsCapacity);
         setNumberOfPes(numberOfPes);
 
@@ -204,13 +205,13 @@ public class VmSimple implements Vm {
     }
 
     @Override
-    public double updateProcessing(final double currentTime, final List<Double> mipsShare) {
+    public double updateProcessingWithMipsShare(final double currentTime, final MipsShare mipsShare) {
         requireNonNull(mipsShare);
 
         if(!cloudletScheduler.getCloudletExecList().isEmpty()){
             this.lastBusyTime = getSimulation().clock();
         }
-        final double nextEventDelay = cloudletScheduler.updateProcessing(currentTime, mipsShare);
+        final double nextEventDelay = cloudletScheduler.updateProcessingWithMipsShare(currentTime, mipsShare);
         notifyOnUpdateProcessingListeners();
 
         /* If the current time is some value with the decimals greater than .0
@@ -311,15 +312,36 @@ public class VmSimple implements Vm {
      */
     @Override
     public final void setId(long id) {
+        final long previousId = this.id;
         this.id = id;
+        if(previousId != id) {
+            broker.notifyVmIdChanged(this, previousId);
+        }
+
+        notifyHostVmIdChanged(previousId, broker);
     }
 
     @Override
     public final Vm setBroker(final DatacenterBroker broker) {
+        final DatacenterBroker previousBroker = this.broker;
         this.broker = requireNonNull(broker);
+        notifyHostVmIdChanged(id, previousBroker);
         return this;
     }
 
+    /**
+     * Notifies the Host where the VM is placed that its ID or broker was changed,
+     * so that the Host indexes the VM by the new values.
+     *
+     * @param previousId the ID the VM had before
+     * @param previousBroker the broker the VM had before
+     */
+    private void notifyHostVmIdChanged(final long previousId, final DatacenterBroker previousBroker) {
+        if((previousId != id || previousBroker != broker) && previousBroker != null) {
+            host.notifyVmIdChanged(this, previousId, previousBroker.getId());
+        }
+    }
+
     @Override
     public double getStartTime() {
         return this.startTime;
@@ -1,6 +1,6 @@
 package org.cloudbus.cloudsim.vms;
 
-import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.HistoryBuffer;
 
 import java.util.Collections;
 import java.util.SortedMap;
@@ -8,6 +8,8 @@ import java.util.TreeMap;
 
 /**
  * Stores resource utilization data for a specific {@link Vm}.
+ * The data is kept into a {@link HistoryBuffer}, which stores
+ * up to {@link #getMaxHistoryEntries()} entries (the newest ones) using primitive arrays.
  *
  * @author Anton Beloglazov
  * @author Manoel Campos da Silva Filho
@@ -16,12 +18,11 @@ import java.util.TreeMap;
 public class VmUtilizationHistory implements UtilizationHistory {
 
     private boolean enabled;
-    private int maxHistoryEntries;
 
     /**
-     * @see #getHistory()
+     * @see #getHistoryBuffer()
      */
-    private final SortedMap<Double, Double> history;
+    private final HistoryBuffer history;
     private final Vm vm;
 
     /**
@@ -39,10 +40,9 @@ public class VmUtilizationHistory implements UtilizationHistory {
      *                in order to reduce memory usage
      */
     public VmUtilizationHistory(final Vm vm, final boolean enabled) {
-        this.history = new TreeMap<>();
+        this.history = new HistoryBuffer();
         this.vm = vm;
         this.enabled = enabled;
-        this.setMaxHistoryEntries(Integer.MAX_VALUE);
     }
 
     public VmUtilizationHistory(final Vm vm) {
@@ -51,50 +51,17 @@ public class VmUtilizationHistory implements UtilizationHistory {
 
     @Override
     public double getUtilizationMad() {
-        if (history.isEmpty()) {
-            return 0;
-        }
-
-        final int length = Math.min(getMaxHistoryEntries(), getHistory().size());
-        final double median = MathUtil.median(getHistory().values());
-        final double[] deviationSum = new double[length];
-        for (int i = 0; i < length; i++) {
-            deviationSum[i] = Math.abs(median - getHistory().get(i));
-        }
-
-        return MathUtil.median(deviationSum);
+        return history.getMad() * vm.getMips();
     }
 
     @Override
     public double getUtilizationMean() {
-        if (history.isEmpty()) {
-            return 0;
-        }
-
-        final int maxEntries = Math.min(getMaxHistoryEntries(), getHistory().size());
-        final double usagePercentMean = getHistory().values().stream()
-            .limit(maxEntries)
-            .mapToDouble(usagePercent -> usagePercent)
-            .average()
-            .orElse(0);
-
-        return usagePercentMean * vm.getMips();
+        return history.getMean() * vm.getMips();
     }
 
     @Override
     public double getUtilizationVariance() {
-        if (history.isEmpty()) {
-            return 0;
-        }
-
-        final double mean = getUtilizationMean();
-        final int maxNumOfEntriesToAverage = Math.min(getMaxHistoryEntries(), getHistory().size());
-        return getHistory().values().stream()
-            .limit(maxNumOfEntriesToAverage)
-            .mapToDouble(usagePercent -> usagePercent * vm.getMips())
-            .map(usageValue -> usageValue - mean)
-            .map(usageValue -> usageValue * usageValue)
-            .average().orElse(0);
+        return history.getVariance() * vm.getMips() * vm.getMips();
     }
 
     @Override
@@ -141,15 +108,22 @@ public class VmUtilizationHistory implements UtilizationHistory {
      * @param utilizationPercent the CPU utilization percentage to add
      */
     private void addUtilizationHistoryValue(final double time, final double utilizationPercent) {
-        history.put(time, utilizationPercent);
-        if (getHistory().size() > maxHistoryEntries) {
-            history.remove(maxHistoryEntries);
-        }
+        history.add(time, utilizationPercent);
     }
 
     @Override
     public SortedMap<Double, Double> getHistory() {
-        return Collections.unmodifiableSortedMap(history);
+        final SortedMap<Double, Double> map = new TreeMap<>();
+        for (int i = 0; i < history.size(); i++) {
+            map.put(history.getTime(i), history.getValue(i));
+        }
+
+        return Collections.unmodifiableSortedMap(map);
+    }
+
+    @Override
+    public HistoryBuffer getHistoryBuffer() {
+        return history;
     }
 
     @Override
@@ -169,12 +143,12 @@ public class VmUtilizationHistory implements UtilizationHistory {
 
     @Override
     public int getMaxHistoryEntries() {
-        return maxHistoryEntries;
+        return history.getMaxEntries();
     }
 
     @Override
     public void setMaxHistoryEntries(final int maxHistoryEntries) {
-        this.maxHistoryEntries = maxHistoryEntries;
+        history.setMaxEntries(maxHistoryEntries);
     }
 
     @Override
@@ -0,0 +1,118 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.heuristics;
+
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerHeuristic;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
+import org.cloudbus.cloudsim.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A heuristic that runs multiple {@link CloudletToVmMappingSimulatedAnnealing} chains in parallel
+ * to find a sub-optimal mapping among a set of Cloudlets and VMs, in order to reduce
+ * the number of idle or overloaded Vm Pe's.
+ * It can be used by a {@link DatacenterBrokerHeuristic} as any other {@link CloudletToVmMappingHeuristic}.
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ * @see ParallelSimulatedAnnealing
+ */
+public class CloudletToVmMappingParallelSimulatedAnnealing
+    extends ParallelSimulatedAnnealing<CloudletToVmMappingSolution>
+    implements CloudletToVmMappingHeuristic
+{
+    /** @see #getVmList() */
+    private List<Vm> vmList;
+
+    /** @see #getCloudletList() */
+    private List<Cloudlet> cloudletList;
+
+    /**
+     * An empty solution returned as the best one before the search is started.
+     */
+    private final CloudletToVmMappingSolution emptySolution;
+
+    /**
+     * Creates a new Parallel Simulated Annealing Heuristic for solving Cloudlets to Vm's mapping.
+     *
+     * @param initialTemperature the initial temperature of the chains
+     * @param seed the seed to derive the seeds of the random number generators of the chains
+     * @see #setChainsNumber(int)
+     * @see #setColdTemperature(double)
+     * @see #setCoolingRate(double)
+     */
+    public CloudletToVmMappingParallelSimulatedAnnealing(final double initialTemperature, final long seed) {
+        super(initialTemperature, seed);
+        this.vmList = new ArrayList<>();
+        this.cloudletList = new ArrayList<>();
+        this.emptySolution = new CloudletToVmMappingSolution(this);
+    }
+
+    @Override
+    protected SimulatedAnnealing<CloudletToVmMappingSolution> createChain(final ContinuousDistribution random) {
+        final CloudletToVmMappingSimulatedAnnealing chain = new CloudletToVmMappingSimulatedAnnealing(getInitialTemperature(), random);
+        chain.setCloudletList(cloudletList);
+        chain.setVmList(vmList);
+        return chain;
+    }
+
+    @Override
+    protected CloudletToVmMappingSolution copySolution(final CloudletToVmMappingSolution solution) {
+        return new CloudletToVmMappingSolution(solution);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc} or an empty solution if the search was not started yet
+     */
+    @Override
+    public CloudletToVmMappingSolution getBestSolutionSoFar() {
+        final CloudletToVmMappingSolution solution = super.getBestSolutionSoFar();
+        return solution == null ? emptySolution : solution;
+    }
+
+    @Override
+    public List<Vm> getVmList() {
+        return vmList;
+    }
+
+    @Override
+    public void setVmList(final List<Vm> vmList) {
+        this.vmList = vmList;
+    }
+
+    @Override
+    public List<Cloudlet> getCloudletList() {
+        return cloudletList;
+    }
+
+    @Override
+    public void setCloudletList(final List<Cloudlet> cloudletList) {
+        this.cloudletList = cloudletList;
+    }
+}
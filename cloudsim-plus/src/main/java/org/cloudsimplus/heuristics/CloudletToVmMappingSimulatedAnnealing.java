@@ -49,6 +49,24 @@ public class CloudletToVmMappingSimulatedAnnealing
     /** @see #getCloudletList() */
     private List<Cloudlet> cloudletList;
 
+    /**
+     * The solution from which the last assessed neighbor was created,
+     * if such a neighbor was rejected and it wasn't created yet,
+     * or null otherwise.
+     * @see #getNeighborSolution()
+     */
+    private CloudletToVmMappingSolution rejectedNeighborSource;
+
+    /**
+     * The index of the first Cloudlet whose Vm was swapped to create the last rejected neighbor.
+     */
+    private int rejectedNeighborFirstCloudlet;
+
+    /**
+     * The index of the second Cloudlet whose Vm was swapped to create the last rejected neighbor.
+     */
+    private int rejectedNeighborSecondCloudlet;
+
     /**
      * Creates a new Simulated Annealing Heuristic for solving Cloudlets to Vm's mapping.
      *
@@ -121,4 +139,64 @@ public class CloudletToVmMappingSimulatedAnnealing
         return clone;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Neighbors are not created as new solutions. Instead, the cost of swapping the Vm's
+     * of two random Cloudlets is {@link CloudletToVmMappingSolution#getCostDeltaOfSwappingVms(int, int) computed}
+     * and, if the neighbor is accepted, such Cloudlets are swapped in the best solution so far.
+     * This way, each neighbor is assessed in constant time and without copying the solution.
+     * The {@link #getInitialSolution() initial solution} is copied just once,
+     * so that it's kept unchanged.
+     * The last neighbor assessed is just created if it was rejected
+     * and the {@link #getNeighborSolution()} is called.</p>
+     */
+    @Override
+    protected void searchSolutionInNeighborhood() {
+        if(getBestSolutionSoFar() == initialSolution) {
+            setBestSolutionSoFar(new CloudletToVmMappingSolution(initialSolution));
+        }
+
+        final CloudletToVmMappingSolution solution = getBestSolutionSoFar();
+        final int cloudletsNumber = solution.getCloudletsNumber();
+        if(cloudletsNumber < 2) {
+            return;
+        }
+
+        for (int i = 0; i < getNeighborhoodSearchesByIteration(); i++) {
+            final int firstCloudlet = getRandomValue(cloudletsNumber);
+            final int secondCloudlet = getRandomValue(cloudletsNumber);
+            final double costDelta = solution.getCostDeltaOfSwappingVms(firstCloudlet, secondCloudlet);
+            if (getAcceptanceProbability(costDelta) > getRandomValue(1)) {
+                solution.swapVmsOfTwoCloudlets(firstCloudlet, secondCloudlet);
+                setNeighborSolution(solution);
+                rejectedNeighborSource = null;
+            } else {
+                rejectedNeighborSource = solution;
+                rejectedNeighborFirstCloudlet = firstCloudlet;
+                rejectedNeighborSecondCloudlet = secondCloudlet;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the last neighbor assessed was accepted, it's the {@link #getBestSolutionSoFar() best solution so far}.
+     * Otherwise, it's created from the solution it was assessed against.</p>
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloudletToVmMappingSolution getNeighborSolution() {
+        if(rejectedNeighborSource != null) {
+            final CloudletToVmMappingSolution neighbor = new CloudletToVmMappingSolution(rejectedNeighborSource);
+            neighbor.swapVmsOfTwoCloudlets(rejectedNeighborFirstCloudlet, rejectedNeighborSecondCloudlet);
+            setNeighborSolution(neighbor);
+            rejectedNeighborSource = null;
+        }
+
+        return super.getNeighborSolution();
+    }
+
 }
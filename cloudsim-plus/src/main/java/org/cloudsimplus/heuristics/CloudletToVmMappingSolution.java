@@ -33,6 +33,15 @@ import java.util.stream.Collectors;
  * A possible solution for mapping a set of Cloudlets to a set of Vm's.
  * It represents a solution generated using a {@link Heuristic} implementation.
  *
+ * <p>The mapping is stored into primitive arrays, where each Cloudlet and Vm
+ * is identified by the index it was added to the solution.
+ * Each Cloudlet index stores the index of the Vm it's bound to and
+ * each Vm index stores the number of PEs required by its Cloudlets.
+ * This way, the cost of the solution is updated in constant time
+ * when a Cloudlet is moved to another Vm, and the cost of swapping
+ * the Vm's of two Cloudlets can be computed without changing or copying
+ * the solution (see {@link #getCostDeltaOfSwappingVms(int, int)}).</p>
+ *
  * @author Manoel Campos da Silva Filho
  * @see Heuristic
  * @since CloudSim Plus 1.0
@@ -46,27 +55,69 @@ public class CloudletToVmMappingSolution implements HeuristicSolution<Map<Cloudl
      */
     public static final double MIN_DIFF = 0.0001;
 
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The Cloudlets added to this solution, where the position
+     * of each one is its index inside the other arrays.
+     * It's shared with clones of this solution until one of them adds a new Cloudlet.
+     * @see #indexesShared
+     */
+    private List<Cloudlet> cloudlets;
+
+    /** The index of each Cloudlet inside the {@link #cloudlets} List. */
+    private Map<Cloudlet, Integer> cloudletIndexes;
+
+    /**
+     * The Vm's used in this solution, where the position
+     * of each one is its index inside the other arrays.
+     * It's shared with clones of this solution until one of them adds a new Vm.
+     * @see #indexesShared
+     */
+    private List<Vm> vms;
+
+    /** The index of each Vm inside the {@link #vms} List. */
+    private Map<Vm, Integer> vmIndexes;
+
+    /**
+     * Indicates if the Cloudlet and Vm indexes are shared with another solution,
+     * requiring them to be copied before adding new Cloudlets or Vm's.
+     */
+    private boolean indexesShared;
+
+    /**
+     * The index of the Vm each Cloudlet is bound to,
+     * where each position is a Cloudlet index.
+     */
+    private int[] cloudletVms;
+
+    /**
+     * The number of PEs of each Cloudlet when it was bound to a Vm,
+     * where each position is a Cloudlet index.
+     */
+    private long[] cloudletPes;
+
     /**
-     * @see #getResult()
+     * The total number of PEs required by the Cloudlets bound to each Vm,
+     * where each position is a Vm index.
      */
-    private final Map<Cloudlet, Vm> cloudletVmMap;
+    private long[] vmRequiredPes;
 
     /**
-     * Indicates if the {@link #getCost() ()} has to be recomputed
-     * due to changes in {@link #cloudletVmMap}.
-     * When it is computed, its value is stored to be used
-     * in subsequent calls, until the map is changed again, in order to
-     * improve performance.
+     * The number of Cloudlets bound to each Vm,
+     * where each position is a Vm index.
      */
-    private boolean recomputeCost = true;
+    private int[] vmCloudletsNumber;
 
     /**
-     * The last computed cost value, since the
-     * last time the {@link #cloudletVmMap} was changed.
+     * The cost of the entire mapping, which is updated
+     * as Cloudlets are bound to Vm's.
      * @see #getCost()
-     * @see #recomputeCost
      */
-    private double lastCost;
+    private long cost;
+
+    /** @see #getResult() */
+    private final Map<Cloudlet, Vm> result;
 
     private final Heuristic heuristic;
 
@@ -78,24 +129,40 @@ public class CloudletToVmMappingSolution implements HeuristicSolution<Map<Cloudl
      * being created.
      */
     public CloudletToVmMappingSolution(final Heuristic heuristic){
-        this(heuristic, new HashMap<>());
-    }
-
-    private CloudletToVmMappingSolution(final Heuristic heuristic, final Map<Cloudlet, Vm> cloudletVmMap){
         this.heuristic = heuristic;
-        this.cloudletVmMap = cloudletVmMap;
+        this.cloudlets = new ArrayList<>();
+        this.cloudletIndexes = new HashMap<>();
+        this.vms = new ArrayList<>();
+        this.vmIndexes = new HashMap<>();
+        this.cloudletVms = new int[INITIAL_CAPACITY];
+        this.cloudletPes = new long[INITIAL_CAPACITY];
+        this.vmRequiredPes = new long[INITIAL_CAPACITY];
+        this.vmCloudletsNumber = new int[INITIAL_CAPACITY];
+        this.result = new ResultMap();
     }
 
     /**
      * Clones a given solution.
+     * The clone shares the Cloudlet and Vm indexes of the given solution
+     * (until one of them has a new Cloudlet or Vm added),
+     * copying just the primitive arrays storing the mapping.
      *
      * @param solution the solution to be cloned
      */
     public CloudletToVmMappingSolution(final CloudletToVmMappingSolution solution){
-        this(solution.heuristic, new HashMap<>(solution.cloudletVmMap));
-        this.recomputeCost = solution.recomputeCost;
-        this.lastCost = solution.lastCost;
-        this.cloudletVmMap.putAll(solution.cloudletVmMap);
+        this.heuristic = solution.heuristic;
+        this.cloudlets = solution.cloudlets;
+        this.cloudletIndexes = solution.cloudletIndexes;
+        this.vms = solution.vms;
+        this.vmIndexes = solution.vmIndexes;
+        this.indexesShared = true;
+        solution.indexesShared = true;
+        this.cloudletVms = Arrays.copyOf(solution.cloudletVms, Math.max(cloudlets.size(), INITIAL_CAPACITY));
+        this.cloudletPes = Arrays.copyOf(solution.cloudletPes, cloudletVms.length);
+        this.vmRequiredPes = Arrays.copyOf(solution.vmRequiredPes, Math.max(vms.size(), INITIAL_CAPACITY));
+        this.vmCloudletsNumber = Arrays.copyOf(solution.vmCloudletsNumber, vmRequiredPes.length);
+        this.cost = solution.cost;
+        this.result = new ResultMap();
     }
 
     /**
@@ -105,65 +172,147 @@ public class CloudletToVmMappingSolution implements HeuristicSolution<Map<Cloudl
      * @param vm the Vm to assign a cloudlet to
      */
     public void bindCloudletToVm(final Cloudlet cloudlet, final Vm vm){
-        cloudletVmMap.put(cloudlet, vm);
-        recomputeCost = true;
+        final int vmIndex = getVmIndex(vm);
+        final Integer cloudletIndex = cloudletIndexes.get(cloudlet);
+        if(cloudletIndex == null) {
+            addCloudlet(cloudlet, vmIndex);
+            return;
+        }
+
+        moveCloudlet(cloudletIndex, vmIndex);
     }
 
-    @Override
-    public Heuristic<HeuristicSolution<Map<Cloudlet, Vm>>> getHeuristic() {
-        return heuristic;
+    /**
+     * Gets the index of a Vm, adding it to the solution if it was not added yet.
+     * @param vm the Vm to get the index
+     * @return the Vm index
+     */
+    private int getVmIndex(final Vm vm) {
+        final Integer index = vmIndexes.get(vm);
+        if(index != null) {
+            return index;
+        }
+
+        copySharedIndexes();
+        final int newIndex = vms.size();
+        if(newIndex == vmRequiredPes.length) {
+            vmRequiredPes = Arrays.copyOf(vmRequiredPes, newIndex * 2);
+            vmCloudletsNumber = Arrays.copyOf(vmCloudletsNumber, newIndex * 2);
+        }
+
+        vms.add(vm);
+        vmIndexes.put(vm, newIndex);
+        return newIndex;
+    }
+
+    private void addCloudlet(final Cloudlet cloudlet, final int vmIndex) {
+        copySharedIndexes();
+        final int index = cloudlets.size();
+        if(index == cloudletVms.length) {
+            cloudletVms = Arrays.copyOf(cloudletVms, index * 2);
+            cloudletPes = Arrays.copyOf(cloudletPes, index * 2);
+        }
+
+        cloudlets.add(cloudlet);
+        cloudletIndexes.put(cloudlet, index);
+        cloudletPes[index] = cloudlet.getNumberOfPes();
+        cloudletVms[index] = vmIndex;
+
+        cost -= getVmCost(vmIndex);
+        vmRequiredPes[vmIndex] += cloudletPes[index];
+        vmCloudletsNumber[vmIndex]++;
+        cost += getVmCost(vmIndex);
+    }
+
+    /**
+     * Copies the Cloudlet and Vm indexes if they are shared with another solution,
+     * so that new Cloudlets or Vm's can be added just to this one.
+     */
+    private void copySharedIndexes() {
+        if(!indexesShared) {
+            return;
+        }
+
+        cloudlets = new ArrayList<>(cloudlets);
+        cloudletIndexes = new HashMap<>(cloudletIndexes);
+        vms = new ArrayList<>(vms);
+        vmIndexes = new HashMap<>(vmIndexes);
+        indexesShared = false;
     }
 
-    private void recomputeCostIfRequested() {
-        if(!this.recomputeCost) {
+    /**
+     * Moves an already added Cloudlet to another Vm,
+     * updating the cost of the source and destination Vm's.
+     *
+     * @param cloudletIndex the index of the Cloudlet to move
+     * @param vmIndex the index of the destination Vm
+     */
+    private void moveCloudlet(final int cloudletIndex, final int vmIndex) {
+        final int previousVmIndex = cloudletVms[cloudletIndex];
+        if(previousVmIndex == vmIndex) {
             return;
         }
 
-        this.lastCost = computeCostOfAllVms();
-        this.recomputeCost = false;
+        cost -= getVmCost(previousVmIndex) + getVmCost(vmIndex);
+        vmRequiredPes[previousVmIndex] -= cloudletPes[cloudletIndex];
+        vmCloudletsNumber[previousVmIndex]--;
+        vmRequiredPes[vmIndex] += cloudletPes[cloudletIndex];
+        vmCloudletsNumber[vmIndex]++;
+        cloudletVms[cloudletIndex] = vmIndex;
+        cost += getVmCost(previousVmIndex) + getVmCost(vmIndex);
     }
 
-    private double computeCostOfAllVms() {
-        return groupCloudletsByVm()
-                .entrySet()
-                .stream()
-                .mapToDouble(this::getVmCost)
-                .sum();
+    @Override
+    public Heuristic<HeuristicSolution<Map<Cloudlet, Vm>>> getHeuristic() {
+        return heuristic;
     }
 
     /**
-     * Gets a Map of Cloudlets grouped by their VMs,
-     * where each key is a VM and the value is a List of Map Entries
-     * containing the Cloudlets running in that VM.
-     * @return
+     * Recomputes the cost of the entire mapping from scratch,
+     * getting the current number of PEs of every Cloudlet.
      */
-    private Map<Vm, List<Map.Entry<Cloudlet, Vm>>> groupCloudletsByVm() {
-        return cloudletVmMap.entrySet().stream()
-            .collect(Collectors.groupingBy(Map.Entry::getValue));
+    private void recomputeCost() {
+        Arrays.fill(vmRequiredPes, 0);
+        Arrays.fill(vmCloudletsNumber, 0);
+        for (int i = 0; i < cloudlets.size(); i++) {
+            cloudletPes[i] = cloudlets.get(i).getNumberOfPes();
+            vmRequiredPes[cloudletVms[i]] += cloudletPes[i];
+            vmCloudletsNumber[cloudletVms[i]]++;
+        }
+
+        cost = 0;
+        for (int i = 0; i < vms.size(); i++) {
+            cost += getVmCost(i);
+        }
     }
 
     /**
      * {@inheritDoc}
      *
      * It computes the cost of the entire mapping between Vm's and Cloudlets.
+     * Since the cost is updated as Cloudlets are bound to Vm's,
+     * it's just returned.
      *
      * @return {@inheritDoc}
      */
     @Override
     public double getCost() {
-        recomputeCostIfRequested();
-        return this.lastCost;
+        return cost;
     }
 
     /**
      * It computes the costs of the entire mapping between Vm's and cloudlets.
      *
-     * @param forceRecompute indicate if the cost has to be recomputed anyway
+     * @param forceRecompute indicate if the cost has to be recomputed anyway,
+     *                       considering the current number of PEs of Cloudlets and Vm's
      * @return the cost of the entire mapping between Vm's and cloudlets
      * @see #getCost()
      */
     public double getCost(final boolean forceRecompute) {
-        recomputeCost |= forceRecompute;
+        if(forceRecompute) {
+            recomputeCost();
+        }
+
         return getCost();
     }
 
@@ -195,6 +344,22 @@ public class CloudletToVmMappingSolution implements HeuristicSolution<Map<Cloudl
         return Math.abs(vm.getNumberOfPes() - getTotalCloudletsPes(cloudlets));
     }
 
+    /**
+     * Computes the cost of the Cloudlets bound to the Vm at a given index.
+     * Vm's without Cloudlets don't have any cost.
+     *
+     * @param vmIndex the index of the Vm
+     * @return the VM cost to host its Cloudlets
+     * @see #getVmCost(Vm, List)
+     */
+    private long getVmCost(final int vmIndex) {
+        return getVmCost(vmIndex, vmRequiredPes[vmIndex], vmCloudletsNumber[vmIndex]);
+    }
+
+    private long getVmCost(final int vmIndex, final long requiredPes, final int cloudletsNumber) {
+        return cloudletsNumber == 0 ? 0 : Math.abs(vms.get(vmIndex).getNumberOfPes() - requiredPes);
+    }
+
     private List<Cloudlet> convertListOfMapEntriesToListOfCloudlets(final List<Map.Entry<Cloudlet, Vm>> entriesList) {
         return entriesList
             .stream()
@@ -214,6 +379,72 @@ public class CloudletToVmMappingSolution implements HeuristicSolution<Map<Cloudl
             .sum();
     }
 
+    /**
+     * Gets the number of Cloudlets mapped to Vm's in this solution.
+     * Cloudlets are indexed from 0 to this number (exclusive),
+     * according to the order they were bound to a Vm for the first time.
+     *
+     * @return
+     */
+    public int getCloudletsNumber() {
+        return cloudlets.size();
+    }
+
+    /**
+     * Computes how the {@link #getCost() cost} of this solution would change
+     * if the Vm's of two Cloudlets were swapped,
+     * without actually changing the solution.
+     * That enables a heuristic to assess a neighbor solution
+     * in constant time, without creating it.
+     *
+     * @param firstCloudletIndex the index of the first Cloudlet
+     * @param secondCloudletIndex the index of the second Cloudlet
+     * @return the cost the solution would have after swapping the Vm's,
+     *         minus the current cost (a negative value means the swap reduces the cost)
+     * @see #getCloudletsNumber()
+     * @see #swapVmsOfTwoCloudlets(int, int)
+     */
+    public double getCostDeltaOfSwappingVms(final int firstCloudletIndex, final int secondCloudletIndex) {
+        final int firstVm = cloudletVms[firstCloudletIndex];
+        final int secondVm = cloudletVms[secondCloudletIndex];
+        if(firstVm == secondVm) {
+            return 0;
+        }
+
+        final long pesDiff = cloudletPes[secondCloudletIndex] - cloudletPes[firstCloudletIndex];
+        final long newCost =
+            getVmCost(firstVm, vmRequiredPes[firstVm] + pesDiff, vmCloudletsNumber[firstVm]) +
+            getVmCost(secondVm, vmRequiredPes[secondVm] - pesDiff, vmCloudletsNumber[secondVm]);
+        return newCost - getVmCost(firstVm) - getVmCost(secondVm);
+    }
+
+    /**
+     * Swaps the Vm's of two Cloudlets, moving the first Cloudlet
+     * to the Vm of the second one and vice-versa.
+     * The cost of the solution is updated in constant time.
+     *
+     * @param firstCloudletIndex the index of the first Cloudlet
+     * @param secondCloudletIndex the index of the second Cloudlet
+     * @return true if the Cloudlets' Vm's were swapped, false if both Cloudlets are in the same Vm
+     * @see #getCloudletsNumber()
+     * @see #getCostDeltaOfSwappingVms(int, int)
+     */
+    public boolean swapVmsOfTwoCloudlets(final int firstCloudletIndex, final int secondCloudletIndex) {
+        final int firstVm = cloudletVms[firstCloudletIndex];
+        final int secondVm = cloudletVms[secondCloudletIndex];
+        if(firstVm == secondVm) {
+            return false;
+        }
+
+        cost += (long)getCostDeltaOfSwappingVms(firstCloudletIndex, secondCloudletIndex);
+        final long pesDiff = cloudletPes[secondCloudletIndex] - cloudletPes[firstCloudletIndex];
+        vmRequiredPes[firstVm] += pesDiff;
+        vmRequiredPes[secondVm] -= pesDiff;
+        cloudletVms[firstCloudletIndex] = secondVm;
+        cloudletVms[secondCloudletIndex] = firstVm;
+        return true;
+    }
+
     /**
      * Compares this solution with another given one, based on the solution
      * cost. The current object is considered to be:
@@ -238,16 +469,17 @@ public class CloudletToVmMappingSolution implements HeuristicSolution<Map<Cloudl
     /**
      *
      * @return the actual solution, providing the mapping between Cloudlets
-     * and Vm's.
+     * and Vm's. It's a read-only view of the mapping,
+     * which reflects further changes in this solution.
      */
     @Override
     public Map<Cloudlet, Vm> getResult() {
-        return Collections.unmodifiableMap(cloudletVmMap);
+        return result;
     }
 
     /**
      * Swap the Vm's of 2 randomly selected cloudlets
-     * in the {@link #cloudletVmMap} in order to
+     * in the {@link #getResult() mapping} in order to
      * provide a neighbor solution.
      *
      * The method change the given Map entries, moving the
@@ -274,7 +506,7 @@ public class CloudletToVmMappingSolution implements HeuristicSolution<Map<Cloudl
 
     /**
      * Swap the Vm's of 2 randomly selected cloudlets
-     * in the {@link #cloudletVmMap} in order to
+     * in the {@link #getResult() mapping} in order to
      * provide a neighbor solution.
      *
      * The method change the given Map entries, moving the
@@ -289,70 +521,134 @@ public class CloudletToVmMappingSolution implements HeuristicSolution<Map<Cloudl
     }
 
     /**
-     * Try to get 2 randomly selected entries from the {@link #cloudletVmMap}.
+     * Try to get 2 randomly selected entries from the {@link #getResult() mapping}.
+     * Changing the value of such entries binds the Cloudlet to another Vm.
      *
-     * @return a List with 2 entries from the {@link #cloudletVmMap}
+     * @return a List with 2 entries from the {@link #getResult() mapping}
      * if the map has at least 2 entries, an unitary List if the map
      * has only one entry, or an empty List if there is no entry.
      *
      * @see #swapVmsOfTwoMapEntries(List)
      */
     protected List<Map.Entry<Cloudlet, Vm>> getRandomMapEntries() {
-        if(cloudletVmMap.isEmpty()) {
+        final int size = cloudlets.size();
+        if(size == 0) {
             return new ArrayList<>();
         }
 
-        if(cloudletVmMap.size() == 1) {
-            return createListWithFirstMapEntry();
+        if(size == 1) {
+            return Collections.singletonList(new CloudletVmEntry(0));
         }
 
-        return createListWithTwoRandomEntries();
+        final List<Map.Entry<Cloudlet, Vm>> selected = new ArrayList<>(2);
+        selected.add(new CloudletVmEntry(heuristic.getRandomValue(size)));
+        selected.add(new CloudletVmEntry(heuristic.getRandomValue(size)));
+        return selected;
     }
 
     /**
-     * Creates a List using only the first entry in the {@link #cloudletVmMap}.
-     * @return a single-entry List with either the first {@link #cloudletVmMap} entry
-     * or an empty List in case no entry is found.
+     * A {@link Map.Entry} for a Cloudlet inside the solution,
+     * which allows binding the Cloudlet to another Vm by
+     * {@link #setValue(Vm) setting the entry value}.
      */
-    private List<Map.Entry<Cloudlet, Vm>> createListWithFirstMapEntry() {
-        return cloudletVmMap.entrySet()
-            .stream()
-            .limit(1)
-            .collect(Collectors.toList());
+    private final class CloudletVmEntry implements Map.Entry<Cloudlet, Vm> {
+        private final int cloudletIndex;
+
+        private CloudletVmEntry(final int cloudletIndex) {
+            this.cloudletIndex = cloudletIndex;
+        }
+
+        @Override
+        public Cloudlet getKey() {
+            return cloudlets.get(cloudletIndex);
+        }
+
+        @Override
+        public Vm getValue() {
+            return vms.get(cloudletVms[cloudletIndex]);
+        }
+
+        @Override
+        public Vm setValue(final Vm vm) {
+            final Vm previous = getValue();
+            moveCloudlet(cloudletIndex, getVmIndex(vm));
+            return previous;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if(!(obj instanceof Map.Entry)) {
+                return false;
+            }
+
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            return getKey().equals(entry.getKey()) && getValue().equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
     }
 
     /**
-     * The way the method is called is ensured there is at least to entries
-     * in the {@link #cloudletVmMap}.
-     *
-     * @return
+     * A read-only {@link Map} view of the mapping between Cloudlets and Vm's,
+     * backed by the arrays of the solution.
      */
-    private List<Map.Entry<Cloudlet, Vm>> createListWithTwoRandomEntries() {
-        final int size = cloudletVmMap.entrySet().size();
-
-        final int firstIdx = heuristic.getRandomValue(size);
-        final int secondIdx = heuristic.getRandomValue(size);
+    private final class ResultMap extends AbstractMap<Cloudlet, Vm> {
+        private final Set<Map.Entry<Cloudlet, Vm>> entrySet = new AbstractSet<Map.Entry<Cloudlet, Vm>>() {
+            @Override
+            public Iterator<Map.Entry<Cloudlet, Vm>> iterator() {
+                return new Iterator<Map.Entry<Cloudlet, Vm>>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < cloudlets.size();
+                    }
+
+                    @Override
+                    public Map.Entry<Cloudlet, Vm> next() {
+                        if(!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+
+                        final int index = next++;
+                        return new SimpleImmutableEntry<>(cloudlets.get(index), vms.get(cloudletVms[index]));
+                    }
+                };
+            }
 
-        final List<Map.Entry<Cloudlet, Vm>> selected = new ArrayList<>(2);
-        final Iterator<Map.Entry<Cloudlet, Vm>> it = cloudletVmMap.entrySet().iterator();
-
-        /*
-        Loop over the entries until the entries defined by the first and second index
-        are found and added to the List.
-        Since there is not way to get the entries inside the map don't have a index,
-        we can't access the ith entry directly.
-        This loops ensure we iterate the the least number of times
-        until finding the required entries, without creating
-        a List with all entries in order to get just two of them.
-        */
-        for(int i = 0; selected.size() < 2 && it.hasNext(); ){
-            final Map.Entry<Cloudlet, Vm> solution = it.next();
-            if(i == firstIdx || i == secondIdx){
-                selected.add(solution);
-                i++;
+            @Override
+            public int size() {
+                return cloudlets.size();
             }
+        };
+
+        @Override
+        public Set<Map.Entry<Cloudlet, Vm>> entrySet() {
+            return entrySet;
         }
 
-        return selected;
+        @Override
+        public int size() {
+            return cloudlets.size();
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return cloudletIndexes.containsKey(key);
+        }
+
+        @Override
+        public Vm get(final Object key) {
+            final Integer index = cloudletIndexes.get(key);
+            return index == null ? null : vms.get(cloudletVms[index]);
+        }
     }
 }
@@ -127,17 +127,41 @@ public abstract class HeuristicAbstract<S extends HeuristicSolution<?>>  impleme
 	@Override
 	public S solve() {
 		final long startTime = System.currentTimeMillis();
-		setBestSolutionSoFar(getInitialSolution());
+		startSearch();
 		while (!isToStopSearch()) {
-            searchSolutionInNeighborhood();
-            updateSystemState();
+            runSearchIteration();
 		}
 		setSolveTime((System.currentTimeMillis() - startTime)/1000.0);
 
 		return getBestSolutionSoFar();
 	}
 
-    private void searchSolutionInNeighborhood() {
+    /**
+     * Starts the solution search, setting the {@link #getInitialSolution() initial solution}
+     * as the best one so far.
+     * It enables the search to be executed step by step,
+     * such as by a {@link ParallelSimulatedAnnealing}.
+     */
+    /* default */ void startSearch() {
+        setBestSolutionSoFar(getInitialSolution());
+    }
+
+    /**
+     * Runs a single iteration of the solution search,
+     * looking for a better solution in the neighborhood
+     * and then updating the system state.
+     */
+    /* default */ void runSearchIteration() {
+        searchSolutionInNeighborhood();
+        updateSystemState();
+    }
+
+    /**
+     * Searches for a better solution in the neighborhood of the {@link #getBestSolutionSoFar() best solution so far},
+     * creating {@link #getNeighborhoodSearchesByIteration() some} neighbor solutions
+     * and moving to each one that is accepted.
+     */
+    protected void searchSolutionInNeighborhood() {
         for (int i = 0; i < getNeighborhoodSearchesByIteration(); i++) {
             setNeighborSolution(createNeighbor(getBestSolutionSoFar()));
             if (getAcceptanceProbability() > getRandomValue(1)) {
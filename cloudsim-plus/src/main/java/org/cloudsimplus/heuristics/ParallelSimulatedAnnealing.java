@@ -0,0 +1,619 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.heuristics;
+
+import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
+import org.cloudbus.cloudsim.distributions.UniformDistr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A base class for running multiple <a href="http://en.wikipedia.org/wiki/Simulated_annealing">Simulated Annealing</a>
+ * chains in parallel, using a {@link ForkJoinPool}, in order to find a suboptimal solution for a problem
+ * defined by sub-classes of this one.
+ * It supports two modes:
+ * <ul>
+ *     <li><b>multi-start</b> (default): all chains start at the same temperature from a different random
+ *     initial solution and are executed independently;</li>
+ *     <li><a href="https://en.wikipedia.org/wiki/Parallel_tempering">parallel tempering</a>:
+ *     each chain starts at a temperature increasingly higher (according to the {@link #getTemperatureRatio() temperature ratio})
+ *     and, periodically, adjacent chains exchange their solutions, so that
+ *     better solutions found by hotter chains move to colder ones.</li>
+ * </ul>
+ *
+ * <p>Chains are executed in rounds of {@link #getIterationsByRound() some iterations}.
+ * After each round, the best solution among all chains is shared as the
+ * {@link #getBestSolutionSoFar() best solution so far} and the stop criteria are checked.
+ * The search stops when the chains are cold, the {@link #getMaxSolveTime() maximum solve time} is reached
+ * or a solution with a {@link #getTargetCost() target cost} is found.</p>
+ *
+ * <p>Each chain has its own {@link ContinuousDistribution} whose seed is derived from the seed
+ * given to this heuristic. Since chains just interact at the end of a round,
+ * in the order they were created, the search is reproducible for a given seed
+ * and {@link #getChainsNumber() number of chains}, unless it's stopped by the maximum solve time.
+ * The number of chains doesn't depend on the {@link #getPool() pool} used to execute them,
+ * so that the pool size is the only thing which may vary between machines
+ * without changing the results.</p>
+ *
+ * @param <S> the class of solutions the heuristic will deal with
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public abstract class ParallelSimulatedAnnealing<S extends HeuristicSolution<?>> implements Heuristic<S> {
+    /**
+     * The default number of Simulated Annealing chains to execute.
+     * @see #getChainsNumber()
+     */
+    public static final int DEFAULT_CHAINS_NUMBER = 4;
+
+    private final long seed;
+
+    /**
+     * A random number generator used to decide about exchanging solutions
+     * between chains on parallel tempering.
+     */
+    private final ContinuousDistribution random;
+
+    private ForkJoinPool pool;
+
+    /** @see #getChainsNumber() */
+    private int chainsNumber;
+
+    /** @see #isParallelTempering() */
+    private boolean parallelTempering;
+
+    /** @see #getTemperatureRatio() */
+    private double temperatureRatio;
+
+    /** @see #getIterationsByRound() */
+    private int iterationsByRound;
+
+    /** @see #getInitialTemperature() */
+    private double initialTemperature;
+
+    /** @see #getColdTemperature() */
+    private double coldTemperature;
+
+    /** @see #getCoolingRate() */
+    private double coolingRate;
+
+    /** @see #getNeighborhoodSearchesByIteration() */
+    private int neighborhoodSearchesByIteration;
+
+    /** @see #getMaxSolveTime() */
+    private double maxSolveTime;
+
+    /** @see #getTargetCost() */
+    private double targetCost;
+
+    /** @see #getChains() */
+    private List<SimulatedAnnealing<S>> chains;
+
+    /** @see #getBestSolutionSoFar() */
+    private S bestSolutionSoFar;
+
+    /**
+     * The chain which found the {@link #getBestSolutionSoFar() best solution so far},
+     * or null if the search wasn't started yet.
+     */
+    private SimulatedAnnealing<S> bestChain;
+
+    /** @see #getSolveTime() */
+    private double solveTime;
+
+    /**
+     * The time (in milliseconds) the current search was started.
+     */
+    private long startTime;
+
+    /**
+     * The number of rounds executed in the current search.
+     */
+    private int rounds;
+
+    /**
+     * Creates a parallel simulated annealing heuristic
+     * that executes chains using the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param initialTemperature the initial temperature of the chains
+     * @param seed the seed to derive the seeds of the random number generators of the chains
+     */
+    protected ParallelSimulatedAnnealing(final double initialTemperature, final long seed) {
+        this.seed = seed;
+        this.random = new UniformDistr(seed);
+        this.pool = ForkJoinPool.commonPool();
+        this.chainsNumber = DEFAULT_CHAINS_NUMBER;
+        this.temperatureRatio = 2;
+        this.iterationsByRound = 10;
+        this.initialTemperature = initialTemperature;
+        this.neighborhoodSearchesByIteration = 1;
+        this.targetCost = Double.NEGATIVE_INFINITY;
+        this.chains = Collections.emptyList();
+    }
+
+    /**
+     * Creates a Simulated Annealing chain, which just have to be
+     * ready to start the search of a solution for the problem being solved.
+     * The temperature, cooling rate and number of neighborhood searches of the chain are set
+     * by this class after the chain is created.
+     *
+     * @param random the random number generator to be used exclusively by the created chain
+     * @return the new chain
+     */
+    protected abstract SimulatedAnnealing<S> createChain(ContinuousDistribution random);
+
+    /**
+     * Creates a copy of a solution, which is used to keep the
+     * {@link #getBestSolutionSoFar() best solution so far} unchanged,
+     * while chains keep changing their solutions.
+     *
+     * @param solution the solution to copy
+     * @return the copy of the solution
+     */
+    protected abstract S copySolution(S solution);
+
+    @Override
+    public S solve() {
+        startTime = System.currentTimeMillis();
+        rounds = 0;
+        bestSolutionSoFar = null;
+        bestChain = null;
+        chains = createChains();
+        invokeChains(SimulatedAnnealing::startSearch);
+        updateBestSolutionSoFar();
+        while (!isToStopSearch()) {
+            invokeChains(this::runRound);
+            rounds++;
+            updateBestSolutionSoFar();
+            if (parallelTempering) {
+                exchangeSolutions();
+            }
+        }
+
+        solveTime = (System.currentTimeMillis() - startTime) / 1000.0;
+        return bestSolutionSoFar;
+    }
+
+    private List<SimulatedAnnealing<S>> createChains() {
+        final Random seeds = new Random(seed);
+        final List<SimulatedAnnealing<S>> list = new ArrayList<>(chainsNumber);
+        for (int i = 0; i < chainsNumber; i++) {
+            //Seed -1 means the current time is used as seed, making the results non-reproducible
+            final SimulatedAnnealing<S> chain = createChain(new UniformDistr(seeds.nextLong() & Long.MAX_VALUE));
+            final double temperatureFactor = parallelTempering ? Math.pow(temperatureRatio, i) : 1;
+            chain.setCurrentTemperature(initialTemperature * temperatureFactor);
+            chain.setColdTemperature(coldTemperature);
+            chain.setCoolingRate(coolingRate);
+            chain.setNeighborhoodSearchesByIteration(neighborhoodSearchesByIteration);
+            list.add(chain);
+        }
+
+        return list;
+    }
+
+    /**
+     * Executes an operation for every chain in parallel,
+     * waiting all of them to finish.
+     * @param operation the operation to execute
+     */
+    private void invokeChains(final Consumer<SimulatedAnnealing<S>> operation) {
+        final List<ForkJoinTask<?>> tasks = chains.stream()
+            .map(chain -> ForkJoinTask.adapt(() -> operation.accept(chain)))
+            .collect(toList());
+        pool.invoke(ForkJoinTask.adapt(() -> {ForkJoinTask.invokeAll(tasks);}));
+    }
+
+    /**
+     * Runs a round of {@link #getIterationsByRound() iterations} for a chain,
+     * stopping earlier if the chain gets cold.
+     * @param chain the chain to run
+     */
+    private void runRound(final SimulatedAnnealing<S> chain) {
+        for (int i = 0; i < iterationsByRound && !chain.isToStopSearch(); i++) {
+            chain.runSearchIteration();
+        }
+    }
+
+    /**
+     * Shares the best solution among all chains as the best solution so far.
+     * Chains are checked in the order they were created and a solution
+     * just replaces the current best one if it has a lower cost,
+     * so that the result doesn't depend on the order chains finish.
+     */
+    private void updateBestSolutionSoFar() {
+        SimulatedAnnealing<S> best = null;
+        double bestCost = bestSolutionSoFar == null ? Double.MAX_VALUE : bestSolutionSoFar.getCost();
+        for (final SimulatedAnnealing<S> chain : chains) {
+            final double cost = chain.getBestSolutionSoFar().getCost();
+            if (cost < bestCost) {
+                best = chain;
+                bestCost = cost;
+            }
+        }
+
+        if (best != null) {
+            bestChain = best;
+            bestSolutionSoFar = copySolution(best.getBestSolutionSoFar());
+        }
+    }
+
+    /**
+     * Tries to exchange the solutions of adjacent chains (on parallel tempering),
+     * using the Metropolis criterion.
+     * The solution of a colder chain is always exchanged with a better solution of a hotter one.
+     * Otherwise, the exchange happens with a probability given by the difference of
+     * the costs and temperatures of the chains.
+     * Even and odd pairs of chains are alternated in each round.
+     */
+    private void exchangeSolutions() {
+        for (int i = rounds % 2; i < chains.size() - 1; i += 2) {
+            final SimulatedAnnealing<S> colder = chains.get(i);
+            final SimulatedAnnealing<S> hotter = chains.get(i + 1);
+            if (colder.isToStopSearch() || hotter.isToStopSearch()) {
+                continue;
+            }
+
+            final S colderSolution = colder.getBestSolutionSoFar();
+            final S hotterSolution = hotter.getBestSolutionSoFar();
+            final double exponent =
+                (1 / colder.getCurrentTemperature() - 1 / hotter.getCurrentTemperature()) *
+                (colderSolution.getCost() - hotterSolution.getCost());
+            if (exponent >= 0 || random.sample() < Math.exp(exponent)) {
+                colder.setBestSolutionSoFar(hotterSolution);
+                hotter.setBestSolutionSoFar(colderSolution);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return true if the chains are cold enough
+     * (on parallel tempering, just the coldest chain is considered),
+     * the {@link #getMaxSolveTime() maximum solve time} was reached
+     * or a solution with the {@link #getTargetCost() target cost} was found; false otherwise
+     */
+    @Override
+    public boolean isToStopSearch() {
+        if (bestSolutionSoFar != null && bestSolutionSoFar.getCost() <= targetCost) {
+            return true;
+        }
+
+        if (maxSolveTime > 0 && System.currentTimeMillis() - startTime >= maxSolveTime * 1000) {
+            return true;
+        }
+
+        if (parallelTempering) {
+            return chains.isEmpty() || chains.get(0).isToStopSearch();
+        }
+
+        return chains.stream().allMatch(SimulatedAnnealing::isToStopSearch);
+    }
+
+    /**
+     * {@inheritDoc}
+     * It's the acceptance probability of the chain which found the
+     * {@link #getBestSolutionSoFar() best solution so far}.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public double getAcceptanceProbability() {
+        return chains.isEmpty() ? 0 : getBestChain().getAcceptanceProbability();
+    }
+
+    /**
+     * Gets the chain which found the {@link #getBestSolutionSoFar() best solution so far}
+     * or the first one if the search wasn't started yet.
+     * @return the best chain
+     */
+    private SimulatedAnnealing<S> getBestChain() {
+        return bestChain == null ? chains.get(0) : bestChain;
+    }
+
+    @Override
+    public int getRandomValue(final int maxValue) {
+        final double uniform = random.sample();
+        return (int)(uniform >= 1 ? uniform % maxValue : uniform * maxValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     * It's the initial solution of the first chain.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public S getInitialSolution() {
+        if (chains.isEmpty()) {
+            chains = createChains();
+        }
+
+        return chains.get(0).getInitialSolution();
+    }
+
+    /**
+     * {@inheritDoc}
+     * It's the last neighbor solution of the chain which found the
+     * {@link #getBestSolutionSoFar() best solution so far}.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public S getNeighborSolution() {
+        return chains.isEmpty() ? null : getBestChain().getNeighborSolution();
+    }
+
+    @Override
+    public S createNeighbor(final S source) {
+        if (chains.isEmpty()) {
+            chains = createChains();
+        }
+
+        return chains.get(0).createNeighbor(source);
+    }
+
+    /**
+     * {@inheritDoc}
+     * It's the best solution found among all chains, which is updated at the end of each round.
+     *
+     * @return {@inheritDoc} or null if the search was not started yet
+     */
+    @Override
+    public S getBestSolutionSoFar() {
+        return bestSolutionSoFar;
+    }
+
+    @Override
+    public int getNeighborhoodSearchesByIteration() {
+        return neighborhoodSearchesByIteration;
+    }
+
+    @Override
+    public void setNeighborhoodSearchesByIteration(final int neighborhoodSearches) {
+        this.neighborhoodSearchesByIteration = neighborhoodSearches;
+    }
+
+    @Override
+    public double getSolveTime() {
+        return solveTime;
+    }
+
+    /**
+     * Gets the chains created for the last search.
+     * @return a read-only List of chains
+     */
+    public List<SimulatedAnnealing<S>> getChains() {
+        return Collections.unmodifiableList(chains);
+    }
+
+    /**
+     * Gets the seed used to derive the seeds of the random number generators of the chains.
+     * @return
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the {@link ForkJoinPool} used to execute the chains.
+     * @return
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Sets the {@link ForkJoinPool} used to execute the chains.
+     * @param pool the pool to set
+     * @return this heuristic
+     */
+    public ParallelSimulatedAnnealing<S> setPool(final ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool);
+        return this;
+    }
+
+    /**
+     * Gets the number of Simulated Annealing chains to execute.
+     * The default value is {@link #DEFAULT_CHAINS_NUMBER}, whatever the
+     * {@link ForkJoinPool#getParallelism() parallelism} of the {@link #getPool() pool} is,
+     * since the number of chains changes the results for a given seed.
+     * @return
+     */
+    public int getChainsNumber() {
+        return chainsNumber;
+    }
+
+    /**
+     * Sets the number of Simulated Annealing chains to execute.
+     * @param chainsNumber the number of chains to set
+     * @return this heuristic
+     */
+    public ParallelSimulatedAnnealing<S> setChainsNumber(final int chainsNumber) {
+        if (chainsNumber <= 0) {
+            throw new IllegalArgumentException("The number of chains must be greater than zero.");
+        }
+
+        this.chainsNumber = chainsNumber;
+        return this;
+    }
+
+    /**
+     * Checks if chains are executed using parallel tempering, instead of independent multi-start chains.
+     * @return
+     */
+    public boolean isParallelTempering() {
+        return parallelTempering;
+    }
+
+    /**
+     * Sets if chains are executed using parallel tempering, instead of independent multi-start chains.
+     * @param parallelTempering true to use parallel tempering, false to use multi-start chains
+     * @return this heuristic
+     */
+    public ParallelSimulatedAnnealing<S> setParallelTempering(final boolean parallelTempering) {
+        this.parallelTempering = parallelTempering;
+        return this;
+    }
+
+    /**
+     * Gets the ratio between the initial temperature of a chain and the previous one, on parallel tempering.
+     * That is, chain {@code i} starts at {@code initialTemperature * temperatureRatio^i}.
+     * @return
+     */
+    public double getTemperatureRatio() {
+        return temperatureRatio;
+    }
+
+    /**
+     * Sets the ratio between the initial temperature of a chain and the previous one, on parallel tempering.
+     * @param temperatureRatio the ratio to set (greater than 1)
+     * @return this heuristic
+     */
+    public ParallelSimulatedAnnealing<S> setTemperatureRatio(final double temperatureRatio) {
+        if (temperatureRatio <= 1) {
+            throw new IllegalArgumentException("The temperature ratio must be greater than 1.");
+        }
+
+        this.temperatureRatio = temperatureRatio;
+        return this;
+    }
+
+    /**
+     * Gets the number of iterations each chain runs before the chains are synchronized
+     * to share the best solution, check the stop criteria and exchange solutions (on parallel tempering).
+     * @return
+     */
+    public int getIterationsByRound() {
+        return iterationsByRound;
+    }
+
+    /**
+     * Sets the number of iterations each chain runs before the chains are synchronized
+     * to share the best solution, check the stop criteria and exchange solutions (on parallel tempering).
+     * @param iterationsByRound the number of iterations to set
+     * @return this heuristic
+     */
+    public ParallelSimulatedAnnealing<S> setIterationsByRound(final int iterationsByRound) {
+        if (iterationsByRound <= 0) {
+            throw new IllegalArgumentException("The number of iterations by round must be greater than zero.");
+        }
+
+        this.iterationsByRound = iterationsByRound;
+        return this;
+    }
+
+    /**
+     * Gets the initial temperature of the chains
+     * (on parallel tempering, it's the temperature of the coldest chain).
+     * @return
+     */
+    public double getInitialTemperature() {
+        return initialTemperature;
+    }
+
+    /**
+     * Gets the temperature that defines a chain is cold enough
+     * and its solution search may be stopped.
+     * @return
+     */
+    public double getColdTemperature() {
+        return coldTemperature;
+    }
+
+    /**
+     * Sets the temperature that defines a chain is cold enough
+     * and its solution search may be stopped.
+     * @param coldTemperature the cold temperature to set
+     * @return this heuristic
+     */
+    public ParallelSimulatedAnnealing<S> setColdTemperature(final double coldTemperature) {
+        this.coldTemperature = coldTemperature;
+        return this;
+    }
+
+    /**
+     * @return percentage rate in which the chains will be cooled, in scale from [0 to 1[.
+     */
+    public double getCoolingRate() {
+        return coolingRate;
+    }
+
+    /**
+     * Sets the percentage rate in which the chains will be cooled, in scale from [0 to 1[.
+     * @param coolingRate the rate to set
+     * @return this heuristic
+     */
+    public ParallelSimulatedAnnealing<S> setCoolingRate(final double coolingRate) {
+        this.coolingRate = coolingRate;
+        return this;
+    }
+
+    /**
+     * Gets the maximum wall-clock time (in seconds) the search may take.
+     * It's just checked at the end of each round.
+     * Stopping the search by time makes the results non-reproducible.
+     * @return the maximum solve time or 0 if there is no time limit
+     */
+    public double getMaxSolveTime() {
+        return maxSolveTime;
+    }
+
+    /**
+     * Sets the maximum wall-clock time (in seconds) the search may take.
+     * @param maxSolveTime the maximum solve time to set or 0 to disable the time limit
+     * @return this heuristic
+     */
+    public ParallelSimulatedAnnealing<S> setMaxSolveTime(final double maxSolveTime) {
+        this.maxSolveTime = maxSolveTime;
+        return this;
+    }
+
+    /**
+     * Gets the cost that, when reached by the best solution so far, stops the search.
+     * @return
+     */
+    public double getTargetCost() {
+        return targetCost;
+    }
+
+    /**
+     * Sets the cost that, when reached by the best solution so far, stops the search.
+     * @param targetCost the target cost to set
+     * @return this heuristic
+     */
+    public ParallelSimulatedAnnealing<S> setTargetCost(final double targetCost) {
+        this.targetCost = targetCost;
+        return this;
+    }
+}
@@ -104,9 +104,22 @@ public abstract class SimulatedAnnealing<S extends HeuristicSolution<?>> extends
      */
     @Override
     public double getAcceptanceProbability() {
+        return getAcceptanceProbability(getNeighborSolution().getCost() - getBestSolutionSoFar().getCost());
+    }
+
+    /**
+     * Computes the acceptance probability of a neighbor solution
+     * just from the difference between its cost and the cost of the
+     * {@link #getBestSolutionSoFar() best solution so far}.
+     * It enables sub-classes to assess neighbors without creating them.
+     *
+     * @param costDelta the neighbor solution cost minus the best solution cost
+     * @return the acceptance probability
+     * @see #getAcceptanceProbability()
+     */
+    protected double getAcceptanceProbability(final double costDelta) {
         final double boltzmannConstant = 1.0;
-        return Math.exp((getBestSolutionSoFar().getCost() - getNeighborSolution().getCost())
-               / (boltzmannConstant * currentTemperature));
+        return Math.exp(-costDelta / (boltzmannConstant * currentTemperature));
     }
 
     /**
@@ -0,0 +1,135 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.traces;
+
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.Simulation;
+import org.cloudbus.cloudsim.core.events.CloudSimEvent;
+import org.cloudbus.cloudsim.core.events.SimEvent;
+
+import java.util.function.DoubleUnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Feeds records from a trace file into a running simulation as the simulation clock approaches
+ * their timestamps, instead of reading the entire trace before the simulation starts.
+ * Only the records inside a look-ahead time window are read at a time,
+ * so that the memory used to hold trace records doesn't depend on the trace length.
+ *
+ * <p>Every time the clock reaches the timestamp of the next record minus the
+ * {@link #getLookAheadTime() look-ahead time}, the records up to the clock plus such
+ * a time are read and submitted to the simulation (as delayed events or submissions).
+ * To ensure the clock reaches such a time even when there is no other event to process,
+ * a {@link CloudSimTags#TRACE_FEEDING} event is scheduled.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public final class TraceFeeder {
+    private final Simulation simulation;
+    private final double lookAheadTime;
+
+    /**
+     * @see #TraceFeeder(Simulation, double, DoubleUnaryOperator)
+     */
+    private final DoubleUnaryOperator feedFunction;
+
+    /**
+     * @see #isFinished()
+     */
+    private boolean finished;
+
+    /**
+     * Creates a feeder for a trace file.
+     *
+     * @param simulation the simulation to feed trace records into
+     * @param lookAheadTime how many seconds ahead of the simulation clock trace records are read
+     * @param feedFunction a {@link DoubleUnaryOperator} that receives a time and submits into the
+     *                     simulation all records from the trace up to such a time (which were not submitted yet),
+     *                     returning the timestamp of the next record to be submitted
+     *                     or a negative value if the end of the trace was reached
+     */
+    public TraceFeeder(final Simulation simulation, final double lookAheadTime, final DoubleUnaryOperator feedFunction) {
+        if (lookAheadTime <= 0) {
+            throw new IllegalArgumentException("Look-ahead time must be greater than 0.");
+        }
+
+        this.simulation = requireNonNull(simulation);
+        this.lookAheadTime = lookAheadTime;
+        this.feedFunction = requireNonNull(feedFunction);
+    }
+
+    /**
+     * Starts feeding the trace into the simulation,
+     * submitting the records inside the first look-ahead window.
+     * @return
+     */
+    public TraceFeeder start() {
+        simulation.addOnEventProcessingListener(this::onEventProcessing);
+        feed();
+        return this;
+    }
+
+    private void onEventProcessing(final SimEvent evt) {
+        if (evt.getTag() == CloudSimTags.TRACE_FEEDING && evt.getData() == this) {
+            feed();
+        }
+    }
+
+    /**
+     * Submits the records up to the current clock plus the look-ahead time,
+     * then schedules the next feeding.
+     */
+    private void feed() {
+        final double clock = simulation.clock();
+        final double nextRecordTime = feedFunction.applyAsDouble(clock + lookAheadTime);
+        /*The listener isn't removed when the trace ends because that would change
+        the listeners collection while the simulation is notifying them.
+        Since no more feeding events will be sent, it just ignores the other events.*/
+        if (nextRecordTime < 0) {
+            finished = true;
+            return;
+        }
+
+        final double delay = Math.max(nextRecordTime - lookAheadTime - clock, 0);
+        simulation.send(new CloudSimEvent(delay, simulation.getCloudInfoService(), CloudSimTags.TRACE_FEEDING, this));
+    }
+
+    /**
+     * Gets how many seconds ahead of the simulation clock trace records are read.
+     * @return
+     */
+    public double getLookAheadTime() {
+        return lookAheadTime;
+    }
+
+    /**
+     * Checks if all records from the trace were already submitted to the simulation.
+     * @return
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+}
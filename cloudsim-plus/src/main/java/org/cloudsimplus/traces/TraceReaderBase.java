@@ -23,6 +23,7 @@
  */
 package org.cloudsimplus.traces;
 
+import org.cloudbus.cloudsim.util.TraceLineCursor;
 import org.cloudbus.cloudsim.util.TraceReaderAbstract;
 
 import java.io.InputStream;
@@ -36,95 +37,102 @@ import java.util.Objects;
  * @since CloudSim Plus 4.0.0
  */
 public abstract class TraceReaderBase extends TraceReaderAbstract {
-    /** @see #getLastParsedLineArray() */
-    private String[] lastParsedLineArray;
+    /** @see #getLastParsedLine() */
+    private TraceLineCursor lastParsedLine;
+
+    /**
+     * A cursor reused to access the values of the last parsed line
+     * when they are {@link #setLastParsedLineArray(String[]) set as an array}.
+     */
+    private final TraceLineCursor lineArrayCursor;
 
     protected TraceReaderBase(final String filePath, final InputStream reader) {
         super(filePath, reader);
+        this.lineArrayCursor = new TraceLineCursor();
+        this.lastParsedLine = lineArrayCursor;
     }
 
     /**
-     * Gets a field's value from the {@link #getLastParsedLineArray() last parsed line} as String.
+     * Gets a field's value from the {@link #getLastParsedLine() last parsed line} as String.
      *
      * @param field a enum value representing the index of the field to get the value
      * @return
      */
     protected <T extends Enum> String getFieldValue(final T field){
-        return lastParsedLineArray[field.ordinal()];
+        return lastParsedLine.getString(field.ordinal());
     }
 
     /**
-     * Gets a field's value from the {@link #getLastParsedLineArray() last parsed line} as double.
+     * Gets a field's value from the {@link #getLastParsedLine() last parsed line} as double.
      *
      * @param field a enum value representing the index of the field to get the value
      * @return
      */
     protected <T extends Enum> double getFieldDoubleValue(final T field){
-        return Double.parseDouble(getFieldValue(field));
+        return lastParsedLine.getDouble(field.ordinal());
     }
 
     /**
-     * Gets a field's value from the {@link #getLastParsedLineArray() last parsed line} as double.
+     * Gets a field's value from the {@link #getLastParsedLine() last parsed line} as double.
      *
      * @param field a enum value representing the index of the field to get the value
      * @param defaultValue the default value to be returned if the field value is not a number
      * @return
      */
     protected <T extends Enum> double getFieldDoubleValue(final T field, final double defaultValue){
-        final String value = getFieldValue(field);
-        return  value.matches("^-?\\d+(\\.?\\d+)?$") ? Double.parseDouble(value) : defaultValue;
+        return lastParsedLine.isDecimal(field.ordinal()) ? lastParsedLine.getDouble(field.ordinal()) : defaultValue;
     }
 
     /**
-     * Gets a field's value from the {@link #getLastParsedLineArray() last parsed line} as an int.
+     * Gets a field's value from the {@link #getLastParsedLine() last parsed line} as an int.
      *
      * @param field a enum value representing the index of the field to get the value
      * @return
      */
     protected <T extends Enum> int getFieldIntValue(final T field){
-        return Integer.parseInt(getFieldValue(field));
+        return lastParsedLine.getInt(field.ordinal());
     }
 
     /**
-     * Gets a field's value from the {@link #getLastParsedLineArray() last parsed line} as an int.
+     * Gets a field's value from the {@link #getLastParsedLine() last parsed line} as an int.
      *
      * @param field a enum value representing the index of the field to get the value
      * @return
      */
     protected <T extends Enum> long getFieldLongValue(final T field){
-        return Long.parseLong(getFieldValue(field));
+        return lastParsedLine.getLong(field.ordinal());
     }
 
     /**
-     * Gets a field's value from the {@link #getLastParsedLineArray() last parsed line} as an int.
+     * Gets a field's value from the {@link #getLastParsedLine() last parsed line} as an int.
      *
      * @param field a enum value representing the index of the field to get the value
      * @param defaultValue the default value to be returned if the field value is not an int
      * @return
      */
     protected <T extends Enum> long getFieldLongValue(final T field, final long defaultValue){
-        final String value = getFieldValue(field);
-        return  value.matches("^-?\\d+$") ? Long.parseLong(value) : defaultValue;
+        return lastParsedLine.isInteger(field.ordinal()) ? lastParsedLine.getLong(field.ordinal()) : defaultValue;
     }
 
     /**
-     * Gets a field's value from the {@link #getLastParsedLineArray() last parsed line} as an int.
+     * Gets a field's value from the {@link #getLastParsedLine() last parsed line} as an int.
      *
      * @param field a enum value representing the index of the field to get the value
      * @param defaultValue the default value to be returned if the field value is not an int
      * @return
      */
     protected <T extends Enum> int getFieldIntValue(final T field, final int defaultValue){
-        final String value = getFieldValue(field);
-        return  value.matches("^-?\\d+$") ? Integer.parseInt(value) : defaultValue;
+        return lastParsedLine.isInteger(field.ordinal()) ? lastParsedLine.getInt(field.ordinal()) : defaultValue;
     }
 
     /**
      * Gets an array containing the field values from the last parsed trace line.
+     * Since the array is created from the {@link #getLastParsedLine() last parsed line cursor}
+     * at every call, prefer using such a cursor or the getField methods.
      * @return
      */
     protected String[] getLastParsedLineArray() {
-        return lastParsedLineArray;
+        return lastParsedLine.toArray();
     }
 
     /**
@@ -132,6 +140,25 @@ public abstract class TraceReaderBase extends TraceReaderAbstract {
      * @param lastParsedLineArray the field values from the last parsed trace line
      */
     protected void setLastParsedLineArray(final String[] lastParsedLineArray) {
-        this.lastParsedLineArray = Objects.requireNonNull(lastParsedLineArray);
+        this.lastParsedLine = lineArrayCursor.setFields(lastParsedLineArray);
+    }
+
+    /**
+     * Gets a cursor to access the field values from the last parsed trace line.
+     * @return
+     */
+    protected TraceLineCursor getLastParsedLine() {
+        return lastParsedLine;
+    }
+
+    /**
+     * Sets a cursor to access the field values from the last parsed trace line.
+     * Since cursors are reused, the values it gives access to change as new lines are read.
+     *
+     * @param lastParsedLine a cursor to access the fields of the last parsed trace line
+     * @see #readFileFields(java.util.function.Function)
+     */
+    protected void setLastParsedLine(final TraceLineCursor lastParsedLine) {
+        this.lastParsedLine = Objects.requireNonNull(lastParsedLine);
     }
 }
@@ -32,8 +32,10 @@ import org.cloudbus.cloudsim.core.Simulation;
 import org.cloudbus.cloudsim.core.events.CloudSimEvent;
 import org.cloudbus.cloudsim.util.Conversion;
 import org.cloudbus.cloudsim.util.ResourceLoader;
+import org.cloudbus.cloudsim.util.TraceLineCursor;
 import org.cloudbus.cloudsim.utilizationmodels.UtilizationModelDynamic;
 import org.cloudsimplus.listeners.EventInfo;
+import org.cloudsimplus.traces.TraceFeeder;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -308,6 +310,22 @@ public final class GoogleTaskEventsTraceReader extends GoogleTraceReaderAbstract
 
     private final CloudSim simulation;
 
+    /**
+     * @see #setBrokerCreationFunction(Function)
+     */
+    private Function<String, DatacenterBroker> brokerCreationFunction;
+
+    /**
+     * Indicates if the trace is being {@link #stream(double) streamed} into the simulation.
+     */
+    private boolean streaming;
+
+    /**
+     * The timestamp (in seconds) of the next trace line to be read when the trace
+     * is {@link #stream(double) streamed}.
+     */
+    private double nextLineTimestamp;
+
     /**
      * Gets a {@link GoogleTaskEventsTraceReader} instance to read a "task events" trace file
      * inside the <b>application's resource directory</b>.
@@ -378,6 +396,7 @@ public final class GoogleTaskEventsTraceReader extends GoogleTraceReaderAbstract
         super(filePath, reader);
         this.simulation = requireNonNull(simulation);
         this.cloudletCreationFunction = requireNonNull(cloudletCreationFunction);
+        this.brokerCreationFunction = this::createBroker;
         brokersMap = new HashMap<>();
         cloudletStatusChangeEvents = new ArrayList<>();
     }
@@ -399,6 +418,55 @@ public final class GoogleTaskEventsTraceReader extends GoogleTraceReaderAbstract
         return super.process();
     }
 
+    /**
+     * Streams the {@link #getFilePath() trace file} into the simulation, instead of
+     * {@link #process() processing} the entire file before the simulation starts.
+     * The trace lines are read as the simulation clock approaches their timestamps,
+     * so that just the lines up to the current simulation time plus a given look-ahead time are
+     * kept into memory. This way, very long traces can be simulated with constant memory
+     * usage by the reader.
+     *
+     * <p>{@link Cloudlet}s and {@link DatacenterBroker}s are created and Cloudlets
+     * status changes are requested just like when the trace is {@link #process() processed},
+     * but they are not kept by the reader.
+     * Since brokers may be created during the simulation execution,
+     * a {@link #setBrokerCreationFunction(Function) broker creation function} can be set to
+     * configure them (for instance, to submit VMs to run the Cloudlets).
+     * Such brokers may have to be configured to not destroy idle VMs
+     * while waiting for Cloudlets which are yet to be read from the trace.</p>
+     *
+     * <p>This method can be called before the simulation starts or while it's running.</p>
+     *
+     * @param lookAheadTime how many seconds ahead of the simulation clock trace lines are read
+     * @return the {@link TraceFeeder} that reads the trace along the simulation execution
+     * @see #getBrokers()
+     */
+    public TraceFeeder stream(final double lookAheadTime) {
+        streaming = true;
+        simulation.addOnSimulationStartListener(this::onSimulationStart);
+        return new TraceFeeder(simulation, lookAheadTime, this::processLinesUntil).start();
+    }
+
+    /**
+     * Processes the next trace lines up to a given time.
+     *
+     * @param time the maximum timestamp (in seconds) of the lines to process
+     * @return the timestamp of the next line to process or -1 if the end of the file was reached
+     */
+    private double processLinesUntil(final double time) {
+        final boolean moreLines = readFileFieldsWhile(line -> isLineTimestampUntil(line, time), this::processParsedLine);
+        return moreLines ? nextLineTimestamp : -1;
+    }
+
+    /**
+     * Checks if the timestamp of a line is up to a given time,
+     * storing such a timestamp as the {@link #nextLineTimestamp}.
+     */
+    private boolean isLineTimestampUntil(final TraceLineCursor line, final double time) {
+        nextLineTimestamp = Conversion.microToSeconds(line.getDouble(FieldIndex.TIMESTAMP.ordinal()));
+        return nextLineTimestamp <= time;
+    }
+
     /**
      * There is no pre-process requirements for this implementation.
      */
@@ -418,6 +486,48 @@ public final class GoogleTaskEventsTraceReader extends GoogleTraceReaderAbstract
      */
     private void onSimulationStart(final EventInfo info) {
         cloudletStatusChangeEvents.forEach(evt -> evt.getSource().schedule(evt));
+        cloudletStatusChangeEvents.clear();
+    }
+
+    /**
+     * Adds an event to request to change the status or attributes of a Cloudlet.
+     * If the simulation is already running (which happens when the trace is {@link #stream(double) streamed}),
+     * the event is sent immediately. Otherwise, it's sent when the simulation starts.
+     *
+     * @param evt the event to add
+     */
+    private void addCloudletStatusChangeEvent(final CloudSimEvent evt) {
+        if (simulation.isRunning()) {
+            simulation.send(evt);
+            return;
+        }
+
+        cloudletStatusChangeEvents.add(evt);
+    }
+
+    /**
+     * Gets the delay from the current simulation time until a given timestamp read from the trace file.
+     * If the trace is {@link #process() processed} before the simulation starts,
+     * the delay is the timestamp itself.
+     *
+     * @param timestamp the timestamp (in seconds)
+     * @return the delay (in seconds)
+     */
+    /* default */ double getDelayUntil(final double timestamp) {
+        return Math.max(timestamp - simulation.clock(), 0);
+    }
+
+    /**
+     * Adds a Cloudlet submitted to its broker to the Set of available objects
+     * to be returned by {@link #process()}.
+     * When the trace is {@link #stream(double) streamed}, submitted Cloudlets
+     * aren't kept by the reader to avoid memory usage growing with the trace length.
+     *
+     * @param cloudlet the submitted Cloudlet
+     * @return true if the Cloudlet was processed, false otherwise
+     */
+    /* default */ boolean addSubmittedCloudlet(final Cloudlet cloudlet) {
+        return streaming || addAvailableObject(cloudlet);
     }
 
     @Override
@@ -471,7 +581,7 @@ public final class GoogleTaskEventsTraceReader extends GoogleTraceReaderAbstract
     {
         final TaskEvent taskEvent = createTaskEventFromTraceLine();
         final DatacenterBroker broker = getBroker(taskEvent.getUserName());
-        final double delay = taskEvent.getTimestamp();
+        final double delay = getDelayUntil(taskEvent.getTimestamp());
 
         return cloudletLookupFunction
                 .apply(broker, taskEvent.getUniqueTaskId())
@@ -492,7 +602,7 @@ public final class GoogleTaskEventsTraceReader extends GoogleTraceReaderAbstract
      */
     private Cloudlet addCloudletStatusChangeEvents(final CloudSimEvent statusChangeSimEvt, final TaskEvent taskEvent){
         //Sends the event to change the Cloudlet status.
-        cloudletStatusChangeEvents.add(statusChangeSimEvt);
+        addCloudletStatusChangeEvent(statusChangeSimEvt);
         /*The actual Cloudlet that needs to have its status and/or attributes changed
         * by sending a request message to the broker.*/
         final Cloudlet cloudlet = (Cloudlet)statusChangeSimEvt.getData();
@@ -568,12 +678,12 @@ public final class GoogleTaskEventsTraceReader extends GoogleTraceReaderAbstract
          * This way, it will be executed only when the event is processed.*/
         final CloudSimEvent attrsChangeSimEvt =
             new CloudSimEvent(
-                taskEvent.getTimestamp(),
+                getDelayUntil(taskEvent.getTimestamp()),
                 statusChangeSimEvt.getDestination(),
                 CloudSimTags.CLOUDLET_UPDATE_ATTRIBUTES, attributesUpdateRunnable);
 
         //Sends the event to change the Cloudlet attributes
-        cloudletStatusChangeEvents.add(attrsChangeSimEvt);
+        addCloudletStatusChangeEvent(attrsChangeSimEvt);
 
         return cloudlet;
     }
@@ -640,7 +750,23 @@ public final class GoogleTaskEventsTraceReader extends GoogleTraceReaderAbstract
      * @return an already existing broker with the given username or a new one if there was no broker with such an username
      */
     protected DatacenterBroker createBrokerIfAbsent(final String username){
-        return brokersMap.computeIfAbsent(username, this::createBroker);
+        return brokersMap.computeIfAbsent(username, brokerCreationFunction);
+    }
+
+    /**
+     * Sets a {@link Function} that will be called to create a {@link DatacenterBroker}
+     * for each customer (user) found in the trace file.
+     * The {@link Function} will receive the username read from the trace and must return
+     * a new broker. By default, a {@link DatacenterBrokerSimple} named "Broker_username" is created.
+     *
+     * <p>When the trace is {@link #stream(double) streamed}, brokers may be created
+     * while the simulation is running. This way, such a function is where
+     * the VMs to run each customer's Cloudlets are usually submitted.</p>
+     *
+     * @param brokerCreationFunction the {@link Function} to set
+     */
+    public void setBrokerCreationFunction(final Function<String, DatacenterBroker> brokerCreationFunction) {
+        this.brokerCreationFunction = requireNonNull(brokerCreationFunction);
     }
 
     private DatacenterBroker createBroker(final String username) {
@@ -374,8 +374,8 @@ public final class GoogleTaskUsageTraceReader extends GoogleTraceReaderAbstract<
     protected boolean processParsedLineInternal() {
         final TaskUsage taskUsage = createTaskUsageFromTraceLine();
         return brokers.stream()
-               .flatMap(broker -> broker.getCloudletSubmittedList().stream())
-               .filter(c -> c.getId() == taskUsage.getUniqueTaskId())
+               .map(broker -> broker.getCloudletById(taskUsage.getUniqueTaskId()))
+               .filter(cloudlet -> cloudlet != Cloudlet.NULL)
                .findFirst()
                .map(cloudlet -> requestCloudletUsageChange(cloudlet, taskUsage)).isPresent();
     }
@@ -23,12 +23,11 @@
  */
 package org.cloudsimplus.traces.google;
 
+import org.cloudbus.cloudsim.util.TraceLineCursor;
 import org.cloudsimplus.traces.TraceReaderBase;
 
 import java.io.InputStream;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 
 /**
  * An abstract class for creating <a href="https://github.com/google/cluster-data/blob/master/ClusterData2011_2.md">Google Cluster Trace</a>
@@ -52,10 +51,36 @@ abstract class GoogleTraceReaderAbstract<T> extends TraceReaderBase {
      */
     private final Set<T> availableObjects;
 
+    /**
+     * @see #addShards(String...)
+     */
+    private final List<String> shardFilePaths;
+
     /* default */  GoogleTraceReaderAbstract(final String filePath, final InputStream reader) {
         super(filePath, reader);
         this.setFieldDelimiterRegex(",");
         availableObjects = new HashSet<>();
+        shardFilePaths = new ArrayList<>();
+    }
+
+    /**
+     * Adds other files (shards) of the same trace to be processed together with the
+     * {@link #getFilePath() trace file}. Google Cluster traces are split into hundreds of
+     * shards (such as part-00000-of-00500.csv.gz), each one sorted by timestamp.
+     * Lines from all files are merged and processed in timestamp order,
+     * while files are decompressed and parsed in parallel using the
+     * {@link #getParsingThreads() parsing threads}.
+     *
+     * @param filePaths the paths of the trace files to add, in one of the following formats: <i>ASCII text, zip, gz.</i>
+     */
+    public void addShards(final String... filePaths) {
+        for (final String filePath : filePaths) {
+            if (filePath == null || filePath.isEmpty()) {
+                throw new IllegalArgumentException("Invalid trace file path.");
+            }
+
+            shardFilePaths.add(filePath);
+        }
     }
 
     /**
@@ -70,13 +95,23 @@ abstract class GoogleTraceReaderAbstract<T> extends TraceReaderBase {
         preProcess();
         //If the file was not processed yet, process it
         if (availableObjects.isEmpty()) {
-            readFile(this::processParsedLine);
+            readTraceFiles();
             postProcess();
         }
 
         return availableObjects;
     }
 
+    private void readTraceFiles() {
+        if (shardFilePaths.isEmpty()) {
+            readFileFields(this::processParsedLine);
+            return;
+        }
+
+        //The timestamp is the first field in all Google Cluster trace files
+        readFileFields(shardFilePaths, line -> Double.parseDouble(line[0]), this::processParsedLine);
+    }
+
     /**
      * Executes any pre-process before starting to read the trace file,
      * such as checking if required attributes were set.
@@ -105,12 +140,23 @@ abstract class GoogleTraceReaderAbstract<T> extends TraceReaderBase {
         return processParsedLineInternal();
     }
 
+    /**
+     * Process a parsed line according to the event type.
+     *
+     * @param parsedLine a cursor to access the field values from the last parsed trace line.
+     * @return true if the parsed line was processed, false otherwise
+     */
+    /* default */ final boolean processParsedLine(final TraceLineCursor parsedLine) {
+        this.setLastParsedLine(parsedLine);
+        return processParsedLineInternal();
+    }
+
     /**
      * Process the last parsed trace line.
      * @return true if the parsed line was processed, false otherwise
      *
-     * @see #processParsedLine(String[])
-     * @see #getLastParsedLineArray()
+     * @see #processParsedLine(TraceLineCursor)
+     * @see #getLastParsedLine()
      */
     protected abstract boolean processParsedLineInternal();
 
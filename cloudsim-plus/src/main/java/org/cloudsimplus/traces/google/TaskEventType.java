@@ -50,7 +50,7 @@ public enum TaskEventType {
             final Cloudlet cloudlet = reader.createCloudlet(event);
             cloudlet.setId(event.getUniqueTaskId());
             cloudlet.setJobId(event.getJobId());
-            final double delay = FieldIndex.TIMESTAMP.getValue(reader);
+            final double delay = reader.getDelayUntil(FieldIndex.TIMESTAMP.getValue(reader));
             cloudlet.setSubmissionDelay(delay);
 
             // Since Cloudlet id must be unique, it will be the concatenation of the job and task id
@@ -62,7 +62,7 @@ public enum TaskEventType {
 
             final DatacenterBroker broker = reader.createBrokerIfAbsent(event.getUserName());
             broker.submitCloudlet(cloudlet);
-            return reader.addAvailableObject(cloudlet);
+            return reader.addSubmittedCloudlet(cloudlet);
         }
     },
 
@@ -165,7 +165,8 @@ public enum TaskEventType {
      * @return an {@link Optional} containing the Cloudlet or an empty {@link Optional} if the Cloudlet was not found
      */
     protected Optional<Cloudlet> cloudletLookup(final DatacenterBroker broker, final long uniqueId) {
-        return broker.getCloudletSubmittedList().stream().filter(cloudlet -> cloudlet.getId() == uniqueId).findFirst();
+        final Cloudlet cloudlet = broker.getCloudletById(uniqueId);
+        return cloudlet == Cloudlet.NULL ? Optional.empty() : Optional.of(cloudlet);
     }
 
     /**
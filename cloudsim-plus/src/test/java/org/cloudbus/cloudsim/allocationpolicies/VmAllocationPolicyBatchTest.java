@@ -0,0 +1,152 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.allocationpolicies;
+
+import org.cloudbus.cloudsim.datacenters.Datacenter;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.hosts.HostSimpleTest;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudbus.cloudsim.vms.VmTestUtil;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the allocation of Hosts for a batch of VMs using
+ * {@link VmAllocationPolicyAbstract#allocateHostForVmList(List)}.
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public class VmAllocationPolicyBatchTest {
+    private static final int HOST_MIPS = 1000;
+    private static final int HOST_RAM = 16000;
+    private static final int HOST_BW = 100000;
+    private static final int HOST_STORAGE = 1000000;
+
+    @Test
+    public void allocateHostForVmList_WhenVmsAreSortedBySize_AllVmsArePlaced() {
+        final VmAllocationPolicyAbstract policy = createPolicy(new VmAllocationPolicyFirstFit(), 4, 4);
+        final List<Vm> vms = createVms(1, 1, 3, 3);
+
+        assertTrue(policy.allocateHostForVmList(vms).isEmpty());
+        final List<Host> hosts = policy.getHostList();
+        assertEquals(Arrays.asList(hosts.get(0), hosts.get(1), hosts.get(0), hosts.get(1)), getHosts(vms));
+    }
+
+    @Test
+    public void allocateHostForVmList_WhenVmsAreNotSorted_ReturnsNotPlacedVms() {
+        final VmAllocationPolicyAbstract policy = createPolicy(new VmAllocationPolicyFirstFit(), 4, 4);
+        policy.setBatchVmComparator((vm1, vm2) -> 0);
+        final List<Vm> vms = createVms(1, 1, 3, 3);
+
+        assertEquals(vms.subList(3, 4), policy.allocateHostForVmList(vms));
+        assertEquals(Host.NULL, vms.get(3).getHost());
+    }
+
+    @Test
+    public void allocateHostForVmList_WhenNoHostIsSuitable_ReturnsAllVms() {
+        final VmAllocationPolicyAbstract policy = createPolicy(new VmAllocationPolicySimple(), 2, 2);
+        final List<Vm> vms = createVms(4, 3);
+        assertEquals(vms, policy.allocateHostForVmList(vms));
+    }
+
+    @Test
+    public void allocateHostForVmList_ParallelEvaluation_SelectsSameHostsAsSequential() {
+        final int[] hostPes = new Random(7).ints(37, 1, 9).toArray();
+        final VmAllocationPolicyAbstract sequential = createPolicy(new VmAllocationPolicyFirstFit(), hostPes);
+        final VmAllocationPolicyAbstract parallel = createPolicy(new VmAllocationPolicyFirstFit(), hostPes);
+        parallel.setParallelBatchEvaluation(true);
+
+        final int[] vmPes = new Random(42).ints(200, 1, 5).toArray();
+        final List<Vm> sequentialVms = createVms(vmPes);
+        final List<Vm> parallelVms = createVms(vmPes);
+        final List<Vm> notPlacedSequentialVms = sequential.allocateHostForVmList(sequentialVms);
+        final List<Vm> notPlacedParallelVms = parallel.allocateHostForVmList(parallelVms);
+
+        assertFalse(notPlacedParallelVms.isEmpty());
+        assertEquals(getIds(notPlacedSequentialVms), getIds(notPlacedParallelVms));
+        assertEquals(getHostIds(sequentialVms), getHostIds(parallelVms));
+    }
+
+    @Test
+    public void allocateHostForVmList_ParallelEvaluationInWindows_SelectsSameHostsAsSequential() {
+        final int[] hostPes = new Random(7).ints(37, 1, 9).toArray();
+        final VmAllocationPolicyAbstract sequential = createPolicy(new VmAllocationPolicyFirstFit(), hostPes);
+        final VmAllocationPolicyAbstract parallel = createPolicy(new VmAllocationPolicyFirstFit(), hostPes);
+        parallel.setParallelBatchEvaluation(true);
+        parallel.setMaxChecksPerBatchEvaluationWindow(hostPes.length * 16);
+
+        final int[] vmPes = new Random(42).ints(200, 1, 5).toArray();
+        final List<Vm> sequentialVms = createVms(vmPes);
+        final List<Vm> parallelVms = createVms(vmPes);
+        final List<Vm> notPlacedSequentialVms = sequential.allocateHostForVmList(sequentialVms);
+        final List<Vm> notPlacedParallelVms = parallel.allocateHostForVmList(parallelVms);
+
+        assertFalse(notPlacedParallelVms.isEmpty());
+        assertEquals(getIds(notPlacedSequentialVms), getIds(notPlacedParallelVms));
+        assertEquals(getHostIds(sequentialVms), getHostIds(parallelVms));
+    }
+
+    private List<Host> getHosts(final List<Vm> vms) {
+        return vms.stream().map(Vm::getHost).collect(toList());
+    }
+
+    private List<Long> getHostIds(final List<Vm> vms) {
+        return vms.stream().map(vm -> vm.getHost().getId()).collect(toList());
+    }
+
+    private List<Long> getIds(final List<Vm> vms) {
+        return vms.stream().map(Vm::getId).collect(toList());
+    }
+
+    private List<Vm> createVms(final int... pesByVm) {
+        final List<Vm> vms = new ArrayList<>(pesByVm.length);
+        for (int i = 0; i < pesByVm.length; i++) {
+            vms.add(VmTestUtil.createVm(i, HOST_MIPS, pesByVm[i], 1000, 1000, 1000));
+        }
+
+        return vms;
+    }
+
+    private VmAllocationPolicyAbstract createPolicy(final VmAllocationPolicyAbstract policy, final int... pesByHost) {
+        final List<Host> hosts = new ArrayList<>(pesByHost.length);
+        for (int i = 0; i < pesByHost.length; i++) {
+            hosts.add(HostSimpleTest.createHostSimple(i, pesByHost[i], HOST_MIPS, HOST_RAM, HOST_BW, HOST_STORAGE));
+        }
+
+        final Datacenter datacenter = EasyMock.createMock(Datacenter.class);
+        EasyMock.expect(datacenter.getHostList()).andReturn(hosts).anyTimes();
+        EasyMock.replay(datacenter);
+        policy.setDatacenter(datacenter);
+        return policy;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.allocationpolicies;
+
+import org.cloudbus.cloudsim.datacenters.Datacenter;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.hosts.HostSimpleTest;
+import org.cloudbus.cloudsim.schedulers.vm.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudbus.cloudsim.vms.VmTestUtil;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the {@link VmAllocationPolicyIndexedAbstract} subclasses
+ * select the same Hosts which are selected by checking every Host.
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+public class VmAllocationPolicyIndexedTest {
+    private static final int HOSTS = 37;
+    private static final int HOST_MIPS = 1000;
+    private static final int HOST_RAM = 16000;
+    private static final int HOST_BW = 100000;
+    private static final int HOST_STORAGE = 1000000;
+    private static final int OPERATIONS = 500;
+
+    @Test
+    public void findHostForVm_FirstFit_SelectsSameHostAsLinearSearch() {
+        final VmAllocationPolicyIndexedAbstract policy = createPolicy(new VmAllocationPolicyIndexedFirstFit());
+        checkAllocations(policy, vm -> policy.getHostList().stream().filter(host -> host.isSuitableForVm(vm)).findFirst());
+    }
+
+    @Test
+    public void findHostForVm_BestFit_SelectsSameHostAsLinearSearch() {
+        final VmAllocationPolicyIndexedAbstract policy = createPolicy(new VmAllocationPolicyIndexedBestFit());
+        final Comparator<Host> comparator = Comparator.comparingLong(host -> policy.getHostFreePesMap().get(host));
+        checkAllocations(policy, vm -> policy.getHostList().stream().filter(host -> host.isSuitableForVm(vm)).min(comparator));
+    }
+
+    @Test
+    public void findHostForVm_Simple_SelectsSameHostAsLinearSearch() {
+        final VmAllocationPolicyIndexedAbstract policy = createPolicy(new VmAllocationPolicyIndexedSimple());
+        final Comparator<Host> comparator = Comparator.comparingLong(host -> -policy.getHostFreePesMap().get(host));
+        checkAllocations(policy, vm -> policy.getHostList().stream().filter(host -> host.isSuitableForVm(vm)).min(comparator));
+    }
+
+    @Test
+    public void findHostForVm_WhenHostsOverSubscribeMips_SelectsSameHostAsLinearSearch() {
+        final VmAllocationPolicyIndexedAbstract policy = createPolicy(new VmAllocationPolicyIndexedFirstFit(), true);
+        checkAllocations(policy, vm -> policy.getHostList().stream().filter(host -> host.isSuitableForVm(vm)).findFirst());
+    }
+
+    @Test
+    public void findHostForVm_WhenHostHasNotEnoughAvailableMipsButOverSubscribes_ReturnsHost() {
+        final VmAllocationPolicyIndexedAbstract policy = createPolicy(new VmAllocationPolicyIndexedFirstFit(), true);
+        final Host host = policy.getHostList().get(0);
+        final Vm vm0 = VmTestUtil.createVm(0, HOST_MIPS, (int) host.getNumberOfPes(), 1000, 1000, 1000);
+        assertTrue(policy.allocateHostForVm(vm0, host));
+
+        final Vm vm1 = VmTestUtil.createVm(1, HOST_MIPS, 1, 1000, 1000, 1000);
+        assertTrue(host.getAvailableMips() < vm1.getCurrentRequestedTotalMips());
+        assertEquals(Optional.of(host), policy.findHostForVm(vm1));
+    }
+
+    @Test
+    public void findHostForVm_WhenNoHostIsSuitable_ReturnsEmpty() {
+        final VmAllocationPolicyIndexedAbstract policy = createPolicy(new VmAllocationPolicyIndexedSimple());
+        final Vm vm = VmTestUtil.createVm(0, HOST_MIPS, 100, HOST_RAM, HOST_BW, HOST_STORAGE);
+        assertFalse(policy.findHostForVm(vm).isPresent());
+    }
+
+    /**
+     * Randomly allocates and deallocates VMs, checking if the Host selected by the policy
+     * is the expected one after each change in the Hosts resources.
+     *
+     * @param policy the policy to check
+     * @param expectedHostFunction a function that gets the expected Host for a VM
+     */
+    private void checkAllocations(
+        final VmAllocationPolicyIndexedAbstract policy,
+        final Function<Vm, Optional<Host>> expectedHostFunction)
+    {
+        final Random random = new Random(42);
+        final List<Vm> allocatedVms = new ArrayList<>();
+        for (int id = 0; id < OPERATIONS; id++) {
+            if(!allocatedVms.isEmpty() && random.nextInt(3) == 0){
+                final Vm vm = allocatedVms.remove(random.nextInt(allocatedVms.size()));
+                policy.deallocateHostForVm(vm);
+                continue;
+            }
+
+            final Vm vm = VmTestUtil.createVm(
+                id, HOST_MIPS/(1 + random.nextInt(4)), 1 + random.nextInt(4),
+                500 + random.nextInt(4000), 1000, 1000);
+            final Optional<Host> expected = expectedHostFunction.apply(vm);
+            assertEquals("Unexpected Host for " + vm, expected, policy.findHostForVm(vm));
+            if(expected.isPresent()) {
+                assertTrue(policy.allocateHostForVm(vm, expected.get()));
+                allocatedVms.add(vm);
+            }
+        }
+    }
+
+    private VmAllocationPolicyIndexedAbstract createPolicy(final VmAllocationPolicyIndexedAbstract policy) {
+        return createPolicy(policy, false);
+    }
+
+    /**
+     * Creates a policy for a Datacenter with Hosts having random number of PEs.
+     * @param policy the policy to set the Datacenter
+     * @param overSubscription true to make Hosts to allow over-subscription of MIPS, false otherwise
+     * @return the given policy
+     */
+    private VmAllocationPolicyIndexedAbstract createPolicy(
+        final VmAllocationPolicyIndexedAbstract policy,
+        final boolean overSubscription)
+    {
+        final Random random = new Random(7);
+        final List<Host> hosts = new ArrayList<>(HOSTS);
+        for (int id = 0; id < HOSTS; id++) {
+            final Host host = HostSimpleTest.createHostSimple(id, 1 + random.nextInt(8), HOST_MIPS, HOST_RAM, HOST_BW, HOST_STORAGE);
+            if(overSubscription) {
+                host.setVmScheduler(new VmSchedulerTimeSharedOverSubscription());
+            }
+            hosts.add(host);
+        }
+
+        final Datacenter datacenter = EasyMock.createMock(Datacenter.class);
+        EasyMock.expect(datacenter.getHostList()).andReturn(hosts).anyTimes();
+        EasyMock.replay(datacenter);
+        policy.setDatacenter(datacenter);
+        return policy;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.allocationpolicies.migration;
+
+import ch.qos.logback.classic.Level;
+import org.cloudbus.cloudsim.brokers.DatacenterBroker;
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.cloudlets.CloudletSimple;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.hosts.HostSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.resources.Pe;
+import org.cloudbus.cloudsim.resources.PeSimple;
+import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.schedulers.vm.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.selectionpolicies.power.PowerVmSelectionPolicyMinimumUtilization;
+import org.cloudbus.cloudsim.utilizationmodels.UtilizationModelDynamic;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudbus.cloudsim.vms.VmSimple;
+import org.cloudsimplus.util.Log;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks that planning VM migrations using a {@link HostsCapacityShadow}
+ * gives the same results as temporarily creating VMs into target Hosts.
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ * @see VmAllocationPolicyMigrationAbstract#setShadowCapacityPlanning(boolean)
+ */
+public class VmAllocationPolicyMigrationAbstractTest {
+    private static final int HOSTS = 4;
+    private static final int HOST_PES = 4;
+    private static final int VMS = 8;
+    private static final double PLANNING_TIME = 5;
+
+    /**
+     * The CPU utilization of the Cloudlet running into each VM.
+     * Since VMs are initially packed into the first Hosts, the first Host gets overloaded,
+     * the second one underloaded and the other ones stay empty.
+     */
+    private static final double[] CPU_UTILIZATION = {1, 1, 0.9, 0.8, 0.2, 0.1, 0.1, 0.2};
+
+    /**
+     * The migration map got using shadow capacity planning,
+     * where each key is a VM ID and each value is the ID of the target Host.
+     */
+    private Map<Long, Long> shadowMigrationMap;
+
+    /**
+     * The migration map got by temporarily creating VMs into target Hosts,
+     * where each key is a VM ID and each value is the ID of the target Host.
+     */
+    private Map<Long, Long> baselineMigrationMap;
+
+    /**
+     * The state of the Hosts before the migration planning.
+     */
+    private List<String> hostsStateBefore;
+
+    /**
+     * The state of the Hosts after the migration planning using shadow capacity.
+     */
+    private List<String> hostsStateAfter;
+
+    @Before
+    public void setUp() {
+        Log.setLevel(Level.WARN);
+        runSimulation();
+    }
+
+    @Test
+    public void getOptimizedAllocationMap_WithShadowCapacityPlanning_ReturnsSameMapAsBaseline() {
+        assertFalse(baselineMigrationMap.isEmpty());
+        assertEquals(baselineMigrationMap, shadowMigrationMap);
+    }
+
+    @Test
+    public void getOptimizedAllocationMap_WithShadowCapacityPlanning_DoesNotChangeHosts() {
+        assertEquals(HOSTS, hostsStateBefore.size());
+        assertEquals(hostsStateBefore, hostsStateAfter);
+    }
+
+    /**
+     * Runs a simulation where migrations are planned, but not performed, once the Hosts are overloaded.
+     * The migrations are firstly planned using shadow capacity,
+     * then by temporarily creating VMs into target Hosts.
+     */
+    private void runSimulation() {
+        final CloudSim simulation = new CloudSim();
+        final VmAllocationPolicyMigrationAbstract policy =
+            new VmAllocationPolicyMigrationBestFitStaticThreshold(
+                new PowerVmSelectionPolicyMinimumUtilization(), 0.7,
+                (allocationPolicy, vm) -> Optional.of(allocationPolicy.getHostList().get((int) vm.getId() / HOST_PES)));
+        new DatacenterSimple(simulation, createHosts(), policy).disableMigrations().setSchedulingInterval(1);
+
+        final DatacenterBroker broker = new DatacenterBrokerSimple(simulation);
+        final List<Vm> vms = createVms();
+        broker.submitVmList(vms);
+        broker.submitCloudletList(createCloudlets());
+
+        simulation.addOnClockTickListener(info -> {
+            if (info.getTime() < PLANNING_TIME || shadowMigrationMap != null) {
+                return;
+            }
+
+            hostsStateBefore = getHostsState(policy.getHostList());
+            shadowMigrationMap = toIds(policy.setShadowCapacityPlanning(true).getOptimizedAllocationMap(vms));
+            hostsStateAfter = getHostsState(policy.getHostList());
+            baselineMigrationMap = toIds(policy.setShadowCapacityPlanning(false).getOptimizedAllocationMap(vms));
+        });
+        simulation.start();
+    }
+
+    private static Map<Long, Long> toIds(final Map<Vm, Host> migrationMap) {
+        final Map<Long, Long> ids = new TreeMap<>();
+        migrationMap.forEach((vm, host) -> ids.put(vm.getId(), host.getId()));
+        return ids;
+    }
+
+    /**
+     * Gets a description of the VMs placed into each Host and the resources allocated to them.
+     * @param hosts the Hosts to get their state
+     * @return
+     */
+    private static List<String> getHostsState(final List<Host> hosts) {
+        final List<String> states = new ArrayList<>(hosts.size());
+        for (final Host host : hosts) {
+            final StringBuilder state = new StringBuilder()
+                .append("Host ").append(host.getId())
+                .append(" MIPS ").append(host.getAvailableMips())
+                .append(" RAM ").append(host.getRamProvisioner().getAvailableResource())
+                .append(" BW ").append(host.getBwProvisioner().getAvailableResource())
+                .append(" Storage ").append(host.getStorage().getAvailableResource())
+                .append(" Migrating in ").append(host.getVmsMigratingIn().size());
+            for (final Vm vm : host.getVmList()) {
+                state.append(" | VM ").append(vm.getId())
+                     .append(" at Host ").append(vm.getHost().getId())
+                     .append(" MIPS ").append(host.getVmScheduler().getAllocatedMips(vm));
+            }
+
+            states.add(state.toString());
+        }
+
+        return states;
+    }
+
+    private List<Host> createHosts() {
+        final List<Host> list = new ArrayList<>(HOSTS);
+        for (int i = 0; i < HOSTS; i++) {
+            final List<Pe> peList = new ArrayList<>(HOST_PES);
+            for (int j = 0; j < HOST_PES; j++) {
+                peList.add(new PeSimple(1000, new PeProvisionerSimple()));
+            }
+
+            list.add(new HostSimple(16000, 100000, 1000000, peList).setVmScheduler(new VmSchedulerTimeShared()));
+        }
+
+        return list;
+    }
+
+    private List<Vm> createVms() {
+        final List<Vm> list = new ArrayList<>(VMS);
+        for (int i = 0; i < VMS; i++) {
+            final Vm vm = new VmSimple(i, 1000, 1)
+                .setRam(512).setBw(1000).setSize(10000)
+                .setCloudletScheduler(new CloudletSchedulerTimeShared());
+            list.add(vm);
+        }
+
+        return list;
+    }
+
+    private List<Cloudlet> createCloudlets() {
+        final List<Cloudlet> list = new ArrayList<>(VMS);
+        for (int i = 0; i < VMS; i++) {
+            final Cloudlet cloudlet = new CloudletSimple(i, 100000, 1)
+                .setUtilizationModelCpu(new UtilizationModelDynamic(CPU_UTILIZATION[i]));
+            list.add(cloudlet);
+        }
+
+        return list;
+    }
+}
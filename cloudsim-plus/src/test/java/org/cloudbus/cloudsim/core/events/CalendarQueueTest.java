@@ -0,0 +1,183 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.core.events;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ * @author Manoel Campos da Silva Filho
+ */
+public class CalendarQueueTest {
+    private static final int EVENTS = 5000;
+
+    private SimEntity entity;
+    private Random random;
+
+    @Before
+    public void setUp() {
+        entity = new CloudSim().getCloudInfoService();
+        random = new Random(1);
+    }
+
+    private SimEvent newEvent(final double delay, final int tag) {
+        return new CloudSimEvent(delay, entity, tag, null);
+    }
+
+    /**
+     * Adds the same events to a {@link FutureQueue} and a {@link CalendarQueue}.
+     * Delays of regular events are rounded to generate lots of events at the same time.
+     * Events added to the head of the queue are not rounded,
+     * since they all have the same serial and are expected to have different times.
+     */
+    private void addRandomEvents(final FutureEventQueue expected, final FutureEventQueue actual, final int count) {
+        for (int i = 0; i < count; i++) {
+            final double delay = random.nextDouble() * 100;
+            if (random.nextInt(10) == 0) {
+                final SimEvent evt = newEvent(delay, -1);
+                expected.addEventFirst(evt);
+                actual.addEventFirst(new CloudSimEvent(evt));
+            } else {
+                final SimEvent evt = newEvent(Math.round(delay * 10) / 10.0, i);
+                expected.addEvent(evt);
+                actual.addEvent(new CloudSimEvent(evt));
+            }
+        }
+    }
+
+    private static SimEvent poll(final FutureEventQueue queue) {
+        final SimEvent evt = queue.first();
+        assertTrue(queue.remove(evt));
+        return evt;
+    }
+
+    private static void assertSameEvent(final SimEvent expected, final SimEvent actual) {
+        assertEquals(expected.getTime(), actual.getTime(), 0);
+        assertEquals(expected.getTag(), actual.getTag());
+    }
+
+    @Test
+    public void testFirstFollowsSameOrderOfFutureQueue() {
+        final FutureQueue expected = new FutureQueue();
+        final CalendarQueue actual = new CalendarQueue();
+        addRandomEvents(expected, actual, EVENTS);
+        assertEquals(expected.size(), actual.size());
+
+        while (!expected.isEmpty()) {
+            assertSameEvent(poll(expected), poll(actual));
+        }
+
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    public void testHoldModelKeepsSameOrderOfFutureQueue() {
+        final FutureQueue expected = new FutureQueue();
+        final CalendarQueue actual = new CalendarQueue();
+        addRandomEvents(expected, actual, EVENTS);
+
+        for (int i = 0; i < EVENTS; i++) {
+            final SimEvent first = poll(expected);
+            assertSameEvent(first, poll(actual));
+
+            final double delay = first.getTime() + random.nextDouble() * 100;
+            final SimEvent evt = newEvent(delay, i);
+            expected.addEvent(evt);
+            actual.addEvent(new CloudSimEvent(evt));
+        }
+
+        while (!expected.isEmpty()) {
+            assertSameEvent(poll(expected), poll(actual));
+        }
+    }
+
+    @Test
+    public void testIteratorFollowsSameOrderOfFutureQueue() {
+        final FutureQueue expected = new FutureQueue();
+        final CalendarQueue actual = new CalendarQueue();
+        addRandomEvents(expected, actual, EVENTS);
+
+        final Iterator<SimEvent> it = actual.iterator();
+        expected.stream().forEach(evt -> assertSameEvent(evt, it.next()));
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        final CalendarQueue queue = new CalendarQueue();
+        addRandomEvents(new FutureQueue(), queue, EVENTS);
+        final List<SimEvent> kept = queue.stream().filter(evt -> evt.getTag() % 2 == 0).collect(toList());
+
+        for (final Iterator<SimEvent> it = queue.iterator(); it.hasNext(); ) {
+            if (it.next().getTag() % 2 != 0) {
+                it.remove();
+            }
+        }
+
+        assertEquals(kept.size(), queue.size());
+        assertEquals(kept, queue.stream().collect(toList()));
+    }
+
+    @Test
+    public void testRemoveIf() {
+        final CalendarQueue queue = new CalendarQueue();
+        addRandomEvents(new FutureQueue(), queue, EVENTS);
+        final List<SimEvent> kept = queue.stream().filter(evt -> evt.getTag() < 0).collect(toList());
+
+        assertTrue(queue.removeIf(evt -> evt.getTag() >= 0));
+        assertFalse(queue.removeIf(evt -> evt.getTag() >= 0));
+        assertEquals(kept, new ArrayList<>(queue.stream().collect(toList())));
+        assertEquals(kept.get(0), queue.first());
+    }
+
+    @Test
+    public void testRemoveEventNotInQueue() {
+        final CalendarQueue queue = new CalendarQueue();
+        queue.addEvent(newEvent(1, 0));
+        assertFalse(queue.remove(newEvent(1, 0)));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void testCalendarIsResized() {
+        final CalendarQueue queue = new CalendarQueue();
+        final int initialBuckets = queue.getBucketsNumber();
+        addRandomEvents(new FutureQueue(), queue, EVENTS);
+        assertTrue(queue.getBucketsNumber() > initialBuckets);
+
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertEquals(initialBuckets, queue.getBucketsNumber());
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.core.events;
+
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.Simulation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ * @author Manoel Campos da Silva Filho
+ */
+public class IndexedDeferredQueueTest {
+    private static final int ENTITIES = 10;
+    private static final int EVENTS = 500;
+    private static final int TAGS = 5;
+
+    private List<SimEntity> entities;
+    private DeferredQueue expected;
+    private IndexedDeferredQueue actual;
+
+    @Before
+    public void setUp() {
+        final CloudSim simulation = new CloudSim();
+        entities = new ArrayList<>();
+        for (int i = 0; i < ENTITIES; i++) {
+            entities.add(new DatacenterBrokerSimple(simulation));
+        }
+
+        expected = new DeferredQueue();
+        actual = new IndexedDeferredQueue();
+        final Random random = new Random(1);
+        for (int i = 0; i < EVENTS; i++) {
+            final SimEntity dest = entities.get(random.nextInt(ENTITIES));
+            //Events are usually deferred in temporal order, but out of order ones are also added
+            final double delay = random.nextInt(10) == 0 ? random.nextInt(i + 1) : i;
+            final SimEvent evt = new CloudSimEvent(delay, dest, random.nextInt(TAGS), null);
+            evt.setSerial(i);
+            expected.addEvent(evt);
+            actual.addEvent(evt);
+        }
+    }
+
+    private void assertSameEventsForAllEntities(final Predicate<SimEvent> predicate) {
+        for (final SimEntity entity : entities) {
+            assertSame(expected.findFirst(entity, predicate), actual.findFirst(entity, predicate));
+            assertEquals(expected.count(entity, predicate), actual.count(entity, predicate));
+            assertEquals(
+                expected.stream(entity).filter(predicate).collect(toList()),
+                actual.stream(entity).filter(predicate).collect(toList()));
+        }
+    }
+
+    @Test
+    public void testFindAndCountWithAnyEventPredicate() {
+        assertEquals(expected.size(), actual.size());
+        assertSameEventsForAllEntities(Simulation.ANY_EVT);
+    }
+
+    @Test
+    public void testFindAndCountWithTagPredicate() {
+        for (int tag = 0; tag < TAGS; tag++) {
+            assertSameEventsForAllEntities(new PredicateType(tag));
+        }
+    }
+
+    @Test
+    public void testFindAndCountWithOtherPredicate() {
+        assertSameEventsForAllEntities(evt -> evt.getTime() > EVENTS/2);
+    }
+
+    @Test
+    public void testFindAndCountWithTagIndexDisabled() {
+        actual = new IndexedDeferredQueue(false);
+        expected.stream().forEach(actual::addEvent);
+        assertSameEventsForAllEntities(new PredicateType(1));
+    }
+
+    @Test
+    public void testRemove() {
+        final Predicate<SimEvent> predicate = new PredicateType(2);
+        for (final SimEntity entity : entities) {
+            final SimEvent evt = expected.findFirst(entity, predicate);
+            assertTrue(expected.remove(evt));
+            assertTrue(actual.remove(evt));
+            assertFalse(actual.remove(evt));
+        }
+
+        assertEquals(expected.size(), actual.size());
+        testFindAndCountWithTagPredicate();
+    }
+
+    @Test
+    public void testIteratorMergesBucketsInTemporalOrder() {
+        final List<SimEvent> sorted = expected.stream()
+            .sorted(Comparator.comparingDouble(SimEvent::getTime).thenComparingLong(SimEvent::getSerial))
+            .collect(toList());
+        assertEquals(sorted, actual.stream().collect(toList()));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        final Iterator<SimEvent> it = actual.iterator();
+        int removed = 0;
+        for (int i = 0; it.hasNext(); i++) {
+            final SimEvent evt = it.next();
+            if(i % 2 == 0) {
+                it.remove();
+                assertTrue(expected.remove(evt));
+                removed++;
+            }
+        }
+
+        assertEquals(EVENTS - removed, actual.size());
+        assertSame(expected.stream().min(Comparator.comparingDouble(SimEvent::getTime).thenComparingLong(SimEvent::getSerial)).get(), actual.first());
+        assertSameEventsForAllEntities(Simulation.ANY_EVT);
+        testFindAndCountWithTagPredicate();
+    }
+
+    @Test
+    public void testDrainedBucketsAreDiscarded() {
+        final SimEntity entity = entities.get(0);
+        for (final SimEvent evt : actual.stream(entity).collect(toList())) {
+            assertTrue(actual.remove(evt));
+            assertTrue(expected.remove(evt));
+        }
+
+        assertEquals(0, actual.count(entity, Simulation.ANY_EVT));
+        final SimEvent evt = new CloudSimEvent(EVENTS, entities.get(1), 0, null);
+        evt.setSerial(EVENTS);
+        actual.addEvent(evt);
+        expected.addEvent(evt);
+        assertEquals(ENTITIES - 1, actual.getBucketsNumber());
+        assertSameEventsForAllEntities(Simulation.ANY_EVT);
+    }
+
+    @Test
+    public void testFirst() {
+        assertSame(expected.first(), actual.first());
+        assertTrue(actual.remove(actual.first()));
+        assertTrue(expected.remove(expected.first()));
+        assertSame(expected.first(), actual.first());
+        actual.clear();
+        assertTrue(actual.isEmpty());
+        assertEquals(SimEvent.NULL, actual.findFirst(entities.get(0), Simulation.ANY_EVT));
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.core.events;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ * @author Manoel Campos da Silva Filho
+ */
+public class TimeIndexedQueueTest {
+    private static final int EVENTS = 1000;
+
+    private SimEntity entity;
+    private FutureQueue expected;
+    private TimeIndexedQueue actual;
+
+    @Before
+    public void setUp() {
+        entity = new CloudSim().getCloudInfoService();
+        expected = new FutureQueue();
+        actual = new TimeIndexedQueue();
+
+        final Random random = new Random(1);
+        for (int i = 0; i < EVENTS; i++) {
+            if (random.nextInt(10) == 0) {
+                final SimEvent evt = new CloudSimEvent(random.nextDouble() * 100, entity, -1, null);
+                expected.addEventFirst(evt);
+                actual.addEventFirst(new CloudSimEvent(evt));
+            } else {
+                final SimEvent evt = new CloudSimEvent(random.nextInt(100), entity, i, null);
+                expected.addEvent(evt);
+                actual.addEvent(new CloudSimEvent(evt));
+            }
+        }
+    }
+
+    private static void assertSameEvents(final List<SimEvent> expected, final List<SimEvent> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTime(), actual.get(i).getTime(), 0);
+            assertEquals(expected.get(i).getTag(), actual.get(i).getTag());
+        }
+    }
+
+    @Test
+    public void testStreamFollowsSameOrderOfFutureQueue() {
+        assertEquals(expected.size(), actual.size());
+        assertSameEvents(expected.stream().collect(toList()), actual.stream().collect(toList()));
+    }
+
+    @Test
+    public void testRemoveFirstBatchFollowsSameOrderOfFutureQueue() {
+        while (!expected.isEmpty()) {
+            final List<SimEvent> batch = actual.removeFirstBatch();
+            assertSameEvents(expected.removeFirstBatch(), batch);
+            assertTrue(batch.stream().allMatch(evt -> evt.getTime() == batch.get(0).getTime()));
+        }
+
+        assertTrue(actual.isEmpty());
+        assertEquals(0, actual.getBatchesNumber());
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        final List<SimEvent> kept = new ArrayList<>();
+        for (final Iterator<SimEvent> it = actual.iterator(); it.hasNext(); ) {
+            final SimEvent evt = it.next();
+            if (evt.getTag() % 2 == 0) {
+                kept.add(evt);
+            } else {
+                it.remove();
+            }
+        }
+
+        assertEquals(kept.size(), actual.size());
+        assertEquals(kept, actual.stream().collect(toList()));
+    }
+
+    @Test
+    public void testRemoveAndRemoveIf() {
+        final SimEvent first = actual.first();
+        assertTrue(actual.remove(first));
+        assertFalse(actual.remove(first));
+        assertEquals(EVENTS - 1, actual.size());
+
+        assertTrue(actual.removeIf(evt -> evt.getTag() >= 0));
+        assertTrue(actual.stream().allMatch(evt -> evt.getTag() < 0));
+        assertEquals(actual.stream().count(), actual.size());
+    }
+
+    @Test
+    public void testNegativeAndPositiveZeroTimesAreInTheSameBatch() {
+        final TimeIndexedQueue queue = new TimeIndexedQueue();
+        final SimEvent negativeZero = createEventAt(-0.0);
+        final SimEvent positiveZero = createEventAt(0.0);
+        queue.addEvent(negativeZero);
+        queue.addEvent(positiveZero);
+        assertEquals(1, queue.getBatchesNumber());
+
+        assertTrue(queue.remove(positiveZero));
+        assertTrue(queue.remove(negativeZero));
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.getBatchesNumber());
+    }
+
+    /**
+     * Creates an event with a given time.
+     * Since a {@link CloudSimEvent} always adds the current simulation time to
+     * the event delay, it isn't able to create an event at -0.0.
+     */
+    private static SimEvent createEventAt(final double time) {
+        final long[] serial = {0};
+        return (SimEvent) Proxy.newProxyInstance(
+            SimEvent.class.getClassLoader(), new Class<?>[]{SimEvent.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getTime": return time;
+                    case "getSerial": return serial[0];
+                    case "setSerial": serial[0] = (long) args[0]; return null;
+                    case "equals": return proxy == args[0];
+                    case "hashCode": return System.identityHashCode(proxy);
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.datacenters;
+
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.hosts.HostSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.resources.PeSimple;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Manoel Campos da Silva Filho
+ */
+public class HostUpdateTimeQueueTest {
+    private HostUpdateTimeQueue queue;
+    private Host host0;
+    private Host host1;
+    private Host host2;
+
+    @Before
+    public void setUp() {
+        queue = new HostUpdateTimeQueue();
+        host0 = createHost(0);
+        host1 = createHost(1);
+        host2 = createHost(2);
+    }
+
+    private static Host createHost(final int id) {
+        final Host host = new HostSimple(1000, 1000, 1000, Collections.singletonList(new PeSimple(1000, new PeProvisionerSimple())));
+        host.setId(id);
+        return host;
+    }
+
+    @Test
+    public void testGetFirstTimeWhenEmpty() {
+        assertEquals(Double.MAX_VALUE, queue.getFirstTime(), 0);
+    }
+
+    @Test
+    public void testRemoveDueReturnsHostsSortedByTime() {
+        queue.schedule(host0, 30);
+        queue.schedule(host1, 10);
+        queue.schedule(host2, 20);
+        assertEquals(10, queue.getFirstTime(), 0);
+
+        assertEquals(Arrays.asList(host1, host2), queue.removeDue(20));
+        assertEquals(1, queue.size());
+        assertEquals(30, queue.getFirstTime(), 0);
+    }
+
+    @Test
+    public void testScheduleReplacesPreviousTime() {
+        queue.schedule(host0, 10);
+        queue.schedule(host0, 40);
+        assertEquals(1, queue.size());
+        assertTrue(queue.removeDue(30).isEmpty());
+        assertEquals(Collections.singletonList(host0), queue.removeDue(40));
+    }
+
+    @Test
+    public void testScheduleToMaxValueRemovesHost() {
+        queue.schedule(host0, 10);
+        queue.schedule(host0, Double.MAX_VALUE);
+        assertEquals(0, queue.size());
+        assertEquals(Double.MAX_VALUE, queue.getFirstTime(), 0);
+    }
+
+    @Test
+    public void testRemove() {
+        queue.schedule(host0, 10);
+        queue.schedule(host1, 10);
+        assertTrue(queue.remove(host0));
+        assertFalse(queue.remove(host0));
+        assertEquals(Collections.singletonList(host1), queue.removeDue(10));
+    }
+}
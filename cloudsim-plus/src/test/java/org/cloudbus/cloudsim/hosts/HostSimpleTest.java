@@ -15,6 +15,7 @@ import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.ResourceProvisionerSimple;
 import org.cloudbus.cloudsim.resources.Pe;
 import org.cloudbus.cloudsim.resources.PeSimple;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
 import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletScheduler;
 import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletSchedulerTimeShared;
 import org.cloudbus.cloudsim.schedulers.vm.VmScheduler;
@@ -188,6 +189,63 @@ public class HostSimpleTest {
         return list;
     }
 
+    @Test
+    public void testGetUtilizationOfCpuMipsIsCachedUntilInvalidated() {
+        final CloudSim cloudsim = CloudSimMocker.createMock(mocker -> mocker.clock(0).anyTimes());
+        final HostSimple host = createHostSimple(0, HOST_PES);
+        host.setSimulation(cloudsim);
+
+        final Vm vm0 = EasyMock.createMock(Vm.class);
+        EasyMock.expect(vm0.getTotalCpuMipsUsage()).andReturn(HOST_MIPS).times(3);
+        final Vm vm1 = EasyMock.createMock(Vm.class);
+        EasyMock.expect(vm1.getTotalCpuMipsUsage()).andReturn(HOST_MIPS/2).times(2);
+        EasyMock.replay(vm0, vm1);
+
+        host.addVmToList(vm0);
+        assertEquals(HOST_MIPS, host.getUtilizationOfCpuMips(), 0);
+        assertEquals(HOST_MIPS, host.getUtilizationOfCpuMips(), 0);
+
+        //Adding a VM makes the usage to be computed again
+        host.addVmToList(vm1);
+        assertEquals(HOST_MIPS*1.5, host.getUtilizationOfCpuMips(), 0);
+        assertEquals(HOST_MIPS*1.5, host.getUtilizationOfCpuMips(), 0);
+
+        host.invalidateUtilizationCache();
+        assertEquals(HOST_MIPS*1.5, host.getUtilizationOfCpuMips(), 0);
+        EasyMock.verify(vm0, vm1);
+    }
+
+    @Test
+    public void testSetCpuUtilizationHistoryMaxEntries() {
+        final HostSimple host = createHostSimple(0, HOST_PES);
+        assertEquals(Integer.MAX_VALUE, host.getCpuUtilizationHistory().getMaxEntries());
+
+        host.setCpuUtilizationHistoryMaxEntries(10);
+        assertEquals(10, host.getCpuUtilizationHistory().getMaxEntries());
+    }
+
+    @Test
+    public void testGetUtilizationOfCpuMipsIsNotCachedWhileVmsAreMigrating() {
+        final CloudSim cloudsim = CloudSimMocker.createMock(mocker -> mocker.clock(0).anyTimes());
+        final HostSimple host = createHostSimple(0, HOST_PES);
+        host.setSimulation(cloudsim);
+
+        final Vm vm = EasyMock.createMock(Vm.class);
+        EasyMock.expect(vm.getTotalCpuMipsUsage()).andReturn(HOST_MIPS).times(3);
+        EasyMock.replay(vm);
+
+        host.addVmToList(vm);
+        host.addVmMigratingOut(vm);
+        assertEquals(HOST_MIPS, host.getUtilizationOfCpuMips(), 0);
+        assertEquals(HOST_MIPS, host.getUtilizationOfCpuMips(), 0);
+
+        //After the migration finishes, the usage is cached again
+        host.removeVmMigratingOut(vm);
+        assertEquals(HOST_MIPS, host.getUtilizationOfCpuMips(), 0);
+        assertEquals(HOST_MIPS, host.getUtilizationOfCpuMips(), 0);
+        EasyMock.verify(vm);
+    }
+
     @Test
     public void testReallocateMigratingInVmsWhenAllVmsAllocatedToTheHost() {
         final int numberOfVms = 4;
@@ -338,14 +396,13 @@ public class HostSimpleTest {
     public void testUpdateVmProcessing() {
         final int numberOfVms = 4;
 
-        final List<Double> mipsShare = new ArrayList<>(1);
-        mipsShare.add(HOST_MIPS / numberOfVms);
+        final MipsShare mipsShare = new MipsShare(1, HOST_MIPS / numberOfVms);
         final double time = 0;
 
         final List<Vm> vmList = createListOfMockVms(numberOfVms, mipsShare, time);
 
         final VmScheduler vmScheduler = EasyMock.createMock(VmScheduler.class);
-        EasyMock.expect(vmScheduler.getAllocatedMips(EasyMock.anyObject()))
+        EasyMock.expect(vmScheduler.getAllocatedMipsShare(EasyMock.anyObject()))
                 .andReturn(mipsShare)
                 .times(numberOfVms);
         EasyMock.expect(vmScheduler.setHost(EasyMock.anyObject()))
@@ -368,17 +425,17 @@ public class HostSimpleTest {
     }
 
     private List<Vm> createListOfMockVms(
-        final int numberOfVms, final List<Double> mipsShare,
+        final int numberOfVms, final MipsShare mipsShare,
         final double simulationClock)
     {
         final List<Vm> vmList = new ArrayList<>(numberOfVms);
-        final double totalMipsCapacity = mipsShare.stream().mapToDouble(mips -> mips).sum();
+        final double totalMipsCapacity = mipsShare.totalMips();
         for(int i = 0; i < numberOfVms; i++) {
             final double nextCloudletCompletionTimeOfCurrentVm = i+1;
 
             final Vm vm = EasyMock.createMock(Vm.class);
             EasyMock
-                    .expect(vm.updateProcessing(simulationClock, mipsShare))
+                    .expect(vm.updateProcessingWithMipsShare(simulationClock, mipsShare))
                     .andReturn(nextCloudletCompletionTimeOfCurrentVm)
                     .times(1);
             EasyMock
@@ -0,0 +1,104 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.hosts;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Manoel Campos da Silva Filho
+ */
+public class HostUtilizationHistoryTest {
+    private static HostUtilizationHistory createHistory(final int maxEntries, final double... sums) {
+        final HostUtilizationHistory history = new HostUtilizationHistory(maxEntries);
+        for (int i = 0; i < sums.length; i++) {
+            history.put(i, sums[i], sums[i] / 2, sums[i] / 2, 2);
+        }
+
+        return history;
+    }
+
+    @Test
+    public void testStoresAllColumnsOfEachEntry() {
+        final HostUtilizationHistory history = new HostUtilizationHistory();
+        history.put(10, 0.6, 0.1, 0.5, 2);
+        history.put(20, 0.9, 0.2, 0.4, 3);
+
+        assertEquals(2, history.size());
+        assertEquals(20, history.getLastTime(), 0);
+        assertEquals(1, history.indexOf(20));
+        assertEquals(-2, history.indexOf(15));
+        assertEquals(0.9, history.getSum(1), 0);
+        assertEquals(0.2, history.getMin(1), 0);
+        assertEquals(0.4, history.getMax(1), 0);
+        assertEquals(3, history.getCount(1));
+        assertEquals(0.3, history.getMean(1), 1e-9);
+    }
+
+    @Test
+    public void testDefaultMaxEntriesIsUnbounded() {
+        final HostUtilizationHistory history = new HostUtilizationHistory();
+        assertEquals(Integer.MAX_VALUE, history.getMaxEntries());
+    }
+
+    @Test
+    public void testNullIgnoresChanges() {
+        HostUtilizationHistory.NULL.put(1, 0.5, 0.5, 0.5, 1);
+        HostUtilizationHistory.NULL.setMaxEntries(5);
+        assertTrue(HostUtilizationHistory.NULL.isEmpty());
+        assertEquals(1, HostUtilizationHistory.NULL.getMaxEntries());
+        assertSame(HostUtilizationHistory.NULL, Host.NULL.getCpuUtilizationHistory());
+    }
+
+    @Test
+    public void testKeepsOnlyNewestEntries() {
+        final HostUtilizationHistory history = createHistory(3, 1, 2, 3, 4, 5);
+        assertEquals(3, history.size());
+        assertEquals(2, history.getTime(0), 0);
+        assertArrayEquals(new double[]{3, 4, 5}, history.toSumArray(), 0);
+        assertArrayEquals(new double[]{5, 4}, history.getNewestSumsReversed(2), 0);
+
+        history.setMaxEntries(2);
+        assertArrayEquals(new double[]{4, 5}, history.toSumArray(), 0);
+    }
+
+    @Test
+    public void testPutReplacesEntryForSameTimeAndKeepsTimeOrder() {
+        final HostUtilizationHistory history = createHistory(4, 10, 20, 30);
+        history.put(1, 25, 5, 20, 2);
+        history.put(0.5, 15, 5, 10, 2);
+        assertArrayEquals(new double[]{10, 15, 25, 30}, history.toSumArray(), 0);
+        assertEquals(0.5, history.getTime(1), 0);
+        assertEquals(20, history.getMax(2), 0);
+
+        //The history is full and the time is older than all entries
+        history.put(-1, 100, 50, 50, 2);
+        assertEquals(0, history.getTime(0), 0);
+        assertArrayEquals(new double[]{10, 15, 25, 30}, history.toSumArray(), 0);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.schedulers;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Manoel Campos da Silva Filho
+ */
+public class MipsShareTest {
+    @Test
+    public void testCreateUniformShare() {
+        final MipsShare share = new MipsShare(3, 1000);
+        assertEquals(3, share.pes());
+        assertEquals(1000, share.firstMips(), 0);
+        assertEquals(3000, share.totalMips(), 0);
+        assertEquals(Arrays.asList(1000.0, 1000.0, 1000.0), share.asList());
+    }
+
+    @Test
+    public void testEmptyShare() {
+        final MipsShare share = new MipsShare();
+        assertTrue(share.isEmpty());
+        assertEquals(0, share.firstMips(), 0);
+        assertEquals(0, share.totalMips(), 0);
+    }
+
+    @Test
+    public void testSetValuesIsReflectedOnListView() {
+        final MipsShare share = new MipsShare(Arrays.asList(100.0, 200.0));
+        final List<Double> view = share.asList();
+        share.setValues(new MipsShare(Arrays.asList(10.0, 20.0, 30.0)));
+        assertEquals(Arrays.asList(10.0, 20.0, 30.0), view);
+
+        share.setValues(Arrays.asList(1.0));
+        assertEquals(Arrays.asList(1.0), view);
+        assertSame(view, share.asList());
+    }
+
+    @Test
+    public void testRemovePesFromBeginning() {
+        final MipsShare share = new MipsShare(Arrays.asList(10.0, 20.0, 30.0));
+        assertEquals(1, share.remove(1));
+        assertEquals(new MipsShare(Arrays.asList(20.0, 30.0)), share);
+        assertEquals(2, share.remove(5));
+        assertTrue(share.isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testListViewIsReadOnly() {
+        new MipsShare(1, 10).asList().set(0, 20.0);
+    }
+
+    @Test
+    public void testReadOnlyViewReflectsChangesInShare() {
+        final MipsShare share = new MipsShare(2, 100);
+        final MipsShare view = share.readOnly();
+        assertTrue(view.isReadOnly());
+        assertFalse(share.isReadOnly());
+        assertSame(view, share.readOnly());
+        assertSame(view, view.readOnly());
+
+        share.setValues(Arrays.asList(10.0, 20.0, 30.0));
+        assertEquals(3, view.pes());
+        assertEquals(60, view.totalMips(), 0);
+        assertEquals(share, view);
+        assertEquals(Arrays.asList(10.0, 20.0, 30.0), view.asList());
+
+        final MipsShare copy = new MipsShare();
+        copy.setValues(view);
+        assertEquals(share, copy);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnlyViewCannotBeChanged() {
+        new MipsShare(1, 10).readOnly().remove(1);
+    }
+}
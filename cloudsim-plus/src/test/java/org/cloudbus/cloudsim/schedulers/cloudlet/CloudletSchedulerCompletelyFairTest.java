@@ -0,0 +1,171 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.schedulers.cloudlet;
+
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.cloudlets.CloudletExecution;
+import org.cloudbus.cloudsim.cloudlets.CloudletTestUtil;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.mocks.CloudSimMocker;
+import org.cloudbus.cloudsim.mocks.MocksHelper;
+import org.cloudbus.cloudsim.schedulers.MipsShare;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudbus.cloudsim.vms.VmSimple;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Manoel Campos da Silva Filho
+ */
+public class CloudletSchedulerCompletelyFairTest {
+    private static final long MIPS = 1000;
+    private static final long CLOUDLET_LENGTH = 1_000_000;
+
+    private static CloudletSchedulerCompletelyFair createScheduler(final Cloudlet... cloudlets) {
+        final CloudSim cloudsim = CloudSimMocker.createMock(mocker -> {
+            mocker.clock(0).anyTimes();
+            mocker.getMinTimeBetweenEvents(0).anyTimes();
+        });
+
+        final Vm vm = new VmSimple(0, MIPS, 1);
+        vm.setBroker(MocksHelper.createMockBroker(cloudsim));
+        final CloudletSchedulerCompletelyFair instance = new CloudletSchedulerCompletelyFair();
+        instance.setVm(vm);
+        instance.setCurrentMipsShare(new MipsShare(1, MIPS));
+        for (final Cloudlet cloudlet : cloudlets) {
+            instance.cloudletSubmit(cloudlet);
+        }
+
+        return instance;
+    }
+
+    @Test
+    public void testHigherPriorityWaitingCloudletRunsFirst() {
+        final Cloudlet cloudlet0 = CloudletTestUtil.createCloudlet(0, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet1 = CloudletTestUtil.createCloudlet(1, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet2 = CloudletTestUtil.createCloudlet(2, CLOUDLET_LENGTH, 1);
+        cloudlet2.setPriority(Integer.MAX_VALUE/2);
+        final CloudletSchedulerCompletelyFair instance = createScheduler(cloudlet0, cloudlet1, cloudlet2);
+
+        final double timeSlice = instance.getCloudletExecList().get(0).getTimeSlice();
+        instance.updateProcessing(timeSlice, instance.getCurrentMipsShare());
+        assertEquals(cloudlet2.getId(), instance.getCloudletExecList().get(0).getCloudletId());
+    }
+
+    @Test
+    public void testPreemptsCloudletWhenTimeSliceExpires() {
+        final Cloudlet cloudlet0 = CloudletTestUtil.createCloudlet(0, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet1 = CloudletTestUtil.createCloudlet(1, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet2 = CloudletTestUtil.createCloudlet(2, CLOUDLET_LENGTH, 1);
+        final CloudletSchedulerCompletelyFair instance = createScheduler(cloudlet0, cloudlet2, cloudlet1);
+        assertEquals(1, instance.getCloudletExecList().size());
+        assertEquals(cloudlet0.getId(), instance.getCloudletExecList().get(0).getCloudletId());
+
+        final double timeSlice = instance.getCloudletExecList().get(0).getTimeSlice();
+        instance.updateProcessing(timeSlice, instance.getCurrentMipsShare());
+        assertEquals(cloudlet1.getId(), instance.getCloudletExecList().get(0).getCloudletId());
+        assertEquals(2, instance.getCloudletWaitingList().size());
+
+        //The preempted Cloudlet has its vruntime reset, competing again with the waiting ones
+        instance.updateProcessing(timeSlice*2, instance.getCurrentMipsShare());
+        assertEquals(cloudlet0.getId(), instance.getCloudletExecList().get(0).getCloudletId());
+        assertEquals(2, instance.getCloudletWaitingList().size());
+    }
+
+    @Test
+    public void testWaitingListIsSortedByVirtualRuntime() {
+        final Cloudlet cloudlet0 = CloudletTestUtil.createCloudlet(0, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet1 = CloudletTestUtil.createCloudlet(1, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet2 = CloudletTestUtil.createCloudlet(2, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet3 = CloudletTestUtil.createCloudlet(3, CLOUDLET_LENGTH, 1);
+        cloudlet2.setPriority(Integer.MAX_VALUE/2);
+        final CloudletSchedulerCompletelyFair instance = createScheduler(cloudlet0, cloudlet3, cloudlet1, cloudlet2);
+
+        final List<Long> expectedIds = Arrays.asList(cloudlet2.getId(), cloudlet1.getId(), cloudlet3.getId());
+        final List<CloudletExecution> waitingList = instance.getCloudletWaitingList();
+        assertEquals(expectedIds, waitingList.stream().map(CloudletExecution::getCloudletId).collect(toList()));
+        for (int i = 1; i < waitingList.size(); i++) {
+            assertTrue(waitingList.get(i-1).getVirtualRuntime() <= waitingList.get(i).getVirtualRuntime());
+        }
+    }
+
+    @Test
+    public void testPausedWaitingCloudletIsRemovedFromRunQueue() {
+        final Cloudlet cloudlet0 = CloudletTestUtil.createCloudlet(0, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet1 = CloudletTestUtil.createCloudlet(1, CLOUDLET_LENGTH, 1);
+        final CloudletSchedulerCompletelyFair instance = createScheduler(cloudlet0, cloudlet1);
+        instance.cloudletPause(cloudlet1);
+
+        final double timeSlice = instance.getCloudletExecList().get(0).getTimeSlice();
+        instance.updateProcessing(timeSlice, instance.getCurrentMipsShare());
+        assertEquals(1, instance.getCloudletExecList().size());
+        assertEquals(cloudlet0.getId(), instance.getCloudletExecList().get(0).getCloudletId());
+        assertEquals(0, instance.getCloudletWaitingList().size());
+    }
+
+    @Test
+    public void testWaitingListIsAReadOnlyViewOfTheRunQueue() {
+        final Cloudlet cloudlet0 = CloudletTestUtil.createCloudlet(0, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet1 = CloudletTestUtil.createCloudlet(1, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet2 = CloudletTestUtil.createCloudlet(2, CLOUDLET_LENGTH, 1);
+        final CloudletSchedulerCompletelyFair instance = createScheduler(cloudlet0, cloudlet1);
+
+        final List<CloudletExecution> waitingList = instance.getCloudletWaitingList();
+        assertSame(waitingList, instance.getCloudletWaitingList());
+        assertEquals(1, waitingList.size());
+
+        instance.cloudletSubmit(cloudlet2);
+        assertEquals(Arrays.asList(cloudlet1.getId(), cloudlet2.getId()),
+                     waitingList.stream().map(CloudletExecution::getCloudletId).collect(toList()));
+        assertEquals(cloudlet2.getId(), waitingList.get(1).getCloudletId());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testWaitingListCannotBeChanged() {
+        final Cloudlet cloudlet0 = CloudletTestUtil.createCloudlet(0, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet1 = CloudletTestUtil.createCloudlet(1, CLOUDLET_LENGTH, 1);
+        final CloudletSchedulerCompletelyFair instance = createScheduler(cloudlet0, cloudlet1);
+        instance.getCloudletWaitingList().remove(0);
+    }
+
+    @Test
+    public void testSortWaitingListKeepsRunQueueOrder() {
+        final Cloudlet cloudlet0 = CloudletTestUtil.createCloudlet(0, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet1 = CloudletTestUtil.createCloudlet(1, CLOUDLET_LENGTH, 1);
+        final Cloudlet cloudlet2 = CloudletTestUtil.createCloudlet(2, CLOUDLET_LENGTH, 1);
+        final CloudletSchedulerCompletelyFair instance = createScheduler(cloudlet0, cloudlet1, cloudlet2);
+
+        instance.sortCloudletWaitingList(Comparator.comparingLong(CloudletExecution::getCloudletId).reversed());
+        assertEquals(Arrays.asList(cloudlet1.getId(), cloudlet2.getId()),
+                     instance.getCloudletWaitingList().stream().map(CloudletExecution::getCloudletId).collect(toList()));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Manoel Campos da Silva Filho
+ */
+public class HistoryBufferTest {
+    private static HistoryBuffer createHistory(final int maxEntries, final double... values) {
+        final HistoryBuffer history = new HistoryBuffer(maxEntries);
+        for (int i = 0; i < values.length; i++) {
+            history.add(i, values[i]);
+        }
+
+        return history;
+    }
+
+    @Test
+    public void testStatisticsMatchMathUtil() {
+        final HistoryBuffer history = createHistory(Integer.MAX_VALUE, MathUtilTest.DATA2);
+        assertEquals(MathUtil.mad(MathUtilTest.DATA2), history.getMad(), 0);
+        assertEquals(MathUtilTest.IQR2, history.getIqr(), 0);
+        assertEquals(MathUtil.median(MathUtilTest.DATA2), history.getMedian(), 0);
+        assertEquals(MathUtil.getStatistics(MathUtilTest.DATA2).getMean(), history.getMean(), 1e-9);
+        assertEquals(MathUtil.getStatistics(MathUtilTest.DATA2).getPopulationVariance(), history.getVariance(), 1e-9);
+        assertArrayEquals(MathUtilTest.DATA2, history.toValueArray(), 0);
+    }
+
+    @Test
+    public void testCountNonZeroBeginningMatchesMathUtil() {
+        final HistoryBuffer history = createHistory(Integer.MAX_VALUE, MathUtilTest.DATA4);
+        assertEquals(MathUtilTest.NON_ZERO, history.countNonZeroBeginning());
+        assertEquals(0, createHistory(Integer.MAX_VALUE, 0, 0).countNonZeroBeginning());
+    }
+
+    @Test
+    public void testNullIgnoresChanges() {
+        HistoryBuffer.NULL.add(1, 10);
+        HistoryBuffer.NULL.setMaxEntries(5);
+        assertTrue(HistoryBuffer.NULL.isEmpty());
+        assertEquals(1, HistoryBuffer.NULL.getMaxEntries());
+        assertEquals(0, HistoryBuffer.NULL.getMean(), 0);
+    }
+
+    @Test
+    public void testKeepsOnlyNewestEntries() {
+        final HistoryBuffer history = createHistory(3, 1, 2, 3, 4, 5);
+        assertEquals(3, history.size());
+        assertArrayEquals(new double[]{3, 4, 5}, history.toValueArray(), 0);
+        assertEquals(2, history.getTime(0), 0);
+        assertEquals(12, history.getSum(), 0);
+        assertArrayEquals(new double[]{5, 4}, history.getNewestValuesReversed(2), 0);
+
+        history.setMaxEntries(2);
+        assertArrayEquals(new double[]{4, 5}, history.toValueArray(), 0);
+        assertEquals(4.5, history.getMean(), 0);
+    }
+
+    @Test
+    public void testAddReplacesValueForSameTimeAndKeepsTimeOrder() {
+        final HistoryBuffer history = createHistory(4, 10, 20, 30);
+        history.add(1, 25);
+        history.add(0.5, 15);
+        assertArrayEquals(new double[]{0, 0.5, 1, 2}, history.timesView().stream().mapToDouble(t -> t).toArray(), 0);
+        assertArrayEquals(new double[]{10, 15, 25, 30}, history.toValueArray(), 0);
+        assertEquals(80, history.getSum(), 0);
+
+        //The history is full and the time is older than all entries
+        history.add(-1, 100);
+        assertEquals(0, history.getTime(0), 0);
+        assertEquals(80, history.getSum(), 0);
+    }
+}
@@ -1,17 +1,42 @@
 package org.cloudbus.cloudsim.util;
 
+import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.brokers.DatacenterBroker;
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
 import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.hosts.HostSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.resources.Pe;
+import org.cloudbus.cloudsim.resources.PeSimple;
+import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.vms.VmSimple;
+import org.cloudsimplus.traces.TraceFeeder;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class SwfWorkloadFileReaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private static final Logger LOGGER = LoggerFactory.getLogger(SwfWorkloadFileReaderTest.class.getSimpleName());
     private static final int JOBS_AT_SWF_LCG_FILE = 188041;
     private static final String SWF_FILE = "LCG.swf";
@@ -51,4 +76,82 @@ public class SwfWorkloadFileReaderTest {
             assertTrue(cloudlet.getLength() > 0);
         }
     }
+
+    @Test
+    public void streamGz() {
+        final CloudSim simulation = new CloudSim();
+        final List<Cloudlet> cloudlets = new ArrayList<>();
+        final double lookAheadTime = 3600;
+        final DatacenterBroker broker = EasyMock.createMock(DatacenterBroker.class);
+        EasyMock.expect(broker.getSimulation()).andReturn(simulation).anyTimes();
+        final Capture<List<? extends Cloudlet>> submittedWindow = EasyMock.newCapture();
+        broker.submitCloudletList(EasyMock.capture(submittedWindow));
+        EasyMock.expectLastCall().andAnswer(() -> {
+            final List<? extends Cloudlet> window = submittedWindow.getValue();
+            assertFalse(window.isEmpty());
+            //Checks that just Cloudlets inside the look-ahead window are read
+            window.forEach(cloudlet -> assertTrue(cloudlet.getSubmissionDelay() <= lookAheadTime));
+            cloudlets.addAll(window);
+            return null;
+        }).anyTimes();
+        EasyMock.replay(broker);
+
+        final SwfWorkloadFileReader reader = SwfWorkloadFileReader.getInstance(SWF_FILE+".gz", 1);
+        reader.streamWorkload(broker, lookAheadTime);
+        simulation.start();
+
+        assertEquals(JOBS_AT_SWF_LCG_FILE, cloudlets.size());
+    }
+
+    @Test
+    public void streamToBroker() throws IOException {
+        //Job 3 is rejected by the predicate, making its look-ahead window empty
+        final File file = folder.newFile("stream.swf");
+        Files.write(file.toPath(), Arrays.asList(
+            "; Comment line",
+            "1 0 0 100 1 -1 -1 1 -1 -1 1 1 1 -1 -1 -1 -1 -1",
+            "2 10 0 100 1 -1 -1 1 -1 -1 1 1 1 -1 -1 -1 -1 -1",
+            "3 1000 0 100 1 -1 -1 1 -1 -1 1 1 1 -1 -1 -1 -1 -1",
+            "4 5000 0 100 1 -1 -1 1 -1 -1 1 1 1 -1 -1 -1 -1 -1"));
+
+        final CloudSim simulation = new CloudSim();
+        final List<Pe> peList = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            peList.add(new PeSimple(1000, new PeProvisionerSimple()));
+        }
+        new DatacenterSimple(simulation, Collections.singletonList(new HostSimple(4096, 10000, 100000, peList)), new VmAllocationPolicySimple());
+
+        final List<Integer> submittedWindowSizes = new ArrayList<>();
+        final DatacenterBroker broker = new DatacenterBrokerSimple(simulation) {
+            @Override
+            public void submitCloudletList(final List<? extends Cloudlet> list) {
+                submittedWindowSizes.add(list.size());
+                super.submitCloudletList(list);
+            }
+        };
+        broker.submitVm(
+            new VmSimple(1000, 2)
+                .setRam(512).setBw(1000).setSize(1000)
+                .setCloudletScheduler(new CloudletSchedulerTimeShared()));
+
+        final SwfWorkloadFileReader reader = new SwfWorkloadFileReader(file.getPath(), 1000);
+        reader.setPredicate(cloudlet -> cloudlet.getId() != 3);
+        final TraceFeeder feeder = reader.streamWorkload(broker, 60);
+        simulation.start();
+
+        assertTrue(feeder.isFinished());
+        assertEquals(Arrays.asList(2, 1), submittedWindowSizes);
+
+        final List<Cloudlet> finished = broker.getCloudletFinishedList();
+        assertEquals(3, finished.size());
+        final long[] ids = {1, 2, 4};
+        final double[] submitTimes = {0, 10, 5000};
+        for (int i = 0; i < finished.size(); i++) {
+            final Cloudlet cloudlet = finished.get(i);
+            assertEquals(ids[i], cloudlet.getId());
+            //Cloudlets must start at their submission time in the trace, not when they are read
+            assertEquals(submitTimes[i], cloudlet.getExecStartTime(), 0.2);
+            assertEquals(100, cloudlet.getActualCpuTime(), 0.2);
+        }
+    }
 }
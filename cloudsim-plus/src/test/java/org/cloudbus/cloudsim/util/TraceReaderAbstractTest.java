@@ -0,0 +1,375 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that memory-mapped trace files, as well as files parsed in parallel,
+ * are parsed in the same way as when they are read line by line.
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+public class TraceReaderAbstractTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static class LineCollector extends TraceReaderAbstract {
+        LineCollector(final String filePath) throws IOException {
+            super(filePath);
+        }
+
+        List<String> readLines() {
+            final List<String> lines = new ArrayList<>();
+            readFileFields(cursor -> lines.add(Arrays.toString(cursor.toArray())));
+            return lines;
+        }
+
+        List<String> readLines(final List<String> shardFilePaths) {
+            final List<String> lines = new ArrayList<>();
+            readFileFields(shardFilePaths, line -> Double.parseDouble(line[0]), cursor -> lines.add(Arrays.toString(cursor.toArray())));
+            return lines;
+        }
+
+        double sumNumbers(){
+            final double[] sum = {0};
+            readFileFields(cursor -> {
+                for (int i = 0; i < cursor.getFieldCount(); i++) {
+                    sum[0] += cursor.isInteger(i) ? cursor.getLong(i) : cursor.getDouble(i);
+                }
+                return true;
+            });
+
+            return sum[0];
+        }
+    }
+
+    /**
+     * An {@link InputStream} that counts how many times it was closed,
+     * failing to close if requested.
+     */
+    private static final class CloseCountingInputStream extends FilterInputStream {
+        private final boolean failOnClose;
+        private int closings;
+
+        CloseCountingInputStream(final InputStream in, final boolean failOnClose) {
+            super(in);
+            this.failOnClose = failOnClose;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closings++;
+            super.close();
+            if (failOnClose) {
+                throw new IOException("Failed to close the stream");
+            }
+        }
+    }
+
+    private List<String> readLines(final File file, final String delimiterRegex, final boolean memoryMapped, final int maxLines) throws IOException {
+        final LineCollector reader = new LineCollector(file.getPath());
+        reader.setMemoryMapped(memoryMapped).setFieldDelimiterRegex(delimiterRegex).setMaxLinesToRead(maxLines);
+        return reader.readLines();
+    }
+
+    private List<String> readLinesInParallel(final File file, final int threads, final int maxLines) throws IOException {
+        final LineCollector reader = new LineCollector(file.getPath());
+        reader.setParsingThreads(threads).setMaxLinesToRead(maxLines);
+        return reader.readLines();
+    }
+
+    private File createGzipFile(final String content) throws IOException {
+        final File file = new File(folder.getRoot(), "trace" + folder.getRoot().list().length + ".gz");
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file))) {
+            out.write(content.getBytes());
+        }
+
+        return file;
+    }
+
+    /**
+     * Creates a trace content where the first field of each line is a timestamp.
+     */
+    private String createTimestampedContent(final int lines, final int firstTime, final int timeStep) {
+        final StringBuilder content = new StringBuilder("# time value\n");
+        for (int i = 0; i < lines; i++) {
+            content.append(firstTime + i * timeStep).append(' ').append(i).append(" some text to make lines longer\n");
+        }
+
+        return content.toString();
+    }
+
+    /**
+     * Converts a text trace file to a {@link BinaryTraceFile}.
+     */
+    private File createBinaryFile(final File textFile, final String delimiterRegex, final boolean compressed) throws IOException {
+        final File file = new File(folder.getRoot(), "trace" + folder.getRoot().list().length + BinaryTraceFile.EXTENSION);
+        final LineCollector reader = new LineCollector(textFile.getPath());
+        reader.setFieldDelimiterRegex(delimiterRegex);
+        BinaryTraceFile.convert(reader, file.toPath(), compressed);
+        return file;
+    }
+
+    private File createFile(final String content) throws IOException {
+        final File file = folder.newFile();
+        Files.write(file.toPath(), content.getBytes());
+        return file;
+    }
+
+    @Test
+    public void testWhitespaceDelimitedLines() throws IOException {
+        final File file = createFile("; comment\n  1   2\t3 \r\n\n# other comment\n4 5.5 -6\n   \n7");
+        final List<String> expected = readLines(file, "\\s+", false, -1);
+        assertEquals(expected, readLines(file, "\\s+", true, -1));
+        assertEquals(expected.subList(0, 2), readLines(file, "\\s+", true, 2));
+        assertEquals(5, expected.size());
+    }
+
+    @Test
+    public void testCommaDelimitedLines() throws IOException {
+        final File file = createFile("a,b,c\n,x,,\n,,,\n 1,, 2 ,3\r\nlast,");
+        final List<String> expected = readLines(file, ",", false, -1);
+        assertEquals(expected, readLines(file, ",", true, -1));
+        assertEquals(4, expected.size());
+    }
+
+    @Test
+    public void testParseNumbers() throws IOException {
+        final Random random = new Random(1);
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append(random.nextInt()).append(' ')
+                   .append(random.nextLong()).append(' ')
+                   .append(random.nextDouble() * 1000).append(' ')
+                   .append(String.format("%.4f", random.nextGaussian()).replace(',', '.')).append(' ')
+                   .append(random.nextDouble() * 1e-10).append('\n');
+        }
+
+        final File file = createFile(content.toString());
+        final LineCollector mapped = new LineCollector(file.getPath());
+        final LineCollector notMapped = new LineCollector(file.getPath());
+        notMapped.setMemoryMapped(false);
+        assertEquals(notMapped.sumNumbers(), mapped.sumNumbers(), 0);
+    }
+
+    @Test
+    public void testParallelParsingKeepsLineOrder() throws IOException {
+        //Creates a file larger than the size of chunks parsed in parallel
+        final String content = createTimestampedContent(150000, 0, 1);
+        final File file = createFile(content);
+        final File gzipFile = createGzipFile(content);
+        final List<String> expected = readLines(file, "\\s+", false, -1);
+        assertEquals(150000, expected.size());
+        assertEquals(expected, readLinesInParallel(file, 4, -1));
+        assertEquals(expected, readLinesInParallel(gzipFile, 4, -1));
+        assertEquals(expected.subList(0, 10), readLinesInParallel(gzipFile, 3, 10));
+    }
+
+    @Test
+    public void testParallelParsingMergesShardsByTimestamp() throws IOException {
+        final File first = createFile(createTimestampedContent(20000, 0, 3));
+        final File second = createGzipFile(createTimestampedContent(10000, 1, 3));
+        final File third = createFile(createTimestampedContent(30000, 2, 1));
+        final LineCollector reader = new LineCollector(first.getPath());
+        reader.setParsingThreads(4);
+        final List<String> lines = reader.readLines(Arrays.asList(second.getPath(), third.getPath()));
+
+        assertEquals(60000, lines.size());
+        double previousTime = -1;
+        for (final String line : lines) {
+            final double time = Double.parseDouble(line.substring(1, line.indexOf(',')));
+            assertTrue(time >= previousTime);
+            previousTime = time;
+        }
+    }
+
+    @Test
+    public void testParallelParsingSkipsEmptyFiles() throws IOException {
+        final File file = createFile(createTimestampedContent(1000, 0, 1));
+        final File empty = createFile("");
+        final LineCollector reader = new LineCollector(file.getPath());
+        reader.setParsingThreads(2);
+        assertEquals(readLines(file, "\\s+", false, -1), reader.readLines(Arrays.asList(empty.getPath(), empty.getPath())));
+
+        final LineCollector emptyReader = new LineCollector(empty.getPath());
+        emptyReader.setParsingThreads(2);
+        assertEquals(readLines(file, "\\s+", false, -1), emptyReader.readLines(Arrays.asList(file.getPath())));
+    }
+
+    /**
+     * Checks that all files are closed after being parsed in parallel,
+     * even if some of them fail to be closed.
+     */
+    @Test
+    public void testParallelParsingClosesAllFilesWhenSomeFailToClose() throws IOException {
+        final List<String> filePaths = new ArrayList<>();
+        final List<CloseCountingInputStream> streams = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final File file = createGzipFile(createTimestampedContent(100, i, 3));
+            filePaths.add(file.getPath());
+            //The first 2 files fail to be closed
+            streams.add(new CloseCountingInputStream(new FileInputStream(file), i < 2));
+        }
+
+        final ParallelTraceParser parser = new ParallelTraceParser(new LineCollector(filePaths.get(0)), 2, filePaths.size());
+        try {
+            parser.read(filePaths, new ArrayList<>(streams), line -> Double.parseDouble(line[0]), cursor -> true);
+            fail("An UncheckedIOException was expected when closing the files");
+        } catch (UncheckedIOException e) {
+            assertEquals(1, e.getCause().getSuppressed().length);
+        }
+
+        streams.forEach(stream -> assertEquals(1, stream.closings));
+    }
+
+    @Test
+    public void testBinaryTraceFileKeepsFieldValues() throws IOException {
+        final File file = createFile("# comment\n1 0.50 -0.5 user1 007\n2 1.25 3 user2 -0 x\n3 10.0 -7.125 user1 12 1e5\n4 0.05 0 user3");
+        final File csvFile = createFile("a,,1\n,x,,\n1,2\n,,,\n3,,-4.5,last");
+        final List<String> expected = readLines(file, "\\s+", false, -1);
+        final List<String> csvExpected = readLines(csvFile, ",", false, -1);
+        for (final boolean compressed : new boolean[]{false, true}) {
+            final File binaryFile = createBinaryFile(file, "\\s+", compressed);
+            assertEquals(expected, readLines(binaryFile, "\\s+", true, -1));
+            assertEquals(expected.subList(0, 2), readLines(binaryFile, "\\s+", true, 2));
+            assertEquals(csvExpected, readLines(createBinaryFile(csvFile, ",", compressed), ",", true, -1));
+        }
+    }
+
+    @Test
+    public void testBinaryTraceFileParsesNumbers() throws IOException {
+        final Random random = new Random(2);
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append(i * 300).append(' ')
+                   .append(random.nextInt()).append(' ')
+                   .append(random.nextLong()).append(' ')
+                   .append(random.nextDouble() * 1000).append(' ')
+                   .append(String.format("%.4f", random.nextGaussian()).replace(',', '.')).append(' ')
+                   .append(random.nextInt(100)).append('\n');
+        }
+
+        final File file = createFile(content.toString());
+        final double expected = new LineCollector(file.getPath()).sumNumbers();
+        assertEquals(expected, new LineCollector(createBinaryFile(file, "\\s+", false).getPath()).sumNumbers(), 0);
+        assertEquals(expected, new LineCollector(createBinaryFile(file, "\\s+", true).getPath()).sumNumbers(), 0);
+    }
+
+    @Test
+    public void testBinaryTraceFileSplitIntoBlocksKeepsFieldValues() throws IOException {
+        final List<String[]> lines = new ArrayList<>();
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add(i % 3 == 0 ?
+                new String[]{Integer.toString(i * 7), "", "user" + i % 4} :
+                new String[]{Integer.toString(i * 7), i % 5 + ".25"});
+            expected.add(Arrays.toString(lines.get(i)));
+        }
+
+        for (final boolean compressed : new boolean[]{false, true}) {
+            final File file = new File(folder.getRoot(), "blocks" + compressed + BinaryTraceFile.EXTENSION);
+            BinaryTraceFile.write(lines, file.toPath(), compressed, 8);
+            final BinaryTraceFile trace = BinaryTraceFile.load(file.toPath());
+            assertEquals(lines.size(), trace.getLineCount());
+            for (int i = lines.size() - 1; i >= 0; i -= 3) {
+                assertArrayEquals(lines.get(i), trace.toArray(i));
+            }
+
+            final List<String> batch = new ArrayList<>();
+            trace.getLines(5, 60).forEach(line -> batch.add(Arrays.toString(line)));
+            assertEquals(expected.subList(5, 60), batch);
+
+            final List<String> read = new ArrayList<>();
+            trace.read(-1, cursor -> read.add(Arrays.toString(cursor.toArray())));
+            assertEquals(expected, read);
+        }
+    }
+
+    @Test
+    public void testBinaryTraceFileMappedInWindowsKeepsFieldValues() throws IOException {
+        final List<String[]> lines = new ArrayList<>();
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add(new String[]{Integer.toString(i * 7), i % 5 + ".25", "user" + i % 4});
+            expected.add(Arrays.toString(lines.get(i)));
+        }
+
+        for (final boolean compressed : new boolean[]{false, true}) {
+            final File file = new File(folder.getRoot(), "windows" + compressed + BinaryTraceFile.EXTENSION);
+            BinaryTraceFile.write(lines, file.toPath(), compressed, 8);
+            final BinaryTraceFile trace = BinaryTraceFile.load(file.toPath(), (int) file.length() / 4);
+            assertEquals(lines.size(), trace.getLineCount());
+
+            final List<String> read = new ArrayList<>();
+            trace.read(-1, cursor -> read.add(Arrays.toString(cursor.toArray())));
+            assertEquals(expected, read);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testBinaryTraceFileWithBlockLargerThanWindow() throws IOException {
+        final File file = new File(folder.getRoot(), "window" + BinaryTraceFile.EXTENSION);
+        BinaryTraceFile.write(Arrays.asList(new String[]{"1", "2"}, new String[]{"3", "4"}), file.toPath(), false);
+        BinaryTraceFile.load(file.toPath(), 4);
+    }
+
+    @Test
+    public void testParallelParsingMergesBinaryShards() throws IOException {
+        final File first = createFile(createTimestampedContent(20000, 0, 3));
+        final File second = createFile(createTimestampedContent(10000, 1, 3));
+        final File empty = createFile("# no lines\n");
+        final LineCollector reader = new LineCollector(first.getPath());
+        reader.setParsingThreads(2);
+        final List<String> expected = reader.readLines(Arrays.asList(second.getPath(), empty.getPath()));
+
+        final LineCollector binaryReader = new LineCollector(createBinaryFile(first, "\\s+", true).getPath());
+        binaryReader.setParsingThreads(2);
+        final List<String> shards =
+            Arrays.asList(createBinaryFile(second, "\\s+", false).getPath(), createBinaryFile(empty, "\\s+", false).getPath());
+        assertEquals(expected, binaryReader.readLines(shards));
+    }
+}
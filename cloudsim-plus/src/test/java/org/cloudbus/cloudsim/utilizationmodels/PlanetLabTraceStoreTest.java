@@ -0,0 +1,97 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudbus.cloudsim.utilizationmodels;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Manoel Campos da Silva Filho
+ */
+public class PlanetLabTraceStoreTest {
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        PlanetLabTraceStore.clear();
+    }
+
+    @After
+    public void tearDown() {
+        PlanetLabTraceStore.clear();
+        PlanetLabTraceStore.setMaxRetainedTraces(PlanetLabTraceStore.DEFAULT_MAX_RETAINED_TRACES);
+    }
+
+    private double[] readTrace() {
+        reads.incrementAndGet();
+        return new double[]{0.1, 0.2};
+    }
+
+    @Test
+    public void testTraceIsReadOnce() {
+        final double[] first = PlanetLabTraceStore.getTrace("trace", this::readTrace);
+        final double[] second = PlanetLabTraceStore.getTrace("trace", this::readTrace);
+        assertSame(first, second);
+        assertEquals(1, reads.get());
+
+        PlanetLabTraceStore.getTrace("other", this::readTrace);
+        assertEquals(2, reads.get());
+        assertEquals(2, PlanetLabTraceStore.size());
+    }
+
+    @Test
+    public void testInstancesFromSameFileShareTrace() {
+        UtilizationModelPlanetLab.getInstance(UtilizationModelPlanetLabTest.FILE, UtilizationModelPlanetLabTest.SCHEDULING_INTERVAL);
+        UtilizationModelPlanetLab.getInstance(UtilizationModelPlanetLabTest.FILE, UtilizationModelPlanetLabTest.SCHEDULING_INTERVAL);
+        assertEquals(1, PlanetLabTraceStore.size());
+    }
+
+    @Test
+    public void testUnusedTracesAreReleased() throws InterruptedException {
+        PlanetLabTraceStore.setMaxRetainedTraces(1);
+        final double[] used = PlanetLabTraceStore.getTrace("used", this::readTrace);
+        PlanetLabTraceStore.getTrace("unused", this::readTrace);
+        PlanetLabTraceStore.getTrace("retained", this::readTrace);
+
+        for (int i = 0; i < 50 && PlanetLabTraceStore.size() > 2; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, PlanetLabTraceStore.size());
+        assertSame(used, PlanetLabTraceStore.getTrace("used", this::readTrace));
+        PlanetLabTraceStore.getTrace("retained", this::readTrace);
+        assertEquals(3, reads.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetNegativeMaxRetainedTraces() {
+        PlanetLabTraceStore.setMaxRetainedTraces(-1);
+    }
+}
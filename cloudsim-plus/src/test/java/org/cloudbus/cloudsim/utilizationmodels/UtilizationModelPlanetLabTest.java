@@ -1,7 +1,16 @@
 package org.cloudbus.cloudsim.utilizationmodels;
 
+import org.cloudbus.cloudsim.util.BinaryTraceFile;
+import org.cloudbus.cloudsim.util.ResourceLoader;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
 
@@ -14,6 +23,9 @@ public class UtilizationModelPlanetLabTest {
 
     public static final String FILE = "146-179_surfsnel_dsl_internl_net_colostate_557.dat";
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private UtilizationModelPlanetLab instance;
 
     @Before
@@ -101,4 +113,33 @@ public class UtilizationModelPlanetLabTest {
         assertEquals(0.51, instance.getUtilization(287 * SCHEDULING_INTERVAL), 0);
     }
 
+    @Test
+    public void testGetUtilizationFromBinaryTraceFile() throws IOException {
+        final File binaryFile = new File(folder.getRoot(), "planetlab" + BinaryTraceFile.EXTENSION);
+        final String textFile = ResourceLoader.getResourcePath(getClass(), FILE);
+        UtilizationModelPlanetLab.convertToBinary(textFile, binaryFile.toPath(), true);
+
+        final UtilizationModelPlanetLab binaryInstance = new UtilizationModelPlanetLab(binaryFile.getPath(), SCHEDULING_INTERVAL);
+        for (double time = 0; time < 288 * SCHEDULING_INTERVAL; time += SCHEDULING_INTERVAL / 4) {
+            assertEquals(instance.getUtilization(time), binaryInstance.getUtilization(time), 0);
+        }
+    }
+
+    @Test
+    public void testBinaryTraceFileStopsAtFirstCommentLikeTextFile() throws IOException {
+        final File textFile = folder.newFile("comments.dat");
+        Files.write(textFile.toPath(), Arrays.asList("10", "20", "30", "# end of the trace", "40", "50"));
+        final File binaryFile = new File(folder.getRoot(), "comments" + BinaryTraceFile.EXTENSION);
+        UtilizationModelPlanetLab.convertToBinary(textFile.getPath(), binaryFile.toPath(), false);
+
+        final UtilizationModelPlanetLab textInstance = new UtilizationModelPlanetLab(textFile.getPath(), SCHEDULING_INTERVAL, 6);
+        final UtilizationModelPlanetLab binaryInstance = new UtilizationModelPlanetLab(binaryFile.getPath(), SCHEDULING_INTERVAL, 6);
+        for (int i = 0; i < 6; i++) {
+            final double time = i * SCHEDULING_INTERVAL;
+            assertEquals(textInstance.getUtilization(time), binaryInstance.getUtilization(time), 0);
+        }
+
+        assertEquals(0.3, binaryInstance.getUtilization(2 * SCHEDULING_INTERVAL), 0);
+        assertEquals(0, binaryInstance.getUtilization(4 * SCHEDULING_INTERVAL), 0);
+    }
 }
@@ -0,0 +1,167 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.heuristics;
+
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.cloudlets.CloudletTestUtil;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudbus.cloudsim.vms.VmTestUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Manoel Campos da Silva Filho
+ */
+public class CloudletToVmMappingParallelSimulatedAnnealingTest {
+    private static final int CHAINS = 4;
+    private static final long SEED = 42;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(CHAINS);
+
+    private static CloudletToVmMappingParallelSimulatedAnnealing createHeuristic(final boolean parallelTempering) {
+        final CloudletToVmMappingParallelSimulatedAnnealing heuristic = createHeuristic(parallelTempering, POOL, SEED);
+        heuristic.setChainsNumber(CHAINS);
+        return heuristic;
+    }
+
+    /**
+     * Creates a heuristic using the default number of chains.
+     */
+    private static CloudletToVmMappingParallelSimulatedAnnealing createHeuristic(
+        final boolean parallelTempering, final ForkJoinPool pool, final long seed)
+    {
+        final List<Vm> vms = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            vms.add(VmTestUtil.createVm(i, 1000, i % 4 + 1));
+        }
+
+        final List<Cloudlet> cloudlets = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            cloudlets.add(CloudletTestUtil.createCloudlet(i, 1000, i % 3 + 1));
+        }
+
+        final CloudletToVmMappingParallelSimulatedAnnealing heuristic = new CloudletToVmMappingParallelSimulatedAnnealing(1, seed);
+        heuristic.setParallelTempering(parallelTempering)
+                 .setColdTemperature(0.001)
+                 .setCoolingRate(0.01)
+                 .setPool(pool);
+        heuristic.setNeighborhoodSearchesByIteration(10);
+        heuristic.setVmList(vms);
+        heuristic.setCloudletList(cloudlets);
+        return heuristic;
+    }
+
+    /**
+     * Gets the id of the VM each Cloudlet (identified by its id) is mapped to.
+     */
+    private static Map<Long, Long> getMapping(final CloudletToVmMappingSolution solution) {
+        final Map<Long, Long> map = new HashMap<>();
+        solution.getResult().forEach((cloudlet, vm) -> map.put(cloudlet.getId(), vm.getId()));
+        return map;
+    }
+
+    private static void assertSameSeedProducesSameSolution(final boolean parallelTempering) {
+        final CloudletToVmMappingSolution solution1 = createHeuristic(parallelTempering).solve();
+        final CloudletToVmMappingSolution solution2 = createHeuristic(parallelTempering).solve();
+        assertEquals(solution1.getCost(), solution2.getCost(), 0);
+        assertEquals(getMapping(solution1), getMapping(solution2));
+    }
+
+    @Test
+    public void testMultiStartIsReproducible() {
+        assertSameSeedProducesSameSolution(false);
+    }
+
+    @Test
+    public void testParallelTemperingIsReproducible() {
+        assertSameSeedProducesSameSolution(true);
+    }
+
+    @Test
+    public void testBestSolutionSoFarIsTheBestAmongAllChains() {
+        final CloudletToVmMappingParallelSimulatedAnnealing heuristic = createHeuristic(false);
+        final CloudletToVmMappingSolution solution = heuristic.solve();
+        assertEquals(CHAINS, heuristic.getChains().size());
+        assertEquals(50, solution.getResult().size());
+        assertEquals(solution.getCost(true), solution.getCost(), 0);
+        for (final SimulatedAnnealing<CloudletToVmMappingSolution> chain : heuristic.getChains()) {
+            assertTrue(chain.isToStopSearch());
+            assertTrue(solution.getCost() <= chain.getBestSolutionSoFar().getCost());
+        }
+    }
+
+    @Test
+    public void testAcceptanceProbabilityAndNeighborAreFromTheBestChain() {
+        //Stops with the initial solutions, so that the chain with the lowest cost found the best solution
+        final CloudletToVmMappingParallelSimulatedAnnealing heuristic = createHeuristic(false, POOL, 1);
+        heuristic.setTargetCost(Double.MAX_VALUE);
+        final CloudletToVmMappingSolution solution = heuristic.solve();
+        final SimulatedAnnealing<CloudletToVmMappingSolution> bestChain =
+            heuristic.getChains().stream()
+                     .filter(chain -> chain.getBestSolutionSoFar().getCost() == solution.getCost())
+                     .findFirst()
+                     .orElseThrow(AssertionError::new);
+
+        assertNotSame(heuristic.getChains().get(0), bestChain);
+        assertSame(bestChain.getNeighborSolution(), heuristic.getNeighborSolution());
+        assertEquals(bestChain.getAcceptanceProbability(), heuristic.getAcceptanceProbability(), 0);
+    }
+
+    @Test
+    public void testStopsWhenTargetCostIsReached() {
+        final CloudletToVmMappingParallelSimulatedAnnealing heuristic = createHeuristic(false);
+        heuristic.setTargetCost(Double.MAX_VALUE);
+        final CloudletToVmMappingSolution solution = heuristic.solve();
+
+        //The search stops with the best initial solution, before any chain is cooled
+        for (final SimulatedAnnealing<CloudletToVmMappingSolution> chain : heuristic.getChains()) {
+            assertEquals(heuristic.getInitialTemperature(), chain.getCurrentTemperature(), 0);
+            assertTrue(solution.getCost() <= chain.getInitialSolution().getCost());
+        }
+    }
+
+    @Test
+    public void testDefaultChainsNumberDoesNotDependOnThePool() {
+        final CloudletToVmMappingParallelSimulatedAnnealing heuristic = createHeuristic(false, new ForkJoinPool(1), SEED);
+        assertEquals(ParallelSimulatedAnnealing.DEFAULT_CHAINS_NUMBER, heuristic.getChainsNumber());
+    }
+
+    @Test
+    public void testSameSeedProducesSameSolutionWithDifferentPoolSizes() {
+        final CloudletToVmMappingSolution solution1 = createHeuristic(true, new ForkJoinPool(1), SEED).solve();
+        final CloudletToVmMappingSolution solution2 = createHeuristic(true, new ForkJoinPool(3), SEED).solve();
+        assertEquals(solution1.getCost(), solution2.getCost(), 0);
+        assertEquals(getMapping(solution1), getMapping(solution2));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.heuristics;
+
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.cloudlets.CloudletTestUtil;
+import org.cloudbus.cloudsim.distributions.UniformDistr;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudbus.cloudsim.vms.VmTestUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Manoel Campos da Silva Filho
+ */
+public class CloudletToVmMappingSimulatedAnnealingTest {
+    private static CloudletToVmMappingSimulatedAnnealing createHeuristic(final long seed) {
+        final List<Vm> vms = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            vms.add(VmTestUtil.createVm(i, 1000, i % 4 + 1));
+        }
+
+        final List<Cloudlet> cloudlets = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            cloudlets.add(CloudletTestUtil.createCloudlet(i, 1000, i % 3 + 1));
+        }
+
+        final CloudletToVmMappingSimulatedAnnealing heuristic =
+            new CloudletToVmMappingSimulatedAnnealing(1, new UniformDistr(0, 1, seed));
+        heuristic.setColdTemperature(0.001);
+        heuristic.setCoolingRate(0.01);
+        heuristic.setNeighborhoodSearchesByIteration(10);
+        heuristic.setVmList(vms);
+        heuristic.setCloudletList(cloudlets);
+        return heuristic;
+    }
+
+    /**
+     * Counts the Cloudlets mapped to different VMs in two solutions.
+     */
+    private static long countDifferentMappings(final CloudletToVmMappingSolution solution1, final CloudletToVmMappingSolution solution2) {
+        final Map<Cloudlet, Vm> result2 = solution2.getResult();
+        return solution1.getResult().entrySet().stream().filter(entry -> entry.getValue() != result2.get(entry.getKey())).count();
+    }
+
+    @Test
+    public void testNeighborSolutionIsTheLastAssessedOneAfterSolve() {
+        for (long seed = 0; seed < 10; seed++) {
+            final CloudletToVmMappingSimulatedAnnealing heuristic = createHeuristic(seed);
+            final CloudletToVmMappingSolution best = heuristic.solve();
+            final CloudletToVmMappingSolution neighbor = heuristic.getNeighborSolution();
+
+            assertEquals(50, neighbor.getResult().size());
+            assertEquals(neighbor.getCost(true), neighbor.getCost(), 0);
+            assertTrue(countDifferentMappings(best, neighbor) <= 2);
+
+            final double expected = Math.exp(-(neighbor.getCost() - best.getCost()) / heuristic.getCurrentTemperature());
+            assertEquals(expected, heuristic.getAcceptanceProbability(), 0);
+            assertFalse(Double.isInfinite(heuristic.getAcceptanceProbability()));
+        }
+    }
+}
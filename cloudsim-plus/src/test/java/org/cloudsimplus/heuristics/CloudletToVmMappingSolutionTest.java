@@ -189,4 +189,80 @@ public class CloudletToVmMappingSolutionTest {
                 swappedVmsEntries.get(1).getValue().getId()),
             swappedVmsEntries, originalEntries);
     }
+
+    /**
+     * Creates a solution binding Cloudlets with increasing number of PEs
+     * to 3 VMs with 4 PEs each.
+     */
+    private CloudletToVmMappingSolution createSolutionWithCloudletsSharingVms(final int numberOfCloudlets) {
+        final Vm[] vms = new Vm[3];
+        for (int i = 0; i < vms.length; i++) {
+            vms[i] = VmTestUtil.createVm(i, 1000, 4);
+        }
+
+        final CloudletToVmMappingSolution instance = new CloudletToVmMappingSolution(Heuristic.NULL);
+        for (int i = 0; i < numberOfCloudlets; i++) {
+            instance.bindCloudletToVm(CloudletTestUtil.createCloudlet(i, 1000, i % 3 + 1), vms[i % 2]);
+        }
+
+        return instance;
+    }
+
+    @Test
+    public void testCostIsUpdatedWhenCloudletIsBoundToAnotherVm() {
+        final CloudletToVmMappingSolution instance = createSolutionWithCloudletsSharingVms(5);
+        //VM 0 gets Cloudlets with 1, 3 and 2 PEs and VM 1 gets Cloudlets with 2 and 1 PEs
+        assertEquals(3, instance.getCost(), 0);
+
+        //Moves the Cloudlet with 1 PE from VM 0 to a new VM with 1 PE
+        final Cloudlet cloudlet = instance.getResult().keySet().iterator().next();
+        final Vm vm = VmTestUtil.createVm(10, 1000, 1);
+        instance.bindCloudletToVm(cloudlet, vm);
+        assertEquals(2, instance.getCost(), 0);
+        assertEquals(instance.getCost(true), instance.getCost(), 0);
+        assertEquals(vm, instance.getResult().get(cloudlet));
+        assertEquals(5, instance.getResult().size());
+    }
+
+    @Test
+    public void testCostDeltaOfSwappingVmsMatchesCostAfterSwap() {
+        final CloudletToVmMappingSolution instance = createSolutionWithCloudletsSharingVms(7);
+        for (int i = 0; i < instance.getCloudletsNumber(); i++) {
+            for (int j = 0; j < instance.getCloudletsNumber(); j++) {
+                final double cost = instance.getCost();
+                final double delta = instance.getCostDeltaOfSwappingVms(i, j);
+                assertEquals(cost, instance.getCost(), 0);
+
+                instance.swapVmsOfTwoCloudlets(i, j);
+                assertEquals(cost + delta, instance.getCost(), 0);
+                assertEquals(instance.getCost(), instance.getCost(true), 0);
+            }
+        }
+    }
+
+    @Test
+    public void testCloneIsIndependentFromSourceSolution() {
+        final CloudletToVmMappingSolution source = createSolutionWithCloudletsSharingVms(4);
+        final double cost = source.getCost();
+        final CloudletToVmMappingSolution clone = new CloudletToVmMappingSolution(source);
+        clone.swapVmsOfTwoCloudlets(0, 1);
+        clone.bindCloudletToVm(CloudletTestUtil.createCloudlet(10, 1000, 1), VmTestUtil.createVm(10, 1000, 1));
+
+        assertEquals(cost, source.getCost(), 0);
+        assertEquals(4, source.getResult().size());
+        assertEquals(5, clone.getResult().size());
+        assertEquals(source.getCost(true), source.getCost(), 0);
+        assertEquals(clone.getCost(true), clone.getCost(), 0);
+    }
+
+    @Test
+    public void testSetValueOfRandomMapEntryBindsCloudletToAnotherVm() {
+        final CloudletToVmMappingSolution instance = createSolutionWithCloudletsSharingVms(2);
+        final Map.Entry<Cloudlet, Vm> entry = instance.getRandomMapEntries().get(0);
+        final Vm vm = VmTestUtil.createVm(10, 1000, 1);
+
+        entry.setValue(vm);
+        assertEquals(vm, instance.getResult().get(entry.getKey()));
+        assertEquals(instance.getCost(true), instance.getCost(), 0);
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.integrationtests;
+
+import ch.qos.logback.classic.Level;
+import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudsimplus.util.Log;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.cloudsimplus.integrationtests.IntegrationTestUtil.*;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * An Integration Test (IT) checking that submitting Cloudlets to Datacenters in batches
+ * (see {@link DatacenterBrokerSimple#setBatchCloudletSubmission(boolean)})
+ * sends a single event for each group of Cloudlets with the same submission delay,
+ * producing the same results of submitting each Cloudlet individually.
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+public final class BatchCloudletSubmissionIntegrationTest {
+    private static final int HOSTS = 2;
+    private static final int HOST_PES = 4;
+    private static final int VMS = 4;
+    private static final int VM_PES = 2;
+    private static final int CLOUDLETS = 40;
+    private static final int SUBMISSION_DELAYS = 3;
+
+    /**
+     * The maximum difference between the finish times of a Cloudlet submitted individually and in a batch.
+     * When submitted individually, each Cloudlet schedules a processing update at its own estimated finish time,
+     * which becomes outdated when other Cloudlets start sharing the VM.
+     * Since Cloudlets are just found to be finished at processing updates,
+     * such additional updates make some of them to be found finished a little earlier or later.
+     */
+    private static final double FINISH_TIME_TOLERANCE = 0.15;
+
+    private int submissionEvents;
+
+    @Before
+    public void setUp() {
+        Log.setLevel(Level.WARN);
+    }
+
+    @Test
+    public void testBatchSubmissionProducesSameResults() {
+        final List<Cloudlet> expected = runSimulation(false);
+        assertEquals(CLOUDLETS, submissionEvents);
+
+        final List<Cloudlet> actual = runSimulation(true);
+        assertEquals(SUBMISSION_DELAYS, submissionEvents);
+        assertSameResults(CLOUDLETS, expected, actual, FINISH_TIME_TOLERANCE);
+    }
+
+    private List<Cloudlet> runSimulation(final boolean batchSubmission) {
+        submissionEvents = 0;
+        final CloudSim simulation = new CloudSim();
+        simulation.addOnEventProcessingListener(evt -> {
+            if(evt.getTag() == CloudSimTags.CLOUDLET_SUBMIT || evt.getTag() == CloudSimTags.CLOUDLET_SUBMIT_BATCH) {
+                submissionEvents++;
+            }
+        });
+
+        new DatacenterSimple(simulation, createHosts(HOSTS, HOST_PES), new VmAllocationPolicySimple());
+        final DatacenterBrokerSimple broker = new DatacenterBrokerSimple(simulation);
+        broker.setBatchCloudletSubmission(batchSubmission);
+        broker.submitVmList(createVms(VMS, VM_PES));
+        broker.submitCloudletList(createCloudlets());
+        simulation.start();
+
+        return getFinishedCloudlets(broker);
+    }
+
+    private List<Cloudlet> createCloudlets() {
+        final List<Cloudlet> list = IntegrationTestUtil.createCloudlets(CLOUDLETS);
+        for (int i = 0; i < CLOUDLETS; i++) {
+            list.get(i).setSubmissionDelay(i % SUBMISSION_DELAYS);
+        }
+
+        return list;
+    }
+}
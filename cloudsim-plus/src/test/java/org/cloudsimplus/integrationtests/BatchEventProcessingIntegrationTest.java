@@ -0,0 +1,177 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.integrationtests;
+
+import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimEntity;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.events.SimEvent;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.hosts.HostSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.resources.Pe;
+import org.cloudbus.cloudsim.resources.PeSimple;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks if entities with {@link CloudSimEntity#setBatchEventProcessing(boolean) batch event processing}
+ * enabled receive consecutive events happening at the same time together, in the order they were sent,
+ * and if the {@link DatacenterSimple} coalesces repeated Cloudlet processing updates in a batch.
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+public final class BatchEventProcessingIntegrationTest {
+    private static final int ACTION = 1;
+
+    @Test
+    public void sameTimeEventsAreProcessedTogetherInTheOrderTheyWereSent() {
+        final CloudSim simulation = new CloudSim();
+        final Recorder recorder = new Recorder(simulation);
+        new Sender(simulation, 1, sender -> {
+            sender.schedule(recorder, 0, 10);
+            sender.schedule(recorder, 1, 12);
+            sender.schedule(recorder, 0, 11);
+        });
+        new Sender(simulation, 1, sender -> sender.schedule(recorder, 0, 20));
+
+        simulation.start();
+        assertEquals(Arrays.asList(Arrays.asList(10, 11, 20), Collections.singletonList(12)), recorder.batches);
+        assertEquals(Arrays.asList(10, 11, 20, 12), recorder.processedTags);
+    }
+
+    @Test
+    public void datacenterCoalescesCloudletProcessingUpdatesInTheSameBatch() {
+        assertEquals(2, countCloudletsCompletionChecks(true));
+        assertEquals(3, countCloudletsCompletionChecks(false));
+    }
+
+    /**
+     * Sends 3 {@link CloudSimTags#VM_UPDATE_CLOUDLET_PROCESSING} events to a Datacenter at the same time
+     * and counts how many times the completion of Cloudlets is checked at that time.
+     */
+    private int countCloudletsCompletionChecks(final boolean batchEventProcessing) {
+        final double time = 5;
+        final CloudSim simulation = new CloudSim();
+        final List<Pe> peList = Collections.singletonList(new PeSimple(1000, new PeProvisionerSimple()));
+        final List<Host> hostList = Collections.singletonList(new HostSimple(1000, 1000, 1000, peList));
+        final int[] checks = {0};
+        final DatacenterSimple datacenter = new DatacenterSimple(simulation, hostList, new VmAllocationPolicySimple()) {
+            @Override
+            protected void checkCloudletsCompletionForAllHosts() {
+                if (getSimulation().clock() == time) {
+                    checks[0]++;
+                }
+
+                super.checkCloudletsCompletionForAllHosts();
+            }
+        };
+        assertTrue(datacenter.isBatchEventProcessing());
+        datacenter.setBatchEventProcessing(batchEventProcessing);
+
+        new Sender(simulation, time, sender -> {
+            for (int i = 0; i < 3; i++) {
+                sender.schedule(datacenter, 0, CloudSimTags.VM_UPDATE_CLOUDLET_PROCESSING);
+            }
+        });
+
+        simulation.start();
+        return checks[0];
+    }
+
+    /**
+     * An entity that executes an action at a given time.
+     */
+    private static final class Sender extends CloudSimEntity {
+        private final double actionTime;
+        private final Consumer<Sender> action;
+
+        Sender(final CloudSim simulation, final double actionTime, final Consumer<Sender> action) {
+            super(simulation);
+            this.actionTime = actionTime;
+            this.action = action;
+        }
+
+        @Override
+        protected void startEntity() {
+            schedule(this, actionTime, ACTION);
+        }
+
+        @Override
+        public void processEvent(final SimEvent evt) {
+            if (evt.getTag() == ACTION) {
+                action.accept(this);
+            }
+        }
+    }
+
+    /**
+     * An entity that records the tags of the batches of events it receives,
+     * ignoring the end of the simulation.
+     */
+    private static final class Recorder extends CloudSimEntity {
+        private final List<List<Integer>> batches = new ArrayList<>();
+        private final List<Integer> processedTags = new ArrayList<>();
+
+        Recorder(final CloudSim simulation) {
+            super(simulation);
+            setBatchEventProcessing(true);
+        }
+
+        @Override
+        protected void startEntity() {/**/}
+
+        @Override
+        protected void processEventBatch(final List<SimEvent> batch) {
+            final List<Integer> tags = batch.stream().map(SimEvent::getTag).filter(Recorder::isRecorded).collect(toList());
+            if (!tags.isEmpty()) {
+                batches.add(tags);
+            }
+
+            super.processEventBatch(batch);
+        }
+
+        @Override
+        public void processEvent(final SimEvent evt) {
+            if (isRecorded(evt.getTag())) {
+                processedTags.add(evt.getTag());
+            }
+        }
+
+        private static boolean isRecorded(final int tag) {
+            return tag != CloudSimTags.END_OF_SIMULATION;
+        }
+    }
+}
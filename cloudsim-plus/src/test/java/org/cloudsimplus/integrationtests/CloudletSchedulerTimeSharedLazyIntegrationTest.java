@@ -0,0 +1,302 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.integrationtests;
+
+import ch.qos.logback.classic.Level;
+import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.brokers.DatacenterBroker;
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.cloudlets.CloudletExecution;
+import org.cloudbus.cloudsim.cloudlets.CloudletSimple;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletScheduler;
+import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletSchedulerTimeSharedLazy;
+import org.cloudbus.cloudsim.utilizationmodels.UtilizationModelDynamic;
+import org.cloudbus.cloudsim.utilizationmodels.UtilizationModelFull;
+import org.cloudsimplus.util.Log;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.cloudsimplus.integrationtests.IntegrationTestUtil.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * An Integration Test (IT) checking that the {@link CloudletSchedulerTimeSharedLazy},
+ * which lazily computes Cloudlets processing, produces the same results of the
+ * {@link CloudletSchedulerTimeShared}, for VMs running more Cloudlets than PEs,
+ * with different lengths and CPU utilization.
+ *
+ * <p>At each update, the {@link CloudletSchedulerTimeShared} adds to the
+ * {@link Cloudlet#getFinishedLengthSoFar() Cloudlet finished length} just the whole
+ * Million Instructions (MI) executed since the previous update, discarding the fraction.
+ * When the fractions lost make the Cloudlet finished length fall short of its length
+ * at the time it was expected to finish, the Cloudlet is just found finished at the next update,
+ * which is at least {@link CloudSim#getMinTimeBetweenEvents()} + 0.01 seconds later.
+ * Since the lazy scheduler computes the work executed by a Cloudlet since it started,
+ * no fraction is lost and Cloudlets are found finished at the expected time.
+ * This way, the lazy scheduler is compared to a {@link ExactTimeShared time-shared scheduler
+ * which keeps the exact work executed by Cloudlets}, while
+ * {@link #testTimeSharedSchedulerFindsCloudletsFinishedLaterDueToDiscardedFractionsOfMI()}
+ * checks where the results of the regular time-shared scheduler differ.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+public final class CloudletSchedulerTimeSharedLazyIntegrationTest {
+    private static final int HOSTS = 2;
+    private static final int HOST_PES = 4;
+    private static final int VMS = 3;
+    private static final int VM_PES = 2;
+    private static final int CLOUDLETS = 30;
+
+    /**
+     * The maximum difference between the finish times of a Cloudlet using the
+     * {@link ExactTimeShared} and the {@link CloudletSchedulerTimeSharedLazy},
+     * that is just due to floating-point errors.
+     */
+    private static final double FINISH_TIME_TOLERANCE = 1e-9;
+
+    /**
+     * Keeps the exact work executed by Cloudlets, instead of
+     * just the whole MI the Cloudlets store as their finished length.
+     * It makes the Cloudlets finished length to be the whole MI from such an exact work,
+     * so that they are found finished when such a work reaches their length.
+     */
+    private static final class ExactProgress {
+        /**
+         * The relative tolerance to consider that a Cloudlet has executed its entire length,
+         * the same one used by the {@link CloudletSchedulerTimeSharedLazy}.
+         */
+        private static final double FINISH_TOLERANCE = 1e-9;
+
+        /**
+         * A map where each key is a Cloudlet ID and each value is the exact length (in MI)
+         * such a Cloudlet has executed so far.
+         */
+        private final Map<Long, Double> finishedLengths = new HashMap<>();
+
+        private void addFinishedLength(final CloudletExecution cle, final double executedLength) {
+            final Cloudlet cloudlet = cle.getCloudlet();
+            final double finishedLength = finishedLengths.merge(cle.getCloudletId(), executedLength, Double::sum);
+            final long length = cloudlet.getLength();
+            final long wholeFinishedLength =
+                length - finishedLength <= FINISH_TOLERANCE * length ? length : (long) finishedLength;
+            if (wholeFinishedLength > cloudlet.getFinishedLengthSoFar()) {
+                cloudlet.addFinishedLengthSoFar(wholeFinishedLength - cloudlet.getFinishedLengthSoFar());
+            }
+        }
+
+        private double getRemainingLength(final CloudletExecution cle) {
+            final double finishedLength = finishedLengths.getOrDefault(cle.getCloudletId(), 0.0);
+            return Math.max(cle.getCloudlet().getLength() - finishedLength, 0);
+        }
+    }
+
+    /**
+     * A {@link CloudletSchedulerTimeShared} which keeps the exact work executed by Cloudlets.
+     * @see ExactProgress
+     */
+    private static final class ExactTimeShared extends CloudletSchedulerTimeShared {
+        private final ExactProgress progress = new ExactProgress();
+
+        @Override
+        protected long updateCloudletProcessing(final CloudletExecution cle, final double currentTime) {
+            final double processingTime = hasCloudletFileTransferTimePassed(cle, currentTime) ? timeSpan(cle, currentTime) : 0;
+            final double executedLength = getAllocatedMipsForCloudlet(cle, currentTime) * processingTime;
+            final long partialFinishedMI = super.updateCloudletProcessing(cle, currentTime);
+            progress.addFinishedLength(cle, executedLength);
+            return partialFinishedMI;
+        }
+
+        @Override
+        protected double getEstimatedFinishTimeOfCloudlet(final CloudletExecution cle, final double currentTime) {
+            final double estimatedFinishTime = progress.getRemainingLength(cle) / getAllocatedMipsForCloudlet(cle, currentTime);
+            return Math.max(estimatedFinishTime, getVm().getSimulation().getMinTimeBetweenEvents());
+        }
+    }
+
+    /**
+     * A {@link CloudletSchedulerTimeSharedLazy} which keeps the exact work executed by
+     * Cloudlets that are updated at every scheduler update, since they are updated
+     * as in the {@link CloudletSchedulerTimeShared}.
+     * @see ExactProgress
+     */
+    private static final class ExactTimeSharedLazy extends CloudletSchedulerTimeSharedLazy {
+        private final ExactProgress progress = new ExactProgress();
+
+        @Override
+        protected long updateCloudletProcessing(final CloudletExecution cle, final double currentTime) {
+            final double processingTime = hasCloudletFileTransferTimePassed(cle, currentTime) ? timeSpan(cle, currentTime) : 0;
+            final double executedLength = getAllocatedMipsForCloudlet(cle, currentTime) * processingTime;
+            final long partialFinishedMI = super.updateCloudletProcessing(cle, currentTime);
+            progress.addFinishedLength(cle, executedLength);
+            return partialFinishedMI;
+        }
+
+        @Override
+        protected double getEstimatedFinishTimeOfCloudlet(final CloudletExecution cle, final double currentTime) {
+            final double estimatedFinishTime = progress.getRemainingLength(cle) / getAllocatedMipsForCloudlet(cle, currentTime);
+            return Math.max(estimatedFinishTime, getVm().getSimulation().getMinTimeBetweenEvents());
+        }
+    }
+
+    @Before
+    public void setUp() {
+        Log.setLevel(Level.WARN);
+    }
+
+    @Test
+    public void testSameFinishTimesAsTimeSharedScheduler() {
+        final List<Cloudlet> expected = runSimulation(ExactTimeShared::new, createCloudlets(false));
+        final List<Cloudlet> actual = runSimulation(CloudletSchedulerTimeSharedLazy::new, createCloudlets(false));
+        assertSameFinishTimes(expected, actual);
+    }
+
+    /**
+     * Checks that Cloudlets whose CPU utilization changes along the time
+     * are updated at every scheduler update, instead of having their utilization sampled just once.
+     * Since such Cloudlets are updated as in the {@link CloudletSchedulerTimeShared},
+     * the lazy scheduler under test also has to keep their exact executed work.
+     */
+    @Test
+    public void testSameFinishTimesAsTimeSharedSchedulerForVaryingCpuUtilization() {
+        final List<Cloudlet> expected = runSimulation(ExactTimeShared::new, createCloudlets(true));
+        final List<Cloudlet> actual = runSimulation(ExactTimeSharedLazy::new, createCloudlets(true));
+        assertSameFinishTimes(expected, actual);
+    }
+
+    /**
+     * Checks that the {@link CloudletSchedulerTimeShared}, which discards the fraction of MI
+     * executed at each update, finds Cloudlets finished at a later update than
+     * the {@link CloudletSchedulerTimeSharedLazy}.
+     */
+    @Test
+    public void testTimeSharedSchedulerFindsCloudletsFinishedLaterDueToDiscardedFractionsOfMI() {
+        final List<Cloudlet> regular = runSimulation(CloudletSchedulerTimeShared::new, 1, createCloudletsSharingPe(), 1);
+        final List<Cloudlet> exact = runSimulation(ExactTimeShared::new, 1, createCloudletsSharingPe(), 1);
+        final List<Cloudlet> lazy = runSimulation(CloudletSchedulerTimeSharedLazy::new, 1, createCloudletsSharingPe(), 1);
+
+        /*Both Cloudlets start at time 0.1, getting 500 MIPS each.
+        This way, Cloudlet 0 (1000 MI) is expected to finish at time 2.1.*/
+        assertEquals(2.1, exact.get(0).getFinishTime(), FINISH_TIME_TOLERANCE);
+        assertEquals(2.1, lazy.get(0).getFinishTime(), FINISH_TIME_TOLERANCE);
+
+        /*The regular scheduler finds Cloudlet 0 has 1 MI to execute yet at time 2.1.
+        Therefore, it's just found finished at the next update,
+        which is getMinTimeBetweenEvents() + 0.01 seconds later.*/
+        final double nextUpdateDelay = 0.11;
+        assertEquals(2.1 + nextUpdateDelay, regular.get(0).getFinishTime(), FINISH_TIME_TOLERANCE);
+
+        //Cloudlet 1 gets just 500 MIPS during such a delay, finishing later too.
+        assertEquals(exact.get(1).getFinishTime(), lazy.get(1).getFinishTime(), FINISH_TIME_TOLERANCE);
+        assertTrue(regular.get(1).getFinishTime() > lazy.get(1).getFinishTime());
+    }
+
+    /**
+     * Creates 2 Cloudlets with 1000 and 2000 MI using a {@link UtilizationModelFull}.
+     * @return
+     */
+    private List<Cloudlet> createCloudletsSharingPe() {
+        final List<Cloudlet> list = new ArrayList<>(2);
+        for (int i = 0; i < 2; i++) {
+            list.add(new CloudletSimple(i, 1000 * (i + 1), 1).setUtilizationModel(new UtilizationModelFull()));
+        }
+
+        return list;
+    }
+
+    private void assertSameFinishTimes(final List<Cloudlet> expected, final List<Cloudlet> actual) {
+        assertSameResults(CLOUDLETS, expected, actual, FINISH_TIME_TOLERANCE);
+    }
+
+    /**
+     * Checks that the work executed by running Cloudlets is computed
+     * considering the time new Cloudlets arrived, sharing the VM's PE.
+     */
+    @Test
+    public void testCloudletsSubmittedAtDifferentTimesShareThePe() {
+        final List<Cloudlet> cloudlets = new ArrayList<>(2);
+        for (int i = 0; i < 2; i++) {
+            //All Cloudlets have the same length of 10000 MI
+            final Cloudlet cloudlet = createCloudlet(i, 0);
+            cloudlet.setSubmissionDelay(i*5);
+            cloudlets.add(cloudlet);
+        }
+
+        final List<Cloudlet> finished = runSimulation(CloudletSchedulerTimeSharedLazy::new, 1, cloudlets, 1);
+
+        /*Cloudlets start 0.1 second after being submitted.
+        Cloudlet 0 runs alone for 5 seconds, then both ones get 500 MIPS until Cloudlet 0 finishes.*/
+        assertEquals(15.1, finished.get(0).getFinishTime(), 0.02);
+        assertEquals(20.1, finished.get(1).getFinishTime(), 0.02);
+    }
+
+    private List<Cloudlet> runSimulation(final Supplier<CloudletScheduler> schedulerSupplier, final List<Cloudlet> cloudlets) {
+        return runSimulation(schedulerSupplier, VMS, cloudlets, VM_PES);
+    }
+
+    private List<Cloudlet> runSimulation(
+        final Supplier<CloudletScheduler> schedulerSupplier,
+        final int vms, final List<Cloudlet> cloudlets, final int vmPes)
+    {
+        final CloudSim simulation = new CloudSim();
+        new DatacenterSimple(simulation, createHosts(HOSTS, HOST_PES), new VmAllocationPolicySimple());
+        final DatacenterBroker broker = new DatacenterBrokerSimple(simulation);
+        broker.submitVmList(createVms(vms, vmPes, VM_RAM, schedulerSupplier));
+        broker.submitCloudletList(cloudlets);
+        simulation.start();
+
+        return getFinishedCloudlets(broker);
+    }
+
+    /**
+     * Creates Cloudlets with different lengths and CPU utilization models.
+     * @param varyingCpuUtilization true to make some Cloudlets increase their CPU utilization along the time,
+     *                              false to make all of them use a constant CPU utilization
+     * @return
+     */
+    private List<Cloudlet> createCloudlets(final boolean varyingCpuUtilization) {
+        final List<Cloudlet> list = IntegrationTestUtil.createCloudlets(CLOUDLETS);
+        for (int i = 0; i < CLOUDLETS; i++) {
+            final Cloudlet cloudlet = list.get(i);
+            if(i % 4 == 0) {
+                cloudlet.setUtilizationModelCpu(new UtilizationModelDynamic(0.5));
+            } else if(varyingCpuUtilization && i % 3 == 1) {
+                cloudlet.setUtilizationModelCpu(
+                    new UtilizationModelDynamic(0.2).setUtilizationUpdateFunction(um -> um.getUtilization() + um.getTimeSpan() * 0.05));
+            }
+        }
+
+        return list;
+    }
+}
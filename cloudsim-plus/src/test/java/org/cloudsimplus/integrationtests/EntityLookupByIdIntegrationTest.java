@@ -0,0 +1,187 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.integrationtests;
+
+import ch.qos.logback.classic.Level;
+import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.brokers.DatacenterBroker;
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.datacenters.Datacenter;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudsimplus.util.Log;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.cloudsimplus.integrationtests.IntegrationTestUtil.*;
+import static org.junit.Assert.*;
+
+/**
+ * An Integration Test (IT) checking that Hosts, VMs and Cloudlets
+ * are found by their IDs inside {@link Datacenter}s, {@link Host}s and {@link DatacenterBroker}s,
+ * including VMs from different brokers sharing the same ID.
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+public final class EntityLookupByIdIntegrationTest {
+    private static final int HOSTS = 3;
+    private static final int HOST_PES = 4;
+    private static final int BROKERS = 2;
+    private static final int VMS = 2;
+    private static final int VM_PES = 2;
+    private static final int CLOUDLETS = 4;
+
+    private CloudSim simulation;
+    private Datacenter datacenter;
+    private List<DatacenterBroker> brokers;
+
+    /**
+     * The VMs found into the {@link #datacenter} when all of them were placed.
+     */
+    private List<Vm> placedVms;
+
+    /**
+     * The VMs found into their Hosts by ID when all of them were placed.
+     */
+    private List<Vm> vmsFoundIntoHosts;
+
+    @Before
+    public void setUp() {
+        Log.setLevel(Level.WARN);
+        simulation = new CloudSim();
+        datacenter = new DatacenterSimple(simulation, createHosts(HOSTS, HOST_PES), new VmAllocationPolicySimple());
+        brokers = new ArrayList<>(BROKERS);
+        for (int i = 0; i < BROKERS; i++) {
+            final DatacenterBroker broker = new DatacenterBrokerSimple(simulation);
+            broker.submitVmList(createVms(VMS, VM_PES));
+            broker.submitCloudletList(createCloudlets(CLOUDLETS));
+            brokers.add(broker);
+        }
+
+        placedVms = new ArrayList<>();
+        vmsFoundIntoHosts = new ArrayList<>();
+        simulation.addOnClockTickListener(info -> {
+            if(placedVms.isEmpty() && datacenter.getVmList().size() == BROKERS * VMS) {
+                for (final Vm vm : datacenter.getVmList()) {
+                    placedVms.add(vm);
+                    vmsFoundIntoHosts.add(vm.getHost().getVm((int)vm.getId(), (int)vm.getBroker().getId()));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testGetHostById() {
+        for (final Host host : datacenter.getHostList()) {
+            assertSame(host, datacenter.getHostById(host.getId()));
+        }
+
+        assertSame(Host.NULL, datacenter.getHostById(HOSTS));
+    }
+
+    @Test
+    public void testGetHostByIdAfterHostIdChanged() {
+        final Host host = datacenter.getHost(0);
+        host.setId(HOSTS*10);
+        assertSame(host, datacenter.getHostById(HOSTS*10));
+        assertSame(Host.NULL, datacenter.getHostById(0));
+    }
+
+    @Test
+    public void testGetVmsByIdAfterPlacement() {
+        simulation.start();
+
+        assertEquals(BROKERS * VMS, placedVms.size());
+        assertEquals(placedVms, vmsFoundIntoHosts);
+        for (final DatacenterBroker broker : brokers) {
+            for (final Vm vm : broker.<Vm>getVmCreatedList()) {
+                assertTrue(placedVms.contains(vm));
+                assertSame(vm, broker.getVmById(vm.getId()));
+            }
+        }
+
+        //All VMs were destroyed at the end of the simulation
+        assertTrue(datacenter.getVmList().isEmpty());
+        assertEquals(0, datacenter.getVmList().size());
+    }
+
+    @Test
+    public void testGetCloudletById() {
+        for (final DatacenterBroker broker : brokers) {
+            for (final Cloudlet cloudlet : broker.getCloudletSubmittedList()) {
+                assertSame(cloudlet, broker.getCloudletById(cloudlet.getId()));
+                assertSame(broker, cloudlet.getBroker());
+            }
+
+            assertSame(Cloudlet.NULL, broker.getCloudletById(CLOUDLETS));
+            assertSame(Vm.NULL, broker.getVmById(VMS));
+        }
+    }
+
+    @Test
+    public void testGetVmAndCloudletByIdAfterIdChanged() {
+        final DatacenterBroker broker = brokers.get(0);
+        final Vm vm = broker.getVmById(0);
+        vm.setId(VMS*10);
+        assertSame(vm, broker.getVmById(VMS*10));
+        assertSame(Vm.NULL, broker.getVmById(0));
+
+        final Cloudlet cloudlet = broker.getCloudletById(0);
+        cloudlet.setId(CLOUDLETS*10);
+        assertSame(cloudlet, broker.getCloudletById(CLOUDLETS*10));
+        assertSame(Cloudlet.NULL, broker.getCloudletById(0));
+    }
+
+    @Test
+    public void testGetVmFromHostAfterVmIdChanged() {
+        final List<Vm> changedVms = new ArrayList<>();
+        final List<Vm> vmsFoundAfterIdChanged = new ArrayList<>();
+        simulation.addOnClockTickListener(info -> {
+            if(changedVms.isEmpty() && !datacenter.getVmList().isEmpty()) {
+                final Vm vm = datacenter.getVmList().get(0);
+                changedVms.add(vm);
+                final Host host = vm.getHost();
+                final int brokerId = (int)vm.getBroker().getId();
+                final int vmId = (int)vm.getId();
+                vm.setId(VMS*10);
+                vmsFoundAfterIdChanged.add(host.getVm(VMS*10, brokerId));
+                vmsFoundAfterIdChanged.add(host.getVm(vmId, brokerId));
+                vm.setId(vmId);
+                vmsFoundAfterIdChanged.add(host.getVm(vmId, brokerId));
+            }
+        });
+        simulation.start();
+
+        assertEquals(1, changedVms.size());
+        assertSame(changedVms.get(0), vmsFoundAfterIdChanged.get(0));
+        assertNotSame(changedVms.get(0), vmsFoundAfterIdChanged.get(1));
+        assertSame(changedVms.get(0), vmsFoundAfterIdChanged.get(2));
+    }
+}
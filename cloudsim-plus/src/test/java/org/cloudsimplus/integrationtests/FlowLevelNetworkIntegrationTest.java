@@ -0,0 +1,292 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.integrationtests;
+
+import ch.qos.logback.classic.Level;
+import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.brokers.DatacenterBroker;
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.cloudlets.network.CloudletExecutionTask;
+import org.cloudbus.cloudsim.cloudlets.network.CloudletReceiveTask;
+import org.cloudbus.cloudsim.cloudlets.network.CloudletSendTask;
+import org.cloudbus.cloudsim.cloudlets.network.NetworkCloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.datacenters.network.NetworkDatacenter;
+import org.cloudbus.cloudsim.hosts.network.NetworkHost;
+import org.cloudbus.cloudsim.network.FlowLevelNetwork;
+import org.cloudbus.cloudsim.network.HostPacket;
+import org.cloudbus.cloudsim.network.VmPacket;
+import org.cloudbus.cloudsim.network.switches.AggregateSwitch;
+import org.cloudbus.cloudsim.network.switches.EdgeSwitch;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.resources.Pe;
+import org.cloudbus.cloudsim.resources.PeSimple;
+import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.schedulers.vm.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.utilizationmodels.UtilizationModelFull;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudbus.cloudsim.vms.network.NetworkVm;
+import org.cloudsimplus.util.Log;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * An Integration Test (IT) checking that simulating the network of a {@link NetworkDatacenter} at flow level
+ * (see {@link NetworkDatacenter#setFlowLevelNetworkEnabled(boolean)})
+ * transfers all packets between {@link NetworkCloudlet}s using fewer events than the per-packet simulation,
+ * and that flows share links' bandwidth according to max-min fairness.
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+public final class FlowLevelNetworkIntegrationTest {
+    private static final int HOSTS = 4;
+    private static final int HOST_PES = 4;
+    private static final int HOST_MIPS = 1000;
+    private static final int SENDERS = 2;
+    private static final int PACKETS_BY_SENDER = 50;
+    private static final long PACKET_BYTES = 100_000;
+    private static final long TASK_LENGTH = 4000;
+
+    /**
+     * The number of bytes of a packet whose transfer size is 1 Megabit.
+     */
+    private static final long MEGABIT_IN_BYTES = 1024 * 1024 / 8;
+
+    private int networkEvents;
+
+    @Before
+    public void setUp() {
+        Log.setLevel(Level.WARN);
+    }
+
+    @Test
+    public void testFlowLevelNetworkTransfersAllPacketsWithFewerEvents() {
+        final DatacenterBroker packetBroker = runSimulation(false);
+        final int packetEvents = networkEvents;
+        final DatacenterBroker flowBroker = runSimulation(true);
+
+        final int cloudlets = SENDERS * 2;
+        assertEquals(cloudlets, packetBroker.getCloudletFinishedList().size());
+        assertEquals(cloudlets, flowBroker.getCloudletFinishedList().size());
+        for (final Cloudlet cloudlet : flowBroker.getCloudletFinishedList()) {
+            assertEquals(Cloudlet.Status.SUCCESS, cloudlet.getStatus());
+        }
+
+        final NetworkDatacenter datacenter = (NetworkDatacenter) flowBroker.getCloudletFinishedList().get(0).getLastDatacenter();
+        final FlowLevelNetwork network = datacenter.getFlowLevelNetwork();
+        assertEquals(SENDERS * PACKETS_BY_SENDER, network.getFinishedFlowsNumber());
+        assertEquals(0, network.getActiveFlowsNumber());
+
+        final long transferredBytes = datacenter.<NetworkHost>getHostList().stream().mapToLong(NetworkHost::getTotalDataTransferBytes).sum();
+        assertEquals(SENDERS * PACKETS_BY_SENDER * PACKET_BYTES, transferredBytes);
+
+        final String msg = String.format("Flow-level events: %d, per-packet events: %d", networkEvents, packetEvents);
+        assertTrue(msg, networkEvents < packetEvents);
+    }
+
+    /**
+     * Creates flows between Hosts connected to two Edge Switches below an Aggregate Switch,
+     * where the uplink of the first Edge Switch is the bottleneck of flows leaving it.
+     * The flow between Hosts in the same Edge Switch gets the bandwidth left by such flows
+     * in the sending Host, instead of an equal share of it.
+     */
+    @Test
+    public void testFlowsShareBandwidthWithMaxMinFairness() {
+        checkFlowsShareBandwidthWithMaxMinFairness(false);
+    }
+
+    /**
+     * Checks that flows started in a single batch get the same rates
+     * as flows started one by one, since rates are just allocated once for the batch.
+     */
+    @Test
+    public void testFlowsStartedInBatchShareBandwidthWithMaxMinFairness() {
+        checkFlowsShareBandwidthWithMaxMinFairness(true);
+    }
+
+    private void checkFlowsShareBandwidthWithMaxMinFairness(final boolean startInBatch) {
+        final CloudSim simulation = new CloudSim();
+        final NetworkDatacenter datacenter = createDatacenter(simulation, true);
+        final List<NetworkHost> hosts = datacenter.getHostList();
+        final EdgeSwitch edge0 = new EdgeSwitch(simulation, datacenter);
+        final EdgeSwitch edge1 = new EdgeSwitch(simulation, datacenter);
+        final AggregateSwitch aggregate = new AggregateSwitch(simulation, datacenter);
+        edge0.setUplinkBandwidth(100);
+        edge0.getUplinkSwitches().add(aggregate);
+        edge1.getUplinkSwitches().add(aggregate);
+        aggregate.getDownlinkSwitches().add(edge0);
+        aggregate.getDownlinkSwitches().add(edge1);
+        for (int i = 0; i < hosts.size(); i++) {
+            final EdgeSwitch edge = i < hosts.size() / 2 ? edge0 : edge1;
+            edge.connectHost(hosts.get(i));
+            hosts.get(i).setEdgeSwitch(edge);
+        }
+
+        final FlowLevelNetwork network = datacenter.getFlowLevelNetwork();
+        final HostPacket interEdge0 = createPacket(hosts.get(0), hosts.get(2), 50);
+        final HostPacket interEdge1 = createPacket(hosts.get(1), hosts.get(3), 50);
+        final HostPacket intraEdge = createPacket(hosts.get(0), hosts.get(1), 1500);
+        //Flows are started when the first event is processed, since events can't be sent before the simulation starts
+        final double[] rates = new double[3];
+        simulation.addOnEventProcessingListener(evt -> {
+            if (network.getActiveFlowsNumber() > 0 || network.getFinishedFlowsNumber() > 0) {
+                return;
+            }
+
+            if (startInBatch) {
+                network.startFlows(Arrays.asList(interEdge0, interEdge1, intraEdge));
+            } else {
+                network.startFlow(interEdge0);
+                network.startFlow(interEdge1);
+                network.startFlow(intraEdge);
+            }
+
+            rates[0] = network.getRate(interEdge0);
+            rates[1] = network.getRate(interEdge1);
+            rates[2] = network.getRate(intraEdge);
+        });
+        simulation.start();
+
+        final double edgeUplinkShare = edge0.getUplinkBandwidth() / 2;
+        assertEquals(edgeUplinkShare, rates[0], 0.001);
+        assertEquals(edgeUplinkShare, rates[1], 0.001);
+        assertEquals(hosts.get(0).getBandwidth() - edgeUplinkShare, rates[2], 0.001);
+        assertEquals(3, network.getFinishedFlowsNumber());
+        assertEquals(1, interEdge0.getReceiveTime(), 0.001);
+        assertEquals(1, interEdge1.getReceiveTime(), 0.001);
+
+        //After 1 second, the remaining 750 Megabits are transferred using the whole Host bandwidth
+        final double expectedFinishTime = 1 + 750 / hosts.get(0).getBandwidth();
+        assertEquals(expectedFinishTime, intraEdge.getReceiveTime(), 0.001);
+    }
+
+    private static HostPacket createPacket(final NetworkHost source, final NetworkHost destination, final long megabits) {
+        final Vm sourceVm = new NetworkVm(HOST_MIPS, 1);
+        final Vm destinationVm = new NetworkVm(HOST_MIPS, 1);
+        sourceVm.setHost(source);
+        destinationVm.setHost(destination);
+        final VmPacket vmPkt = new VmPacket(sourceVm, destinationVm, megabits * MEGABIT_IN_BYTES, Cloudlet.NULL, Cloudlet.NULL);
+        return new HostPacket(source, vmPkt);
+    }
+
+    private DatacenterBroker runSimulation(final boolean flowLevel) {
+        networkEvents = 0;
+        final CloudSim simulation = new CloudSim();
+        simulation.addOnEventProcessingListener(evt -> {
+            if (evt.getTag() >= CloudSimTags.NETWORK_EVENT_UP && evt.getTag() <= CloudSimTags.NETWORK_EVENT_HOST ||
+                evt.getTag() == CloudSimTags.NETWORK_FLOW_UPDATE)
+            {
+                networkEvents++;
+            }
+        });
+
+        final NetworkDatacenter datacenter = createDatacenter(simulation, flowLevel);
+        final EdgeSwitch edgeSwitch = new EdgeSwitch(simulation, datacenter);
+        datacenter.addSwitch(edgeSwitch);
+        for (final NetworkHost host : datacenter.<NetworkHost>getHostList()) {
+            edgeSwitch.connectHost(host);
+            host.setEdgeSwitch(edgeSwitch);
+        }
+
+        final DatacenterBroker broker = new DatacenterBrokerSimple(simulation);
+        final List<NetworkVm> vms = createVms();
+        broker.submitVmList(vms);
+        broker.submitCloudletList(createCloudlets(vms));
+        simulation.start();
+        return broker;
+    }
+
+    private NetworkDatacenter createDatacenter(final CloudSim simulation, final boolean flowLevel) {
+        final List<NetworkHost> hosts = new ArrayList<>(HOSTS);
+        for (int i = 0; i < HOSTS; i++) {
+            final List<Pe> peList = new ArrayList<>(HOST_PES);
+            for (int j = 0; j < HOST_PES; j++) {
+                peList.add(new PeSimple(HOST_MIPS, new PeProvisionerSimple()));
+            }
+
+            final NetworkHost host = new NetworkHost(8192, 100000, 1000000, peList);
+            host.setVmScheduler(new VmSchedulerTimeShared());
+            hosts.add(host);
+        }
+
+        final NetworkDatacenter datacenter = new NetworkDatacenter(simulation, hosts, new VmAllocationPolicySimple());
+        datacenter.setFlowLevelNetworkEnabled(flowLevel).setSchedulingInterval(5);
+        return datacenter;
+    }
+
+    private List<NetworkVm> createVms() {
+        final List<NetworkVm> list = new ArrayList<>(HOSTS);
+        for (int i = 0; i < HOSTS; i++) {
+            final NetworkVm vm = new NetworkVm(i, HOST_MIPS, HOST_PES);
+            vm.setRam(1024).setBw(1000).setSize(10000).setCloudletScheduler(new CloudletSchedulerTimeShared());
+            list.add(vm);
+        }
+
+        return list;
+    }
+
+    /**
+     * Creates pairs of Cloudlets where the first one sends packets to the second one.
+     * @param vms the VMs to run the Cloudlets, one Cloudlet by VM
+     * @return
+     */
+    private List<NetworkCloudlet> createCloudlets(final List<NetworkVm> vms) {
+        final List<NetworkCloudlet> list = new ArrayList<>(SENDERS * 2);
+        for (int i = 0; i < SENDERS; i++) {
+            final NetworkCloudlet sender = createCloudlet(list.size(), vms.get(list.size()));
+            final NetworkCloudlet receiver = createCloudlet(list.size() + 1, vms.get(list.size() + 1));
+            sender.addTask(new CloudletExecutionTask(0, TASK_LENGTH));
+            final CloudletSendTask sendTask = new CloudletSendTask(1);
+            sender.addTask(sendTask);
+            for (int j = 0; j < PACKETS_BY_SENDER; j++) {
+                sendTask.addPacket(receiver, PACKET_BYTES);
+            }
+
+            final CloudletReceiveTask receiveTask = new CloudletReceiveTask(0, sender.getVm());
+            receiveTask.setExpectedPacketsToReceive(PACKETS_BY_SENDER);
+            receiver.addTask(receiveTask);
+            receiver.addTask(new CloudletExecutionTask(1, TASK_LENGTH));
+            list.add(sender);
+            list.add(receiver);
+        }
+
+        return list;
+    }
+
+    private static NetworkCloudlet createCloudlet(final int id, final Vm vm) {
+        final NetworkCloudlet cloudlet = new NetworkCloudlet(id, TASK_LENGTH, HOST_PES);
+        cloudlet.setFileSize(300).setOutputSize(300).setUtilizationModel(new UtilizationModelFull());
+        cloudlet.setVm(vm);
+        return cloudlet;
+    }
+}
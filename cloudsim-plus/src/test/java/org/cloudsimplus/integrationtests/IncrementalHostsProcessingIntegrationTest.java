@@ -0,0 +1,131 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.integrationtests;
+
+import ch.qos.logback.classic.Level;
+import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicyFirstFit;
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudsimplus.util.Log;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.cloudsimplus.integrationtests.IntegrationTestUtil.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * An Integration Test (IT) checking that the
+ * {@link DatacenterSimple#setIncrementalHostsProcessing(boolean) incremental processing} of Hosts
+ * produces the same energy consumption and Cloudlets finish times of the
+ * processing that updates all Hosts every time.
+ *
+ * <p>The incremental processing brings Hosts up to date before Cloudlets are submitted to them,
+ * but computes the energy consumed since the last processing update as the full processing does.
+ * Therefore, the energy must be the same, apart from rounding errors
+ * due to the different order the energy of Hosts is summed.</p>
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+public final class IncrementalHostsProcessingIntegrationTest {
+    private static final int HOSTS = 20;
+    private static final int HOST_PES = 4;
+    private static final int VMS = 30;
+    private static final int VM_PES = 2;
+    private static final int VMS_BY_HOST = HOST_PES / VM_PES;
+    private static final int CLOUDLETS_BY_VM = 2;
+    private static final double HOST_MAX_POWER = 200;
+
+    /**
+     * The maximum relative difference between the energy consumed using the incremental and full processing.
+     */
+    private static final double POWER_RELATIVE_TOLERANCE = 1e-9;
+
+    private DatacenterSimple datacenter;
+
+    @Before
+    public void setUp() {
+        Log.setLevel(Level.WARN);
+    }
+
+    @Test
+    public void testCloudletsSubmittedAtStart() {
+        assertSameResults(0);
+    }
+
+    @Test
+    public void testCloudletsSubmittedWithDelay() {
+        assertSameResults(3);
+    }
+
+    /**
+     * Checks if the incremental and full processing produce the same energy consumption and Cloudlets finish times.
+     * @param delay the submission delay of Cloudlets of every odd Host
+     */
+    private void assertSameResults(final double delay) {
+        final List<Cloudlet> expected = runSimulation(false, delay);
+        final double expectedPower = datacenter.getPower();
+        final List<Cloudlet> actual = runSimulation(true, delay);
+
+        assertTrue(expectedPower > 0);
+        assertEquals(expectedPower, datacenter.getPower(), expectedPower * POWER_RELATIVE_TOLERANCE);
+        IntegrationTestUtil.assertSameResults(VMS * CLOUDLETS_BY_VM, expected, actual, 0);
+    }
+
+    private List<Cloudlet> runSimulation(final boolean incremental, final double delay) {
+        final CloudSim simulation = new CloudSim();
+        datacenter = new DatacenterSimple(simulation, createHosts(), new VmAllocationPolicyFirstFit());
+        datacenter.setIncrementalHostsProcessing(incremental);
+
+        final DatacenterBrokerSimple broker = new DatacenterBrokerSimple(simulation);
+        final List<Vm> vms = createVms(VMS, VM_PES, 1024, CloudletSchedulerTimeShared::new);
+        broker.submitVmList(vms);
+        broker.submitCloudletList(createCloudlets(vms, delay));
+        simulation.start();
+
+        return getFinishedCloudlets(broker);
+    }
+
+    private List<Host> createHosts() {
+        final List<Host> list = IntegrationTestUtil.createHosts(HOSTS, HOST_PES, 4096, 10000);
+        list.forEach(host -> host.setPowerModel(new PowerModelLinear(HOST_MAX_POWER, 0.5)));
+        return list;
+    }
+
+    private List<Cloudlet> createCloudlets(final List<Vm> vms, final double delay) {
+        final List<Cloudlet> list = createCloudletsForVms(vms, CLOUDLETS_BY_VM);
+        //Delays the Cloudlets of all VMs in every odd Host (VMs are placed in order by the first fit policy)
+        list.stream()
+            .filter(cloudlet -> cloudlet.getVm().getId() / VMS_BY_HOST % 2 == 1)
+            .forEach(cloudlet -> cloudlet.setSubmissionDelay(delay));
+        return list;
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.integrationtests;
+
+import org.cloudbus.cloudsim.brokers.DatacenterBroker;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.cloudlets.CloudletSimple;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.hosts.HostSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.resources.Pe;
+import org.cloudbus.cloudsim.resources.PeSimple;
+import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletScheduler;
+import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.schedulers.vm.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.utilizationmodels.UtilizationModelFull;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudbus.cloudsim.vms.VmSimple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * An utility class used by Integration Tests (ITs) which compare
+ * the results of running the same scenario in different ways.
+ * It creates the Hosts, VMs and Cloudlets of such scenarios
+ * and checks that the results of the Cloudlets are the same.
+ *
+ * @author Manoel Campos da Silva Filho
+ * @since CloudSim Plus 4.1.0
+ */
+final class IntegrationTestUtil {
+    static final double PE_MIPS = 1000;
+    static final long HOST_RAM = 8192;
+    static final long HOST_BW = 100000;
+    static final long HOST_STORAGE = 1000000;
+    static final long VM_RAM = 512;
+    static final long VM_BW = 1000;
+    static final long VM_SIZE = 10000;
+
+    /**
+     * A private constructor to avoid class instantiation.
+     */
+    private IntegrationTestUtil(){/**/}
+
+    /**
+     * Creates Hosts using a {@link VmSchedulerTimeShared} and the default
+     * RAM, bandwidth and storage capacity.
+     *
+     * @param hosts the number of Hosts to create
+     * @param hostPes the number of PEs of each Host
+     * @return
+     */
+    static List<Host> createHosts(final int hosts, final int hostPes) {
+        return createHosts(hosts, hostPes, HOST_RAM, HOST_BW);
+    }
+
+    /**
+     * Creates Hosts using a {@link VmSchedulerTimeShared}.
+     *
+     * @param hosts the number of Hosts to create
+     * @param hostPes the number of PEs of each Host
+     * @param ram the RAM capacity of each Host
+     * @param bw the bandwidth capacity of each Host
+     * @return
+     */
+    static List<Host> createHosts(final int hosts, final int hostPes, final long ram, final long bw) {
+        final List<Host> list = new ArrayList<>(hosts);
+        for (int i = 0; i < hosts; i++) {
+            final List<Pe> peList = new ArrayList<>(hostPes);
+            for (int j = 0; j < hostPes; j++) {
+                peList.add(new PeSimple(PE_MIPS, new PeProvisionerSimple()));
+            }
+
+            list.add(new HostSimple(ram, bw, HOST_STORAGE, peList).setVmScheduler(new VmSchedulerTimeShared()));
+        }
+
+        return list;
+    }
+
+    /**
+     * Creates VMs using a {@link CloudletSchedulerTimeShared} and the default RAM capacity.
+     *
+     * @param vms the number of VMs to create, whose IDs go from 0 to vms-1
+     * @param vmPes the number of PEs of each VM
+     * @return
+     */
+    static List<Vm> createVms(final int vms, final int vmPes) {
+        return createVms(vms, vmPes, VM_RAM, CloudletSchedulerTimeShared::new);
+    }
+
+    /**
+     * Creates VMs.
+     *
+     * @param vms the number of VMs to create, whose IDs go from 0 to vms-1
+     * @param vmPes the number of PEs of each VM
+     * @param ram the RAM capacity of each VM
+     * @param schedulerSupplier a {@link Supplier} that creates the {@link CloudletScheduler} for each VM
+     * @return
+     */
+    static List<Vm> createVms(
+        final int vms, final int vmPes, final long ram,
+        final Supplier<CloudletScheduler> schedulerSupplier)
+    {
+        final List<Vm> list = new ArrayList<>(vms);
+        for (int i = 0; i < vms; i++) {
+            final Vm vm = new VmSimple(i, PE_MIPS, vmPes)
+                .setRam(ram).setBw(VM_BW).setSize(VM_SIZE)
+                .setCloudletScheduler(schedulerSupplier.get());
+            list.add(vm);
+        }
+
+        return list;
+    }
+
+    /**
+     * Creates single-PE Cloudlets using a {@link UtilizationModelFull},
+     * with 7 different lengths.
+     *
+     * @param cloudlets the number of Cloudlets to create, whose IDs go from 0 to cloudlets-1
+     * @return
+     * @see #createCloudlet(long, int)
+     */
+    static List<Cloudlet> createCloudlets(final int cloudlets) {
+        final List<Cloudlet> list = new ArrayList<>(cloudlets);
+        for (int i = 0; i < cloudlets; i++) {
+            list.add(createCloudlet(i, i));
+        }
+
+        return list;
+    }
+
+    /**
+     * Creates a single-PE Cloudlet using a {@link UtilizationModelFull}.
+     *
+     * @param id the Cloudlet ID
+     * @param lengthIndex a number defining the length of the Cloudlet,
+     *                    where each remainder of its division by 7 defines a different length
+     * @return
+     */
+    static Cloudlet createCloudlet(final long id, final int lengthIndex) {
+        return new CloudletSimple(id, 10000 + 1500 * (lengthIndex % 7), 1)
+            .setFileSize(1024)
+            .setOutputSize(1024)
+            .setUtilizationModel(new UtilizationModelFull());
+    }
+
+    /**
+     * Creates single-PE Cloudlets bound to given VMs,
+     * using a {@link UtilizationModelFull}.
+     *
+     * @param vms the VMs to bind the Cloudlets to
+     * @param cloudletsByVm the number of Cloudlets to create for each VM
+     * @return the created Cloudlets, whose IDs go from 0 to the number of created Cloudlets
+     */
+    static List<Cloudlet> createCloudletsForVms(final List<Vm> vms, final int cloudletsByVm) {
+        final List<Cloudlet> list = new ArrayList<>(vms.size() * cloudletsByVm);
+        for (final Vm vm : vms) {
+            for (int i = 0; i < cloudletsByVm; i++) {
+                final long length = 5000 + 1000 * ((vm.getId() + i) % 7);
+                final Cloudlet cloudlet = new CloudletSimple(list.size(), length, 1)
+                    .setUtilizationModel(new UtilizationModelFull());
+                cloudlet.setVm(vm);
+                list.add(cloudlet);
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Gets the Cloudlets finished by a broker, sorted by ID.
+     * @param broker the broker to get the finished Cloudlets
+     * @return
+     */
+    static List<Cloudlet> getFinishedCloudlets(final DatacenterBroker broker) {
+        return broker.getCloudletFinishedList()
+                     .stream()
+                     .sorted(comparingLong(Cloudlet::getId))
+                     .collect(toList());
+    }
+
+    /**
+     * Checks that Cloudlets from two simulation runs were entirely executed
+     * into the same VMs, starting at the same times and finishing at the same times
+     * (apart from a given tolerance).
+     *
+     * @param expectedCloudlets the number of Cloudlets expected to be finished
+     * @param expected the Cloudlets finished by the reference run, sorted by ID
+     * @param actual the Cloudlets finished by the run under test, sorted by ID
+     * @param finishTimeTolerance the maximum difference between the finish times of the same Cloudlet
+     */
+    static void assertSameResults(
+        final int expectedCloudlets, final List<Cloudlet> expected,
+        final List<Cloudlet> actual, final double finishTimeTolerance)
+    {
+        assertEquals(expectedCloudlets, expected.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            final Cloudlet e = expected.get(i);
+            final Cloudlet a = actual.get(i);
+            final String msg = String.format("Cloudlet %d", e.getId());
+            assertEquals(msg, e.getId(), a.getId());
+            assertEquals(msg, e.getVm().getId(), a.getVm().getId());
+            assertEquals(msg, e.getExecStartTime(), a.getExecStartTime(), 0);
+            assertEquals(msg, e.getFinishTime(), a.getFinishTime(), finishTimeTolerance);
+            assertEquals(msg, e.getLength(), a.getFinishedLengthSoFar());
+        }
+    }
+}
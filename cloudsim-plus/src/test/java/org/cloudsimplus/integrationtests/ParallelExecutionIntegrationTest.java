@@ -0,0 +1,363 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.integrationtests;
+
+import ch.qos.logback.classic.Level;
+import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicyFirstFit;
+import org.cloudbus.cloudsim.brokers.DatacenterBroker;
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimEntity;
+import org.cloudbus.cloudsim.core.events.SimEvent;
+import org.cloudbus.cloudsim.datacenters.Datacenter;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.distributions.UniformDistr;
+import org.cloudbus.cloudsim.network.topologies.BriteNetworkTopology;
+import org.cloudsimplus.faultinjection.HostFaultInjection;
+import org.cloudsimplus.util.Log;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
+import static org.cloudsimplus.integrationtests.IntegrationTestUtil.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks if a federated scenario, where each Datacenter is used by its own broker,
+ * produces the same results when entities are executed sequentially
+ * and when they are executed in parallel, grouped into logical processes.
+ * A {@link VmAllocationPolicyFirstFit} is used because it places VMs
+ * in a deterministic way.
+ *
+ * @author Manoel Campos da Silva Filho
+ * @see CloudSim#enableParallelExecution(ForkJoinPool)
+ */
+public final class ParallelExecutionIntegrationTest {
+    private static final int DATACENTERS = 8;
+    private static final int HOSTS = 4;
+    private static final int HOST_PES = 4;
+    private static final int VMS = 6;
+    private static final int VM_PES = 2;
+    private static final int CLOUDLETS = 20;
+    private static final long SEED = 31;
+
+    private List<Datacenter> datacenters;
+    private List<DatacenterBroker> brokers;
+
+    @Before
+    public void setUp() {
+        Log.setLevel(Level.WARN);
+    }
+
+    @Test
+    public void parallelResultsAreIdenticalToSequentialOnes() {
+        final List<String> sequential = runSimulation(false);
+        final List<String> parallel = runSimulation(true);
+
+        assertFalse(sequential.isEmpty());
+        assertEquals(DATACENTERS * CLOUDLETS, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void parallelResultsAreDeterministic() {
+        final List<String> expected = runSimulation(true);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected, runSimulation(true));
+        }
+    }
+
+    /**
+     * Checks that a {@link HostFaultInjection}, which isn't added to any logical process,
+     * injects failures at the same times Datacenters in logical processes are executing,
+     * getting the same results of the sequential execution.
+     */
+    @Test
+    public void parallelResultsWithHostFaultInjectionAreIdenticalToSequentialOnes() {
+        final List<String> sequential = runSimulation(false, true);
+        final List<String> parallel = runSimulation(true, true);
+
+        assertFalse(sequential.contains("Host faults: 0"));
+        assertEquals(sequential, parallel);
+    }
+
+    /**
+     * Checks that an entity inside a logical process cancels the events sent by an entity outside
+     * logical processes at the same simulation time, as the sequential execution does.
+     */
+    @Test
+    public void cancelEventsSentAtTheSameTimeByEntityOutsideLogicalProcesses() {
+        for (final boolean parallel : new boolean[]{false, true}) {
+            final CloudSim simulation = createSimulation(parallel);
+            final Probe receiver = new Probe(simulation, 1, probe -> {});
+            final Probe sender = new Probe(simulation, 1, probe -> probe.schedule(receiver, 5, Probe.MESSAGE));
+            final Probe canceller = new Probe(simulation, 1, probe -> simulation.cancelAll(sender, evt -> evt.getTag() == Probe.MESSAGE));
+            addLogicalProcesses(simulation, parallel, receiver, canceller);
+
+            simulation.start();
+            assertTrue(receiver.receivedTimes.isEmpty());
+        }
+    }
+
+    /**
+     * Checks that canceling events returns true just when some event was canceled,
+     * both for events in the future queue and for the ones buffered by
+     * the entity being executed inside a logical process.
+     */
+    @Test
+    public void cancelAllReturnsTrueJustWhenEventsAreCanceled() {
+        for (final boolean parallel : new boolean[]{false, true}) {
+            final CloudSim simulation = createSimulation(parallel);
+            final List<Boolean> results = new ArrayList<>();
+            final Probe receiver = new Probe(simulation, 1, probe -> {});
+            final Probe sender = new Probe(simulation, 1, probe -> {
+                //The event is buffered into the outbox of the sender when executing in parallel
+                probe.schedule(receiver, 5, Probe.MESSAGE);
+                results.add(simulation.cancelAll(probe, evt -> evt.getTag() == Probe.MESSAGE));
+                results.add(simulation.cancelAll(probe, evt -> evt.getTag() == Probe.MESSAGE));
+                probe.schedule(receiver, 5, Probe.MESSAGE);
+            });
+            //Runs at the same time of the sender, so that logical processes are executed in parallel
+            final Probe other = new Probe(simulation, 1, probe -> {});
+            final Probe canceller = new Probe(simulation, 2, probe -> {
+                results.add(simulation.cancelAll(receiver, evt -> true));
+                results.add(simulation.cancelAll(sender, evt -> evt.getTag() == Probe.MESSAGE));
+            });
+            addLogicalProcesses(simulation, parallel, sender, other);
+
+            simulation.start();
+            assertEquals(Arrays.asList(true, false, false, true), results);
+            assertTrue(receiver.receivedTimes.isEmpty());
+        }
+    }
+
+    /**
+     * Checks that entities created at the same simulation time by entities
+     * in different logical processes receive the ids given by the sequential execution
+     * and are started.
+     */
+    @Test
+    public void entitiesCreatedInsideLogicalProcessesGetSequentialIds() {
+        final List<String> expected = runEntityCreation(false);
+        assertEquals(expected, runEntityCreation(true));
+    }
+
+    private List<String> runEntityCreation(final boolean parallel) {
+        final CloudSim simulation = createSimulation(parallel);
+        final Probe receiver = new Probe(simulation, 3, probe -> {});
+        final Consumer<Probe> creator = probe -> probe.child = new Probe(simulation, 1, child -> child.schedule(receiver, 0, Probe.MESSAGE));
+        final Probe creator1 = new Probe(simulation, 1, creator);
+        final Probe creator2 = new Probe(simulation, 1, creator);
+        addLogicalProcesses(simulation, parallel, creator2, creator1, receiver);
+
+        simulation.start();
+        assertEquals(2, receiver.receivedTimes.size());
+        final List<String> result = new ArrayList<>();
+        result.add(creator1.child.getName());
+        result.add(creator2.child.getName());
+        result.add(receiver.receivedTimes.toString());
+        return result;
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void countFutureEventsInsideLogicalProcess() {
+        final CloudSim simulation = createSimulation(true);
+        final Probe counter = new Probe(simulation, 1, probe -> simulation.getNumberOfFutureEvents(evt -> true));
+        final Probe other = new Probe(simulation, 1, probe -> {});
+        addLogicalProcesses(simulation, true, counter, other);
+        simulation.start();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cancelEventsSentByEntityInsideAnotherLogicalProcess() {
+        final CloudSim simulation = createSimulation(true);
+        final Probe sender = new Probe(simulation, 1, probe -> probe.schedule(probe, 5, Probe.MESSAGE));
+        final Probe canceller = new Probe(simulation, 1, probe -> simulation.cancelAll(sender, evt -> true));
+        addLogicalProcesses(simulation, true, sender, canceller);
+        simulation.start();
+    }
+
+    private CloudSim createSimulation(final boolean parallel) {
+        final CloudSim simulation = new CloudSim();
+        if (parallel) {
+            simulation.enableParallelExecution(ForkJoinPool.commonPool());
+        }
+
+        return simulation;
+    }
+
+    /**
+     * Adds each given entity to a separate logical process.
+     * @param simulation the simulation to add the logical processes
+     * @param parallel true if the parallel execution is enabled, false otherwise (in which case nothing is done)
+     * @param entities the entities to add to logical processes
+     */
+    private void addLogicalProcesses(final CloudSim simulation, final boolean parallel, final CloudSimEntity... entities) {
+        if (parallel) {
+            for (final CloudSimEntity entity : entities) {
+                simulation.addLogicalProcess(entity);
+            }
+        }
+    }
+
+    private List<String> runSimulation(final boolean parallel) {
+        return runSimulation(parallel, false);
+    }
+
+    /**
+     * Runs the simulation scenario.
+     * @param parallel true to execute each Datacenter and its broker as a separate logical process,
+     *                 false to use the sequential execution
+     * @param faultInjection true to inject failures into the Hosts of the first Datacenter
+     * @return a description of the execution of each finished Cloudlet
+     *         (and the number of Host faults, if failures are injected)
+     */
+    private List<String> runSimulation(final boolean parallel, final boolean faultInjection) {
+        final CloudSim simulation = createSimulation(parallel);
+        datacenters = new ArrayList<>(DATACENTERS);
+        brokers = new ArrayList<>(DATACENTERS);
+        for (int i = 0; i < DATACENTERS; i++) {
+            final Datacenter dc = createDatacenter(simulation);
+            final DatacenterBroker broker = new DatacenterBrokerSimple(simulation);
+            broker.setDatacenterSupplier(() -> dc);
+            broker.submitVmList(createVms(VMS, VM_PES));
+            broker.submitCloudletList(createCloudlets(i));
+            datacenters.add(dc);
+            brokers.add(broker);
+            if (parallel) {
+                simulation.addLogicalProcess(dc, broker);
+            }
+        }
+
+        final HostFaultInjection fault = faultInjection ? createFaultInjection() : null;
+        simulation.setNetworkTopology(createNetworkTopology());
+        simulation.start();
+
+        final List<String> result =
+            brokers.stream()
+                   .flatMap(broker -> broker.getCloudletFinishedList().stream())
+                   .sorted(comparingLong(Cloudlet::getId))
+                   .map(this::describe)
+                   .collect(toList());
+        if (fault != null) {
+            result.add("Host faults: " + fault.getNumberOfHostFaults());
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates a fault injection for the first Datacenter,
+     * with failures arriving every few seconds.
+     * @return
+     */
+    private HostFaultInjection createFaultInjection() {
+        final HostFaultInjection fault = new HostFaultInjection(datacenters.get(0), new UniformDistr(0.0002, 0.001, SEED));
+        fault.setMaxTimeToFailInHours(0.005);
+        return fault;
+    }
+
+    /**
+     * Creates a network where each broker has a different latency to its Datacenter.
+     * @return
+     */
+    private BriteNetworkTopology createNetworkTopology() {
+        final BriteNetworkTopology topology = new BriteNetworkTopology();
+        for (int i = 0; i < DATACENTERS; i++) {
+            topology.addLink(brokers.get(i).getId(), datacenters.get(i).getId(), 1000, 0.5 + i);
+        }
+
+        return topology;
+    }
+
+    private String describe(final Cloudlet cloudlet) {
+        return String.format(
+            "Cloudlet %d on Vm %d of Host %d in %s: start %.6f finish %.6f",
+            cloudlet.getId(), cloudlet.getVm().getId(), cloudlet.getVm().getHost().getId(),
+            cloudlet.getLastDatacenter().getName(), cloudlet.getExecStartTime(), cloudlet.getFinishTime());
+    }
+
+    private Datacenter createDatacenter(final CloudSim simulation) {
+        final Datacenter dc = new DatacenterSimple(simulation, createHosts(HOSTS, HOST_PES), new VmAllocationPolicyFirstFit());
+        dc.setSchedulingInterval(2);
+        return dc;
+    }
+
+    private List<Cloudlet> createCloudlets(final int datacenterIndex) {
+        final List<Cloudlet> list = new ArrayList<>(CLOUDLETS);
+        for (int i = 0; i < CLOUDLETS; i++) {
+            final Cloudlet cloudlet = createCloudlet(datacenterIndex * CLOUDLETS + i, i + datacenterIndex);
+            cloudlet.setSubmissionDelay(i % 3);
+            list.add(cloudlet);
+        }
+
+        return list;
+    }
+
+    /**
+     * An entity that executes an action at a given time
+     * and stores the times it receives {@link #MESSAGE} events.
+     */
+    private static final class Probe extends CloudSimEntity {
+        private static final int ACTION = 1;
+        private static final int MESSAGE = 2;
+
+        private final double actionTime;
+        private final Consumer<Probe> action;
+        private final List<Double> receivedTimes = new ArrayList<>();
+
+        /** An entity created by the action. */
+        private Probe child;
+
+        Probe(final CloudSim simulation, final double actionTime, final Consumer<Probe> action) {
+            super(simulation);
+            this.actionTime = actionTime;
+            this.action = action;
+        }
+
+        @Override
+        protected void startEntity() {
+            schedule(this, actionTime, ACTION);
+        }
+
+        @Override
+        public void processEvent(final SimEvent evt) {
+            if (evt.getTag() == ACTION) {
+                action.accept(this);
+            } else if (evt.getTag() == MESSAGE) {
+                receivedTimes.add(evt.getTime());
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.integrationtests;
+
+import ch.qos.logback.classic.Level;
+import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicyFirstFit;
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.schedulers.cloudlet.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.cloudsimplus.util.Log;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.cloudsimplus.integrationtests.IntegrationTestUtil.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * An Integration Test (IT) checking that updating the processing of Hosts in parallel
+ * (see {@link DatacenterSimple#setHostsProcessingExecutor(java.util.concurrent.ExecutorService)})
+ * produces exactly the same results of the sequential update,
+ * including while VMs are being migrated between Hosts.
+ *
+ * @author Manoel Campos da Silva Filho
+ */
+public final class ParallelHostsProcessingIntegrationTest {
+    private static final int HOSTS = 2 * DatacenterSimple.MIN_HOSTS_PER_PROCESSING_TASK;
+    private static final int HOST_PES = 4;
+    private static final int VM_PES = 2;
+    private static final int CLOUDLETS_BY_VM = 2;
+    private static final int SOURCE_HOSTS = 20;
+    private static final double MIGRATIONS_TIME = 2;
+
+    private DatacenterSimple datacenter;
+    private int migratedVms;
+
+    @Before
+    public void setUp() {
+        Log.setLevel(Level.WARN);
+    }
+
+    @Test
+    public void testParallelProcessingProducesSameResults() {
+        final List<Cloudlet> expected = runSimulation(false);
+        final double expectedPower = datacenter.getPower();
+        final int expectedMigrations = migratedVms;
+
+        final List<Cloudlet> actual = runSimulation(true);
+        assertEquals(SOURCE_HOSTS * HOST_PES / VM_PES, expectedMigrations);
+        assertEquals(expectedMigrations, migratedVms);
+        assertTrue(expectedPower > 0);
+        assertEquals(expectedPower, datacenter.getPower(), 0);
+
+        assertSameResults(HOSTS * CLOUDLETS_BY_VM, expected, actual, 0);
+    }
+
+    private List<Cloudlet> runSimulation(final boolean parallel) {
+        migratedVms = 0;
+        final CloudSim simulation = new CloudSim();
+        datacenter = new DatacenterSimple(simulation, createHosts(), new MigrationPolicy(simulation));
+        datacenter.enableMigrations();
+        datacenter.setSchedulingInterval(1);
+        simulation.addOnEventProcessingListener(evt -> {
+            if (evt.getTag() == CloudSimTags.VM_MIGRATE) {
+                migratedVms++;
+            }
+        });
+        final ForkJoinPool pool = parallel ? new ForkJoinPool(4) : null;
+        datacenter.setHostsProcessingExecutor(pool);
+
+        final DatacenterBrokerSimple broker = new DatacenterBrokerSimple(simulation);
+        final List<Vm> vms = createVms(HOSTS, VM_PES, 1024, CloudletSchedulerTimeShared::new);
+        broker.submitVmList(vms);
+        broker.submitCloudletList(createCloudletsForVms(vms, CLOUDLETS_BY_VM));
+        simulation.start();
+        if (pool != null) {
+            pool.shutdown();
+        }
+
+        return getFinishedCloudlets(broker);
+    }
+
+    private List<Host> createHosts() {
+        final List<Host> list = IntegrationTestUtil.createHosts(HOSTS, HOST_PES, 4096, 10000);
+        list.forEach(host -> host.setPowerModel(new PowerModelLinear(200, 0.5)));
+        return list;
+    }
+
+    /**
+     * A policy that places VMs in a deterministic order
+     * (so that both simulation runs have the same initial placement)
+     * and requests the migration of the VMs in the first Hosts
+     * to Hosts in the second half of the Host list, once a given time is reached.
+     */
+    private static final class MigrationPolicy extends VmAllocationPolicyFirstFit {
+        private final CloudSim simulation;
+        private boolean migrationsRequested;
+
+        private MigrationPolicy(final CloudSim simulation) {
+            this.simulation = simulation;
+        }
+
+        @Override
+        public Map<Vm, Host> getOptimizedAllocationMap(final List<? extends Vm> vmList) {
+            if (migrationsRequested || simulation.clock() < MIGRATIONS_TIME) {
+                return Collections.emptyMap();
+            }
+
+            migrationsRequested = true;
+            final Map<Vm, Host> map = new LinkedHashMap<>();
+            for (final Vm vm : vmList) {
+                if (vm.getHost().getId() < SOURCE_HOSTS) {
+                    map.put(vm, getHostList().get((int) vm.getHost().getId() + HOSTS / 2));
+                }
+            }
+
+            return map;
+        }
+    }
+}
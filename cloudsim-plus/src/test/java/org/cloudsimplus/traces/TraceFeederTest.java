@@ -0,0 +1,64 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2018 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.traces;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Manoel Campos da Silva Filho
+ */
+public class TraceFeederTest {
+    @Test
+    public void testFeedRecordsInsideLookAheadWindow() {
+        final CloudSim simulation = new CloudSim();
+        final List<Double> records = new ArrayList<>(Arrays.asList(0.0, 10.0, 20.0, 500.0, 2000.0, 2010.0));
+        final List<Double> feedingTimes = new ArrayList<>();
+        final List<Double> fedRecords = new ArrayList<>();
+
+        final TraceFeeder feeder = new TraceFeeder(simulation, 50, time -> {
+            feedingTimes.add(simulation.clock());
+            while (!records.isEmpty() && records.get(0) <= time) {
+                fedRecords.add(records.remove(0));
+            }
+
+            return records.isEmpty() ? -1 : records.get(0);
+        });
+
+        feeder.start();
+        assertEquals(Arrays.asList(0.0, 10.0, 20.0), fedRecords);
+        simulation.start();
+
+        assertTrue(feeder.isFinished());
+        assertEquals(Arrays.asList(0.0, 10.0, 20.0, 500.0, 2000.0, 2010.0), fedRecords);
+        assertEquals(Arrays.asList(0.0, 450.0, 1950.0, 1960.0), feedingTimes);
+    }
+}